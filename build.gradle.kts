@@ -2,6 +2,7 @@ plugins {
     `java-library`
     `maven-publish`
     id("jacoco")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 java {
@@ -41,6 +42,15 @@ dependencies {
     testImplementation("org.mockito:mockito-core:5.12.0")
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    // Allocation figures come from the GC profiler: ./gradlew jmh -Pjmh.profilers=gc
+    profilers.set(listOfNotNull(project.findProperty("jmh.profilers") as String?))
+    includes.set(listOfNotNull(project.findProperty("jmh.includes") as String?))
+    resultFormat.set("TEXT")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.txt"))
+}
+
 tasks.test {
     useJUnitPlatform()
     finalizedBy(tasks.jacocoTestReport)
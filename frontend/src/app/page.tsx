@@ -2,8 +2,9 @@
 
 import { useCallback, useEffect, useMemo, useRef, useState } from "react";
 import type { HeapPoint, MetricsSnapshot } from "@/lib/types";
-import { formatBytes, formatMillis, formatNumber, toFixed } from "@/lib/format";
-import { EIDOLON_WS_URL, SNAPSHOT_HTTP_URL } from "@/lib/config";
+import { formatBytes, formatMillis, formatNumber, formatPercent, toFixed } from "@/lib/format";
+import { BINARY_SUBPROTOCOL, decodeBinary } from "@/lib/binary";
+import { EIDOLON_WS_ENCODING, EIDOLON_WS_URL, SNAPSHOT_HTTP_URL } from "@/lib/config";
 import HeapChart from "@/components/HeapChart";
 import StatCard from "@/components/StatCard";
 
@@ -48,14 +49,17 @@ export default function Dashboard() {
   const onMessage = useCallback((ev: MessageEvent) => {
     try {
       // Server may also send "pong" (string), so guard JSON parsing
-      const data = JSON.parse(ev.data) as MetricsSnapshot;
+      const data =
+        ev.data instanceof ArrayBuffer
+          ? decodeBinary<MetricsSnapshot>(ev.data)
+          : (JSON.parse(ev.data) as MetricsSnapshot);
       setSnap(data);
       setPoints((prev) => [
         ...prev.slice(-299),
         { t: data.timestampMillis, used: data.heap.used, max: data.heap.max }
       ]);
     } catch {
-      // ignore non-JSON
+      // ignore non-JSON and undecodable frames
     }
   }, []);
 
@@ -69,7 +73,11 @@ export default function Dashboard() {
       wsRef.current = null;
     }
     try {
-      const ws = new WebSocket(EIDOLON_WS_URL);
+      const ws =
+        EIDOLON_WS_ENCODING === "binary"
+          ? new WebSocket(EIDOLON_WS_URL, [BINARY_SUBPROTOCOL])
+          : new WebSocket(EIDOLON_WS_URL);
+      ws.binaryType = "arraybuffer";
       wsRef.current = ws;
       ws.onopen = () => setStatus("open");
       ws.onmessage = onMessage;
@@ -289,6 +297,115 @@ export default function Dashboard() {
         </div>
       </div>
 
+      {/* Hot threads: top CPU and allocation over the last collection interval */}
+      <div className="panel" style={{ marginTop: 16 }}>
+        <div className="label">Hot Threads</div>
+        <div className="subtle" style={{ marginTop: 6 }}>
+          {snap?.hotThreads
+            ? `Over the last ${formatMillis(snap.hotThreads.intervalMillis)}`
+            : "Not available"}
+        </div>
+        {snap?.hotThreads && (
+          <div style={{ display: "flex", gap: 12, marginTop: 8, overflowX: "auto" }}>
+            <table className="table" style={{ flex: 1 }}>
+              <thead>
+                <tr>
+                  <th>Thread</th>
+                  <th>State</th>
+                  <th>CPU</th>
+                </tr>
+              </thead>
+              <tbody>
+                {snap.hotThreads.byCpu.length > 0 ? (
+                  snap.hotThreads.byCpu.map((t) => (
+                    <tr key={t.threadId}>
+                      <td>{t.threadName}</td>
+                      <td className="subtle">{t.threadState}</td>
+                      <td>{formatPercent(t.cpuUsage, 1)}</td>
+                    </tr>
+                  ))
+                ) : (
+                  <tr>
+                    <td className="subtle" colSpan={3}>
+                      {snap.hotThreads.cpuTimeSupported ? "No CPU time used" : "CPU time not supported"}
+                    </td>
+                  </tr>
+                )}
+              </tbody>
+            </table>
+            <table className="table" style={{ flex: 1 }}>
+              <thead>
+                <tr>
+                  <th>Thread</th>
+                  <th>State</th>
+                  <th>Allocation</th>
+                </tr>
+              </thead>
+              <tbody>
+                {snap.hotThreads.byAllocation.length > 0 ? (
+                  snap.hotThreads.byAllocation.map((t) => (
+                    <tr key={t.threadId}>
+                      <td>{t.threadName}</td>
+                      <td className="subtle">{t.threadState}</td>
+                      <td>{formatBytes(t.allocationRateBytesPerSec)}/s</td>
+                    </tr>
+                  ))
+                ) : (
+                  <tr>
+                    <td className="subtle" colSpan={3}>
+                      {snap.hotThreads.allocationSupported ? "No allocation" : "Allocation not supported"}
+                    </td>
+                  </tr>
+                )}
+              </tbody>
+            </table>
+          </div>
+        )}
+      </div>
+
+      {/* JFR events: safepoints, lock contention, parks and GC pauses over the last interval */}
+      <div className="panel" style={{ marginTop: 16 }}>
+        <div className="label">JVM Events (JFR)</div>
+        {!snap?.jfrEvents && (
+          <div className="subtle" style={{ marginTop: 6 }}>Not enabled (-Deidolon.jfr.enabled=true)</div>
+        )}
+        {snap?.jfrEvents && (
+          <div style={{ overflowX: "auto", marginTop: 8 }}>
+            <table className="table">
+              <thead>
+                <tr>
+                  <th>Event</th>
+                  <th>Window</th>
+                  <th>Count</th>
+                  <th>Total</th>
+                  <th>Max</th>
+                  <th>Longest</th>
+                </tr>
+              </thead>
+              <tbody>
+                {snap.jfrEvents.map((e) => {
+                  const w = e.interval ?? e.cumulative;
+                  return (
+                    <tr key={e.event}>
+                      <td>
+                        {e.event} <span className="subtle">≥ {e.thresholdMillis} ms</span>
+                      </td>
+                      <td className="subtle">{formatMillis(w.toMillis - w.fromMillis)}</td>
+                      <td>{formatNumber(w.count)}</td>
+                      <td>{toFixed(w.totalNanos / 1e6, 1)} ms</td>
+                      <td>{toFixed(w.maxNanos / 1e6, 1)} ms</td>
+                      <td className="subtle">
+                        {[w.maxThread, w.maxDetail].filter(Boolean).join(" · ") || "–"}
+                      </td>
+                    </tr>
+                  );
+                })}
+              </tbody>
+            </table>
+          </div>
+        )}
+      </div>
+
       {/* String table (optional) */}
       <div className="panel" style={{ marginTop: 16 }}>
         <div className="label">String Table</div>
@@ -0,0 +1,91 @@
+import { decodeBinary } from '@/lib/binary';
+import type { DeltaFrame } from '@/lib/types';
+
+function hex(s: string): Uint8Array {
+  const out = new Uint8Array(s.length / 2);
+  for (let i = 0; i < out.length; i++) out[i] = parseInt(s.slice(i * 2, i * 2 + 2), 16);
+  return out;
+}
+
+// BinaryEncoder output for a delta frame with two pools (the second reuses "HEAP") and a thread section.
+const DELTA_FRAME =
+  'e1010802050564656c74610303d8040403d6040503f6a1abfef9620807020813050d4731204564656e2053706163650205044845415014' +
+  '081203000f030110032811030100000813050a4731204f6c642047656e02060214081203000f033c1003501103640000090816030e1703' +
+  '061803121903541a0801050852554e4e41424c450308000000';
+
+describe('decodeBinary', () => {
+  it('decodes a server frame into the JSON shape', () => {
+    const frame = decodeBinary<DeltaFrame>(hex(DELTA_FRAME));
+    expect(frame.type).toBe('delta');
+    expect(frame.seq).toBe(300);
+    expect(frame.baseSeq).toBe(299);
+    expect(frame.timestampMillis).toBe(1700000000123);
+    expect(frame.pools?.map((p) => p.name)).toEqual(['G1 Eden Space', 'G1 Old Gen']);
+    expect(frame.pools?.[1].type).toBe('HEAP');
+    expect(frame.pools?.[0].usage).toEqual({ init: 0, used: -1, committed: 20, max: -1 });
+    expect(frame.pools?.[0].collectionUsage).toBeUndefined();
+    expect(frame.threads).toEqual({
+      threadCount: 7,
+      daemonThreadCount: 3,
+      peakThreadCount: 9,
+      totalStartedThreadCount: 42,
+      stateCounts: { RUNNABLE: 4 },
+    });
+  });
+
+  it('decodes hot threads', () => {
+    // BinaryEncoder output for a delta frame whose only change is the hot-threads ranking.
+    const frame = decodeBinary<DeltaFrame>(hex(
+      'e1010802050564656c746103030404030205030a38083903d00f3a023b023c0701083e03183f0508776f726b65722d3140050852' +
+        '554e4e41424c4541038094ebdc034204000000000000e03f2b0380204304000000000000a040003d0701083e03183f0601400602' +
+        '41038094ebdc034204000000000000e03f2b0380204304000000000000a040000000',
+    ));
+    expect(frame.hotThreads?.intervalMillis).toBe(1000);
+    expect(frame.hotThreads?.allocationSupported).toBe(true);
+    expect(frame.hotThreads?.byCpu[0]).toEqual({
+      threadId: 12,
+      threadName: 'worker-1',
+      threadState: 'RUNNABLE',
+      cpuTimeNanos: 500000000,
+      cpuUsage: 0.5,
+      allocatedBytes: 2048,
+      allocationRateBytesPerSec: 2048,
+    });
+    expect(frame.hotThreads?.byAllocation[0].threadName).toBe('worker-1');
+  });
+
+  it('decodes JFR event summaries', () => {
+    // BinaryEncoder output for a delta frame whose only change is the JFR summaries.
+    const frame = decodeBinary<DeltaFrame>(hex(
+      'e1010802050564656c74610303040403020503f02e4407010845050d6d6f6e69746f722d656e7465724603282e083003d00f3103' +
+        'f02e320306470380c6868f01480380aaea55490508776f726b65722d324a0510636f6d2e6578616d706c652e506f6f6c002f0830' +
+        '03a01f3103f02e320302470380aaea55480380aaea554906024a0603000000',
+    ));
+    const monitor = frame.jfrEvents?.[0];
+    expect(monitor?.event).toBe('monitor-enter');
+    expect(monitor?.thresholdMillis).toBe(20);
+    expect(monitor?.cumulative).toEqual({
+      fromMillis: 1000,
+      toMillis: 3000,
+      count: 3,
+      totalNanos: 150000000,
+      maxNanos: 90000000,
+      maxThread: 'worker-2',
+      maxDetail: 'com.example.Pool',
+    });
+    expect(monitor?.interval?.count).toBe(1);
+    expect(monitor?.interval?.maxThread).toBe('worker-2');
+  });
+
+  it('reads doubles, booleans, packed arrays and offsets into a larger buffer', () => {
+    // [1.5, true, null, int array [-2, 300]] behind two bytes of padding
+    const bytes = hex('ffff' + 'e101' + '0704' + '04000000000000f83f' + '02' + '00' + '0902' + '03d804');
+    const value = decodeBinary(new Uint8Array(bytes.buffer, 2));
+    expect(value).toEqual([1.5, true, null, [-2, 300]]);
+  });
+
+  it('rejects foreign frames', () => {
+    expect(() => decodeBinary(hex('7b7d'))).toThrow('not an eidolon binary frame');
+    expect(() => decodeBinary(hex('e102'))).toThrow('unsupported binary version 2');
+  });
+});
@@ -0,0 +1,60 @@
+import { applyFrame } from '@/lib/delta';
+import type { MetricsSnapshot } from '@/lib/types';
+
+const base: MetricsSnapshot = {
+  timestampMillis: 1,
+  heap: {
+    used: 10,
+    committed: 20,
+    max: 30,
+    pools: [
+      { name: 'Eden', type: 'HEAP', usage: { init: 0, used: 1, committed: 2, max: 3 }, collectionUsage: null },
+      { name: 'Old', type: 'HEAP', usage: { init: 0, used: 4, committed: 5, max: 6 }, collectionUsage: null },
+    ],
+  },
+  threads: { threadCount: 1, daemonThreadCount: 0, peakThreadCount: 1, totalStartedThreadCount: 1, stateCounts: {} },
+  classes: { loadedClassCount: 1, totalLoadedClassCount: 1, unloadedClassCount: 0 },
+  recentGcEvents: [],
+};
+
+describe('applyFrame', () => {
+  it('takes keyframes as-is', () => {
+    const s = applyFrame(null, { type: 'keyframe', seq: 3, snapshot: base });
+    expect(s?.seq).toBe(3);
+    expect(s?.snapshot).toBe(base);
+  });
+
+  it('merges changed sections, pools by name, and appends gc events', () => {
+    const s0 = applyFrame(null, { type: 'keyframe', seq: 1, snapshot: base });
+    const s1 = applyFrame(s0, {
+      type: 'delta',
+      seq: 2,
+      baseSeq: 1,
+      timestampMillis: 5,
+      heap: { used: 11, committed: 20, max: 30 },
+      pools: [{ name: 'Eden', type: 'HEAP', usage: { init: 0, used: 9, committed: 2, max: 3 }, collectionUsage: null }],
+      gcEvents: [{ seq: 1, gcName: 'G1', gcAction: 'minor', gcCause: 'x', startTimeMillis: 1, durationMillis: 2 }],
+      gcPauses: [
+        {
+          gcName: 'G1',
+          gcAction: 'minor',
+          cumulative: { fromMillis: 0, toMillis: 5, count: 1, p50Millis: 2, p90Millis: 2, p99Millis: 2, p999Millis: 2, maxMillis: 2 },
+          interval: null,
+        },
+      ],
+    });
+    expect(s1?.seq).toBe(2);
+    expect(s1?.snapshot.timestampMillis).toBe(5);
+    expect(s1?.snapshot.heap.used).toBe(11);
+    expect(s1?.snapshot.heap.pools.map((p) => p.usage.used)).toEqual([9, 4]);
+    expect(s1?.snapshot.threads).toBe(base.threads);
+    expect(s1?.snapshot.recentGcEvents).toHaveLength(1);
+    expect(s1?.snapshot.gcPauses?.[0].cumulative.p99Millis).toBe(2);
+  });
+
+  it('rejects deltas that do not follow the current seq', () => {
+    const s0 = applyFrame(null, { type: 'keyframe', seq: 1, snapshot: base });
+    expect(applyFrame(s0, { type: 'delta', seq: 3, baseSeq: 2, timestampMillis: 5 })).toBeNull();
+    expect(applyFrame(null, { type: 'delta', seq: 2, baseSeq: 1, timestampMillis: 5 })).toBeNull();
+  });
+});
@@ -0,0 +1,13 @@
+import { subscribeMessage } from '@/lib/subscription';
+
+describe('subscribeMessage', () => {
+  it('encodes sections, interval and name filters', () => {
+    expect(
+      subscribeMessage({ sections: ['heap', 'pools'], intervalMillis: 100, pools: ['G1 Eden Space', 'G1 Old Gen'] }),
+    ).toBe('subscribe?sections=heap%2Cpools&interval=100&pools=G1+Eden+Space%2CG1+Old+Gen');
+  });
+
+  it('falls back to server defaults when empty', () => {
+    expect(subscribeMessage({})).toBe('subscribe');
+  });
+});
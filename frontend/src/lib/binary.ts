@@ -0,0 +1,160 @@
+/**
+ * Decoder for the binary /ws/metrics encoding (?encoding=binary or the eidolon.binary.v1
+ * subprotocol). Mirrors io.github.itzamic.eidolon.ws.BinaryEncoder; decoded values have the same
+ * shape as the JSON payloads, except that null fields are absent rather than null.
+ */
+
+/** WebSocket subprotocol that asks the server for binary frames. */
+export const BINARY_SUBPROTOCOL = "eidolon.binary.v1";
+
+const MAGIC = 0xe1;
+const VERSION = 1;
+
+const NULL = 0;
+const FALSE = 1;
+const TRUE = 2;
+const INT = 3;
+const DOUBLE = 4;
+const STRING = 5;
+const STRING_REF = 6;
+const ARRAY = 7;
+const OBJECT = 8;
+const INT_ARRAY = 9;
+const DOUBLE_ARRAY = 10;
+
+/** Field ids, in the order of BinaryEncoder.FIELDS. Append-only. */
+export const FIELDS: readonly string[] = [
+  // frames and snapshot
+  "type", "seq", "baseSeq", "timestampMillis", "snapshot", "heap", "pools", "threads", "classes",
+  "stringTable", "gcEvents", "gcPauses", "recentGcEvents",
+  // heap and pools
+  "used", "committed", "max", "init", "name", "usage", "collectionUsage",
+  // threads and classes
+  "threadCount", "daemonThreadCount", "peakThreadCount", "totalStartedThreadCount", "stateCounts",
+  "loadedClassCount", "totalLoadedClassCount", "unloadedClassCount",
+  // string table
+  "available", "tableSize", "bucketCount", "entryCount", "totalMemoryBytes", "rawAttributes",
+  // gc events
+  "gcName", "gcAction", "gcCause", "startTimeMillis", "durationMillis", "poolUsedBefore", "poolUsedAfter",
+  "allocatedBytes", "promotedBytes", "reclaimedBytes",
+  // gc pauses
+  "cumulative", "interval", "fromMillis", "toMillis", "count",
+  "p50Millis", "p90Millis", "p99Millis", "p999Millis", "maxMillis",
+  // hot threads
+  "hotThreads", "intervalMillis", "cpuTimeSupported", "allocationSupported", "byCpu", "byAllocation",
+  "threadId", "threadName", "threadState", "cpuTimeNanos", "cpuUsage", "allocationRateBytesPerSec",
+  // jfr events
+  "jfrEvents", "event", "thresholdMillis", "totalNanos", "maxNanos", "maxThread", "maxDetail",
+];
+
+const utf8 = new TextDecoder();
+
+class Reader {
+  private pos = 0;
+  private readonly strings: string[] = [];
+
+  constructor(private readonly view: DataView) {}
+
+  done(): boolean {
+    return this.pos === this.view.byteLength;
+  }
+
+  byte(): number {
+    return this.view.getUint8(this.pos++);
+  }
+
+  // Number arithmetic rather than bit operators, which would truncate to 32 bits.
+  varint(): number {
+    let v = 0;
+    let scale = 1;
+    for (;;) {
+      const b = this.byte();
+      v += (b & 0x7f) * scale;
+      if (b < 0x80) return v;
+      scale *= 128;
+    }
+  }
+
+  zigzag(): number {
+    const v = this.varint();
+    return v % 2 === 0 ? v / 2 : -(v + 1) / 2;
+  }
+
+  double(): number {
+    const v = this.view.getFloat64(this.pos, true);
+    this.pos += 8;
+    return v;
+  }
+
+  value(): unknown {
+    const tag = this.byte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case FALSE:
+        return false;
+      case TRUE:
+        return true;
+      case INT:
+        return this.zigzag();
+      case DOUBLE:
+        return this.double();
+      case STRING: {
+        const len = this.varint();
+        const bytes = new Uint8Array(this.view.buffer, this.view.byteOffset + this.pos, len);
+        this.pos += len;
+        const s = utf8.decode(bytes);
+        this.strings.push(s);
+        return s;
+      }
+      case STRING_REF:
+        return this.strings[this.varint()];
+      case ARRAY: {
+        const n = this.varint();
+        const out: unknown[] = new Array(n);
+        for (let i = 0; i < n; i++) out[i] = this.value();
+        return out;
+      }
+      case OBJECT: {
+        const out: Record<string, unknown> = {};
+        for (let key = this.varint(); key !== 0; key = this.varint()) {
+          const name = key === 1 ? (this.value() as string) : FIELDS[key - 2];
+          if (name === undefined) throw new Error(`unknown field id ${key}`);
+          out[name] = this.value();
+        }
+        return out;
+      }
+      case INT_ARRAY: {
+        const n = this.varint();
+        const out: number[] = new Array(n);
+        for (let i = 0; i < n; i++) out[i] = this.zigzag();
+        return out;
+      }
+      case DOUBLE_ARRAY: {
+        const n = this.varint();
+        const out: number[] = new Array(n);
+        for (let i = 0; i < n; i++) out[i] = this.double();
+        return out;
+      }
+      default:
+        throw new Error(`unknown tag ${tag}`);
+    }
+  }
+}
+
+/**
+ * Decodes one binary frame into the value the JSON encoding would have carried (a MetricsSnapshot
+ * or a StreamFrame). Throws on a foreign or newer format.
+ */
+export function decodeBinary<T = unknown>(data: ArrayBuffer | ArrayBufferView): T {
+  const view = ArrayBuffer.isView(data)
+    ? new DataView(data.buffer, data.byteOffset, data.byteLength)
+    : new DataView(data);
+  const r = new Reader(view);
+  if (r.byte() !== MAGIC) throw new Error("not an eidolon binary frame");
+  const version = r.byte();
+  if (version !== VERSION) throw new Error(`unsupported binary version ${version}`);
+  const value = r.value();
+  if (!r.done()) throw new Error("trailing bytes after binary frame");
+  return value as T;
+}
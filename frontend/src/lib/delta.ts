@@ -0,0 +1,48 @@
+import type { DeltaFrame, MetricsSnapshot, StreamFrame } from "@/lib/types";
+
+/** Client-side state of a /ws/metrics?mode=delta stream. */
+export interface DeltaState {
+  seq: number;
+  snapshot: MetricsSnapshot;
+}
+
+/** Maximum GC events retained client-side, mirroring the server's default eidolon.gc.bufferSize. */
+export const MAX_GC_EVENTS = 1024;
+
+/**
+ * Applies a keyframe or delta frame. Returns the new state, or null when the frame cannot be
+ * applied (a delta whose baseSeq does not match): the caller should then wait for the next
+ * keyframe or send "keyframe" to resynchronize.
+ */
+export function applyFrame(state: DeltaState | null, frame: StreamFrame): DeltaState | null {
+  if (frame.type === "keyframe") {
+    return { seq: frame.seq, snapshot: frame.snapshot };
+  }
+  if (state == null || frame.baseSeq !== state.seq) {
+    return null;
+  }
+  return { seq: frame.seq, snapshot: applyDelta(state.snapshot, frame) };
+}
+
+function applyDelta(prev: MetricsSnapshot, d: DeltaFrame): MetricsSnapshot {
+  const next: MetricsSnapshot = { ...prev, timestampMillis: d.timestampMillis };
+  if (d.heap || d.pools) {
+    const pools = prev.heap?.pools ?? [];
+    const changed = new Map((d.pools ?? []).map((p) => [p.name, p]));
+    const merged = pools.map((p) => changed.get(p.name) ?? p);
+    for (const p of d.pools ?? []) {
+      if (!pools.some((q) => q.name === p.name)) merged.push(p);
+    }
+    next.heap = { ...prev.heap, ...(d.heap ?? {}), pools: merged };
+  }
+  if (d.threads) next.threads = d.threads;
+  if (d.classes) next.classes = d.classes;
+  if (d.stringTable) next.stringTable = d.stringTable;
+  if (d.gcPauses) next.gcPauses = d.gcPauses;
+  if (d.hotThreads) next.hotThreads = d.hotThreads;
+  if (d.jfrEvents) next.jfrEvents = d.jfrEvents;
+  if (d.gcEvents && d.gcEvents.length > 0) {
+    next.recentGcEvents = [...(prev.recentGcEvents ?? []), ...d.gcEvents].slice(-MAX_GC_EVENTS);
+  }
+  return next;
+}
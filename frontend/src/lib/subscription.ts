@@ -0,0 +1,23 @@
+/** What a /ws/metrics client asks for; every field is optional and falls back to the server default. */
+export interface SubscriptionRequest {
+  sections?: string[];
+  mode?: "full" | "delta";
+  intervalMillis?: number;
+  pools?: string[];
+  collectors?: string[];
+}
+
+/**
+ * Builds the "subscribe?..." message that replaces a session's subscription. The same parameters
+ * are accepted on the connect URL; the negotiated encoding is kept.
+ */
+export function subscribeMessage(req: SubscriptionRequest): string {
+  const params = new URLSearchParams();
+  if (req.sections?.length) params.set("sections", req.sections.join(","));
+  if (req.mode) params.set("mode", req.mode);
+  if (req.intervalMillis != null) params.set("interval", String(Math.round(req.intervalMillis)));
+  if (req.pools?.length) params.set("pools", req.pools.join(","));
+  if (req.collectors?.length) params.set("collectors", req.collectors.join(","));
+  const query = params.toString();
+  return query ? `subscribe?${query}` : "subscribe";
+}
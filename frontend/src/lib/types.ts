@@ -43,11 +43,101 @@ export interface StringTableMetrics {
 }
 
 export interface GcEvent {
+  seq: number;
   gcName: string;
   gcAction: string;
   gcCause: string;
   startTimeMillis: number;
   durationMillis: number;
+  /** Used bytes per memory pool, in GcRates.poolNames order; -1 when not reported. */
+  poolUsedBefore?: number[] | null;
+  poolUsedAfter?: number[] | null;
+  allocatedBytes?: number;
+  promotedBytes?: number;
+  reclaimedBytes?: number;
+}
+
+export interface MetricHistory {
+  metric: string;
+  stepMillis: number;
+  timestamps: number[];
+  values: number[];
+}
+
+export interface GcRates {
+  poolNames: string[];
+  collections: number;
+  windowMillis: number;
+  allocationRateBytesPerSec: number;
+  promotionRateBytesPerSec: number;
+  reclaimedBytes: number;
+}
+
+/** Pause percentiles over one window; values are bucket upper bounds, within 6.25% of the recorded pause. */
+export interface PausePercentiles {
+  fromMillis: number;
+  toMillis: number;
+  count: number;
+  p50Millis: number;
+  p90Millis: number;
+  p99Millis: number;
+  p999Millis: number;
+  maxMillis: number;
+}
+
+export interface GcPauseStats {
+  gcName: string;
+  gcAction: string;
+  /** Since startup. */
+  cumulative: PausePercentiles;
+  /** Last completed eidolon.gc.pauseInterval; null until one completes. */
+  interval: PausePercentiles | null;
+}
+
+export interface HotThread {
+  threadId: number;
+  threadName: string;
+  threadState: string;
+  /** CPU time used during the interval; -1 when not supported. */
+  cpuTimeNanos: number;
+  /** Fraction of one core: 1.0 is one fully busy core. */
+  cpuUsage: number;
+  /** Bytes allocated during the interval; -1 when not supported. */
+  allocatedBytes: number;
+  allocationRateBytesPerSec: number;
+}
+
+/** Top threads by CPU and by allocation over the last collection interval. */
+export interface HotThreads {
+  /** 0 on the first sample, when there is no window yet. */
+  intervalMillis: number;
+  cpuTimeSupported: boolean;
+  allocationSupported: boolean;
+  byCpu: HotThread[];
+  byAllocation: HotThread[];
+}
+
+/** Summary of one JFR event type over one window; durations in nanoseconds. */
+export interface JfrEventWindow {
+  fromMillis: number;
+  toMillis: number;
+  count: number;
+  totalNanos: number;
+  maxNanos: number;
+  /** Thread of the longest event; null for VM-wide events (safepoints, GC pauses). */
+  maxThread?: string | null;
+  /** Monitor class, parked-on class or GC phase of the longest event, if any. */
+  maxDetail?: string | null;
+}
+
+export interface JfrEventStats {
+  event: "safepoint" | "monitor-enter" | "thread-park" | "gc-phase-pause";
+  /** Shorter events are not recorded. */
+  thresholdMillis: number;
+  /** Since the stream started. */
+  cumulative: JfrEventWindow;
+  /** Last completed eidolon.jfr.interval; null until one completes. */
+  interval: JfrEventWindow | null;
 }
 
 export interface MetricsSnapshot {
@@ -57,6 +147,34 @@ export interface MetricsSnapshot {
   classes: ClassMetrics;
   stringTable?: StringTableMetrics;
   recentGcEvents: GcEvent[];
+  gcPauses?: GcPauseStats[] | null;
+  hotThreads?: HotThreads | null;
+  jfrEvents?: JfrEventStats[] | null;
 }
 
 export type HeapPoint = { t: number; used: number; max: number | null };
+
+/** Frames of the /ws/metrics?mode=delta protocol. */
+export interface KeyframeFrame {
+  type: "keyframe";
+  seq: number;
+  snapshot: MetricsSnapshot;
+}
+
+export interface DeltaFrame {
+  type: "delta";
+  seq: number;
+  baseSeq: number;
+  timestampMillis: number;
+  heap?: Omit<HeapMetrics, "pools">;
+  pools?: MemoryPool[];
+  threads?: ThreadMetrics;
+  classes?: ClassMetrics;
+  stringTable?: StringTableMetrics;
+  gcEvents?: GcEvent[];
+  gcPauses?: GcPauseStats[];
+  hotThreads?: HotThreads;
+  jfrEvents?: JfrEventStats[];
+}
+
+export type StreamFrame = KeyframeFrame | DeltaFrame;
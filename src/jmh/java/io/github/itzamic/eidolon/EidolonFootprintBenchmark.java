@@ -0,0 +1,89 @@
+package io.github.itzamic.eidolon;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Platform threads and retained heap the running agent adds to its host, with and without
+ * virtual-thread mode.
+ *
+ * Each invocation starts Eidolon on a random port, lets the background executors settle, records
+ * the platform thread count (ThreadMXBean does not count virtual threads) and heap in use after a
+ * GC against the idle baseline, then stops it. The {@code platformThreads} and {@code heapBytes}
+ * secondary results are the footprint; the primary score (start-up plus the fixed settle delay)
+ * is incidental.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=EidolonFootprintBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EidolonFootprintBenchmark {
+
+    private static final long SETTLE_MILLIS = 1500L;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    private int baselineThreads;
+    private long baselineHeap;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long platformThreads;
+        public long heapBytes;
+    }
+
+    @Setup(Level.Invocation)
+    public void baseline() throws InterruptedException {
+        Eidolon.stop();
+        baselineThreads = threadMXBean.getThreadCount();
+        baselineHeap = usedHeapAfterGc();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() {
+        Eidolon.stop();
+    }
+
+    @Benchmark
+    public void startAndSettle(Footprint footprint) throws InterruptedException {
+        Eidolon.start(EidolonConfig.builder()
+                .host("127.0.0.1")
+                .port(0)
+                .virtualThreads(virtualThreads)
+                .build());
+        Thread.sleep(SETTLE_MILLIS);
+        footprint.platformThreads = threadMXBean.getThreadCount() - baselineThreads;
+        footprint.heapBytes = usedHeapAfterGc() - baselineHeap;
+    }
+
+    private long usedHeapAfterGc() throws InterruptedException {
+        System.gc();
+        Thread.sleep(100L);
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+}
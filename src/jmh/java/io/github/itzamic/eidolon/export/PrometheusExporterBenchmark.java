@@ -0,0 +1,89 @@
+package io.github.itzamic.eidolon.export;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.itzamic.eidolon.EidolonConfig;
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsSection;
+import io.github.itzamic.eidolon.service.MetricsService;
+import io.micronaut.json.JsonMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Cost of one scrape.
+ *
+ * {@code jsonSnapshot} is what a scraper had before: Jackson-serializing the snapshot DTOs.
+ * {@code render} writes the exposition into a reused buffer from the same snapshot, i.e. a scrape
+ * right after the collector published new data.
+ * {@code cachedScrape} is the common case of several replicas scraping between two collections.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=PrometheusExporterBenchmark -Pjmh.profilers=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrometheusExporterBenchmark {
+
+    private JsonMapper json;
+    private MetricsService metrics;
+    private MetricsSnapshot snapshot;
+    private PrometheusExporter exporter;
+    private ByteBuf buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        json = JsonMapper.createDefault();
+        metrics = new MetricsService(EidolonConfig.builder().snapshotMaxAgeMillis(60_000L).build());
+        snapshot = metrics.snapshot(EnumSet.of(MetricsSection.HEAP, MetricsSection.POOLS,
+                MetricsSection.THREADS, MetricsSection.CLASSES));
+        exporter = new PrometheusExporter(metrics);
+        buffer = ByteBufAllocator.DEFAULT.directBuffer(16 * 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        buffer.release();
+        exporter.close();
+    }
+
+    @Benchmark
+    public byte[] jsonSnapshot() throws Exception {
+        return json.writeValueAsBytes(snapshot);
+    }
+
+    @Benchmark
+    public int render() {
+        buffer.clear();
+        PrometheusExporter.write(buffer, PrometheusExporter.Format.PROMETHEUS, snapshot.heap, snapshot.threads,
+                snapshot.classes, metrics.gcPauseHistograms().histograms());
+        return buffer.readableBytes();
+    }
+
+    @Benchmark
+    public int cachedScrape() {
+        ByteBuf body = exporter.scrape(PrometheusExporter.Format.PROMETHEUS, false);
+        try {
+            return body.readableBytes();
+        } finally {
+            body.release();
+        }
+    }
+}
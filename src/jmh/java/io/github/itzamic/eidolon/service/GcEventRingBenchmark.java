@@ -0,0 +1,104 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot.GcEvent;
+import io.github.itzamic.eidolon.model.MetricsSnapshot.GcEventPage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * GC notification append latency while readers poll the event buffer.
+ *
+ * One writer thread stands in for the JMX notification thread and three reader threads stand in
+ * for snapshot/REST pollers. {@code locked} reproduces the former {@code synchronized} ArrayDeque
+ * with full-copy reads as a baseline; {@code ring} is {@link GcEventRing} with cursor reads.
+ * Compare the {@code append} rows: that is the time a collection's notification is held up.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=GcEventRingBenchmark
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GcEventRingBenchmark {
+
+    @Param({"1024"})
+    public int capacity;
+
+    private GcEventRing ring;
+    private ArrayDeque<GcEvent> deque;
+    private long dequeSeq;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ring = new GcEventRing(capacity);
+        deque = new ArrayDeque<>(capacity);
+        dequeSeq = 0;
+        for (int i = 0; i < capacity; i++) {
+            ring.append("G1 Young Generation", "end of minor GC", "G1 Evacuation Pause", i, 1);
+            deque.addLast(new GcEvent(++dequeSeq, "G1 Young Generation", "end of minor GC", "G1 Evacuation Pause", i, 1));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        long since;
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(1)
+    public long append() {
+        return ring.append("G1 Young Generation", "end of minor GC", "G1 Evacuation Pause", 0, 1);
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(3)
+    public GcEventPage read(Cursor cursor) {
+        GcEventPage page = ring.since(cursor.since, capacity);
+        cursor.since = page.nextSeq;
+        return page;
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public int lockedAppend() {
+        synchronized (deque) {
+            deque.addLast(new GcEvent(++dequeSeq, "G1 Young Generation", "end of minor GC", "G1 Evacuation Pause", 0, 1));
+            while (deque.size() > capacity) {
+                deque.removeFirst();
+            }
+            return deque.size();
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public List<GcEvent> lockedRead() {
+        synchronized (deque) {
+            return new ArrayList<>(deque);
+        }
+    }
+}
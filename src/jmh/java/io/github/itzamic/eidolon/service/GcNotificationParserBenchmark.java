@@ -0,0 +1,97 @@
+package io.github.itzamic.eidolon.service;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-notification parsing cost on the GC notification thread.
+ *
+ * A real notification is captured from the running collector during setup. {@code reflective}
+ * reproduces the former Class.forName/getMethod/invoke path as a baseline; {@code compositeData}
+ * is {@link GcNotificationParser}. Add -Pjmh.profilers=gc to compare allocation per event.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=GcNotificationParserBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GcNotificationParserBenchmark {
+
+    private Notification notification;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        AtomicReference<Notification> captured = new AtomicReference<>();
+        CountDownLatch received = new CountDownLatch(1);
+        NotificationListener listener = (n, handback) -> {
+            if (GcNotificationParser.NOTIFICATION_TYPE.equals(n.getType()) && captured.compareAndSet(null, n)) {
+                received.countDown();
+            }
+        };
+        List<NotificationEmitter> emitters = new ArrayList<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(listener, null, null);
+                emitters.add(emitter);
+            }
+        }
+        try {
+            while (received.getCount() > 0) {
+                System.gc();
+                received.await(1, TimeUnit.SECONDS);
+            }
+        } finally {
+            for (NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(listener);
+                } catch (Exception ignored) {
+                }
+            }
+        }
+        notification = captured.get();
+    }
+
+    @Benchmark
+    public GcNotificationParser.Parsed compositeData() {
+        return GcNotificationParser.parse(notification);
+    }
+
+    @Benchmark
+    public long reflective() throws Exception {
+        Object userData = notification.getUserData();
+        Class<?> gcInfoCls = Class.forName("com.sun.management.GarbageCollectionNotificationInfo");
+        Class<?> comDataCls = Class.forName("javax.management.openmbean.CompositeData");
+        Object gcNotif = gcInfoCls.getMethod("from", comDataCls).invoke(null, userData);
+        String gcName = (String) gcInfoCls.getMethod("getGcName").invoke(gcNotif);
+        String gcAction = (String) gcInfoCls.getMethod("getGcAction").invoke(gcNotif);
+        String gcCause = (String) gcInfoCls.getMethod("getGcCause").invoke(gcNotif);
+        Object gcInfo = gcInfoCls.getMethod("getGcInfo").invoke(gcNotif);
+        long startTime = (Long) gcInfo.getClass().getMethod("getStartTime").invoke(gcInfo);
+        long duration = (Long) gcInfo.getClass().getMethod("getDuration").invoke(gcInfo);
+        return startTime + duration + gcName.length() + gcAction.length() + gcCause.length();
+    }
+}
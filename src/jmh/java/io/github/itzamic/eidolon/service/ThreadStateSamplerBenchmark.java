@@ -0,0 +1,119 @@
+package io.github.itzamic.eidolon.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Thread-state sampling cost against live thread count.
+ *
+ * {@code perThread} reproduces the former one-getThreadInfo-per-id loop as a baseline;
+ * {@code bulk} is the batched {@link ThreadStateSampler}. With {@code filter=prefix} only
+ * the parked "bench-" threads pass the name filter, exercising the per-id filter cache.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=ThreadStateSamplerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadStateSamplerBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int threads;
+
+    @Param({"none", "prefix"})
+    public String filter;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final List<Thread> parked = new ArrayList<>();
+    private volatile boolean running;
+    private ThreadStateSampler sampler;
+    private Set<String> prefixes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        running = true;
+        CountDownLatch started = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(() -> {
+                started.countDown();
+                while (running) {
+                    LockSupport.park();
+                }
+            }, "bench-" + i);
+            t.setDaemon(true);
+            t.start();
+            parked.add(t);
+        }
+        started.await();
+        prefixes = "prefix".equals(filter) ? Set.of("bench-") : Collections.emptySet();
+        sampler = new ThreadStateSampler(threadMXBean, prefixes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        for (Thread t : parked) {
+            LockSupport.unpark(t);
+        }
+        for (Thread t : parked) {
+            t.join();
+        }
+        parked.clear();
+    }
+
+    @Benchmark
+    public Map<String, Integer> bulk() {
+        return sampler.sample();
+    }
+
+    @Benchmark
+    public int[] perThread() {
+        int[] counts = new int[Thread.State.values().length];
+        for (long id : threadMXBean.getAllThreadIds()) {
+            ThreadInfo info = threadMXBean.getThreadInfo(id, 0);
+            if (info == null) {
+                continue;
+            }
+            boolean include = prefixes.isEmpty();
+            if (!include) {
+                String name = info.getThreadName();
+                for (String prefix : prefixes) {
+                    if (name != null && name.startsWith(prefix)) {
+                        include = true;
+                        break;
+                    }
+                }
+            }
+            if (include) {
+                counts[info.getThreadState().ordinal()]++;
+            }
+        }
+        return counts;
+    }
+}
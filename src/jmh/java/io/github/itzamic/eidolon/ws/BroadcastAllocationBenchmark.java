@@ -0,0 +1,115 @@
+package io.github.itzamic.eidolon.ws;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.itzamic.eidolon.EidolonConfig;
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsService;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.websocket.WebSocketSession;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.util.ReferenceCounted;
+
+/**
+ * Bytes allocated per broadcast tick against session count.
+ *
+ * {@code stringPerSession} reproduces the former path: serialize to byte[], copy into a String,
+ * and send it to every session, each re-encoding it into its own frame. {@code pooledSharedBuffer} is the current
+ * path: serialize once into a pooled buffer and hand each session a retained duplicate.
+ * Sessions are in-memory stand-ins that complete sends immediately and release frames the
+ * way the Netty channel would after writing them.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=BroadcastAllocationBenchmark -Pjmh.profilers=gc
+ * and compare gc.alloc.rate.norm (bytes/op) across the sessions parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BroadcastAllocationBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int sessions;
+
+    private JsonMapper json;
+    private MetricsSnapshot snapshot;
+    private SessionRegistry registry;
+    private WebSocketSession[] fakeSessions;
+    private int lastPayloadSize = 4096;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        json = JsonMapper.createDefault();
+        snapshot = new MetricsService(EidolonConfig.builder().build()).snapshot();
+        registry = new SessionRegistry();
+        fakeSessions = new WebSocketSession[sessions];
+        for (int i = 0; i < sessions; i++) {
+            fakeSessions[i] = fakeSession(i);
+            registry.add(fakeSessions[i]);
+        }
+    }
+
+    @Benchmark
+    public void stringPerSession() throws Exception {
+        byte[] payload = json.writeValueAsBytes(snapshot);
+        String message = new String(payload, StandardCharsets.UTF_8);
+        for (WebSocketSession session : fakeSessions) {
+            session.sendSync(message);
+        }
+    }
+
+    @Benchmark
+    public void pooledSharedBuffer() throws Exception {
+        ByteBuf payload = ByteBufAllocator.DEFAULT.buffer(lastPayloadSize);
+        try {
+            json.writeValue(new ByteBufOutputStream(payload), snapshot);
+            lastPayloadSize = Math.max(lastPayloadSize, payload.readableBytes());
+            registry.broadcast(Subscription.ALL, payload);
+        } finally {
+            payload.release();
+        }
+    }
+
+    private static WebSocketSession fakeSession(int id) {
+        return (WebSocketSession) Proxy.newProxyInstance(
+                WebSocketSession.class.getClassLoader(),
+                new Class<?>[] {WebSocketSession.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isOpen" -> true;
+                    case "sendSync", "sendAsync" -> {
+                        Object message = args[0];
+                        if (message instanceof String s) {
+                            // What a text frame built from a String costs: one UTF-8 encode per session.
+                            message = s.getBytes(StandardCharsets.UTF_8);
+                        } else if (message instanceof ReferenceCounted rc) {
+                            rc.release();
+                        }
+                        yield "sendSync".equals(method.getName()) ? message : CompletableFuture.completedFuture(message);
+                    }
+                    case "hashCode" -> id;
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "session-" + id;
+                    default -> null;
+                });
+    }
+}
@@ -1,10 +1,15 @@
 package io.github.itzamic.eidolon;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
 
+import io.github.itzamic.eidolon.service.EarlyGcNotifications;
 import io.micronaut.context.ApplicationContext;
 import io.micronaut.runtime.server.EmbeddedServer;
 
@@ -15,10 +20,20 @@ import io.micronaut.runtime.server.EmbeddedServer;
 public final class Eidolon {
 
     private static final AtomicReference<State> STATE = new AtomicReference<>(null);
+    private static Pending PENDING; // guarded by the class lock
 
     private Eidolon() {}
 
     public static synchronized void startDefault() {
+        start(configFromSystemProperties());
+    }
+
+    /** Like {@link #startDefault()}, but deferred to a background thread; see {@link #startAsync}. */
+    public static synchronized void startDefaultAsync() {
+        startAsync(configFromSystemProperties());
+    }
+
+    static EidolonConfig configFromSystemProperties() {
         EidolonConfig.Builder b = EidolonConfig.builder();
 
         String host = System.getProperty("eidolon.host");
@@ -54,12 +69,161 @@ public final class Eidolon {
             } catch (NumberFormatException ignored) {
             }
         }
+        String pauseInterval = System.getProperty("eidolon.gc.pauseInterval");
+        if (pauseInterval != null) {
+            try {
+                b.gcPauseIntervalMillis(Long.parseLong(pauseInterval));
+            } catch (NumberFormatException ignored) {
+            }
+        }
         String strTbl = System.getProperty("eidolon.collect.stringTable");
         if (strTbl != null) {
             b.collectStringTable(Boolean.parseBoolean(strTbl));
         }
+        String slow = System.getProperty("eidolon.websocket.slowConsumerTimeout");
+        if (slow != null) {
+            try {
+                b.slowConsumerTimeoutMillis(Long.parseLong(slow));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String keyframes = System.getProperty("eidolon.websocket.keyframeInterval");
+        if (keyframes != null) {
+            try {
+                b.websocketKeyframeInterval(Integer.parseInt(keyframes));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String maxAge = System.getProperty("eidolon.snapshot.maxAge");
+        if (maxAge != null) {
+            try {
+                b.snapshotMaxAgeMillis(Long.parseLong(maxAge));
+            } catch (NumberFormatException ignored) {
+            }
+        }
 
-        start(b.build());
+        String collectInterval = System.getProperty("eidolon.collect.interval");
+        if (collectInterval != null) {
+            try {
+                b.collectIntervalMillis(Long.parseLong(collectInterval));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String history = System.getProperty("eidolon.history.enabled");
+        if (history != null) {
+            b.historyEnabled(Boolean.parseBoolean(history));
+        }
+        String historyInterval = System.getProperty("eidolon.history.interval");
+        if (historyInterval != null) {
+            try {
+                b.historySampleIntervalMillis(Long.parseLong(historyInterval));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String historyBudget = System.getProperty("eidolon.history.memoryBudget");
+        if (historyBudget != null) {
+            try {
+                b.historyMemoryBudgetBytes(Long.parseLong(historyBudget));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String virtual = System.getProperty("eidolon.threads.virtual");
+        if (virtual != null) {
+            b.virtualThreads(Boolean.parseBoolean(virtual));
+        }
+        String hotLimit = System.getProperty("eidolon.threads.hotLimit");
+        if (hotLimit != null) {
+            try {
+                b.hotThreadsLimit(Integer.parseInt(hotLimit));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String jfr = System.getProperty("eidolon.jfr.enabled");
+        if (jfr != null) {
+            b.jfrEnabled(Boolean.parseBoolean(jfr));
+        }
+        String jfrPause = System.getProperty("eidolon.jfr.pauseThreshold");
+        if (jfrPause != null) {
+            try {
+                b.jfrPauseThresholdMillis(Long.parseLong(jfrPause));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String jfrContention = System.getProperty("eidolon.jfr.contentionThreshold");
+        if (jfrContention != null) {
+            try {
+                b.jfrContentionThresholdMillis(Long.parseLong(jfrContention));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String jfrInterval = System.getProperty("eidolon.jfr.interval");
+        if (jfrInterval != null) {
+            try {
+                b.jfrIntervalMillis(Long.parseLong(jfrInterval));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String allocations = System.getProperty("eidolon.allocations.enabled");
+        if (allocations != null) {
+            b.allocationProfilingEnabled(Boolean.parseBoolean(allocations));
+        }
+        String allocationRate = System.getProperty("eidolon.allocations.rate");
+        if (allocationRate != null) {
+            try {
+                b.allocationSamplesPerSecond(Integer.parseInt(allocationRate));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String allocationDepth = System.getProperty("eidolon.allocations.stackDepth");
+        if (allocationDepth != null) {
+            try {
+                b.allocationStackDepth(Integer.parseInt(allocationDepth));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String allocationBudget = System.getProperty("eidolon.allocations.memoryBudget");
+        if (allocationBudget != null) {
+            try {
+                b.allocationMemoryBudgetBytes(Long.parseLong(allocationBudget));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String allocationWindow = System.getProperty("eidolon.allocations.window");
+        if (allocationWindow != null) {
+            try {
+                b.allocationWindowMillis(Long.parseLong(allocationWindow));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String profileInterval = System.getProperty("eidolon.profile.interval");
+        if (profileInterval != null) {
+            try {
+                b.profileIntervalMillis(Long.parseLong(profileInterval));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String profileNodes = System.getProperty("eidolon.profile.maxNodes");
+        if (profileNodes != null) {
+            try {
+                b.profileMaxNodes(Integer.parseInt(profileNodes));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String histogramInterval = System.getProperty("eidolon.heap.histogramInterval");
+        if (histogramInterval != null) {
+            try {
+                b.heapHistogramIntervalMillis(Long.parseLong(histogramInterval));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String startupDelay = System.getProperty("eidolon.startup.delay");
+        if (startupDelay != null) {
+            try {
+                b.startupDelayMillis(Long.parseLong(startupDelay));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return b.build();
     }
 
     public static synchronized void start(EidolonConfig config) {
@@ -67,21 +231,132 @@ public final class Eidolon {
         if (!config.enabled()) {
             return;
         }
-        if (STATE.get() != null) {
-            return; // already started
+        if (STATE.get() != null || PENDING != null) {
+            return; // already started or starting
+        }
+        publish(startContext(config, config.port()));
+    }
+
+    /**
+     * Starts Eidolon without blocking the caller on Micronaut: GC notifications are captured right away,
+     * then the context is built on a background thread after {@link EidolonConfig#startupDelayMillis()}.
+     *
+     * The port is checked up front and fails fast if it cannot be bound, and a port of 0 is resolved
+     * then. This is a best-effort check, not a reservation: the probe socket is held only until the
+     * context is built and is closed just before Netty binds, so another process can take the port in
+     * that gap, and connections accepted into the probe's backlog meanwhile are reset.
+     */
+    public static synchronized void startAsync(EidolonConfig config) {
+        Objects.requireNonNull(config, "config");
+        if (!config.enabled()) {
+            return;
+        }
+        if (STATE.get() != null || PENDING != null) {
+            return; // already started or starting
+        }
+        // Listen first so collections during the deferred start still reach the GC event buffer.
+        EarlyGcNotifications.install(config.gcEventBufferSize());
+        ServerSocket probe;
+        try {
+            probe = new ServerSocket();
+            probe.setReuseAddress(true);
+            probe.bind(new InetSocketAddress(config.host(), config.port()));
+        } catch (IOException e) {
+            EarlyGcNotifications.uninstall();
+            throw new UncheckedIOException("eidolon: cannot bind " + config.host() + ":" + config.port(), e);
+        }
+        Pending pending = new Pending(probe, probe.getLocalPort());
+        Thread bootstrap = EidolonThreads.factory("eidolon-bootstrap", config.virtualThreads())
+                .newThread(() -> startDeferred(config, pending));
+        pending.thread = bootstrap;
+        PENDING = pending;
+        bootstrap.start();
+    }
+
+    private static void startDeferred(EidolonConfig config, Pending pending) {
+        try {
+            if (config.startupDelayMillis() > 0) {
+                Thread.sleep(config.startupDelayMillis());
+            }
+        } catch (InterruptedException e) {
+            return; // stopped before the context was built
+        }
+        synchronized (Eidolon.class) {
+            if (PENDING != pending) {
+                return; // stopped during the delay
+            }
+            // Free the probed port (resolved if it was 0) for Netty. PENDING stays set, so the start
+            // still counts as in progress and stop() can cancel it while the context is built.
+            pending.building = true;
+            closeQuietly(pending.probe);
+        }
+        // Built outside the lock so stop(), port() and start() from host threads are not held up.
+        State state;
+        try {
+            state = startContext(config, pending.port);
+        } catch (Throwable t) {
+            // Swallow exceptions to avoid disrupting the host process
+            synchronized (Eidolon.class) {
+                if (PENDING == pending) {
+                    PENDING = null;
+                    EarlyGcNotifications.uninstall();
+                }
+            }
+            t.printStackTrace(System.err);
+            return;
+        }
+        synchronized (Eidolon.class) {
+            if (PENDING == pending) {
+                PENDING = null;
+                publish(state);
+                return;
+            }
         }
+        close(state); // stop() cancelled the start while the context was being built
+    }
 
+    /** Builds and starts the context and server; the caller publishes the result. */
+    private static State startContext(EidolonConfig config, int port) {
         Map<String, Object> props = new HashMap<>();
         props.put("micronaut.server.host", config.host());
-        props.put("micronaut.server.port", config.port());
+        props.put("micronaut.server.port", port);
         // Use Micronaut's context-path to mount all controllers/websockets under a base path.
         props.put("micronaut.server.context-path", config.contextPath());
 
         // Export selected config values for beans to use (simple property mapping).
         props.put("eidolon.websocket.enabled", config.websocketBroadcastEnabled());
         props.put("eidolon.websocket.interval", config.broadcastIntervalMillis());
+        props.put("eidolon.websocket.slowConsumerTimeout", config.slowConsumerTimeoutMillis());
+        props.put("eidolon.websocket.keyframeInterval", config.websocketKeyframeInterval());
         props.put("eidolon.gc.bufferSize", config.gcEventBufferSize());
+        props.put("eidolon.gc.pauseInterval", config.gcPauseIntervalMillis());
         props.put("eidolon.collect.stringTable", config.collectStringTable());
+        props.put("eidolon.snapshot.maxAge", config.snapshotMaxAgeMillis());
+        props.put("eidolon.collect.interval", config.collectIntervalMillis());
+        props.put("eidolon.history.enabled", config.historyEnabled());
+        props.put("eidolon.history.interval", config.historySampleIntervalMillis());
+        props.put("eidolon.history.memoryBudget", config.historyMemoryBudgetBytes());
+        props.put("eidolon.threads.virtual", config.virtualThreads());
+        props.put("eidolon.threads.hotLimit", config.hotThreadsLimit());
+        props.put("eidolon.jfr.enabled", config.jfrEnabled());
+        props.put("eidolon.jfr.pauseThreshold", config.jfrPauseThresholdMillis());
+        props.put("eidolon.jfr.contentionThreshold", config.jfrContentionThresholdMillis());
+        props.put("eidolon.jfr.interval", config.jfrIntervalMillis());
+        props.put("eidolon.allocations.enabled", config.allocationProfilingEnabled());
+        props.put("eidolon.allocations.rate", config.allocationSamplesPerSecond());
+        props.put("eidolon.allocations.stackDepth", config.allocationStackDepth());
+        props.put("eidolon.allocations.memoryBudget", config.allocationMemoryBudgetBytes());
+        props.put("eidolon.allocations.window", config.allocationWindowMillis());
+        props.put("eidolon.profile.interval", config.profileIntervalMillis());
+        props.put("eidolon.profile.maxNodes", config.profileMaxNodes());
+        props.put("eidolon.heap.histogramInterval", config.heapHistogramIntervalMillis());
+        if (config.virtualThreads()) {
+            // Keep Eidolon's carrier footprint to one event loop; request handling, blocking sends and
+            // background work run on virtual threads instead of a platform worker pool.
+            props.put("micronaut.netty.event-loops.default.num-threads", 1);
+            props.put("micronaut.server.thread-selection", "BLOCKING");
+            props.put("micronaut.executors.blocking.virtual", true);
+        }
 
         ApplicationContext context = ApplicationContext.builder(props)
                 .singletons(config) // expose EidolonConfig as a bean
@@ -92,24 +367,40 @@ public final class Eidolon {
         if (!server.isRunning()) {
             server.start();
         }
+        return new State(context, server);
+    }
 
+    /** Makes a started context current. Called with the class lock held. */
+    private static void publish(State state) {
         // Ensure clean shutdown
         Runtime.getRuntime().addShutdownHook(new Thread(Eidolon::stop, "eidolon-shutdown"));
-
-        STATE.set(new State(context, server));
+        STATE.set(state);
     }
 
     public static synchronized void stop() {
+        Pending pending = PENDING;
+        PENDING = null;
+        if (pending != null) {
+            closeQuietly(pending.probe);
+            if (!pending.building) {
+                pending.thread.interrupt(); // wakes the startup delay; a build in progress is closed when it ends
+            }
+            EarlyGcNotifications.uninstall();
+        }
         State s = STATE.getAndSet(null);
         if (s != null) {
-            try {
-                if (s.server != null && s.server.isRunning()) {
-                    s.server.stop();
-                }
-            } finally {
-                if (s.context != null && s.context.isRunning()) {
-                    s.context.close();
-                }
+            close(s);
+        }
+    }
+
+    private static void close(State s) {
+        try {
+            if (s.server != null && s.server.isRunning()) {
+                s.server.stop();
+            }
+        } finally {
+            if (s.context != null && s.context.isRunning()) {
+                s.context.close();
             }
         }
     }
@@ -119,5 +410,35 @@ public final class Eidolon {
         return s != null && s.server != null && s.server.isRunning();
     }
 
+    /** Port the server is bound to (or will bind while a deferred start is pending), or -1 when stopped. */
+    public static synchronized int port() {
+        Pending pending = PENDING;
+        if (pending != null) {
+            return pending.port;
+        }
+        State s = STATE.get();
+        return s != null && s.server != null && s.server.isRunning() ? s.server.getPort() : -1;
+    }
+
+    private static void closeQuietly(ServerSocket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
     private record State(ApplicationContext context, EmbeddedServer server) {}
+
+    /** A deferred start whose context is not published yet. Guarded by the class lock. */
+    private static final class Pending {
+        final ServerSocket probe; // closed once the context build begins
+        final int port;
+        Thread thread;
+        boolean building;
+
+        Pending(ServerSocket probe, int port) {
+            this.probe = probe;
+            this.port = port;
+        }
+    }
 }
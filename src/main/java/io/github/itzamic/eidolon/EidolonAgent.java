@@ -14,10 +14,37 @@ import java.lang.instrument.Instrumentation;
  *   -Deidolon.contextPath=/eidolon
  *   -Deidolon.websocket.enabled=true
  *   -Deidolon.websocket.interval=1000
+ *   -Deidolon.websocket.slowConsumerTimeout=10000
+ *   -Deidolon.websocket.keyframeInterval=30
  *   -Deidolon.gc.bufferSize=1024
+ *   -Deidolon.gc.pauseInterval=60000
  *   -Deidolon.collect.stringTable=false
+ *   -Deidolon.collect.interval=1000
+ *   -Deidolon.snapshot.maxAge=250
+ *   -Deidolon.history.enabled=false
+ *   -Deidolon.history.interval=1000
+ *   -Deidolon.history.memoryBudget=4194304
+ *   -Deidolon.threads.virtual=false
+ *   -Deidolon.threads.hotLimit=10
+ *   -Deidolon.jfr.enabled=false
+ *   -Deidolon.jfr.pauseThreshold=0
+ *   -Deidolon.jfr.contentionThreshold=20
+ *   -Deidolon.jfr.interval=10000
+ *   -Deidolon.allocations.enabled=false
+ *   -Deidolon.allocations.rate=100
+ *   -Deidolon.allocations.stackDepth=8
+ *   -Deidolon.allocations.memoryBudget=262144
+ *   -Deidolon.allocations.window=60000
+ *   -Deidolon.profile.interval=20
+ *   -Deidolon.profile.maxNodes=50000
+ *   -Deidolon.heap.histogramInterval=60000
+ *   -Deidolon.startup.delay=0
+ *   -Deidolon.agent.async=true
  *
- * The agent does not instrument classes; it only starts the embedded Micronaut server.
+ * The agent does not instrument classes; it only starts the embedded Micronaut server. By default
+ * premain only checks that the port can be bound and starts listening for GC notifications; the
+ * Micronaut context is built on a background thread after eidolon.startup.delay milliseconds, so the host's main method
+ * is not held up. -Deidolon.agent.async=false restores the synchronous start.
  */
 public final class EidolonAgent {
 
@@ -40,7 +67,11 @@ public final class EidolonAgent {
     private static void bootstrap(String agentArgs) {
         // agentArgs is currently ignored; configuration is via system properties (see javadoc)
         try {
-            Eidolon.startDefault();
+            if (Boolean.parseBoolean(System.getProperty("eidolon.agent.async", "true"))) {
+                Eidolon.startDefaultAsync();
+            } else {
+                Eidolon.startDefault();
+            }
         } catch (Throwable t) {
             // Swallow exceptions to avoid disrupting host process startup
             t.printStackTrace(System.err);
@@ -15,7 +15,30 @@ public final class EidolonConfig {
     private final boolean websocketBroadcastEnabled;
     private final long broadcastIntervalMillis;
     private final int gcEventBufferSize;
+    private final long gcPauseIntervalMillis;
     private final boolean collectStringTable;
+    private final long snapshotMaxAgeMillis;
+    private final long collectIntervalMillis;
+    private final long slowConsumerTimeoutMillis;
+    private final int websocketKeyframeInterval;
+    private final boolean historyEnabled;
+    private final long historySampleIntervalMillis;
+    private final long historyMemoryBudgetBytes;
+    private final boolean virtualThreads;
+    private final long startupDelayMillis;
+    private final int hotThreadsLimit;
+    private final boolean jfrEnabled;
+    private final long jfrPauseThresholdMillis;
+    private final long jfrContentionThresholdMillis;
+    private final long jfrIntervalMillis;
+    private final boolean allocationProfilingEnabled;
+    private final int allocationSamplesPerSecond;
+    private final int allocationStackDepth;
+    private final long allocationMemoryBudgetBytes;
+    private final long allocationWindowMillis;
+    private final long profileIntervalMillis;
+    private final int profileMaxNodes;
+    private final long heapHistogramIntervalMillis;
 
     // Optional simple filters (allow-lists). Empty means no filtering.
     private final Set<String> includeMemoryPools;
@@ -30,7 +53,30 @@ public final class EidolonConfig {
         this.websocketBroadcastEnabled = b.websocketBroadcastEnabled;
         this.broadcastIntervalMillis = b.broadcastIntervalMillis;
         this.gcEventBufferSize = b.gcEventBufferSize;
+        this.gcPauseIntervalMillis = b.gcPauseIntervalMillis;
         this.collectStringTable = b.collectStringTable;
+        this.snapshotMaxAgeMillis = b.snapshotMaxAgeMillis;
+        this.collectIntervalMillis = b.collectIntervalMillis;
+        this.slowConsumerTimeoutMillis = b.slowConsumerTimeoutMillis;
+        this.websocketKeyframeInterval = b.websocketKeyframeInterval;
+        this.historyEnabled = b.historyEnabled;
+        this.historySampleIntervalMillis = b.historySampleIntervalMillis;
+        this.historyMemoryBudgetBytes = b.historyMemoryBudgetBytes;
+        this.virtualThreads = b.virtualThreads;
+        this.startupDelayMillis = b.startupDelayMillis;
+        this.hotThreadsLimit = b.hotThreadsLimit;
+        this.jfrEnabled = b.jfrEnabled;
+        this.jfrPauseThresholdMillis = b.jfrPauseThresholdMillis;
+        this.jfrContentionThresholdMillis = b.jfrContentionThresholdMillis;
+        this.jfrIntervalMillis = b.jfrIntervalMillis;
+        this.allocationProfilingEnabled = b.allocationProfilingEnabled;
+        this.allocationSamplesPerSecond = b.allocationSamplesPerSecond;
+        this.allocationStackDepth = b.allocationStackDepth;
+        this.allocationMemoryBudgetBytes = b.allocationMemoryBudgetBytes;
+        this.allocationWindowMillis = b.allocationWindowMillis;
+        this.profileIntervalMillis = b.profileIntervalMillis;
+        this.profileMaxNodes = b.profileMaxNodes;
+        this.heapHistogramIntervalMillis = b.heapHistogramIntervalMillis;
         this.includeMemoryPools = Collections.unmodifiableSet(b.includeMemoryPools);
         this.includeGcNames = Collections.unmodifiableSet(b.includeGcNames);
         this.includeThreadNamePrefixes = Collections.unmodifiableSet(b.includeThreadNamePrefixes);
@@ -68,10 +114,129 @@ public final class EidolonConfig {
         return gcEventBufferSize;
     }
 
+    /** Length of the interval view of GC pause percentiles. */
+    public long gcPauseIntervalMillis() {
+        return gcPauseIntervalMillis;
+    }
+
     public boolean collectStringTable() {
         return collectStringTable;
     }
 
+    public long snapshotMaxAgeMillis() {
+        return snapshotMaxAgeMillis;
+    }
+
+    /** Cadence of the background collector thread; 0 or less collects on demand in the calling thread. */
+    public long collectIntervalMillis() {
+        return collectIntervalMillis;
+    }
+
+    public long slowConsumerTimeoutMillis() {
+        return slowConsumerTimeoutMillis;
+    }
+
+    /** In delta mode, a full keyframe is sent every this many broadcast ticks. */
+    public int websocketKeyframeInterval() {
+        return websocketKeyframeInterval;
+    }
+
+    /**
+     * Whether a background sampler records metrics into the in-process history store. Off by default:
+     * it costs the host a sampler thread and {@link #historyMemoryBudgetBytes()} of heap.
+     */
+    public boolean historyEnabled() {
+        return historyEnabled;
+    }
+
+    /** Interval between raw history samples. */
+    public long historySampleIntervalMillis() {
+        return historySampleIntervalMillis;
+    }
+
+    /** Fixed size of the history store; retention per tier follows from it. */
+    public long historyMemoryBudgetBytes() {
+        return historyMemoryBudgetBytes;
+    }
+
+    /**
+     * Run Eidolon's own background work (collection, history sampling, broadcasts) on virtual
+     * threads, and serve HTTP/WebSocket I/O from a single Netty event loop.
+     */
+    public boolean virtualThreads() {
+        return virtualThreads;
+    }
+
+    /** Threads listed per ranking in the hot-threads section; 0 or less disables per-thread sampling. */
+    public int hotThreadsLimit() {
+        return hotThreadsLimit;
+    }
+
+    /** Whether an in-process JFR stream summarizes safepoint, lock contention, park and GC phase pause events. */
+    public boolean jfrEnabled() {
+        return jfrEnabled;
+    }
+
+    /** JFR threshold for safepoint and GC phase pause events; shorter ones are not recorded. */
+    public long jfrPauseThresholdMillis() {
+        return jfrPauseThresholdMillis;
+    }
+
+    /** JFR threshold for monitor enter and thread park events; shorter ones are not recorded. */
+    public long jfrContentionThresholdMillis() {
+        return jfrContentionThresholdMillis;
+    }
+
+    /** Length of the interval view of the JFR event summaries. */
+    public long jfrIntervalMillis() {
+        return jfrIntervalMillis;
+    }
+
+    /** Whether JFR allocation samples are aggregated into the top allocating classes and stacks. */
+    public boolean allocationProfilingEnabled() {
+        return allocationProfilingEnabled;
+    }
+
+    /** JFR throttle for allocation samples, across all threads. */
+    public int allocationSamplesPerSecond() {
+        return allocationSamplesPerSecond;
+    }
+
+    /** Frames kept per allocation stack, innermost first. */
+    public int allocationStackDepth() {
+        return allocationStackDepth;
+    }
+
+    /** Fixed size of the allocation top-K tables; the number of tracked sites follows from it. */
+    public long allocationMemoryBudgetBytes() {
+        return allocationMemoryBudgetBytes;
+    }
+
+    /** Length of an allocation profile window. */
+    public long allocationWindowMillis() {
+        return allocationWindowMillis;
+    }
+
+    /** Interval between bulk stack captures while a CPU profile is running. */
+    public long profileIntervalMillis() {
+        return profileIntervalMillis;
+    }
+
+    /** Call-tree nodes kept per CPU profile; deeper or rarer paths beyond it are cut short. */
+    public int profileMaxNodes() {
+        return profileMaxNodes;
+    }
+
+    /** Minimum time between class histogram runs, each of which forces a full GC; requests in between share the last. */
+    public long heapHistogramIntervalMillis() {
+        return heapHistogramIntervalMillis;
+    }
+
+    /** Deferred start only ({@link Eidolon#startAsync}): wait before building the Micronaut context. */
+    public long startupDelayMillis() {
+        return startupDelayMillis;
+    }
+
     public Set<String> includeMemoryPools() {
         return includeMemoryPools;
     }
@@ -103,7 +268,30 @@ public final class EidolonConfig {
         private boolean websocketBroadcastEnabled = true;
         private long broadcastIntervalMillis = 1000L;
         private int gcEventBufferSize = 1024;
+        private long gcPauseIntervalMillis = 60_000L;
         private boolean collectStringTable = false;
+        private long snapshotMaxAgeMillis = 250L;
+        private long collectIntervalMillis = 1000L;
+        private long slowConsumerTimeoutMillis = 10_000L;
+        private int websocketKeyframeInterval = 30;
+        private boolean historyEnabled = false;
+        private long historySampleIntervalMillis = 1000L;
+        private long historyMemoryBudgetBytes = 4L * 1024 * 1024;
+        private boolean virtualThreads = false;
+        private long startupDelayMillis = 0L;
+        private int hotThreadsLimit = 10;
+        private boolean jfrEnabled = false;
+        private long jfrPauseThresholdMillis = 0L;
+        private long jfrContentionThresholdMillis = 20L;
+        private long jfrIntervalMillis = 10_000L;
+        private boolean allocationProfilingEnabled = false;
+        private int allocationSamplesPerSecond = 100;
+        private int allocationStackDepth = 8;
+        private long allocationMemoryBudgetBytes = 256L * 1024;
+        private long allocationWindowMillis = 60_000L;
+        private long profileIntervalMillis = 20L;
+        private int profileMaxNodes = 50_000;
+        private long heapHistogramIntervalMillis = 60_000L;
 
         private Set<String> includeMemoryPools = Collections.emptySet();
         private Set<String> includeGcNames = Collections.emptySet();
@@ -146,11 +334,126 @@ public final class EidolonConfig {
             return this;
         }
 
+        public Builder gcPauseIntervalMillis(long v) {
+            this.gcPauseIntervalMillis = v;
+            return this;
+        }
+
         public Builder collectStringTable(boolean v) {
             this.collectStringTable = v;
             return this;
         }
 
+        public Builder snapshotMaxAgeMillis(long v) {
+            this.snapshotMaxAgeMillis = v;
+            return this;
+        }
+
+        public Builder collectIntervalMillis(long v) {
+            this.collectIntervalMillis = v;
+            return this;
+        }
+
+        public Builder slowConsumerTimeoutMillis(long v) {
+            this.slowConsumerTimeoutMillis = v;
+            return this;
+        }
+
+        public Builder websocketKeyframeInterval(int v) {
+            this.websocketKeyframeInterval = v;
+            return this;
+        }
+
+        public Builder historyEnabled(boolean v) {
+            this.historyEnabled = v;
+            return this;
+        }
+
+        public Builder historySampleIntervalMillis(long v) {
+            this.historySampleIntervalMillis = v;
+            return this;
+        }
+
+        public Builder historyMemoryBudgetBytes(long v) {
+            this.historyMemoryBudgetBytes = v;
+            return this;
+        }
+
+        public Builder virtualThreads(boolean v) {
+            this.virtualThreads = v;
+            return this;
+        }
+
+        public Builder startupDelayMillis(long v) {
+            this.startupDelayMillis = v;
+            return this;
+        }
+
+        public Builder hotThreadsLimit(int v) {
+            this.hotThreadsLimit = v;
+            return this;
+        }
+
+        public Builder jfrEnabled(boolean v) {
+            this.jfrEnabled = v;
+            return this;
+        }
+
+        public Builder jfrPauseThresholdMillis(long v) {
+            this.jfrPauseThresholdMillis = v;
+            return this;
+        }
+
+        public Builder jfrContentionThresholdMillis(long v) {
+            this.jfrContentionThresholdMillis = v;
+            return this;
+        }
+
+        public Builder jfrIntervalMillis(long v) {
+            this.jfrIntervalMillis = v;
+            return this;
+        }
+
+        public Builder allocationProfilingEnabled(boolean v) {
+            this.allocationProfilingEnabled = v;
+            return this;
+        }
+
+        public Builder allocationSamplesPerSecond(int v) {
+            this.allocationSamplesPerSecond = v;
+            return this;
+        }
+
+        public Builder allocationStackDepth(int v) {
+            this.allocationStackDepth = v;
+            return this;
+        }
+
+        public Builder allocationMemoryBudgetBytes(long v) {
+            this.allocationMemoryBudgetBytes = v;
+            return this;
+        }
+
+        public Builder allocationWindowMillis(long v) {
+            this.allocationWindowMillis = v;
+            return this;
+        }
+
+        public Builder profileIntervalMillis(long v) {
+            this.profileIntervalMillis = v;
+            return this;
+        }
+
+        public Builder profileMaxNodes(int v) {
+            this.profileMaxNodes = v;
+            return this;
+        }
+
+        public Builder heapHistogramIntervalMillis(long v) {
+            this.heapHistogramIntervalMillis = v;
+            return this;
+        }
+
         public Builder includeMemoryPools(Set<String> v) {
             this.includeMemoryPools = v == null ? Collections.emptySet() : v;
             return this;
@@ -0,0 +1,24 @@
+package io.github.itzamic.eidolon;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for Eidolon's own executors. By default these are daemon platform threads;
+ * with {@link EidolonConfig#virtualThreads()} they are virtual threads, so an idle agent pins no
+ * carrier thread and parked work costs a small heap object instead of a native stack.
+ */
+public final class EidolonThreads {
+
+    private EidolonThreads() {}
+
+    public static ThreadFactory factory(String name, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(name).factory();
+        }
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.itzamic.eidolon.api;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsService;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.QueryValue;
+import jakarta.inject.Inject;
+
+@Controller("/api/heap")
+public class HeapController {
+
+    static final int DEFAULT_TOP = 20;
+    static final int MAX_TOP = 1000;
+
+    private final MetricsService metrics;
+
+    @Inject
+    public HeapController(MetricsService metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Top classes by live bytes ({@code top}) and by bytes gained since the previous histogram ({@code growth}).
+     * A new histogram forces a full GC and is taken at most once per {@code eidolon.heap.histogramInterval};
+     * requests in between, and concurrent ones, get the latest. 404 when the JVM has no DiagnosticCommand MBean.
+     * {@code top} defaults to 20 and is clamped to 1..1000.
+     */
+    @Get(uri = "/histogram", produces = MediaType.APPLICATION_JSON)
+    public MetricsSnapshot.HeapHistogram histogram(@QueryValue @Nullable Integer top) {
+        return metrics.heapHistogram(Math.max(1, Math.min(MAX_TOP, top == null ? DEFAULT_TOP : top)));
+    }
+}
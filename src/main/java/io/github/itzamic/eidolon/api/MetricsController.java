@@ -1,51 +1,217 @@
 package io.github.itzamic.eidolon.api;
 
+import io.github.itzamic.eidolon.export.PrometheusExporter;
+import io.github.itzamic.eidolon.history.MetricsHistory;
 import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsSection;
 import io.github.itzamic.eidolon.service.MetricsService;
+import io.github.itzamic.eidolon.ws.EventStreamRegistry;
+import io.github.itzamic.eidolon.ws.SessionRegistry;
+import io.github.itzamic.eidolon.ws.Subscription;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpResponse;
 import io.micronaut.http.MediaType;
+import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Header;
+import io.micronaut.http.annotation.QueryValue;
+import io.netty.buffer.ByteBuf;
 import jakarta.inject.Inject;
+import org.reactivestreams.Publisher;
 
 import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 @Controller("/api/metrics")
 public class MetricsController {
 
     private final MetricsService metrics;
+    private final SessionRegistry sessions;
+    private final MetricsHistory history;
+    private final PrometheusExporter prometheus;
+    private final EventStreamRegistry streams;
 
     @Inject
-    public MetricsController(MetricsService metrics) {
+    public MetricsController(MetricsService metrics, SessionRegistry sessions, MetricsHistory history,
+                             PrometheusExporter prometheus, EventStreamRegistry streams) {
         this.metrics = metrics;
+        this.sessions = sessions;
+        this.history = history;
+        this.prometheus = prometheus;
+        this.streams = streams;
     }
 
+    /**
+     * Full snapshot, or only the sections named in {@code ?sections=heap,gc}.
+     * See {@link MetricsSection} for the accepted names.
+     */
     @Get(uri = "/snapshot", produces = MediaType.APPLICATION_JSON)
-    public MetricsSnapshot snapshot() {
-        return metrics.snapshot();
+    public MetricsSnapshot snapshot(@QueryValue @Nullable String sections) {
+        return metrics.snapshot(MetricsSection.parse(sections));
     }
 
     @Get(uri = "/heap", produces = MediaType.APPLICATION_JSON)
     public MetricsSnapshot.Heap heap() {
-        return metrics.snapshot().heap;
+        return metrics.heap();
     }
 
     @Get(uri = "/threads", produces = MediaType.APPLICATION_JSON)
     public MetricsSnapshot.Threads threads() {
-        return metrics.snapshot().threads;
+        return metrics.threads();
+    }
+
+    /**
+     * Top threads by CPU time ({@code byCpu}) and by allocated bytes ({@code byAllocation}) over the last
+     * collection interval. 404 when {@code eidolon.threads.hotLimit} is 0.
+     */
+    @Get(uri = "/threads/hot", produces = MediaType.APPLICATION_JSON)
+    public MetricsSnapshot.HotThreads hotThreads() {
+        return metrics.hotThreads();
+    }
+
+    /**
+     * Safepoint, monitor-enter, thread-park and GC phase pause summaries from the in-process JFR stream.
+     * 404 unless {@code eidolon.jfr.enabled} is set and JFR is available.
+     */
+    @Get(uri = "/jfr", produces = MediaType.APPLICATION_JSON)
+    public List<MetricsSnapshot.JfrEventStats> jfrEvents() {
+        return metrics.jfrEvents();
+    }
+
+    /**
+     * Top allocation sites (class and truncated stack) by sampled bytes, for the current and the last
+     * completed window. 404 unless {@code eidolon.allocations.enabled} is set and JFR is available.
+     */
+    @Get(uri = "/allocations", produces = MediaType.APPLICATION_JSON)
+    public MetricsSnapshot.AllocationProfile allocations(@QueryValue @Nullable Integer top) {
+        return metrics.allocations(top == null ? 20 : top);
     }
 
     @Get(uri = "/classes", produces = MediaType.APPLICATION_JSON)
     public MetricsSnapshot.Classes classes() {
-        return metrics.snapshot().classes;
+        return metrics.classes();
     }
 
     @Get(uri = "/string-table", produces = MediaType.APPLICATION_JSON)
     public MetricsSnapshot.StringTable stringTable() {
-        return metrics.snapshot().stringTable;
+        return metrics.stringTable();
+    }
+
+    /**
+     * Every retained GC event, oldest first. The cursor parameters belong to {@code /gc/events/page}; they are
+     * rejected here with 400 rather than silently ignored.
+     */
+    @Get(uri = "/gc/events", produces = {MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
+    public HttpResponse<?> gcEvents(@QueryValue @Nullable Long since, @QueryValue @Nullable Integer limit) {
+        if (since != null || limit != null) {
+            return HttpResponse.badRequest("since and limit are only supported by /gc/events/page")
+                    .contentType(MediaType.TEXT_PLAIN);
+        }
+        return HttpResponse.ok(metrics.gcEvents()).contentType(MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * GC events newer than {@code since} (default 0), at most {@code limit}, and the {@code nextSeq} cursor
+     * to pass on the next poll.
+     */
+    @Get(uri = "/gc/events/page", produces = MediaType.APPLICATION_JSON)
+    public MetricsSnapshot.GcEventPage gcEventPage(@QueryValue @Nullable Long since,
+                                                   @QueryValue @Nullable Integer limit) {
+        return metrics.gcEventsSince(since == null ? 0L : since, limit == null ? Integer.MAX_VALUE : limit);
+    }
+
+    /** Allocation/promotion rates derived from retained GC events, plus the pool order used by GcEvent arrays. */
+    @Get(uri = "/gc/rates", produces = MediaType.APPLICATION_JSON)
+    public MetricsSnapshot.GcRates gcRates() {
+        return metrics.gcRates();
+    }
+
+    /**
+     * GC pause p50/p90/p99/p99.9/max per collector and action, since startup ({@code cumulative}) and over the
+     * last completed {@code eidolon.gc.pauseInterval} ({@code interval}).
+     */
+    @Get(uri = "/gc/pauses", produces = MediaType.APPLICATION_JSON)
+    public List<MetricsSnapshot.GcPauseStats> gcPauses() {
+        return metrics.gcPauseStats();
+    }
+
+    /** Names of the recorded metrics; empty when history is disabled. */
+    @Get(uri = "/history/metrics", produces = MediaType.APPLICATION_JSON)
+    public List<String> historyMetrics() {
+        return history.metricNames();
+    }
+
+    /**
+     * Recorded history of one metric between {@code from} and {@code to} (epoch millis; default: the last hour),
+     * at {@code step} millis or the finest retained resolution. 404 when history is disabled or the metric is
+     * unknown.
+     */
+    @Get(uri = "/history", produces = MediaType.APPLICATION_JSON)
+    public MetricsSnapshot.History history(@QueryValue String metric,
+                                           @QueryValue @Nullable Long from,
+                                           @QueryValue @Nullable Long to,
+                                           @QueryValue @Nullable Long step) {
+        long end = to == null ? System.currentTimeMillis() : to;
+        long start = from == null ? end - 3_600_000L : from;
+        return history.query(metric, start, end, step == null ? 0L : step);
+    }
+
+    /**
+     * Scrape target in the Prometheus text format, or OpenMetrics when the Accept header asks for it or
+     * {@code ?format=openmetrics}. Gzip-encoded when Accept-Encoding allows it.
+     */
+    @Get(uri = "/prometheus")
+    public HttpResponse<ByteBuf> prometheus(@QueryValue @Nullable String format,
+                                            @Header(HttpHeaders.ACCEPT) @Nullable String accept,
+                                            @Header(HttpHeaders.ACCEPT_ENCODING) @Nullable String acceptEncoding) {
+        PrometheusExporter.Format f = PrometheusExporter.Format.negotiate(format, accept);
+        boolean gzip = PrometheusExporter.acceptsGzip(acceptEncoding);
+        MutableHttpResponse<ByteBuf> response = HttpResponse.ok(prometheus.scrape(f, gzip))
+                .contentType(f.contentType)
+                .header(HttpHeaders.VARY, "Accept, Accept-Encoding");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response;
+    }
+
+    /**
+     * Server-Sent Events stream of {@code snapshot} events, pushed on the WebSocket broadcast schedule and
+     * sharing its payloads. Accepts the WebSocket subscription parameters {@code sections}, {@code interval},
+     * {@code pools} and {@code collectors}. Snapshot event ids are GC event seqs: on reconnect, {@code Last-Event-ID}
+     * is answered with a {@code gc} event holding the GC events missed since then. Slow readers skip snapshots.
+     */
+    @Get(uri = "/stream", produces = MediaType.TEXT_EVENT_STREAM)
+    public Publisher<ByteBuf> stream(@QueryValue @Nullable String sections,
+                                     @QueryValue @Nullable String interval,
+                                     @QueryValue @Nullable String pools,
+                                     @QueryValue @Nullable String collectors,
+                                     @Header("Last-Event-ID") @Nullable String lastEventId) {
+        Map<String, String> params = new HashMap<>();
+        params.put("sections", sections);
+        params.put("interval", interval);
+        params.put("pools", pools);
+        params.put("collectors", collectors);
+        return streams.open(Subscription.fromParameters(params::get, null), parseSeq(lastEventId));
+    }
+
+    private static Long parseSeq(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Math.max(0L, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
-    @Get(uri = "/gc/events", produces = MediaType.APPLICATION_JSON)
-    public List<MetricsSnapshot.GcEvent> gcEvents() {
-        return metrics.snapshot().recentGcEvents;
+    /** WebSocket fan-out counters (dropped frames, slow-consumer disconnects). */
+    @Get(uri = "/websocket", produces = MediaType.APPLICATION_JSON)
+    public MetricsSnapshot.WebSocketStats websocket() {
+        return sessions.stats();
     }
 }
@@ -0,0 +1,50 @@
+package io.github.itzamic.eidolon.api;
+
+import io.github.itzamic.eidolon.profile.CallTree;
+import io.github.itzamic.eidolon.profile.CpuProfiler;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.QueryValue;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.CompletableFuture;
+
+@Controller("/api/profile")
+public class ProfileController {
+
+    static final int DEFAULT_SECONDS = 30;
+    static final int MAX_SECONDS = 300;
+
+    private final CpuProfiler cpu;
+
+    @Inject
+    public ProfileController(CpuProfiler cpu) {
+        this.cpu = cpu;
+    }
+
+    /**
+     * Samples the stacks of RUNNABLE threads for {@code seconds} (default 30, at most 300), then responds
+     * with the merged call tree: JSON nested {@code {name, value, children}} nodes for a flame graph, or
+     * with {@code ?format=collapsed} the collapsed-stack text read by flamegraph.pl and speedscope.
+     * Responds 503 at once when the profiler is already running its maximum number of profiles.
+     */
+    @Get(uri = "/cpu", produces = {MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
+    public CompletableFuture<HttpResponse<?>> cpu(@QueryValue @Nullable Integer seconds,
+                                                  @QueryValue @Nullable String format) {
+        boolean collapsed = "collapsed".equalsIgnoreCase(format);
+        long s = Math.max(1, Math.min(MAX_SECONDS, seconds == null ? DEFAULT_SECONDS : seconds));
+        CompletableFuture<CallTree> profile = cpu.profile(s * 1000L);
+        if (profile == null) {
+            return CompletableFuture.completedFuture(HttpResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body("Too many CPU profiles running; retry when one has finished"));
+        }
+        return profile.thenApply(tree -> collapsed
+                ? HttpResponse.ok(tree.collapsed()).contentType(MediaType.TEXT_PLAIN)
+                : HttpResponse.ok(tree.toProfile()).contentType(MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.itzamic.eidolon.api;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plain-text rendering of a {@link MetricsSnapshot.ThreadDump}, jstack-like but one entry per stack
+ * group: the group's state and size, one line per thread with its lock, then the shared stack.
+ *
+ * Published as one chunk for the header and deadlocks and then one chunk per group, each encoded only
+ * when the reader requests it, so a large dump is never held as one buffer.
+ */
+final class ThreadDumpText {
+
+    private ThreadDumpText() {}
+
+    static Publisher<ByteBuf> publisher(MetricsSnapshot.ThreadDump dump) {
+        return subscriber -> subscriber.onSubscribe(new Chunks(dump, subscriber));
+    }
+
+    /** Chunk {@code index}: 0 is the header, {@code 1..groups} the stack groups. */
+    static ByteBuf chunk(MetricsSnapshot.ThreadDump dump, int index) {
+        ByteBuf out = ByteBufAllocator.DEFAULT.buffer(1024);
+        if (index == 0) {
+            writeHeader(out, dump);
+        } else {
+            writeGroup(out, dump.groups.get(index - 1));
+        }
+        return out;
+    }
+
+    private static void writeHeader(ByteBuf out, MetricsSnapshot.ThreadDump dump) {
+        ByteBufUtil.writeAscii(out, "Thread dump " + Instant.ofEpochMilli(dump.timestampMillis) + ": "
+                + dump.threadCount + " threads, " + dump.groups.size() + " distinct stacks");
+        if (dump.maxDepth >= 0) {
+            ByteBufUtil.writeAscii(out, " (at most " + dump.maxDepth + " frames)");
+        }
+        out.writeByte('\n');
+        if (!dump.deadlocked.isEmpty()) {
+            ByteBufUtil.writeAscii(out, "\nDeadlock detected: " + dump.deadlocked.size() + " threads\n");
+            for (MetricsSnapshot.DumpedThread t : dump.deadlocked) {
+                writeThread(out, t, true);
+            }
+        }
+        out.writeByte('\n');
+    }
+
+    private static void writeGroup(ByteBuf out, MetricsSnapshot.StackGroup g) {
+        ByteBufUtil.writeAscii(out, g.count + (g.count == 1 ? " thread " : " threads ") + g.state + "\n");
+        for (MetricsSnapshot.DumpedThread t : g.threads) {
+            writeThread(out, t, false);
+        }
+        for (String frame : g.stack) {
+            ByteBufUtil.writeUtf8(out, "    at " + frame + "\n");
+        }
+        out.writeByte('\n');
+    }
+
+    private static void writeThread(ByteBuf out, MetricsSnapshot.DumpedThread t, boolean withState) {
+        StringBuilder line = new StringBuilder(96).append("  \"").append(t.name).append("\" #").append(t.id);
+        if (withState) {
+            line.append(' ').append(t.state);
+        }
+        if (t.lockName != null) {
+            line.append(" on ").append(t.lockName);
+            if (t.lockOwnerName != null) {
+                line.append(" owned by \"").append(t.lockOwnerName).append("\" #").append(t.lockOwnerId);
+            }
+        }
+        ByteBufUtil.writeUtf8(out, line.append('\n'));
+    }
+
+    /** Emits the chunks in order as they are requested, then completes. */
+    private static final class Chunks implements Subscription {
+        private final MetricsSnapshot.ThreadDump dump;
+        private final Subscriber<? super ByteBuf> subscriber;
+        private final int count;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicBoolean emitting = new AtomicBoolean();
+        private volatile int next; // written only while emitting
+        private volatile boolean done;
+
+        Chunks(MetricsSnapshot.ThreadDump dump, Subscriber<? super ByteBuf> subscriber) {
+            this.dump = dump;
+            this.subscriber = subscriber;
+            this.count = dump.groups.size() + 1;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("request must be positive: " + n));
+                return;
+            }
+            requested.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+        }
+
+        private void drain() {
+            // emitting keeps signals serial; whoever clears it re-checks for demand that arrived meanwhile.
+            // Completion needs no demand, so it is signalled right after the last chunk.
+            while (!done && (requested.get() > 0 || next == count) && emitting.compareAndSet(false, true)) {
+                try {
+                    if (next == count) {
+                        done = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    ByteBuf chunk;
+                    try {
+                        chunk = chunk(dump, next);
+                    } catch (Throwable t) {
+                        done = true;
+                        subscriber.onError(t);
+                        return;
+                    }
+                    next++;
+                    requested.getAndUpdate(r -> r == Long.MAX_VALUE ? r : r - 1);
+                    subscriber.onNext(chunk);
+                } finally {
+                    emitting.set(false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.itzamic.eidolon.api;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsService;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.QueryValue;
+import jakarta.inject.Inject;
+
+@Controller("/api/threads")
+public class ThreadsController {
+
+    private final MetricsService metrics;
+
+    @Inject
+    public ThreadsController(MetricsService metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Thread dump with threads grouped by state and identical stack, largest group first, plus any
+     * deadlocked threads. Streamed as text one group at a time, or with {@code ?format=json} as a
+     * {@link MetricsSnapshot.ThreadDump}. {@code ?depth=n} keeps at most n frames per stack.
+     */
+    @Get(uri = "/dump", produces = {MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON})
+    public HttpResponse<?> dump(@QueryValue @Nullable Integer depth, @QueryValue @Nullable String format) {
+        MetricsSnapshot.ThreadDump dump = metrics.threadDump(depth == null ? -1 : Math.max(0, depth));
+        if ("json".equalsIgnoreCase(format)) {
+            return HttpResponse.ok(dump).contentType(MediaType.APPLICATION_JSON);
+        }
+        return HttpResponse.ok(ThreadDumpText.publisher(dump)).contentType(MediaType.TEXT_PLAIN);
+    }
+}
@@ -0,0 +1,448 @@
+package io.github.itzamic.eidolon.export;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.GcPauseHistograms;
+import io.github.itzamic.eidolon.service.MetricsService;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes heap, pool, thread, class and GC pause series in the Prometheus text (0.0.4) or OpenMetrics
+ * format straight into a Netty buffer.
+ *
+ * Values are read from the sections {@link MetricsService} already holds (the published snapshot when
+ * the collector runs) and encoded digit by digit, so a scrape builds no Strings or DTOs of its own.
+ * Each format/encoding variant keeps its rendered body and hands out retained duplicates of it until
+ * one of the source sections or the GC event seq changes. Sections are compared by identity, which
+ * changes with each collection, or on demand once {@code eidolon.snapshot.maxAge} has passed (so
+ * every scrape renders when it is 0). Concurrent scrapers of the same variant share a single render.
+ * When no response still holds the old body, its buffer is cleared and rewritten in place rather
+ * than reallocated. Gzip uses one {@link Deflater} per variant, reused across renders.
+ */
+@Singleton
+public class PrometheusExporter {
+
+    /** Exposition format, chosen from {@code ?format=} or the Accept header. */
+    public enum Format {
+        PROMETHEUS("text/plain; version=0.0.4; charset=utf-8"),
+        OPENMETRICS("application/openmetrics-text; version=1.0.0; charset=utf-8");
+
+        public final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        /** {@code format} ("prometheus"/"openmetrics") wins; otherwise OpenMetrics if the Accept header asks for it. */
+        public static Format negotiate(String format, String accept) {
+            if (format != null && !format.isBlank()) {
+                return "openmetrics".equalsIgnoreCase(format.trim()) ? OPENMETRICS : PROMETHEUS;
+            }
+            return accept != null && accept.contains("application/openmetrics-text") ? OPENMETRICS : PROMETHEUS;
+        }
+    }
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    // GcPauseHistograms.BOUNDS_MILLIS as "le" label values in seconds, e.g. "0.005", "1.0".
+    private static final String[] LE = new String[GcPauseHistograms.BOUNDS_MILLIS.length];
+
+    static {
+        for (int i = 0; i < LE.length; i++) {
+            String s = BigDecimal.valueOf(GcPauseHistograms.BOUNDS_MILLIS[i], 3).stripTrailingZeros().toPlainString();
+            LE[i] = s.indexOf('.') < 0 ? s + ".0" : s;
+        }
+    }
+
+    private final MetricsService metrics;
+    private final ByteBufAllocator allocator;
+    private final Variant[] variants = new Variant[Format.values().length * 2];
+
+    @Inject
+    public PrometheusExporter(MetricsService metrics) {
+        this(metrics, ByteBufAllocator.DEFAULT);
+    }
+
+    PrometheusExporter(MetricsService metrics, ByteBufAllocator allocator) {
+        this.metrics = metrics;
+        this.allocator = allocator;
+        for (Format format : Format.values()) {
+            variants[format.ordinal() * 2] = new Variant(format, false);
+            variants[format.ordinal() * 2 + 1] = new Variant(format, true);
+        }
+    }
+
+    /** Renders (or reuses) the exposition; the caller owns one reference to the returned buffer. */
+    public ByteBuf scrape(Format format, boolean gzip) {
+        MetricsSnapshot.Heap heap = metrics.heap();
+        MetricsSnapshot.Threads threads = metrics.threads();
+        MetricsSnapshot.Classes classes = metrics.classes();
+        long gcSeq = metrics.latestGcEventSeq();
+        Variant v = variants[format.ordinal() * 2 + (gzip ? 1 : 0)];
+        synchronized (v) {
+            if (v.body == null || v.heap != heap || v.threads != threads || v.classes != classes || v.gcSeq != gcSeq) {
+                v.render(heap, threads, classes, metrics.gcPauseHistograms().histograms());
+                v.heap = heap;
+                v.threads = threads;
+                v.classes = classes;
+                v.gcSeq = gcSeq;
+            }
+            return v.body.retainedDuplicate();
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        for (Variant v : variants) {
+            synchronized (v) {
+                v.release();
+            }
+        }
+    }
+
+    /** True if the Accept-Encoding header allows gzip (explicitly or via {@code *}) with a non-zero q. */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            int semi = part.indexOf(';');
+            String coding = (semi < 0 ? part : part.substring(0, semi)).trim();
+            if (coding.equalsIgnoreCase("gzip") || coding.equals("*")) {
+                return semi < 0 || quality(part.substring(semi + 1)) > 0;
+            }
+        }
+        return false;
+    }
+
+    private static double quality(String params) {
+        for (String param : params.split(";")) {
+            String p = param.trim();
+            if (p.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(p.substring(2));
+                } catch (NumberFormatException ignored) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /** One format/encoding combination and its last render. Guarded by its own monitor. */
+    private final class Variant {
+        final Format format;
+        final boolean gzip;
+        ByteBuf body;
+        ByteBuf plain; // gzip only: uncompressed scratch, never handed out
+        Deflater deflater;
+        final CRC32 crc = new CRC32();
+        Object heap;
+        Object threads;
+        Object classes;
+        long gcSeq;
+        int sizeHint = 4096;
+
+        Variant(Format format, boolean gzip) {
+            this.format = format;
+            this.gzip = gzip;
+        }
+
+        void render(MetricsSnapshot.Heap heap, MetricsSnapshot.Threads threads, MetricsSnapshot.Classes classes,
+                    Collection<GcPauseHistograms.Histogram> gc) {
+            if (body != null && body.refCnt() == 1) {
+                body.clear(); // no response still holds it
+            } else {
+                if (body != null) {
+                    body.release();
+                }
+                body = allocator.directBuffer(sizeHint);
+            }
+            if (!gzip) {
+                write(body, format, heap, threads, classes, gc);
+            } else {
+                if (plain == null) {
+                    plain = allocator.directBuffer(sizeHint);
+                    deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+                }
+                plain.clear();
+                write(plain, format, heap, threads, classes, gc);
+                gzip(plain, body);
+            }
+            sizeHint = Math.max(sizeHint, (gzip ? plain : body).readableBytes());
+        }
+
+        private void gzip(ByteBuf src, ByteBuf dst) {
+            ByteBuffer in = src.nioBuffer();
+            crc.reset();
+            crc.update(in.duplicate());
+            deflater.reset();
+            deflater.setInput(in);
+            deflater.finish();
+            dst.writeBytes(GZIP_HEADER);
+            while (!deflater.finished()) {
+                dst.ensureWritable(Math.max(512, src.readableBytes() >> 2));
+                int n = deflater.deflate(dst.nioBuffer(dst.writerIndex(), dst.writableBytes()));
+                dst.writerIndex(dst.writerIndex() + n);
+            }
+            dst.writeIntLE((int) crc.getValue());
+            dst.writeIntLE(src.readableBytes());
+        }
+
+        void release() {
+            if (body != null) {
+                body.release();
+                body = null;
+            }
+            if (plain != null) {
+                plain.release();
+                plain = null;
+            }
+            if (deflater != null) {
+                deflater.end();
+                deflater = null;
+            }
+        }
+    }
+
+    /** Writes every series for the given sections; null sections are skipped. */
+    static void write(ByteBuf out, Format format, MetricsSnapshot.Heap heap, MetricsSnapshot.Threads threads,
+                      MetricsSnapshot.Classes classes, Collection<GcPauseHistograms.Histogram> gc) {
+        if (heap != null) {
+            writeHeap(out, format, heap);
+        }
+        if (threads != null) {
+            writeThreads(out, format, threads);
+        }
+        if (classes != null) {
+            family(out, format, "jvm_classes_currently_loaded", "gauge", "Classes currently loaded.");
+            sample(out, "jvm_classes_currently_loaded", classes.loadedClassCount);
+            family(out, format, "jvm_classes_loaded", "counter", "Classes loaded since JVM start.");
+            sample(out, "jvm_classes_loaded_total", classes.totalLoadedClassCount);
+            family(out, format, "jvm_classes_unloaded", "counter", "Classes unloaded since JVM start.");
+            sample(out, "jvm_classes_unloaded_total", classes.unloadedClassCount);
+        }
+        if (gc != null && !gc.isEmpty()) {
+            writeGcPauses(out, format, gc);
+        }
+        if (format == Format.OPENMETRICS) {
+            ascii(out, "# EOF\n");
+        }
+    }
+
+    private static void writeHeap(ByteBuf out, Format format, MetricsSnapshot.Heap heap) {
+        family(out, format, "jvm_memory_used_bytes", "gauge", "Used heap memory.");
+        ascii(out, "jvm_memory_used_bytes{area=\"heap\"} ");
+        number(out, heap.used);
+        family(out, format, "jvm_memory_committed_bytes", "gauge", "Committed heap memory.");
+        ascii(out, "jvm_memory_committed_bytes{area=\"heap\"} ");
+        number(out, heap.committed);
+        family(out, format, "jvm_memory_max_bytes", "gauge", "Maximum heap memory, -1 if undefined.");
+        ascii(out, "jvm_memory_max_bytes{area=\"heap\"} ");
+        number(out, heap.max);
+        if (heap.pools == null || heap.pools.isEmpty()) {
+            return;
+        }
+        family(out, format, "jvm_memory_pool_used_bytes", "gauge", "Used memory per pool.");
+        for (MetricsSnapshot.MemoryPool p : heap.pools) {
+            if (p.usage != null) {
+                poolSample(out, "jvm_memory_pool_used_bytes", p, p.usage.used);
+            }
+        }
+        family(out, format, "jvm_memory_pool_committed_bytes", "gauge", "Committed memory per pool.");
+        for (MetricsSnapshot.MemoryPool p : heap.pools) {
+            if (p.usage != null) {
+                poolSample(out, "jvm_memory_pool_committed_bytes", p, p.usage.committed);
+            }
+        }
+        family(out, format, "jvm_memory_pool_max_bytes", "gauge", "Maximum memory per pool, -1 if undefined.");
+        for (MetricsSnapshot.MemoryPool p : heap.pools) {
+            if (p.usage != null) {
+                poolSample(out, "jvm_memory_pool_max_bytes", p, p.usage.max);
+            }
+        }
+    }
+
+    private static void poolSample(ByteBuf out, String name, MetricsSnapshot.MemoryPool p, long value) {
+        ascii(out, name);
+        ascii(out, "{pool=\"");
+        labelValue(out, p.name);
+        ascii(out, "HEAP".equals(p.type) ? "\",area=\"heap\"} " : "\",area=\"nonheap\"} ");
+        number(out, value);
+    }
+
+    private static void writeThreads(ByteBuf out, Format format, MetricsSnapshot.Threads threads) {
+        family(out, format, "jvm_threads_current", "gauge", "Live threads.");
+        sample(out, "jvm_threads_current", threads.threadCount);
+        family(out, format, "jvm_threads_daemon", "gauge", "Live daemon threads.");
+        sample(out, "jvm_threads_daemon", threads.daemonThreadCount);
+        family(out, format, "jvm_threads_peak", "gauge", "Peak live threads since JVM start.");
+        sample(out, "jvm_threads_peak", threads.peakThreadCount);
+        family(out, format, "jvm_threads_started", "counter", "Threads started since JVM start.");
+        sample(out, "jvm_threads_started_total", threads.totalStartedThreadCount);
+        if (threads.stateCounts == null || threads.stateCounts.isEmpty()) {
+            return;
+        }
+        family(out, format, "jvm_threads_state", "gauge", "Live threads per state.");
+        for (Map.Entry<String, Integer> e : threads.stateCounts.entrySet()) {
+            ascii(out, "jvm_threads_state{state=\"");
+            labelValue(out, e.getKey());
+            ascii(out, "\"} ");
+            number(out, e.getValue() == null ? 0 : e.getValue());
+        }
+    }
+
+    private static void writeGcPauses(ByteBuf out, Format format, Collection<GcPauseHistograms.Histogram> gc) {
+        family(out, format, "jvm_gc_pause_seconds", "histogram", "GC pause durations per collector and action.");
+        for (GcPauseHistograms.Histogram h : gc) {
+            long cumulative = 0;
+            for (int i = 0; i <= LE.length; i++) {
+                cumulative += h.bucket(i);
+                gcLabels(out, "jvm_gc_pause_seconds_bucket", h);
+                ascii(out, ",le=\"");
+                ascii(out, i < LE.length ? LE[i] : "+Inf");
+                ascii(out, "\"} ");
+                number(out, cumulative);
+            }
+            gcLabels(out, "jvm_gc_pause_seconds_count", h);
+            ascii(out, "} ");
+            number(out, h.count());
+            gcLabels(out, "jvm_gc_pause_seconds_sum", h);
+            ascii(out, "} ");
+            seconds(out, h.sumMillis());
+        }
+    }
+
+    private static void gcLabels(ByteBuf out, String name, GcPauseHistograms.Histogram h) {
+        ascii(out, name);
+        ascii(out, "{gc=\"");
+        labelValue(out, h.gcName());
+        ascii(out, "\",action=\"");
+        labelValue(out, h.gcAction());
+        out.writeByte('"');
+    }
+
+    /**
+     * HELP and TYPE lines. Counters are named without {@code _total} here: the Prometheus format puts the
+     * sample name on its TYPE line, OpenMetrics the family name.
+     */
+    private static void family(ByteBuf out, Format format, String name, String type, String help) {
+        boolean counterTotal = format == Format.PROMETHEUS && "counter".equals(type);
+        ascii(out, "# HELP ");
+        ascii(out, name);
+        if (counterTotal) {
+            ascii(out, "_total");
+        }
+        out.writeByte(' ');
+        ascii(out, help);
+        ascii(out, "\n# TYPE ");
+        ascii(out, name);
+        if (counterTotal) {
+            ascii(out, "_total");
+        }
+        out.writeByte(' ');
+        ascii(out, type);
+        out.writeByte('\n');
+    }
+
+    private static void sample(ByteBuf out, String name, long value) {
+        ascii(out, name);
+        out.writeByte(' ');
+        number(out, value);
+    }
+
+    /** Writes {@code value} and a newline without going through a String. */
+    static void number(ByteBuf out, long value) {
+        digits(out, value);
+        out.writeByte('\n');
+    }
+
+    /** Writes milliseconds as seconds with three decimals, e.g. {@code 1234 -> 1.234}. */
+    static void seconds(ByteBuf out, long millis) {
+        long ms = Math.max(0, millis);
+        int frac = (int) (ms % 1000);
+        digits(out, ms / 1000);
+        out.writeByte('.');
+        out.writeByte('0' + frac / 100);
+        out.writeByte('0' + frac / 10 % 10);
+        out.writeByte('0' + frac % 10);
+        out.writeByte('\n');
+    }
+
+    private static void digits(ByteBuf out, long value) {
+        if (value == Long.MIN_VALUE) {
+            ascii(out, "-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            out.writeByte('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long p = 10; digits < 19 && value >= p; p *= 10) {
+            digits++;
+        }
+        out.ensureWritable(digits);
+        int start = out.writerIndex();
+        for (int i = start + digits - 1; i >= start; i--) {
+            out.setByte(i, '0' + (int) (value % 10));
+            value /= 10;
+        }
+        out.writerIndex(start + digits);
+    }
+
+    /** Label value with {@code \}, {@code "} and newline escaped; non-ASCII is written as UTF-8. */
+    static void labelValue(ByteBuf out, String value) {
+        if (value == null) {
+            return;
+        }
+        int n = value.length();
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.writeByte('\\');
+                out.writeByte(c);
+            } else if (c == '\n') {
+                out.writeByte('\\');
+                out.writeByte('n');
+            } else if (c < 0x80) {
+                out.writeByte(c);
+            } else {
+                int cp = value.codePointAt(i);
+                if (Character.isSupplementaryCodePoint(cp)) {
+                    i++;
+                }
+                utf8(out, cp);
+            }
+        }
+    }
+
+    private static void utf8(ByteBuf out, int cp) {
+        if (cp < 0x800) {
+            out.writeByte(0xc0 | cp >> 6);
+        } else if (cp < 0x10000) {
+            out.writeByte(0xe0 | cp >> 12);
+            out.writeByte(0x80 | cp >> 6 & 0x3f);
+        } else {
+            out.writeByte(0xf0 | cp >> 18);
+            out.writeByte(0x80 | cp >> 12 & 0x3f);
+            out.writeByte(0x80 | cp >> 6 & 0x3f);
+        }
+        out.writeByte(0x80 | cp & 0x3f);
+    }
+
+    private static void ascii(ByteBuf out, String s) {
+        ByteBufUtil.writeAscii(out, s);
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.itzamic.eidolon.history;
+
+import io.github.itzamic.eidolon.EidolonConfig;
+import io.github.itzamic.eidolon.EidolonThreads;
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsSection;
+import io.github.itzamic.eidolon.service.MetricsService;
+import io.micronaut.context.annotation.Context;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records heap, pool, thread, class and GC metrics into a {@link TimeSeriesStore} from a background
+ * sampler, so recent history can be served without an external TSDB.
+ *
+ * The metric set is fixed at startup: {@code heap.*}, {@code pool.<name>.used} for every collected
+ * pool, {@code threads.*}, {@code classes.loaded} and per-interval GC sums ({@code gc.*}) taken
+ * from the GC event cursor. The store is allocated once from
+ * {@link EidolonConfig#historyMemoryBudgetBytes()}, and only when {@link EidolonConfig#historyEnabled()};
+ * otherwise no metric is recorded and the bean holds nothing. Created eagerly so sampling starts with the server.
+ */
+@Context
+public class MetricsHistory {
+
+    private static final Set<MetricsSection> SECTIONS =
+            EnumSet.of(MetricsSection.HEAP, MetricsSection.POOLS, MetricsSection.THREADS, MetricsSection.CLASSES);
+
+    private static final String[] GAUGES = {
+            "heap.used", "heap.committed", "threads.live", "threads.daemon", "classes.loaded"
+    };
+    private static final String[] GC_SUMS = {
+            "gc.collections", "gc.pauseMillis", "gc.allocatedBytes", "gc.promotedBytes", "gc.reclaimedBytes"
+    };
+
+    private final MetricsService metrics;
+    private final EidolonConfig config;
+    private final List<String> poolNames = new ArrayList<>();
+    private final TimeSeriesStore store; // null when history is disabled
+    private final double[] row; // reused by the sampler thread
+
+    private ScheduledExecutorService executor;
+    private long gcCursor;
+
+    @Inject
+    public MetricsHistory(MetricsService metrics, EidolonConfig config) {
+        this.metrics = metrics;
+        this.config = config;
+        if (!config.historyEnabled()) {
+            this.store = null;
+            this.row = null;
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        List<TimeSeriesStore.Aggregation> aggregations = new ArrayList<>();
+        for (String gauge : GAUGES) {
+            names.add(gauge);
+            aggregations.add(TimeSeriesStore.Aggregation.AVERAGE);
+        }
+        for (MetricsSnapshot.MemoryPool pool : metrics.memoryPools()) {
+            poolNames.add(pool.name);
+            names.add("pool." + pool.name + ".used");
+            aggregations.add(TimeSeriesStore.Aggregation.AVERAGE);
+        }
+        for (String sum : GC_SUMS) {
+            names.add(sum);
+            aggregations.add(TimeSeriesStore.Aggregation.SUM);
+        }
+        this.store = new TimeSeriesStore(names, aggregations,
+                config.historySampleIntervalMillis(), config.historyMemoryBudgetBytes());
+        this.row = new double[names.size()];
+    }
+
+    @PostConstruct
+    void start() {
+        if (store == null || config.historySampleIntervalMillis() <= 0) {
+            return;
+        }
+        gcCursor = metrics.latestGcEventSeq();
+        executor = Executors.newSingleThreadScheduledExecutor(
+                EidolonThreads.factory("eidolon-history", config.virtualThreads()));
+        long interval = config.historySampleIntervalMillis();
+        executor.scheduleAtFixedRate(this::sampleQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Recorded metric names; empty when history is disabled. */
+    public List<String> metricNames() {
+        return store == null ? List.of() : store.metricNames();
+    }
+
+    /** See {@link TimeSeriesStore#query}; {@code null} for an unknown metric or when history is disabled. */
+    public MetricsSnapshot.History query(String metric, long from, long to, long stepMillis) {
+        return store == null ? null : store.query(metric, from, to, stepMillis);
+    }
+
+    private void sampleQuietly() {
+        try {
+            sample(System.currentTimeMillis());
+        } catch (Throwable ignored) {
+        }
+    }
+
+    /** Takes one raw sample; package-private so tests can drive it without the scheduler. */
+    void sample(long now) {
+        MetricsSnapshot snap = metrics.snapshot(SECTIONS);
+        int i = 0;
+        row[i++] = snap.heap.used;
+        row[i++] = snap.heap.committed;
+        row[i++] = snap.threads.threadCount;
+        row[i++] = snap.threads.daemonThreadCount;
+        row[i++] = snap.classes.loadedClassCount;
+        for (String pool : poolNames) {
+            row[i++] = poolUsed(snap.heap.pools, pool);
+        }
+
+        MetricsSnapshot.GcEventPage page = metrics.gcEventsSince(gcCursor, Integer.MAX_VALUE);
+        gcCursor = page.nextSeq;
+        double pause = 0, allocated = 0, promoted = 0, reclaimed = 0;
+        for (MetricsSnapshot.GcEvent e : page.events) {
+            pause += Math.max(0, e.durationMillis);
+            allocated += e.allocatedBytes;
+            promoted += e.promotedBytes;
+            reclaimed += e.reclaimedBytes;
+        }
+        row[i++] = page.events.size() + page.missed;
+        row[i++] = pause;
+        row[i++] = allocated;
+        row[i++] = promoted;
+        row[i] = reclaimed;
+        store.append(now, row);
+    }
+
+    private static double poolUsed(List<MetricsSnapshot.MemoryPool> pools, String name) {
+        if (pools != null) {
+            for (MetricsSnapshot.MemoryPool p : pools) {
+                if (p.name.equals(name) && p.usage != null && p.usage.used >= 0) {
+                    return p.usage.used;
+                }
+            }
+        }
+        return Double.NaN;
+    }
+}
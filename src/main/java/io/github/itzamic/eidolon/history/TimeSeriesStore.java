@@ -0,0 +1,227 @@
+package io.github.itzamic.eidolon.history;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-size, in-process time-series store with raw, 10 s and 1 min retention tiers.
+ *
+ * Every tier is a ring of rows held in primitive arrays: one {@code long[]} of timestamps and one
+ * flat {@code double[]} laid out column-major ({@code values[metric * capacity + slot]}), so a
+ * single-metric query scans contiguous memory and the layout maps directly onto a direct buffer.
+ * Raw samples are written to the raw tier and folded into the 10 s and 1 min tiers as each bucket
+ * closes: gauges are averaged and per-interval counters are summed. Tier capacities are derived
+ * from the memory budget once, so the store never grows. {@code NaN} marks a missing value.
+ */
+public final class TimeSeriesStore {
+
+    /** How raw samples are folded into coarser buckets. */
+    public enum Aggregation {
+        /** Point-in-time values such as heap used; the bucket holds their mean. */
+        AVERAGE,
+        /** Amounts per sample interval such as GC pause time; the bucket holds their sum. */
+        SUM
+    }
+
+    static final long TEN_SECONDS = 10_000L;
+    static final long ONE_MINUTE = 60_000L;
+
+    // Share of the memory budget given to each tier: raw, 10 s, 1 min.
+    private static final double[] BUDGET_SHARES = {0.5, 0.25, 0.25};
+
+    private final String[] metrics;
+    private final Aggregation[] aggregations;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final Tier[] tiers;
+
+    public TimeSeriesStore(List<String> metrics, List<Aggregation> aggregations, long rawStepMillis, long memoryBudgetBytes) {
+        if (metrics.size() != aggregations.size()) {
+            throw new IllegalArgumentException("metrics and aggregations differ in length");
+        }
+        this.metrics = metrics.toArray(new String[0]);
+        this.aggregations = aggregations.toArray(new Aggregation[0]);
+        for (int i = 0; i < this.metrics.length; i++) {
+            index.put(this.metrics[i], i);
+        }
+        long bytesPerRow = Long.BYTES + (long) Double.BYTES * this.metrics.length;
+        long[] steps = {Math.max(1L, rawStepMillis), TEN_SECONDS, ONE_MINUTE};
+        this.tiers = new Tier[steps.length];
+        for (int t = 0; t < steps.length; t++) {
+            long rows = (long) (memoryBudgetBytes * BUDGET_SHARES[t]) / bytesPerRow;
+            int capacity = (int) Math.max(2, Math.min(Integer.MAX_VALUE / Math.max(1, this.metrics.length), rows));
+            tiers[t] = new Tier(steps[t], capacity, this.metrics.length);
+        }
+    }
+
+    public List<String> metricNames() {
+        return List.of(metrics);
+    }
+
+    /** Bytes held by the tier arrays. */
+    public long memoryBytes() {
+        long total = 0;
+        for (Tier tier : tiers) {
+            total += (long) tier.capacity * (Long.BYTES + (long) Double.BYTES * metrics.length);
+        }
+        return total;
+    }
+
+    /** Retention of each tier in millis (capacity times step), finest first. */
+    public long[] retentionMillis() {
+        long[] out = new long[tiers.length];
+        for (int t = 0; t < tiers.length; t++) {
+            out[t] = tiers[t].capacity * tiers[t].step;
+        }
+        return out;
+    }
+
+    /** Appends one raw sample; {@code values} is indexed like {@link #metricNames()} and is not retained. */
+    public synchronized void append(long timestampMillis, double[] values) {
+        tiers[0].put(timestampMillis, values);
+        for (int t = 1; t < tiers.length; t++) {
+            tiers[t].accumulate(timestampMillis, values, aggregations);
+        }
+    }
+
+    /**
+     * Points of {@code metric} with {@code from <= timestamp <= to}, oldest first, or {@code null} if
+     * the metric is unknown. The coarsest tier whose step does not exceed {@code stepMillis} and that
+     * still reaches back to {@code from} serves the query (a coarser one if none does); a step larger
+     * than that tier's re-buckets its points on the fly. Rollup tiers only hold closed buckets.
+     */
+    public synchronized MetricsSnapshot.History query(String metric, long from, long to, long stepMillis) {
+        Integer m = index.get(metric);
+        if (m == null) {
+            return null;
+        }
+        Tier tier = pick(from, stepMillis);
+        long step = Math.max(stepMillis, tier.step);
+        Aggregation agg = aggregations[m];
+
+        long[] times = new long[tier.size];
+        double[] values = new double[tier.size];
+        int n = 0;
+        long bucket = Long.MIN_VALUE;
+        double sum = 0;
+        int count = 0;
+        for (int i = 0; i < tier.size; i++) {
+            int slot = tier.slotOf(i);
+            long ts = tier.times[slot];
+            double v = tier.values[m * tier.capacity + slot];
+            if (ts < from || ts > to || Double.isNaN(v)) {
+                continue;
+            }
+            long b = step == tier.step ? ts : ts - Math.floorMod(ts, step);
+            if (b != bucket && count > 0) {
+                times[n] = bucket;
+                values[n++] = agg == Aggregation.SUM ? sum : sum / count;
+                sum = 0;
+                count = 0;
+            }
+            bucket = b;
+            sum += v;
+            count++;
+        }
+        if (count > 0) {
+            times[n] = bucket;
+            values[n++] = agg == Aggregation.SUM ? sum : sum / count;
+        }
+        return new MetricsSnapshot.History(metric, step, Arrays.copyOf(times, n), Arrays.copyOf(values, n));
+    }
+
+    private Tier pick(long from, long stepMillis) {
+        long wanted = Math.max(stepMillis, tiers[0].step);
+        for (int t = tiers.length - 1; t >= 0; t--) {
+            if (tiers[t].step <= wanted && tiers[t].covers(from)) {
+                return tiers[t];
+            }
+        }
+        // Nothing that fine reaches back to from: coarsen rather than truncate the range.
+        for (Tier tier : tiers) {
+            if (tier.covers(from)) {
+                return tier;
+            }
+        }
+        return tiers[tiers.length - 1];
+    }
+
+    private static final class Tier {
+        final long step;
+        final int capacity;
+        final long[] times;
+        final double[] values;
+        int next; // slot the next row goes to
+        int size;
+
+        // Open rollup bucket (unused by the raw tier).
+        long bucketStart = Long.MIN_VALUE;
+        final double[] sums;
+        final int[] counts;
+        final double[] rollup;
+
+        Tier(long step, int capacity, int metrics) {
+            this.step = step;
+            this.capacity = capacity;
+            this.times = new long[capacity];
+            this.values = new double[capacity * metrics];
+            this.sums = new double[metrics];
+            this.counts = new int[metrics];
+            this.rollup = new double[metrics];
+        }
+
+        void put(long ts, double[] row) {
+            times[next] = ts;
+            for (int m = 0; m < row.length; m++) {
+                values[m * capacity + next] = row[m];
+            }
+            next = (next + 1) % capacity;
+            if (size < capacity) {
+                size++;
+            }
+        }
+
+        void accumulate(long ts, double[] row, Aggregation[] aggregations) {
+            long bucket = ts - Math.floorMod(ts, step);
+            if (bucket != bucketStart) {
+                flush(aggregations);
+                bucketStart = bucket;
+            }
+            for (int m = 0; m < row.length; m++) {
+                if (!Double.isNaN(row[m])) {
+                    sums[m] += row[m];
+                    counts[m]++;
+                }
+            }
+        }
+
+        private void flush(Aggregation[] aggregations) {
+            if (bucketStart == Long.MIN_VALUE) {
+                return;
+            }
+            for (int m = 0; m < sums.length; m++) {
+                if (counts[m] == 0) {
+                    rollup[m] = Double.NaN;
+                } else {
+                    rollup[m] = aggregations[m] == Aggregation.SUM ? sums[m] : sums[m] / counts[m];
+                }
+            }
+            put(bucketStart, rollup);
+            Arrays.fill(sums, 0);
+            Arrays.fill(counts, 0);
+        }
+
+        /** Slot of the i-th oldest row. */
+        int slotOf(int i) {
+            return (next - size + i + capacity) % capacity;
+        }
+
+        /** True if no row at or after {@code from} has been evicted yet. */
+        boolean covers(long from) {
+            return size < capacity || times[slotOf(0)] <= from;
+        }
+    }
+}
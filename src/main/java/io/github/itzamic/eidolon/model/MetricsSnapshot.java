@@ -14,19 +14,28 @@ public final class MetricsSnapshot {
     public final Classes classes;
     public final StringTable stringTable; // may be null if not available or disabled
     public final List<GcEvent> recentGcEvents;
+    public final List<GcPauseStats> gcPauses; // pause percentiles per collector/action; sent with recentGcEvents
+    public final HotThreads hotThreads; // top threads by CPU and allocation over the last collection interval
+    public final List<JfrEventStats> jfrEvents; // JFR safepoint/contention/pause summaries; null unless enabled
 
     public MetricsSnapshot(long timestampMillis,
                            Heap heap,
                            Threads threads,
                            Classes classes,
                            StringTable stringTable,
-                           List<GcEvent> recentGcEvents) {
+                           List<GcEvent> recentGcEvents,
+                           List<GcPauseStats> gcPauses,
+                           HotThreads hotThreads,
+                           List<JfrEventStats> jfrEvents) {
         this.timestampMillis = timestampMillis;
         this.heap = heap;
         this.threads = threads;
         this.classes = classes;
         this.stringTable = stringTable;
         this.recentGcEvents = recentGcEvents;
+        this.gcPauses = gcPauses;
+        this.hotThreads = hotThreads;
+        this.jfrEvents = jfrEvents;
     }
 
     public static final class Heap {
@@ -87,6 +96,44 @@ public final class MetricsSnapshot {
         }
     }
 
+    public static final class HotThreads {
+        public final long intervalMillis; // window the per-thread deltas cover; 0 on the first sample
+        public final boolean cpuTimeSupported;
+        public final boolean allocationSupported;
+        public final List<HotThread> byCpu; // highest first, threads with no CPU time in the window omitted
+        public final List<HotThread> byAllocation; // highest first, empty when allocation is not supported
+
+        public HotThreads(long intervalMillis, boolean cpuTimeSupported, boolean allocationSupported,
+                          List<HotThread> byCpu, List<HotThread> byAllocation) {
+            this.intervalMillis = intervalMillis;
+            this.cpuTimeSupported = cpuTimeSupported;
+            this.allocationSupported = allocationSupported;
+            this.byCpu = byCpu;
+            this.byAllocation = byAllocation;
+        }
+    }
+
+    public static final class HotThread {
+        public final long threadId;
+        public final String threadName;
+        public final String threadState;
+        public final long cpuTimeNanos; // during the interval; -1 when not supported
+        public final double cpuUsage; // cpuTimeNanos over the interval: 1.0 is one fully busy core
+        public final long allocatedBytes; // during the interval; -1 when not supported
+        public final double allocationRateBytesPerSec;
+
+        public HotThread(long threadId, String threadName, String threadState, long cpuTimeNanos, double cpuUsage,
+                         long allocatedBytes, double allocationRateBytesPerSec) {
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.threadState = threadState;
+            this.cpuTimeNanos = cpuTimeNanos;
+            this.cpuUsage = cpuUsage;
+            this.allocatedBytes = allocatedBytes;
+            this.allocationRateBytesPerSec = allocationRateBytesPerSec;
+        }
+    }
+
     public static final class Classes {
         public final long loadedClassCount;
         public final long totalLoadedClassCount;
@@ -118,18 +165,352 @@ public final class MetricsSnapshot {
     }
 
     public static final class GcEvent {
+        public final long seq; // monotonically increasing per JVM, starting at 1
         public final String gcName;
         public final String gcAction;
         public final String gcCause;
         public final long startTimeMillis;
         public final long durationMillis;
+        public final long[] poolUsedBefore; // used bytes per pool, indexed like GcRates.poolNames; -1 if not reported
+        public final long[] poolUsedAfter;
+        public final long allocatedBytes; // young-gen growth since the previous collection
+        public final long promotedBytes; // old-gen growth during this collection
+        public final long reclaimedBytes; // heap used before minus after
 
         public GcEvent(String gcName, String gcAction, String gcCause, long startTimeMillis, long durationMillis) {
+            this(0L, gcName, gcAction, gcCause, startTimeMillis, durationMillis);
+        }
+
+        public GcEvent(long seq, String gcName, String gcAction, String gcCause, long startTimeMillis, long durationMillis) {
+            this(seq, gcName, gcAction, gcCause, startTimeMillis, durationMillis, null, null, 0L, 0L, 0L);
+        }
+
+        public GcEvent(long seq, String gcName, String gcAction, String gcCause, long startTimeMillis, long durationMillis,
+                       long[] poolUsedBefore, long[] poolUsedAfter, long allocatedBytes, long promotedBytes, long reclaimedBytes) {
+            this.seq = seq;
             this.gcName = gcName;
             this.gcAction = gcAction;
             this.gcCause = gcCause;
             this.startTimeMillis = startTimeMillis;
             this.durationMillis = durationMillis;
+            this.poolUsedBefore = poolUsedBefore;
+            this.poolUsedAfter = poolUsedAfter;
+            this.allocatedBytes = allocatedBytes;
+            this.promotedBytes = promotedBytes;
+            this.reclaimedBytes = reclaimedBytes;
+        }
+    }
+
+    public static final class GcEventPage {
+        public final List<GcEvent> events; // seq > requested cursor, oldest first
+        public final long nextSeq; // pass as ?since= on the next poll
+        public final long missed; // events after the cursor that were overwritten before this read
+        public final long overwritten; // total events dropped by the full buffer since startup
+
+        public GcEventPage(List<GcEvent> events, long nextSeq, long missed, long overwritten) {
+            this.events = events;
+            this.nextSeq = nextSeq;
+            this.missed = missed;
+            this.overwritten = overwritten;
+        }
+    }
+
+    public static final class GcRates {
+        public final List<String> poolNames; // ordinal order of GcEvent.poolUsedBefore/After
+        public final int collections; // retained events the rates are derived from
+        public final long windowMillis; // first to last retained collection start
+        public final double allocationRateBytesPerSec;
+        public final double promotionRateBytesPerSec;
+        public final long reclaimedBytes; // total over the window
+
+        public GcRates(List<String> poolNames, int collections, long windowMillis,
+                       double allocationRateBytesPerSec, double promotionRateBytesPerSec, long reclaimedBytes) {
+            this.poolNames = poolNames;
+            this.collections = collections;
+            this.windowMillis = windowMillis;
+            this.allocationRateBytesPerSec = allocationRateBytesPerSec;
+            this.promotionRateBytesPerSec = promotionRateBytesPerSec;
+            this.reclaimedBytes = reclaimedBytes;
+        }
+    }
+
+    public static final class GcPauseStats {
+        public final String gcName;
+        public final String gcAction;
+        public final PausePercentiles cumulative; // since startup
+        public final PausePercentiles interval; // last completed interval; null until one completes
+
+        public GcPauseStats(String gcName, String gcAction, PausePercentiles cumulative, PausePercentiles interval) {
+            this.gcName = gcName;
+            this.gcAction = gcAction;
+            this.cumulative = cumulative;
+            this.interval = interval;
+        }
+    }
+
+    public static final class PausePercentiles {
+        public final long fromMillis; // window the counts cover, epoch millis
+        public final long toMillis;
+        public final long count;
+        public final long p50Millis; // percentiles are bucket upper bounds, within 6.25% of the recorded pause
+        public final long p90Millis;
+        public final long p99Millis;
+        public final long p999Millis;
+        public final long maxMillis;
+
+        public PausePercentiles(long fromMillis, long toMillis, long count, long p50Millis, long p90Millis,
+                                long p99Millis, long p999Millis, long maxMillis) {
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.count = count;
+            this.p50Millis = p50Millis;
+            this.p90Millis = p90Millis;
+            this.p99Millis = p99Millis;
+            this.p999Millis = p999Millis;
+            this.maxMillis = maxMillis;
+        }
+    }
+
+    public static final class JfrEventStats {
+        public final String event; // safepoint, monitor-enter, thread-park or gc-phase-pause
+        public final long thresholdMillis; // shorter events are not recorded by JFR
+        public final JfrEventWindow cumulative; // since the stream started
+        public final JfrEventWindow interval; // last completed interval; null until one completes
+
+        public JfrEventStats(String event, long thresholdMillis, JfrEventWindow cumulative, JfrEventWindow interval) {
+            this.event = event;
+            this.thresholdMillis = thresholdMillis;
+            this.cumulative = cumulative;
+            this.interval = interval;
+        }
+    }
+
+    public static final class JfrEventWindow {
+        public final long fromMillis; // window the summary covers, epoch millis
+        public final long toMillis;
+        public final long count;
+        public final long totalNanos; // summed event durations
+        public final long maxNanos;
+        public final String maxThread; // thread of the longest event; null for VM-wide events or when count is 0
+        public final String maxDetail; // monitor class, parked-on class or GC phase of the longest event, if any
+
+        public JfrEventWindow(long fromMillis, long toMillis, long count, long totalNanos, long maxNanos,
+                              String maxThread, String maxDetail) {
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.maxThread = maxThread;
+            this.maxDetail = maxDetail;
+        }
+    }
+
+    public static final class AllocationProfile {
+        public final int samplesPerSecond; // JFR throttle across all threads
+        public final int stackDepth; // frames kept per stack, innermost first
+        public final int capacity; // sites tracked per window, from the memory budget
+        public final AllocationWindow current; // the window still being filled
+        public final AllocationWindow previous; // last completed window; null until one completes
+
+        public AllocationProfile(int samplesPerSecond, int stackDepth, int capacity,
+                                 AllocationWindow current, AllocationWindow previous) {
+            this.samplesPerSecond = samplesPerSecond;
+            this.stackDepth = stackDepth;
+            this.capacity = capacity;
+            this.current = current;
+            this.previous = previous;
+        }
+    }
+
+    public static final class AllocationWindow {
+        public final long fromMillis; // window the samples cover, epoch millis
+        public final long toMillis;
+        public final long samples;
+        public final long sampledBytes; // allocation the samples stand for (JFR sample weights)
+        public final long evictions; // sites dropped to make room; when > 0, site bytes carry errorBytes
+        public final List<AllocationSite> top; // highest bytes first
+
+        public AllocationWindow(long fromMillis, long toMillis, long samples, long sampledBytes, long evictions,
+                                List<AllocationSite> top) {
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.samples = samples;
+            this.sampledBytes = sampledBytes;
+            this.evictions = evictions;
+            this.top = top;
+        }
+    }
+
+    public static final class AllocationSite {
+        public final String className;
+        public final List<String> stack; // innermost frame first, truncated to stackDepth
+        public final long bytes; // estimated bytes allocated here in the window; may overcount by errorBytes
+        public final long samples; // samples seen since the site was last admitted to the table
+        public final long errorBytes; // bytes inherited from the evicted site this one replaced
+
+        public AllocationSite(String className, List<String> stack, long bytes, long samples, long errorBytes) {
+            this.className = className;
+            this.stack = stack;
+            this.bytes = bytes;
+            this.samples = samples;
+            this.errorBytes = errorBytes;
+        }
+    }
+
+    public static final class CpuProfile {
+        public final long fromMillis; // window the samples cover, epoch millis
+        public final long toMillis;
+        public final long intervalMillis; // between bulk stack captures
+        public final long ticks; // bulk stack captures taken
+        public final long samples; // RUNNABLE thread stacks merged into the tree
+        public final long truncatedSamples; // stacks cut short because the tree reached its node limit
+        public final int nodes;
+        public final FlameNode root; // d3-flame-graph shape; value is samples including descendants
+
+        public CpuProfile(long fromMillis, long toMillis, long intervalMillis, long ticks, long samples,
+                          long truncatedSamples, int nodes, FlameNode root) {
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.intervalMillis = intervalMillis;
+            this.ticks = ticks;
+            this.samples = samples;
+            this.truncatedSamples = truncatedSamples;
+            this.nodes = nodes;
+            this.root = root;
+        }
+    }
+
+    public static final class FlameNode {
+        public final String name; // declaring class and method
+        public final long value;
+        public final List<FlameNode> children;
+
+        public FlameNode(String name, long value, List<FlameNode> children) {
+            this.name = name;
+            this.value = value;
+            this.children = children;
+        }
+    }
+
+    public static final class ThreadDump {
+        public final long timestampMillis;
+        public final int maxDepth; // frames kept per stack; -1 when unlimited
+        public final int threadCount;
+        public final List<DumpedThread> deadlocked; // threads in monitor or synchronizer deadlock cycles
+        public final List<StackGroup> groups; // largest group first
+
+        public ThreadDump(long timestampMillis, int maxDepth, int threadCount, List<DumpedThread> deadlocked,
+                          List<StackGroup> groups) {
+            this.timestampMillis = timestampMillis;
+            this.maxDepth = maxDepth;
+            this.threadCount = threadCount;
+            this.deadlocked = deadlocked;
+            this.groups = groups;
+        }
+    }
+
+    /** Threads with the same state and identical (truncated) stack. */
+    public static final class StackGroup {
+        public final String state;
+        public final int count;
+        public final List<DumpedThread> threads;
+        public final List<String> stack; // innermost frame first
+
+        public StackGroup(String state, int count, List<DumpedThread> threads, List<String> stack) {
+            this.state = state;
+            this.count = count;
+            this.threads = threads;
+            this.stack = stack;
+        }
+    }
+
+    public static final class DumpedThread {
+        public final long id;
+        public final String name;
+        public final String state;
+        public final String lockName; // monitor or synchronizer the thread is blocked or waiting on, if any
+        public final long lockOwnerId; // -1 when the lock is not owned or there is none
+        public final String lockOwnerName;
+
+        public DumpedThread(long id, String name, String state, String lockName, long lockOwnerId,
+                            String lockOwnerName) {
+            this.id = id;
+            this.name = name;
+            this.state = state;
+            this.lockName = lockName;
+            this.lockOwnerId = lockOwnerId;
+            this.lockOwnerName = lockOwnerName;
+        }
+    }
+
+    public static final class HeapHistogram {
+        public final long timestampMillis; // when the histogram was taken
+        public final long previousTimestampMillis; // run the deltas are against; -1 for the first run
+        public final int classes;
+        public final long totalInstances;
+        public final long totalBytes;
+        public final long deltaInstances;
+        public final long deltaBytes;
+        public final List<ClassHistogramEntry> top; // by bytes
+        public final List<ClassHistogramEntry> growth; // by bytes gained since the previous run
+
+        public HeapHistogram(long timestampMillis, long previousTimestampMillis, int classes, long totalInstances,
+                             long totalBytes, long deltaInstances, long deltaBytes, List<ClassHistogramEntry> top,
+                             List<ClassHistogramEntry> growth) {
+            this.timestampMillis = timestampMillis;
+            this.previousTimestampMillis = previousTimestampMillis;
+            this.classes = classes;
+            this.totalInstances = totalInstances;
+            this.totalBytes = totalBytes;
+            this.deltaInstances = deltaInstances;
+            this.deltaBytes = deltaBytes;
+            this.top = top;
+            this.growth = growth;
+        }
+    }
+
+    public static final class ClassHistogramEntry {
+        public final String className;
+        public final long instances; // live instances
+        public final long bytes; // shallow size of those instances
+        public final long deltaInstances; // since the previous run; the whole count for a class new to it
+        public final long deltaBytes;
+
+        public ClassHistogramEntry(String className, long instances, long bytes, long deltaInstances, long deltaBytes) {
+            this.className = className;
+            this.instances = instances;
+            this.bytes = bytes;
+            this.deltaInstances = deltaInstances;
+            this.deltaBytes = deltaBytes;
+        }
+    }
+
+    public static final class History {
+        public final String metric;
+        public final long stepMillis; // resolution of the returned points
+        public final long[] timestamps; // epoch millis, bucket start for rolled-up points
+        public final double[] values;
+
+        public History(String metric, long stepMillis, long[] timestamps, double[] values) {
+            this.metric = metric;
+            this.stepMillis = stepMillis;
+            this.timestamps = timestamps;
+            this.values = values;
+        }
+    }
+
+    public static final class WebSocketStats {
+        public final int sessions;
+        public final long framesQueued;
+        public final long framesDropped; // replaced by a newer frame before being written
+        public final long slowConsumerDisconnects;
+
+        public WebSocketStats(int sessions, long framesQueued, long framesDropped, long slowConsumerDisconnects) {
+            this.sessions = sessions;
+            this.framesQueued = framesQueued;
+            this.framesDropped = framesDropped;
+            this.slowConsumerDisconnects = slowConsumerDisconnects;
         }
     }
 }
@@ -0,0 +1,220 @@
+package io.github.itzamic.eidolon.profile;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stack samples merged into a call-tree trie, outermost frame at the root.
+ *
+ * Frames are interned to ints (one {@code Class.method} name per id, shared by every line of the
+ * method), and nodes are kept as primitive columns: frame, parent and self-sample count per node,
+ * plus an open-addressing table from {@code (parent, frame)} to child. Merging a stack is one table
+ * probe per frame with no allocation once its path exists. The tree stops growing at
+ * {@code maxNodes}: a stack that needs a new node past that is attributed to its deepest existing
+ * prefix and counted as truncated, so memory is bounded however diverse the stacks are.
+ *
+ * Not thread-safe: one sampler thread writes, and readers wait until it has finished.
+ */
+public final class CallTree {
+
+    private static final String ROOT = "all";
+
+    private final int maxNodes;
+    private final long intervalMillis;
+    private final long fromMillis = System.currentTimeMillis();
+    private long toMillis = -1;
+    private long ticks;
+    private long samples;
+    private long truncated;
+
+    // Interned frames.
+    private final Map<StackTraceElement, Integer> elementIds = new HashMap<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    // Node columns; node 0 is the root.
+    private int size = 1;
+    private int[] frame = new int[64];
+    private int[] parent = new int[64];
+    private long[] self = new long[64];
+
+    // (parent << 32 | frame) -> child + 1, linear probing; 0 marks a free slot.
+    private long[] keys = new long[128];
+    private int[] children = new int[128];
+
+    CallTree(int maxNodes, long intervalMillis) {
+        this.maxNodes = Math.max(1, maxNodes);
+        this.intervalMillis = intervalMillis;
+        frame[0] = -1;
+        parent[0] = -1;
+    }
+
+    /** Counts one bulk capture, whether or not it yielded any stacks. */
+    void tick() {
+        ticks++;
+    }
+
+    /** Merges one stack, innermost frame first as returned by {@link Thread#getStackTrace()}. */
+    void add(StackTraceElement[] stack) {
+        samples++;
+        int node = 0;
+        for (int i = stack.length - 1; i >= 0; i--) {
+            int f = frameId(stack[i]);
+            int child = f < 0 ? -1 : child(node, f);
+            if (child < 0) {
+                truncated++;
+                break;
+            }
+            node = child;
+        }
+        self[node]++;
+    }
+
+    void finish(long nowMillis) {
+        toMillis = nowMillis;
+    }
+
+    private int frameId(StackTraceElement e) {
+        Integer id = elementIds.get(e);
+        if (id != null) {
+            return id;
+        }
+        if (size >= maxNodes) {
+            return -1; // a new frame could only be reached through a new node
+        }
+        String name = e.getClassName() + "." + e.getMethodName();
+        Integer byName = nameIds.get(name);
+        if (byName == null) {
+            byName = names.size();
+            names.add(name);
+            nameIds.put(name, byName);
+        }
+        elementIds.put(e, byName);
+        return byName;
+    }
+
+    private int child(int node, int f) {
+        long key = ((long) node << 32) | f;
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (children[slot] != 0) {
+            if (keys[slot] == key) {
+                return children[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size >= maxNodes) {
+            return -1;
+        }
+        int created = size++;
+        if (created == frame.length) {
+            int n = frame.length * 2;
+            frame = Arrays.copyOf(frame, n);
+            parent = Arrays.copyOf(parent, n);
+            self = Arrays.copyOf(self, n);
+        }
+        frame[created] = f;
+        parent[created] = node;
+        keys[slot] = key;
+        children[slot] = created + 1;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return created;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldChildren = children;
+        keys = new long[oldKeys.length * 2];
+        children = new int[oldChildren.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldChildren[i] != 0) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (children[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                children[slot] = oldChildren[i];
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public long samples() {
+        return samples;
+    }
+
+    public int nodes() {
+        return size;
+    }
+
+    /** Samples per node including descendants; parents always precede their children. */
+    private long[] totals() {
+        long[] total = Arrays.copyOf(self, size);
+        for (int i = size - 1; i > 0; i--) {
+            total[parent[i]] += total[i];
+        }
+        return total;
+    }
+
+    /**
+     * Brendan Gregg's collapsed-stack format, one line per distinct stack: frames root first joined
+     * by {@code ;}, a space, and the number of samples ending there. Input for flamegraph.pl,
+     * speedscope and similar tools.
+     */
+    public String collapsed() {
+        StringBuilder out = new StringBuilder();
+        int[] path = new int[64];
+        for (int i = 1; i < size; i++) {
+            if (self[i] == 0) {
+                continue;
+            }
+            int depth = 0;
+            for (int n = i; n > 0; n = parent[n]) {
+                if (depth == path.length) {
+                    path = Arrays.copyOf(path, depth * 2);
+                }
+                path[depth++] = frame[n];
+            }
+            for (int d = depth - 1; d >= 0; d--) {
+                out.append(names.get(path[d]));
+                out.append(d > 0 ? ';' : ' ');
+            }
+            out.append(self[i]).append('\n');
+        }
+        return out.toString();
+    }
+
+    /** The tree as nested {@code {name, value, children}} nodes, as d3-flame-graph and speedscope expect. */
+    public MetricsSnapshot.CpuProfile toProfile() {
+        long[] total = totals();
+        List<List<MetricsSnapshot.FlameNode>> kids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            kids.add(new ArrayList<>());
+        }
+        MetricsSnapshot.FlameNode root = null;
+        // Children before parents, so each node is built with its complete child list.
+        for (int i = size - 1; i >= 0; i--) {
+            MetricsSnapshot.FlameNode node = new MetricsSnapshot.FlameNode(
+                    i == 0 ? ROOT : names.get(frame[i]), total[i], kids.get(i));
+            if (i == 0) {
+                root = node;
+            } else {
+                kids.get(parent[i]).add(node);
+            }
+        }
+        long to = toMillis < 0 ? System.currentTimeMillis() : toMillis;
+        return new MetricsSnapshot.CpuProfile(fromMillis, to, intervalMillis, ticks, samples, truncated, size, root);
+    }
+}
@@ -0,0 +1,177 @@
+package io.github.itzamic.eidolon.profile;
+
+import io.github.itzamic.eidolon.EidolonConfig;
+import io.github.itzamic.eidolon.EidolonThreads;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On-demand sampling CPU profiler: while at least one profile is running, every
+ * {@link EidolonConfig#profileIntervalMillis()} the stacks of all platform threads are captured in one
+ * {@link ThreadMXBean#dumpAllThreads(boolean, boolean, int)} call (no monitor or synchronizer info),
+ * and the stacks of RUNNABLE threads are merged into each running profile's {@link CallTree}.
+ *
+ * Stacks are taken at safepoints, so samples lean towards safepoint polls, and RUNNABLE includes
+ * threads blocked in native I/O; this shows where threads are running, not cycles spent. Virtual
+ * threads are not included by the JVM's thread dump. Eidolon's own threads are skipped, and when
+ * {@link EidolonConfig#includeThreadNamePrefixes()} is set only matching threads are sampled.
+ *
+ * Concurrent profiles share the sampler thread and its captures; it is stopped when none is running.
+ * At most {@link #MAX_RUNNING} profiles run at once, since each holds its own call tree.
+ */
+@Singleton
+public class CpuProfiler {
+
+    /** Frames kept per captured stack; deeper frames (closest to the thread's entry point) are dropped. */
+    static final int MAX_DEPTH = 256;
+    /** Profiles allowed to run at once; each keeps up to {@link EidolonConfig#profileMaxNodes()} nodes. */
+    static final int MAX_RUNNING = 4;
+    private static final String OWN_THREAD_PREFIX = "eidolon-";
+
+    private final ThreadMXBean threadMXBean;
+    private final long intervalMillis;
+    private final int maxNodes;
+    private final boolean virtualThreads;
+    private final String[] prefixes;
+
+    // Guarded by this.
+    private final List<Session> sessions = new ArrayList<>();
+    private ScheduledExecutorService executor;
+
+    @Inject
+    public CpuProfiler(EidolonConfig config) {
+        this(ManagementFactory.getThreadMXBean(), config);
+    }
+
+    CpuProfiler(ThreadMXBean threadMXBean, EidolonConfig config) {
+        this.threadMXBean = threadMXBean;
+        this.intervalMillis = Math.max(1, config.profileIntervalMillis());
+        this.maxNodes = config.profileMaxNodes();
+        this.virtualThreads = config.virtualThreads();
+        this.prefixes = config.includeThreadNamePrefixes().toArray(new String[0]);
+    }
+
+    /**
+     * Profiles for {@code durationMillis}; the future completes with the call tree once it has elapsed.
+     * Returns null when {@link #MAX_RUNNING} profiles are already running.
+     */
+    public synchronized CompletableFuture<CallTree> profile(long durationMillis) {
+        if (sessions.size() >= MAX_RUNNING) {
+            return null;
+        }
+        Session s = new Session(new CallTree(maxNodes, intervalMillis),
+                System.currentTimeMillis() + Math.max(0, durationMillis));
+        sessions.add(s);
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(
+                    EidolonThreads.factory("eidolon-profiler", virtualThreads));
+            executor.scheduleAtFixedRate(this::sampleQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return s.future;
+    }
+
+    /** Completes every running profile with what it has sampled so far. */
+    @PreDestroy
+    synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        long now = System.currentTimeMillis();
+        for (Session s : sessions) {
+            s.complete(now);
+        }
+        sessions.clear();
+    }
+
+    private void sampleQuietly() {
+        try {
+            sample(System.currentTimeMillis());
+        } catch (Throwable ignored) {
+        }
+    }
+
+    /** Takes one capture into every running profile; package-private so tests can drive it. */
+    void sample(long now) {
+        synchronized (this) {
+            if (sessions.isEmpty()) {
+                return;
+            }
+        }
+        List<StackTraceElement[]> stacks = new ArrayList<>();
+        try {
+            for (ThreadInfo info : threadMXBean.dumpAllThreads(false, false, MAX_DEPTH)) {
+                if (info != null && info.getThreadState() == Thread.State.RUNNABLE && included(info.getThreadName())) {
+                    stacks.add(info.getStackTrace());
+                }
+            }
+        } finally {
+            merge(stacks, now);
+        }
+    }
+
+    private synchronized void merge(List<StackTraceElement[]> stacks, long now) {
+        for (Iterator<Session> it = sessions.iterator(); it.hasNext(); ) {
+            Session s = it.next();
+            s.tree.tick();
+            for (StackTraceElement[] stack : stacks) {
+                s.tree.add(stack);
+            }
+            if (now >= s.deadline) {
+                it.remove();
+                s.complete(now);
+            }
+        }
+        if (sessions.isEmpty() && executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private boolean included(String name) {
+        if (name == null || name.startsWith(OWN_THREAD_PREFIX)) {
+            return false;
+        }
+        if (prefixes.length == 0) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized int running() {
+        return sessions.size();
+    }
+
+    private static final class Session {
+        final CallTree tree;
+        final long deadline;
+        final CompletableFuture<CallTree> future = new CompletableFuture<>();
+
+        Session(CallTree tree, long deadline) {
+            this.tree = tree;
+            this.deadline = deadline;
+        }
+
+        void complete(long now) {
+            tree.finish(now);
+            future.complete(tree);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Continuous allocation profile from JFR {@code jdk.ObjectAllocationSample} events, which the JVM
+ * throttles to a fixed number of samples per second across all threads; each sample carries the
+ * weight (bytes) of the allocations it stands for. Samples are keyed by allocated class and stack,
+ * truncated to the innermost {@code stackDepth} frames, and summed into a {@link SpaceSaving} table
+ * whose capacity follows from the memory budget, so the heaviest sites are found in fixed memory.
+ *
+ * Windows rotate on stream flush and on read once they are {@code windowMillis} old; the current
+ * window and the last completed one are kept, which is where the budget is split.
+ */
+final class AllocationProfiler implements JfrRecording.Consumer {
+
+    private static final String EVENT = "jdk.ObjectAllocationSample";
+    // Rough retained size of a tracked site: counter, map entry and key, plus one string per kept frame.
+    static final long SITE_BYTES = 160;
+    static final long FRAME_BYTES = 96;
+
+    private final int samplesPerSecond;
+    private final int stackDepth;
+    private final long windowMillis;
+
+    // Guarded by this.
+    private SpaceSaving<Site> current;
+    private SpaceSaving<Site> previous;
+    private long currentStart = System.currentTimeMillis();
+    private long currentSamples;
+    private long currentBytes;
+    private long previousStart = -1;
+    private long previousEnd = -1;
+    private long previousSamples;
+    private long previousBytes;
+
+    AllocationProfiler(int samplesPerSecond, int stackDepth, long memoryBudgetBytes, long windowMillis) {
+        this.samplesPerSecond = Math.max(1, samplesPerSecond);
+        this.stackDepth = Math.max(0, stackDepth);
+        this.windowMillis = Math.max(1, windowMillis);
+        int capacity = capacity(memoryBudgetBytes, this.stackDepth);
+        this.current = new SpaceSaving<>(capacity);
+        this.previous = new SpaceSaving<>(capacity);
+    }
+
+    /** Sites tracked per window so that both windows fit in {@code memoryBudgetBytes}. */
+    static int capacity(long memoryBudgetBytes, int stackDepth) {
+        long perSite = SITE_BYTES + FRAME_BYTES * Math.max(0, stackDepth);
+        return (int) Math.max(16, Math.min(1 << 16, memoryBudgetBytes / 2 / perSite));
+    }
+
+    @Override
+    public void subscribe(RecordingStream rs) {
+        rs.enable(EVENT).with("throttle", samplesPerSecond + "/s");
+        rs.onEvent(EVENT, this::onSample);
+    }
+
+    @Override
+    public void onFlush() {
+        rotate(System.currentTimeMillis());
+    }
+
+    private void onSample(RecordedEvent e) {
+        RecordedClass c = e.getClass("objectClass");
+        record(c == null ? "unknown" : c.getName(), frames(e.getStackTrace()), e.getLong("weight"));
+    }
+
+    private List<String> frames(RecordedStackTrace trace) {
+        if (trace == null || stackDepth == 0) {
+            return List.of();
+        }
+        List<RecordedFrame> frames = trace.getFrames();
+        int n = Math.min(stackDepth, frames.size());
+        String[] out = new String[n];
+        for (int i = 0; i < n; i++) {
+            RecordedFrame f = frames.get(i);
+            String method = f.getMethod().getType().getName() + "." + f.getMethod().getName();
+            int line = f.getLineNumber();
+            out[i] = line > 0 ? method + ":" + line : method;
+        }
+        return List.of(out);
+    }
+
+    synchronized void record(String className, List<String> stack, long weight) {
+        long w = Math.max(0, weight);
+        current.add(new Site(className, stack), w);
+        currentSamples++;
+        currentBytes += w;
+    }
+
+    /** Closes the current window if it is at least the configured length old. */
+    synchronized void rotate(long now) {
+        if (now - currentStart < windowMillis) {
+            return;
+        }
+        SpaceSaving<Site> closed = current;
+        current = previous;
+        current.clear();
+        previous = closed;
+        previousStart = currentStart;
+        previousEnd = now;
+        previousSamples = currentSamples;
+        previousBytes = currentBytes;
+        currentStart = now;
+        currentSamples = 0;
+        currentBytes = 0;
+    }
+
+    /** The {@code top} heaviest sites of the current and of the last completed window. */
+    synchronized MetricsSnapshot.AllocationProfile profile(int top) {
+        long now = System.currentTimeMillis();
+        rotate(now);
+        MetricsSnapshot.AllocationWindow cur = window(current, currentStart, now, currentSamples, currentBytes, top);
+        MetricsSnapshot.AllocationWindow prev = previousStart < 0 ? null
+                : window(previous, previousStart, previousEnd, previousSamples, previousBytes, top);
+        return new MetricsSnapshot.AllocationProfile(samplesPerSecond, stackDepth, current.capacity(), cur, prev);
+    }
+
+    private static MetricsSnapshot.AllocationWindow window(SpaceSaving<Site> table, long from, long to, long samples,
+                                                           long bytes, int top) {
+        List<SpaceSaving.Counter<Site>> counters = table.top(top);
+        List<MetricsSnapshot.AllocationSite> sites = new ArrayList<>(counters.size());
+        for (SpaceSaving.Counter<Site> c : counters) {
+            sites.add(new MetricsSnapshot.AllocationSite(c.key.className(), c.key.stack(), c.weight, c.count, c.error));
+        }
+        return new MetricsSnapshot.AllocationWindow(from, to, samples, bytes, table.evictions(), sites);
+    }
+
+    private record Site(String className, List<String> stack) {}
+}
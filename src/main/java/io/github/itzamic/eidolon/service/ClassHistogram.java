@@ -0,0 +1,250 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Live-object class histogram from the {@code DiagnosticCommand} MBean's {@code gcClassHistogram}
+ * (what {@code jcmd GC.class_histogram} prints), with per-class growth since the previous run.
+ *
+ * The command forces a full GC, so runs go through a {@link SingleFlightCache}: concurrent requests
+ * share one run, and a result is reused until {@code minIntervalMillis} after it started, however
+ * often it is requested. The command's text is parsed in one forward pass into primitive columns
+ * (name, instances, bytes), allocating only the class name strings; the columns of the previous run
+ * are kept to derive deltas, and top-N lists are selected per request from the cached columns.
+ */
+final class ClassHistogram {
+
+    private static final String DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+
+    private final Supplier<String> command;
+    private final SingleFlightCache<Run> runs;
+    private Table last; // touched only by the loader, which SingleFlightCache runs one at a time
+
+    ClassHistogram(long minIntervalMillis) {
+        this(ClassHistogram::invoke, minIntervalMillis);
+    }
+
+    ClassHistogram(Supplier<String> command, long minIntervalMillis) {
+        this.command = command;
+        this.runs = new SingleFlightCache<>(this::load, minIntervalMillis);
+    }
+
+    /** The latest histogram's {@code top} classes by bytes and by growth, or {@code null} when unavailable. */
+    MetricsSnapshot.HeapHistogram histogram(int top) {
+        Run run = runs.get();
+        return run == null ? null : run.toDto(Math.max(0, top));
+    }
+
+    private Run load() {
+        String text = command.get();
+        if (text == null) {
+            return null;
+        }
+        Table current = Table.parse(text, System.currentTimeMillis());
+        Run run = new Run(current, last);
+        last = current;
+        return run;
+    }
+
+    /** Output of {@code gcClassHistogram}, or {@code null} when the MBean is missing or the command fails. */
+    private static String invoke() {
+        try {
+            Object out = ManagementFactory.getPlatformMBeanServer().invoke(new ObjectName(DIAGNOSTIC_COMMAND),
+                    "gcClassHistogram", new Object[]{new String[0]}, new String[]{String[].class.getName()});
+            return out instanceof String s ? s : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /** One histogram as columns; row {@code i} is the i-th class in the command's (bytes-descending) order. */
+    static final class Table {
+        final long timestampMillis;
+        int size;
+        String[] names = new String[256];
+        long[] instances = new long[256];
+        long[] bytes = new long[256];
+        long totalInstances;
+        long totalBytes;
+
+        Table(long timestampMillis) {
+            this.timestampMillis = timestampMillis;
+        }
+
+        /**
+         * Parses lines of the form {@code "   1:   12345   678901  [B (java.base@21)"}; the header,
+         * separator and {@code Total} lines are recognized by not starting with a rank.
+         */
+        static Table parse(CharSequence text, long timestampMillis) {
+            Table t = new Table(timestampMillis);
+            boolean hasTotal = false;
+            Cursor in = new Cursor(text);
+            while (in.nextLine()) {
+                in.skipSpaces();
+                if (in.digit()) {
+                    in.number(); // rank
+                    if (!in.skip(':')) {
+                        continue;
+                    }
+                    long count = in.number();
+                    long size = in.number();
+                    String name = in.word();
+                    if (!name.isEmpty()) {
+                        t.add(name, count, size);
+                    }
+                } else if (in.skip("Total")) {
+                    t.totalInstances = in.number();
+                    t.totalBytes = in.number();
+                    hasTotal = true;
+                }
+            }
+            if (!hasTotal) {
+                for (int i = 0; i < t.size; i++) {
+                    t.totalInstances += t.instances[i];
+                    t.totalBytes += t.bytes[i];
+                }
+            }
+            return t;
+        }
+
+        private void add(String name, long count, long size) {
+            if (this.size == names.length) {
+                int cap = names.length * 2;
+                names = Arrays.copyOf(names, cap);
+                instances = Arrays.copyOf(instances, cap);
+                bytes = Arrays.copyOf(bytes, cap);
+            }
+            names[this.size] = name;
+            instances[this.size] = count;
+            bytes[this.size] = size;
+            this.size++;
+        }
+    }
+
+    /** Forward-only reader over the command output, one line at a time. */
+    private static final class Cursor {
+        private final CharSequence text;
+        private int pos;
+        private int lineEnd = -1;
+
+        Cursor(CharSequence text) {
+            this.text = text;
+        }
+
+        boolean nextLine() {
+            int start = lineEnd + 1;
+            if (start >= text.length()) {
+                return false;
+            }
+            pos = start;
+            lineEnd = start;
+            while (lineEnd < text.length() && text.charAt(lineEnd) != '\n') lineEnd++;
+            return true;
+        }
+
+        void skipSpaces() {
+            while (pos < lineEnd && text.charAt(pos) == ' ') pos++;
+        }
+
+        boolean digit() {
+            return pos < lineEnd && text.charAt(pos) >= '0' && text.charAt(pos) <= '9';
+        }
+
+        boolean skip(char c) {
+            if (pos < lineEnd && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean skip(String prefix) {
+            if (lineEnd - pos < prefix.length()) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (text.charAt(pos + i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            pos += prefix.length();
+            return true;
+        }
+
+        /** The next unsigned decimal after any spaces; 0 when there is none. */
+        long number() {
+            skipSpaces();
+            long v = 0;
+            while (digit()) {
+                v = v * 10 + (text.charAt(pos++) - '0');
+            }
+            return v;
+        }
+
+        /** The next run of non-space characters; class names hold no spaces, a module suffix follows one. */
+        String word() {
+            skipSpaces();
+            int start = pos;
+            while (pos < lineEnd && text.charAt(pos) != ' ' && text.charAt(pos) != '\r') pos++;
+            return text.subSequence(start, pos).toString();
+        }
+    }
+
+    /** A table and its per-class deltas against the previous one, aligned by row. */
+    private static final class Run {
+        final Table table;
+        final Table previous; // null for the first run
+        final long[] deltaInstances;
+        final long[] deltaBytes;
+
+        Run(Table table, Table previous) {
+            this.table = table;
+            this.previous = previous;
+            this.deltaInstances = new long[table.size];
+            this.deltaBytes = new long[table.size];
+            if (previous == null) {
+                return;
+            }
+            Map<String, Integer> rows = new HashMap<>(previous.size * 4 / 3 + 1);
+            for (int i = 0; i < previous.size; i++) {
+                rows.put(previous.names[i], i);
+            }
+            for (int i = 0; i < table.size; i++) {
+                Integer p = rows.get(table.names[i]);
+                // A class absent last time grew from nothing.
+                deltaInstances[i] = table.instances[i] - (p == null ? 0 : previous.instances[p]);
+                deltaBytes[i] = table.bytes[i] - (p == null ? 0 : previous.bytes[p]);
+            }
+        }
+
+        MetricsSnapshot.HeapHistogram toDto(int top) {
+            // Rows past size hold zeros, which TopN skips.
+            int[] byBytes = TopN.indices(table.bytes, top);
+            int[] byGrowth = previous == null ? new int[0] : TopN.indices(deltaBytes, top);
+            return new MetricsSnapshot.HeapHistogram(table.timestampMillis,
+                    previous == null ? -1 : previous.timestampMillis, table.size,
+                    table.totalInstances, table.totalBytes,
+                    previous == null ? 0 : table.totalInstances - previous.totalInstances,
+                    previous == null ? 0 : table.totalBytes - previous.totalBytes,
+                    entries(byBytes), entries(byGrowth));
+        }
+
+        private List<MetricsSnapshot.ClassHistogramEntry> entries(int[] rows) {
+            List<MetricsSnapshot.ClassHistogramEntry> out = new ArrayList<>(rows.length);
+            for (int i : rows) {
+                out.add(new MetricsSnapshot.ClassHistogramEntry(table.names[i], table.instances[i], table.bytes[i],
+                        deltaInstances[i], deltaBytes[i]));
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.itzamic.eidolon.service;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GC notification listener installed before the Micronaut context exists, so collections that happen
+ * while Eidolon is still bootstrapping are not lost. Notifications are buffered (oldest dropped beyond
+ * the capacity) until {@link MetricsService} attaches; the buffer is then replayed to it and later
+ * notifications are forwarded directly, through the same single registration.
+ *
+ * Delivery to the attached listener happens under the class lock, which keeps replay and live
+ * notifications in order and preserves the single-writer contract of the GC notification thread.
+ */
+public final class EarlyGcNotifications {
+
+    private static final Object LOCK = new Object();
+    private static final NotificationListener LISTENER = EarlyGcNotifications::onNotification;
+
+    private static final List<NotificationEmitter> emitters = new ArrayList<>();
+    private static final ArrayDeque<Notification> buffered = new ArrayDeque<>();
+    private static int capacity;
+    private static NotificationListener target;
+
+    private EarlyGcNotifications() {}
+
+    /** Starts buffering GC notifications, keeping at most {@code capacity}; no-op when already installed. */
+    public static void install(int capacity) {
+        synchronized (LOCK) {
+            if (!emitters.isEmpty()) {
+                return;
+            }
+            EarlyGcNotifications.capacity = Math.max(1, capacity);
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc instanceof NotificationEmitter emitter) {
+                    try {
+                        emitter.addNotificationListener(LISTENER, null, null);
+                        emitters.add(emitter);
+                    } catch (Exception ignored) {
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays the buffered notifications to {@code listener} and forwards later ones to it. Returns
+     * {@code false} when nothing is installed or another listener is already attached, in which case
+     * the caller registers with the GC beans itself.
+     */
+    public static boolean attach(NotificationListener listener) {
+        synchronized (LOCK) {
+            if (emitters.isEmpty() || target != null) {
+                return false;
+            }
+            target = listener;
+            for (Notification n; (n = buffered.poll()) != null; ) {
+                deliver(n);
+            }
+            return true;
+        }
+    }
+
+    /** Removes the registration if {@code listener} is the attached one; returns whether it was. */
+    public static boolean detach(NotificationListener listener) {
+        synchronized (LOCK) {
+            if (target != listener || listener == null) {
+                return false;
+            }
+            uninstall();
+            return true;
+        }
+    }
+
+    /** Unregisters from the GC beans and drops anything buffered. */
+    public static void uninstall() {
+        synchronized (LOCK) {
+            for (NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(LISTENER);
+                } catch (Exception ignored) {
+                }
+            }
+            emitters.clear();
+            buffered.clear();
+            target = null;
+        }
+    }
+
+    /** Number of notifications waiting for a listener. */
+    static int buffered() {
+        synchronized (LOCK) {
+            return buffered.size();
+        }
+    }
+
+    static void onNotification(Notification notification, Object handback) {
+        if (!GcNotificationParser.NOTIFICATION_TYPE.equals(notification.getType())) {
+            return;
+        }
+        synchronized (LOCK) {
+            if (target != null) {
+                deliver(notification);
+                return;
+            }
+            if (buffered.size() == capacity) {
+                buffered.poll();
+            }
+            buffered.add(notification);
+        }
+    }
+
+    private static void deliver(Notification notification) {
+        try {
+            target.handleNotification(notification, null);
+        } catch (Throwable ignored) {
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot.GcEvent;
+import io.github.itzamic.eidolon.model.MetricsSnapshot.GcEventPage;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Preallocated, lock-free ring of GC events addressed by sequence number.
+ *
+ * Event {@code seq} lives in slot {@code (seq - 1) % capacity} and overwrites the event that was
+ * {@code capacity} sequence numbers older. Fields are stored in parallel arrays allocated once, so
+ * appending allocates nothing; per-pool used bytes live in flat {@code capacity * pools} arrays
+ * indexed by slot and pool ordinal. Each slot carries a stamp used as a seqlock: the writer sets it to
+ * {@code -seq} while the fields are being written and to {@code seq} once they are complete. A
+ * reader copies the fields between two stamp reads and keeps the copy only if both equal the seq it
+ * expected; otherwise the writer lapped it and the event counts as missed.
+ *
+ * There must be a single writer. The platform GC MXBeans deliver their notifications on one JDK
+ * thread, which is the only caller of {@link #append}. Readers never block that thread.
+ */
+final class GcEventRing {
+
+    private final int capacity;
+    private final AtomicLongArray stamps;
+    private final String[] names;
+    private final String[] actions;
+    private final String[] causes;
+    private final long[] startTimes;
+    private final long[] durations;
+    private final int pools;
+    private final long[] poolBefore;
+    private final long[] poolAfter;
+    private final long[] allocated;
+    private final long[] promoted;
+    private final long[] reclaimed;
+
+    private volatile long head; // seq of the newest published event, 0 when empty
+    private volatile long overwritten; // events dropped to make room, written only by the writer
+
+    // Last full copy handed out by recent(), reused until head moves.
+    private volatile Recent recent = new Recent(0, Collections.emptyList());
+
+    GcEventRing(int capacity) {
+        this(capacity, 0);
+    }
+
+    GcEventRing(int capacity, int pools) {
+        this.capacity = Math.max(1, capacity);
+        this.pools = Math.max(0, pools);
+        this.poolBefore = new long[this.capacity * this.pools];
+        this.poolAfter = new long[this.capacity * this.pools];
+        this.allocated = new long[this.capacity];
+        this.promoted = new long[this.capacity];
+        this.reclaimed = new long[this.capacity];
+        this.stamps = new AtomicLongArray(this.capacity);
+        this.names = new String[this.capacity];
+        this.actions = new String[this.capacity];
+        this.causes = new String[this.capacity];
+        this.startTimes = new long[this.capacity];
+        this.durations = new long[this.capacity];
+    }
+
+    long append(String gcName, String gcAction, String gcCause, long startTimeMillis, long durationMillis) {
+        return append(gcName, gcAction, gcCause, startTimeMillis, durationMillis, null, null, 0L, 0L, 0L);
+    }
+
+    /**
+     * Single-writer append; returns the new event's seq. {@code before}/{@code after} hold used bytes
+     * per pool ordinal and are copied, so the caller may reuse them; {@code null} means not reported.
+     */
+    long append(String gcName, String gcAction, String gcCause, long startTimeMillis, long durationMillis,
+                long[] before, long[] after, long allocatedBytes, long promotedBytes, long reclaimedBytes) {
+        long seq = head + 1;
+        int i = slot(seq);
+        if (stamps.get(i) != 0) {
+            overwritten = overwritten + 1;
+        }
+        stamps.set(i, -seq);
+        VarHandle.storeStoreFence();
+        names[i] = gcName;
+        actions[i] = gcAction;
+        causes[i] = gcCause;
+        startTimes[i] = startTimeMillis;
+        durations[i] = durationMillis;
+        copyPools(before, poolBefore, i);
+        copyPools(after, poolAfter, i);
+        allocated[i] = allocatedBytes;
+        promoted[i] = promotedBytes;
+        reclaimed[i] = reclaimedBytes;
+        stamps.setRelease(i, seq);
+        head = seq;
+        return seq;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long latestSeq() {
+        return head;
+    }
+
+    /** Total events overwritten since startup because the ring was full. */
+    long overwrittenCount() {
+        return overwritten;
+    }
+
+    /**
+     * Events with {@code seq > since}, oldest first, at most {@code limit} of them.
+     * A cursor ahead of the ring (e.g. from before a restart) is treated as 0 so the caller catches up.
+     */
+    GcEventPage since(long since, int limit) {
+        long h = head;
+        if (since < 0 || since > h) {
+            since = 0;
+        }
+        long oldest = Math.max(1, h - capacity + 1);
+        long from = Math.max(since + 1, oldest);
+        long to = Math.min(h, from + Math.max(0, Math.min(limit, capacity)) - 1);
+        long missed = from - (since + 1);
+
+        List<GcEvent> out = new ArrayList<>((int) Math.max(0, to - from + 1));
+        long next = since;
+        for (long seq = from; seq <= to; seq++) {
+            GcEvent e = read(seq);
+            if (e == null) {
+                missed++;
+            } else {
+                out.add(e);
+            }
+            next = seq;
+        }
+        return new GcEventPage(out, next, missed, overwritten);
+    }
+
+    /** Every retained event, oldest first. The list is shared between callers until a new event arrives. */
+    List<GcEvent> recent() {
+        Recent r = recent;
+        if (r.head == head) {
+            return r.events;
+        }
+        GcEventPage page = since(0, capacity);
+        r = new Recent(page.nextSeq, Collections.unmodifiableList(page.events));
+        recent = r;
+        return r.events;
+    }
+
+    /** Drops retained events. Call only once the writer has stopped; sequence numbers keep counting. */
+    void clear() {
+        for (int i = 0; i < capacity; i++) {
+            stamps.set(i, 0);
+            names[i] = null;
+            actions[i] = null;
+            causes[i] = null;
+        }
+        recent = new Recent(head, Collections.emptyList());
+    }
+
+    private GcEvent read(long seq) {
+        int i = slot(seq);
+        if (stamps.getAcquire(i) != seq) {
+            return null;
+        }
+        String name = names[i];
+        String action = actions[i];
+        String cause = causes[i];
+        long start = startTimes[i];
+        long duration = durations[i];
+        long[] before = pools == 0 ? null : Arrays.copyOfRange(poolBefore, i * pools, (i + 1) * pools);
+        long[] after = pools == 0 ? null : Arrays.copyOfRange(poolAfter, i * pools, (i + 1) * pools);
+        long alloc = allocated[i];
+        long promo = promoted[i];
+        long recl = reclaimed[i];
+        VarHandle.loadLoadFence();
+        if (stamps.get(i) != seq) {
+            // The writer lapped this slot while we were copying it.
+            return null;
+        }
+        return new GcEvent(seq, name, action, cause, start, duration, before, after, alloc, promo, recl);
+    }
+
+    private void copyPools(long[] src, long[] dst, int slot) {
+        if (pools == 0) {
+            return;
+        }
+        if (src == null) {
+            Arrays.fill(dst, slot * pools, (slot + 1) * pools, -1L);
+        } else {
+            System.arraycopy(src, 0, dst, slot * pools, Math.min(pools, src.length));
+        }
+    }
+
+    private int slot(long seq) {
+        return (int) ((seq - 1) % capacity);
+    }
+
+    private record Recent(long head, List<GcEvent> events) {
+    }
+}
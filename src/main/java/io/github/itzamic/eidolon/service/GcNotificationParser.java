@@ -0,0 +1,53 @@
+package io.github.itzamic.eidolon.service;
+
+import javax.management.Notification;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Reads GC notifications straight from their {@link CompositeData} payload.
+ *
+ * The payload of a {@code com.sun.management.gc.notification} is the open-type form of
+ * {@code GarbageCollectionNotificationInfo}; its items ({@code gcName}, {@code gcAction},
+ * {@code gcCause}, {@code gcInfo.startTime}, {@code gcInfo.duration}) are plain map lookups, so no
+ * reflection and no com.sun.management classes are needed on the notification thread.
+ */
+final class GcNotificationParser {
+
+    static final String NOTIFICATION_TYPE = "com.sun.management.gc.notification";
+
+    /** One parsed notification. {@code gcInfo} is the raw GcInfo composite for further fields. */
+    record Parsed(String gcName, String gcAction, String gcCause, long startTime, long duration, CompositeData gcInfo) {
+    }
+
+    private GcNotificationParser() {
+    }
+
+    /** Returns the parsed notification, or {@code null} if it is not a well-formed GC notification. */
+    static Parsed parse(Notification notification) {
+        if (!NOTIFICATION_TYPE.equals(notification.getType())
+                || !(notification.getUserData() instanceof CompositeData info)) {
+            return null;
+        }
+        try {
+            String gcName = (String) info.get("gcName");
+            String gcAction = (String) info.get("gcAction");
+            String gcCause = (String) info.get("gcCause");
+            long startTime = -1;
+            long duration = -1;
+            CompositeData gcInfo = null;
+            if (info.get("gcInfo") instanceof CompositeData gi) {
+                gcInfo = gi;
+                startTime = longItem(gi, "startTime");
+                duration = longItem(gi, "duration");
+            }
+            return new Parsed(gcName, gcAction, gcCause, startTime, duration, gcInfo);
+        } catch (RuntimeException e) {
+            // Missing key or unexpected item type
+            return null;
+        }
+    }
+
+    private static long longItem(CompositeData data, String key) {
+        return data.get(key) instanceof Number n ? n.longValue() : -1;
+    }
+}
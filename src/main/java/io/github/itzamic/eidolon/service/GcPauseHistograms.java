@@ -0,0 +1,174 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * GC pause histograms per collector and action: cumulative counts in fixed Prometheus-style buckets,
+ * and a {@link LogHistogram} for percentiles over the whole run and over the last completed interval.
+ *
+ * Recording is a pair of map lookups and a few array increments, with no allocation once a
+ * collector/action pair has been seen. Only the GC notification thread records; exporters read
+ * the counters concurrently and may see a bucket increment before the matching count, which
+ * Prometheus tolerates between scrapes.
+ *
+ * Intervals are closed by {@link #rotate}, called by the collector thread on every run and by
+ * {@link #stats} on read, so when neither runs for a while the next interval is simply longer;
+ * its actual bounds are reported with it.
+ */
+public final class GcPauseHistograms {
+
+    /** Upper bucket bounds in milliseconds; a final implicit bucket holds everything above. */
+    public static final long[] BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000};
+
+    private final long intervalMillis;
+    private final long startMillis = System.currentTimeMillis();
+    private final Map<String, Map<String, Histogram>> byName = new ConcurrentHashMap<>();
+    private final Collection<Histogram> all = new CopyOnWriteArrayList<>();
+
+    private volatile long recorded; // written only by the notification thread
+    // Guarded by this.
+    private long intervalStart = startMillis;
+    private long lastIntervalStart = -1;
+    private long lastIntervalEnd = -1;
+    private long statsRecorded = -1;
+    private long statsIntervalEnd = -1;
+    private List<MetricsSnapshot.GcPauseStats> stats = Collections.emptyList();
+
+    GcPauseHistograms(long intervalMillis) {
+        this.intervalMillis = Math.max(1, intervalMillis);
+    }
+
+    void record(String gcName, String gcAction, long durationMillis) {
+        if (gcName == null || gcAction == null) {
+            return;
+        }
+        Map<String, Histogram> byAction = byName.computeIfAbsent(gcName, k -> new ConcurrentHashMap<>());
+        Histogram h = byAction.get(gcAction);
+        if (h == null) {
+            h = byAction.computeIfAbsent(gcAction, action -> new Histogram(gcName, action));
+            all.add(h);
+        }
+        h.record(durationMillis);
+        recorded = recorded + 1;
+    }
+
+    /** Every histogram recorded so far, in first-seen order. */
+    public Collection<Histogram> histograms() {
+        return all;
+    }
+
+    /** Closes the current interval if it is at least the configured length old. */
+    synchronized void rotate(long now) {
+        if (now - intervalStart < intervalMillis) {
+            return;
+        }
+        for (Histogram h : all) {
+            h.rotate();
+        }
+        lastIntervalStart = intervalStart;
+        lastIntervalEnd = now;
+        intervalStart = now;
+    }
+
+    /**
+     * Percentiles per collector and action, cumulative since startup and for the last completed
+     * interval ({@code null} until one has completed). The list is shared until something changes.
+     */
+    public synchronized List<MetricsSnapshot.GcPauseStats> stats() {
+        long now = System.currentTimeMillis();
+        rotate(now);
+        long n = recorded;
+        if (n == statsRecorded && lastIntervalEnd == statsIntervalEnd) {
+            return stats;
+        }
+        List<MetricsSnapshot.GcPauseStats> out = new ArrayList<>(all.size());
+        long[] counts = new long[LogHistogram.BUCKETS];
+        for (Histogram h : all) {
+            long max = h.log.max();
+            MetricsSnapshot.PausePercentiles cumulative =
+                    LogHistogram.percentiles(h.log.copyCounts(counts), max, startMillis, now);
+            MetricsSnapshot.PausePercentiles interval = lastIntervalStart < 0 ? null
+                    : LogHistogram.percentiles(h.lastInterval, h.lastIntervalMax, lastIntervalStart, lastIntervalEnd);
+            out.add(new MetricsSnapshot.GcPauseStats(h.gcName, h.gcAction, cumulative, interval));
+        }
+        stats = Collections.unmodifiableList(out);
+        statsRecorded = n;
+        statsIntervalEnd = lastIntervalEnd;
+        return stats;
+    }
+
+    /** Pause counts for one collector/action pair. */
+    public static final class Histogram {
+        private final String gcName;
+        private final String gcAction;
+        // BOUNDS_MILLIS.length buckets plus overflow, then count and sum.
+        private final AtomicLongArray cells = new AtomicLongArray(BOUNDS_MILLIS.length + 3);
+        private final LogHistogram log = new LogHistogram();
+        // Exact largest pause of the current interval, -1 when it has none; reset by rotate().
+        private final AtomicLong intervalMax = new AtomicLong(-1);
+        // Interval bookkeeping, guarded by the owning GcPauseHistograms.
+        private final long[] mark = new long[LogHistogram.BUCKETS]; // log counts when the interval began
+        private final long[] lastInterval = new long[LogHistogram.BUCKETS];
+        private final long[] scratch = new long[LogHistogram.BUCKETS];
+        private long lastIntervalMax;
+
+        Histogram(String gcName, String gcAction) {
+            this.gcName = gcName;
+            this.gcAction = gcAction;
+        }
+
+        void record(long durationMillis) {
+            long d = Math.max(0, durationMillis);
+            int i = 0;
+            while (i < BOUNDS_MILLIS.length && d > BOUNDS_MILLIS[i]) {
+                i++;
+            }
+            cells.getAndIncrement(i);
+            cells.getAndIncrement(BOUNDS_MILLIS.length + 1);
+            cells.getAndAdd(BOUNDS_MILLIS.length + 2, d);
+            log.record(d);
+            intervalMax.accumulateAndGet(d, Math::max);
+        }
+
+        private void rotate() {
+            // A pause recorded between these two reads counts in this interval but sets the next one's max.
+            lastIntervalMax = Math.max(0, intervalMax.getAndSet(-1));
+            log.copyCounts(scratch);
+            for (int i = 0; i < scratch.length; i++) {
+                lastInterval[i] = scratch[i] - mark[i];
+                mark[i] = scratch[i];
+            }
+        }
+
+        public String gcName() {
+            return gcName;
+        }
+
+        public String gcAction() {
+            return gcAction;
+        }
+
+        /** Pauses in bucket {@code i}: {@code i < BOUNDS_MILLIS.length} is {@code <= BOUNDS_MILLIS[i]}, the last one is above. */
+        public long bucket(int i) {
+            return cells.get(i);
+        }
+
+        public long count() {
+            return cells.get(BOUNDS_MILLIS.length + 1);
+        }
+
+        public long sumMillis() {
+            return cells.get(BOUNDS_MILLIS.length + 2);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.itzamic.eidolon.service;
+
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fixed ordering of the JVM's memory pools, so per-GC pool usage can be kept in primitive arrays
+ * indexed by pool ordinal instead of name-keyed maps.
+ *
+ * Heap pools are classified by name as young (eden/survivor) or old (old/tenured) for deriving
+ * allocation and promotion. Collectors without generational pools (non-generational ZGC,
+ * Shenandoah) classify as neither; their allocation and promotion read as 0.
+ */
+final class GcPoolLayout {
+
+    private final String[] names;
+    private final boolean[] heap;
+    private final boolean[] young;
+    private final boolean[] old;
+    private final Map<String, Integer> ordinals = new HashMap<>();
+
+    GcPoolLayout(List<MemoryPoolMXBean> pools) {
+        int n = pools.size();
+        names = new String[n];
+        heap = new boolean[n];
+        young = new boolean[n];
+        old = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            MemoryPoolMXBean p = pools.get(i);
+            String name = p.getName();
+            names[i] = name;
+            heap[i] = p.getType() == MemoryType.HEAP;
+            String lower = name.toLowerCase(Locale.ROOT);
+            young[i] = heap[i] && (lower.contains("eden") || lower.contains("survivor") || lower.contains("young"));
+            old[i] = heap[i] && (lower.contains("old") || lower.contains("tenured"));
+            ordinals.put(name, i);
+        }
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    List<String> names() {
+        return List.of(names);
+    }
+
+    /**
+     * Copies the used bytes of each pool in a {@code memoryUsageBefore/AfterGc} table into
+     * {@code into}, by ordinal. Pools missing from the table read as -1.
+     */
+    void readUsed(Object usageTable, long[] into) {
+        Arrays.fill(into, -1L);
+        if (!(usageTable instanceof TabularData table)) {
+            return;
+        }
+        for (Object row : table.values()) {
+            if (row instanceof CompositeData entry
+                    && entry.get("key") instanceof String name
+                    && entry.get("value") instanceof CompositeData usage
+                    && usage.get("used") instanceof Number used) {
+                Integer ordinal = ordinals.get(name);
+                if (ordinal != null) {
+                    into[ordinal] = used.longValue();
+                }
+            }
+        }
+    }
+
+    long youngUsed(long[] used) {
+        return sum(used, young);
+    }
+
+    long oldUsed(long[] used) {
+        return sum(used, old);
+    }
+
+    long heapUsed(long[] used) {
+        return sum(used, heap);
+    }
+
+    private static long sum(long[] used, boolean[] mask) {
+        long total = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (mask[i] && used[i] > 0) {
+                total += used[i];
+            }
+        }
+        return total;
+    }
+}
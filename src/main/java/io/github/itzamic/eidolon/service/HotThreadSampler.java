@@ -0,0 +1,162 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ranks threads by CPU time and allocated bytes consumed since the previous sample.
+ *
+ * Per-thread counters are read in bulk ({@code com.sun.management.ThreadMXBean#getThreadCpuTime(long[])}
+ * and {@code #getThreadAllocatedBytes(long[])}) and kept as primitive arrays aligned with the sorted
+ * live thread ids, so a sample allocates a few arrays and nothing per thread. Deltas are taken by
+ * merging the sorted ids with the previous sample's; a thread first seen in this sample is charged
+ * its whole counter, since it started within the window. Names and states are only looked up for
+ * the threads that make the top {@code limit}, in one batched call.
+ *
+ * Every live thread is ranked; the thread-name prefix filter applies to state counts only.
+ */
+final class HotThreadSampler {
+
+    private final ThreadMXBean threadMXBean;
+    private final com.sun.management.ThreadMXBean bulk; // null when the bulk extension is not available
+    private final int limit;
+
+    private long[] prevIds = new long[0];
+    private long[] prevCpu = new long[0];
+    private long[] prevAllocated = new long[0];
+    private long prevNanos = -1;
+
+    HotThreadSampler(ThreadMXBean threadMXBean, int limit) {
+        this.threadMXBean = threadMXBean;
+        this.bulk = threadMXBean instanceof com.sun.management.ThreadMXBean ext ? ext : null;
+        this.limit = Math.max(1, limit);
+    }
+
+    synchronized MetricsSnapshot.HotThreads sample() {
+        return sample(System.nanoTime());
+    }
+
+    synchronized MetricsSnapshot.HotThreads sample(long nowNanos) {
+        boolean cpuSupported = cpuTimeSupported();
+        boolean allocationSupported = allocationSupported();
+        long[] ids = threadMXBean.getAllThreadIds();
+        Arrays.sort(ids);
+        long[] cpu = cpuSupported ? cpuTimes(ids) : null;
+        long[] allocated = allocationSupported ? bulk.getThreadAllocatedBytes(ids) : null;
+
+        long intervalNanos = prevNanos < 0 ? 0 : nowNanos - prevNanos;
+        List<MetricsSnapshot.HotThread> byCpu = List.of();
+        List<MetricsSnapshot.HotThread> byAllocation = List.of();
+        if (intervalNanos > 0) {
+            long[] cpuDelta = cpu != null ? deltas(ids, cpu, prevIds, prevCpu) : null;
+            long[] allocatedDelta = allocated != null ? deltas(ids, allocated, prevIds, prevAllocated) : null;
+            int[] topCpu = cpuDelta != null ? TopN.indices(cpuDelta, limit) : new int[0];
+            int[] topAllocated = allocatedDelta != null ? TopN.indices(allocatedDelta, limit) : new int[0];
+            ThreadInfo[] infos = threadMXBean.getThreadInfo(union(ids, topCpu, topAllocated), 0);
+            byCpu = describe(topCpu, ids, cpuDelta, allocatedDelta, infos, intervalNanos);
+            byAllocation = describe(topAllocated, ids, cpuDelta, allocatedDelta, infos, intervalNanos);
+        }
+
+        prevIds = ids;
+        prevCpu = cpu != null ? cpu : new long[0];
+        prevAllocated = allocated != null ? allocated : new long[0];
+        prevNanos = nowNanos;
+        return new MetricsSnapshot.HotThreads(intervalNanos / 1_000_000L, cpuSupported, allocationSupported,
+                byCpu, byAllocation);
+    }
+
+    private boolean cpuTimeSupported() {
+        try {
+            return threadMXBean.isThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private boolean allocationSupported() {
+        try {
+            return bulk != null && bulk.isThreadAllocatedMemorySupported() && bulk.isThreadAllocatedMemoryEnabled();
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private long[] cpuTimes(long[] ids) {
+        if (bulk != null) {
+            return bulk.getThreadCpuTime(ids);
+        }
+        long[] out = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            out[i] = threadMXBean.getThreadCpuTime(ids[i]);
+        }
+        return out;
+    }
+
+    /**
+     * Per-thread increase of {@code values} over {@code prevValues}; both are aligned with their sorted
+     * id arrays. Negative counters (thread gone or measurement unavailable) count as no increase.
+     */
+    static long[] deltas(long[] ids, long[] values, long[] prevIds, long[] prevValues) {
+        long[] out = new long[ids.length];
+        boolean hasPrev = prevValues.length == prevIds.length;
+        int p = 0;
+        for (int i = 0; i < ids.length; i++) {
+            long v = values[i];
+            if (v < 0) {
+                continue;
+            }
+            while (p < prevIds.length && prevIds[p] < ids[i]) p++;
+            long before = hasPrev && p < prevIds.length && prevIds[p] == ids[i] ? prevValues[p] : 0;
+            out[i] = Math.max(0, v - Math.max(0, before));
+        }
+        return out;
+    }
+
+    /** Sorted distinct thread ids at the given indices, for one batched ThreadInfo lookup. */
+    private static long[] union(long[] ids, int[] a, int[] b) {
+        long[] out = new long[a.length + b.length];
+        int n = 0;
+        for (int i : a) out[n++] = ids[i];
+        for (int i : b) out[n++] = ids[i];
+        Arrays.sort(out);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || out[distinct - 1] != out[i]) {
+                out[distinct++] = out[i];
+            }
+        }
+        return Arrays.copyOf(out, distinct);
+    }
+
+    private static List<MetricsSnapshot.HotThread> describe(int[] indices, long[] ids, long[] cpuDelta,
+                                                            long[] allocatedDelta, ThreadInfo[] infos,
+                                                            long intervalNanos) {
+        List<MetricsSnapshot.HotThread> out = new ArrayList<>(indices.length);
+        for (int i : indices) {
+            ThreadInfo info = find(infos, ids[i]);
+            if (info == null) {
+                continue; // terminated since the counters were read
+            }
+            long cpu = cpuDelta != null ? cpuDelta[i] : -1;
+            long allocated = allocatedDelta != null ? allocatedDelta[i] : -1;
+            out.add(new MetricsSnapshot.HotThread(ids[i], info.getThreadName(), info.getThreadState().name(),
+                    cpu, cpu < 0 ? 0.0 : (double) cpu / intervalNanos,
+                    allocated, allocated < 0 ? 0.0 : allocated * 1e9 / intervalNanos));
+        }
+        return out;
+    }
+
+    private static ThreadInfo find(ThreadInfo[] infos, long id) {
+        for (ThreadInfo info : infos) {
+            if (info != null && info.getThreadId() == id) {
+                return info;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summarizes safepoints, contended monitor enters, thread parks and GC pauses from the in-process
+ * {@link JfrRecording}: pauses and blocking that GC notifications never report.
+ *
+ * Events below the configured thresholds are filtered by JFR itself, and the ones delivered are
+ * folded into a fixed set of counters per event type (count, total and longest duration, and who
+ * the longest one was), cumulative and per interval, so memory does not grow with the event rate.
+ * Stack traces are not recorded. Events on Eidolon's own threads are ignored.
+ *
+ * Delivery happens on the stream's thread; intervals are closed on every stream flush (about once
+ * a second) and by {@link #stats} on read, so the interval view is at most a flush late.
+ */
+final class JfrEventCollector implements JfrRecording.Consumer {
+
+    static final int SAFEPOINT = 0;
+    static final int MONITOR_ENTER = 1;
+    static final int THREAD_PARK = 2;
+    static final int GC_PHASE_PAUSE = 3;
+    static final String[] EVENTS = {"safepoint", "monitor-enter", "thread-park", "gc-phase-pause"};
+    private static final String[] JFR_EVENTS = {"jdk.SafepointBegin", "jdk.JavaMonitorEnter", "jdk.ThreadPark", "jdk.GCPhasePause"};
+
+    private static final String OWN_THREAD_PREFIX = "eidolon-";
+
+    private final long[] thresholdMillis = new long[EVENTS.length];
+    private final long intervalMillis;
+    private final long startMillis = System.currentTimeMillis();
+
+    // Guarded by this.
+    private final Window[] cumulative = new Window[EVENTS.length];
+    private final Window[] current = new Window[EVENTS.length];
+    private final Window[] lastInterval = new Window[EVENTS.length];
+    private long intervalStart = startMillis;
+    private long lastIntervalStart = -1;
+    private long lastIntervalEnd = -1;
+    private long recorded;
+    private long statsRecorded = -1;
+    private long statsIntervalEnd = -1;
+    private List<MetricsSnapshot.JfrEventStats> stats = Collections.emptyList();
+
+    JfrEventCollector(long pauseThresholdMillis, long contentionThresholdMillis, long intervalMillis) {
+        this.thresholdMillis[SAFEPOINT] = Math.max(0, pauseThresholdMillis);
+        this.thresholdMillis[GC_PHASE_PAUSE] = Math.max(0, pauseThresholdMillis);
+        this.thresholdMillis[MONITOR_ENTER] = Math.max(0, contentionThresholdMillis);
+        this.thresholdMillis[THREAD_PARK] = Math.max(0, contentionThresholdMillis);
+        this.intervalMillis = Math.max(1, intervalMillis);
+        for (int i = 0; i < EVENTS.length; i++) {
+            cumulative[i] = new Window();
+            current[i] = new Window();
+            lastInterval[i] = new Window();
+        }
+    }
+
+    @Override
+    public void subscribe(RecordingStream rs) {
+        for (int i = 0; i < JFR_EVENTS.length; i++) {
+            rs.enable(JFR_EVENTS[i]).withThreshold(Duration.ofMillis(thresholdMillis[i])).withoutStackTrace();
+        }
+        rs.onEvent(JFR_EVENTS[SAFEPOINT], e -> onEvent(SAFEPOINT, e, null));
+        rs.onEvent(JFR_EVENTS[MONITOR_ENTER], e -> onEvent(MONITOR_ENTER, e, className(e, "monitorClass")));
+        rs.onEvent(JFR_EVENTS[THREAD_PARK], e -> onEvent(THREAD_PARK, e, className(e, "parkedClass")));
+        rs.onEvent(JFR_EVENTS[GC_PHASE_PAUSE], e -> onEvent(GC_PHASE_PAUSE, e,
+                e.hasField("name") ? e.getString("name") : null));
+    }
+
+    @Override
+    public void onFlush() {
+        rotate(System.currentTimeMillis());
+    }
+
+    private void onEvent(int kind, RecordedEvent e, String detail) {
+        RecordedThread t = kind == SAFEPOINT || kind == GC_PHASE_PAUSE ? null : e.getThread();
+        String thread = t == null ? null : t.getJavaName();
+        if (thread != null && thread.startsWith(OWN_THREAD_PREFIX)) {
+            return;
+        }
+        record(kind, e.getDuration().toNanos(), thread, detail);
+    }
+
+    private static String className(RecordedEvent e, String field) {
+        if (!e.hasField(field)) {
+            return null;
+        }
+        RecordedClass c = e.getClass(field);
+        return c == null ? null : c.getName();
+    }
+
+    synchronized void record(int kind, long durationNanos, String thread, String detail) {
+        long d = Math.max(0, durationNanos);
+        cumulative[kind].add(d, thread, detail);
+        current[kind].add(d, thread, detail);
+        recorded++;
+    }
+
+    /** Closes the current interval if it is at least the configured length old. */
+    synchronized void rotate(long now) {
+        if (now - intervalStart < intervalMillis) {
+            return;
+        }
+        for (int i = 0; i < EVENTS.length; i++) {
+            lastInterval[i].copyFrom(current[i]);
+            current[i].clear();
+        }
+        lastIntervalStart = intervalStart;
+        lastIntervalEnd = now;
+        intervalStart = now;
+    }
+
+    /**
+     * One summary per event type, in {@link #EVENTS} order, cumulative since start and for the last
+     * completed interval ({@code null} until one has completed). The list is shared until something changes.
+     */
+    synchronized List<MetricsSnapshot.JfrEventStats> stats() {
+        long now = System.currentTimeMillis();
+        rotate(now);
+        if (recorded == statsRecorded && lastIntervalEnd == statsIntervalEnd) {
+            return stats;
+        }
+        List<MetricsSnapshot.JfrEventStats> out = new ArrayList<>(EVENTS.length);
+        for (int i = 0; i < EVENTS.length; i++) {
+            MetricsSnapshot.JfrEventWindow interval = lastIntervalStart < 0 ? null
+                    : lastInterval[i].toDto(lastIntervalStart, lastIntervalEnd);
+            out.add(new MetricsSnapshot.JfrEventStats(EVENTS[i], thresholdMillis[i],
+                    cumulative[i].toDto(startMillis, now), interval));
+        }
+        stats = Collections.unmodifiableList(out);
+        statsRecorded = recorded;
+        statsIntervalEnd = lastIntervalEnd;
+        return stats;
+    }
+
+    /** Running summary of one event type over one window. */
+    private static final class Window {
+        long count;
+        long totalNanos;
+        long maxNanos;
+        String maxThread;
+        String maxDetail;
+
+        void add(long durationNanos, String thread, String detail) {
+            count++;
+            totalNanos += durationNanos;
+            if (count == 1 || durationNanos > maxNanos) {
+                maxNanos = durationNanos;
+                maxThread = thread;
+                maxDetail = detail;
+            }
+        }
+
+        void copyFrom(Window w) {
+            count = w.count;
+            totalNanos = w.totalNanos;
+            maxNanos = w.maxNanos;
+            maxThread = w.maxThread;
+            maxDetail = w.maxDetail;
+        }
+
+        void clear() {
+            count = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+            maxThread = null;
+            maxDetail = null;
+        }
+
+        MetricsSnapshot.JfrEventWindow toDto(long fromMillis, long toMillis) {
+            return new MetricsSnapshot.JfrEventWindow(fromMillis, toMillis, count, totalNanos, maxNanos,
+                    maxThread, maxDetail);
+        }
+    }
+}
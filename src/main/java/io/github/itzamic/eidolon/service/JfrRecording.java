@@ -0,0 +1,86 @@
+package io.github.itzamic.eidolon.service;
+
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The in-process JFR {@link RecordingStream} shared by the JFR-based collectors, so that enabling
+ * several of them still records and parses one stream. Each {@link Consumer} enables its events and
+ * registers its handlers before the stream starts; handlers and {@link Consumer#onFlush} run on the
+ * stream's thread.
+ */
+final class JfrRecording {
+
+    /** A collector fed by the shared stream. */
+    interface Consumer {
+        /** Enables events and registers handlers; called once, before the stream starts. */
+        void subscribe(RecordingStream stream);
+
+        /** Called after every flush of the stream, about once a second. */
+        void onFlush();
+    }
+
+    private final List<Consumer> consumers;
+    private RecordingStream stream; // guarded by this
+
+    JfrRecording(List<Consumer> consumers) {
+        this.consumers = List.copyOf(consumers);
+    }
+
+    /**
+     * Starts the recording stream in the background. Returns false, leaving nothing running, when JFR
+     * is not available in this JVM (no {@code jdk.jfr} module, disabled, or not permitted).
+     */
+    synchronized boolean start() {
+        if (stream != null) {
+            return true;
+        }
+        RecordingStream rs = null;
+        try {
+            rs = new RecordingStream();
+            for (Consumer c : consumers) {
+                c.subscribe(rs);
+            }
+            // Only the live stream is consumed; keep no more than a few chunks on disk.
+            rs.setMaxAge(Duration.ofSeconds(10));
+            rs.onFlush(this::flushed);
+            rs.startAsync();
+            stream = rs;
+            return true;
+        } catch (Throwable t) {
+            if (rs != null) {
+                try {
+                    rs.close();
+                } catch (Throwable ignored) {
+                }
+            }
+            return false;
+        }
+    }
+
+    synchronized boolean running() {
+        return stream != null;
+    }
+
+    void close() {
+        RecordingStream rs;
+        synchronized (this) {
+            rs = stream;
+            stream = null;
+        }
+        if (rs != null) {
+            try {
+                rs.close();
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+    private void flushed() {
+        for (Consumer c : consumers) {
+            c.onFlush();
+        }
+    }
+}
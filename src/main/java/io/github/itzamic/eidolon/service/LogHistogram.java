@@ -0,0 +1,104 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory histogram of non-negative millisecond values with log-linear buckets, in the style
+ * of HdrHistogram: values below 32 get a bucket each, and every power of two above that is split
+ * into 16 equal buckets, so a reported value is at most 1/16 (6.25%) above the recorded one.
+ * Values are tracked up to {@link #HIGHEST_TRACKABLE} (about 4.6 hours); larger ones land in the
+ * last bucket while {@link #max()} stays exact.
+ *
+ * {@link #record} is a bucket index computation and one atomic increment. It must be called from a
+ * single thread; readers may copy the counts concurrently.
+ */
+final class LogHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int LINEAR = 1 << SUB_BITS; // values with a bucket each
+    private static final int HALF = LINEAR >> 1; // buckets per power of two above LINEAR
+
+    static final long HIGHEST_TRACKABLE = (1L << 24) - 1;
+    static final int BUCKETS = index(HIGHEST_TRACKABLE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private volatile long max;
+
+    void record(long value) {
+        long v = Math.max(0, value);
+        counts.getAndIncrement(index(Math.min(v, HIGHEST_TRACKABLE)));
+        if (v > max) {
+            max = v; // single writer
+        }
+    }
+
+    long max() {
+        return max;
+    }
+
+    /** Copies the current counts into {@code into} (length {@link #BUCKETS}) and returns it. */
+    long[] copyCounts(long[] into) {
+        for (int i = 0; i < BUCKETS; i++) {
+            into[i] = counts.get(i);
+        }
+        return into;
+    }
+
+    static int index(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        int mantissa = (int) (value >>> shift); // in [HALF, LINEAR)
+        return LINEAR + (shift - 1) * HALF + (mantissa - HALF);
+    }
+
+    /** Largest value that maps to bucket {@code index}. */
+    static long highestEquivalent(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int shift = (index - LINEAR) / HALF + 1;
+        long mantissa = (index - LINEAR) % HALF + HALF;
+        return (mantissa << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * p50/p90/p99/p99.9/max of {@code counts}; each percentile is the highest value of the first bucket
+     * whose cumulative count reaches it, capped at {@code max}.
+     */
+    static MetricsSnapshot.PausePercentiles percentiles(long[] counts, long max, long fromMillis, long toMillis) {
+        long total = 0;
+        int highest = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                total += counts[i];
+                highest = i;
+            }
+        }
+        if (total == 0) {
+            return new MetricsSnapshot.PausePercentiles(fromMillis, toMillis, 0, 0, 0, 0, 0, 0);
+        }
+        long top = Math.min(highestEquivalent(highest), max);
+        return new MetricsSnapshot.PausePercentiles(fromMillis, toMillis, total,
+                Math.min(valueAt(counts, total, 0.5), top),
+                Math.min(valueAt(counts, total, 0.9), top),
+                Math.min(valueAt(counts, total, 0.99), top),
+                Math.min(valueAt(counts, total, 0.999), top),
+                top);
+    }
+
+    private static long valueAt(long[] counts, long total, double quantile) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestEquivalent(i);
+            }
+        }
+        return highestEquivalent(counts.length - 1);
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.itzamic.eidolon.service;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Independently collected parts of a {@link io.github.itzamic.eidolon.model.MetricsSnapshot}.
+ * Used by the REST {@code ?sections=} selector and WebSocket subscriptions.
+ */
+public enum MetricsSection {
+    HEAP("heap"),
+    POOLS("pools"),
+    THREADS("threads"),
+    CLASSES("classes"),
+    STRING_TABLE("string-table"),
+    GC("gc"),
+    HOT_THREADS("hot-threads"),
+    JFR("jfr");
+
+    /** Every section; the string table and JFR summaries are still only collected when enabled in the configuration. */
+    public static final Set<MetricsSection> ALL = Collections.unmodifiableSet(EnumSet.allOf(MetricsSection.class));
+
+    private final String key;
+
+    MetricsSection(String key) {
+        this.key = key;
+    }
+
+    /** Name used in query parameters, e.g. {@code heap} or {@code string-table}. */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Parses a comma-separated selector such as {@code "heap,gc"}. Matching is case-insensitive,
+     * accepts {@code stringTable} and {@code hotThreads} as aliases and ignores unknown names. A null, blank or
+     * entirely unknown selector yields {@link #ALL}.
+     */
+    public static Set<MetricsSection> parse(String selector) {
+        if (selector == null || selector.isBlank()) {
+            return ALL;
+        }
+        EnumSet<MetricsSection> out = EnumSet.noneOf(MetricsSection.class);
+        for (String token : selector.split(",")) {
+            MetricsSection s = fromKey(token.trim());
+            if (s != null) {
+                out.add(s);
+            }
+        }
+        return out.isEmpty() ? ALL : Collections.unmodifiableSet(out);
+    }
+
+    private static MetricsSection fromKey(String token) {
+        String k = token.toLowerCase(Locale.ROOT);
+        if ("stringtable".equals(k) || "string_table".equals(k)) {
+            return STRING_TABLE;
+        }
+        if ("hotthreads".equals(k) || "hot_threads".equals(k)) {
+            return HOT_THREADS;
+        }
+        for (MetricsSection s : values()) {
+            if (s.key.equals(k)) {
+                return s;
+            }
+        }
+        return null;
+    }
+}
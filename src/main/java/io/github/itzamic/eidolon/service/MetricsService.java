@@ -1,6 +1,7 @@
 package io.github.itzamic.eidolon.service;
 
 import io.github.itzamic.eidolon.EidolonConfig;
+import io.github.itzamic.eidolon.EidolonThreads;
 import io.github.itzamic.eidolon.model.MetricsSnapshot;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -21,13 +22,15 @@ import java.lang.management.MemoryType;
 import java.lang.management.MemoryUsage;
 import java.lang.management.ThreadMXBean;
 import java.time.Instant;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Singleton
 public class MetricsService {
@@ -35,22 +38,96 @@ public class MetricsService {
     private final EidolonConfig config;
 
     private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
-    private final List<MemoryPoolMXBean> memoryPools = ManagementFactory.getMemoryPoolMXBeans();
+    private final List<MemoryPoolMXBean> memoryPoolBeans = ManagementFactory.getMemoryPoolMXBeans();
     private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
     private final ClassLoadingMXBean classLoadingMXBean = ManagementFactory.getClassLoadingMXBean();
+    private final ThreadStateSampler threadStates;
+    private final HotThreadSampler hotThreadSampler; // null when disabled
+    private final ThreadDumper threadDumper;
+    private final ClassHistogram classHistogram;
+    private final JfrEventCollector jfrEventCollector; // null when disabled
+    private final AllocationProfiler allocationProfiler; // null when disabled
+    private final JfrRecording jfr; // shared by the JFR-based collectors; null when none is enabled
 
-    private final ArrayDeque<MetricsSnapshot.GcEvent> gcEvents;
+    // Published by the collector thread; null until its first run or when it is disabled.
+    private volatile MetricsSnapshot published;
+    private ScheduledExecutorService collector;
+
+    // On-demand mode (no collector): one cache per section so that callers only pay for the sections they return.
+    private final SingleFlightCache<MetricsSnapshot.Heap> heapSummary;
+    private final SingleFlightCache<List<MetricsSnapshot.MemoryPool>> pools;
+    private final SingleFlightCache<MetricsSnapshot.Heap> heap; // summary plus pools, one instance per window
+    private final SingleFlightCache<MetricsSnapshot.Threads> threads;
+    private final SingleFlightCache<MetricsSnapshot.Classes> classes;
+    private final SingleFlightCache<MetricsSnapshot.StringTable> stringTable;
+    private final SingleFlightCache<MetricsSnapshot.HotThreads> hotThreads;
+
+    private final GcPoolLayout gcPools;
+    private final GcEventRing gcEvents;
+    private final GcPauseHistograms gcPauses;
+    // Writer-side scratch state, touched only by the GC notification thread.
+    private final long[] gcBefore;
+    private final long[] gcAfter;
+    private long lastYoungAfter = -1;
+    private long pendingAllocated; // allocation seen by collections excluded via includeGcNames
     private final List<NotificationEmitter> registeredEmitters = new ArrayList<>();
     private final NotificationListener gcListener = this::onGcNotification;
 
     public MetricsService(EidolonConfig config) {
         this.config = config;
-        this.gcEvents = new ArrayDeque<>(Math.max(16, config.gcEventBufferSize()));
+        this.threadStates = new ThreadStateSampler(threadMXBean, config.includeThreadNamePrefixes());
+        this.hotThreadSampler = config.hotThreadsLimit() > 0 ? new HotThreadSampler(threadMXBean, config.hotThreadsLimit()) : null;
+        this.threadDumper = new ThreadDumper(threadMXBean);
+        this.classHistogram = new ClassHistogram(config.heapHistogramIntervalMillis());
+        long maxAge = config.snapshotMaxAgeMillis();
+        this.heapSummary = new SingleFlightCache<>(this::collectHeapSummary, maxAge);
+        this.pools = new SingleFlightCache<>(this::collectMemoryPools, maxAge);
+        this.heap = new SingleFlightCache<>(() -> {
+            MetricsSnapshot.Heap summary = heapSummary.get();
+            return new MetricsSnapshot.Heap(summary.used, summary.committed, summary.max, pools.get());
+        }, maxAge);
+        this.threads = new SingleFlightCache<>(this::collectThreads, maxAge);
+        this.classes = new SingleFlightCache<>(this::collectClasses, maxAge);
+        this.stringTable = new SingleFlightCache<>(this::readStringTable, maxAge);
+        this.hotThreads = new SingleFlightCache<>(this::collectHotThreads, maxAge);
+        this.jfrEventCollector = config.jfrEnabled() ? new JfrEventCollector(config.jfrPauseThresholdMillis(),
+                config.jfrContentionThresholdMillis(), config.jfrIntervalMillis()) : null;
+        this.allocationProfiler = config.allocationProfilingEnabled() ? new AllocationProfiler(
+                config.allocationSamplesPerSecond(), config.allocationStackDepth(),
+                config.allocationMemoryBudgetBytes(), config.allocationWindowMillis()) : null;
+        List<JfrRecording.Consumer> jfrConsumers = new ArrayList<>();
+        if (jfrEventCollector != null) {
+            jfrConsumers.add(jfrEventCollector);
+        }
+        if (allocationProfiler != null) {
+            jfrConsumers.add(allocationProfiler);
+        }
+        this.jfr = jfrConsumers.isEmpty() ? null : new JfrRecording(jfrConsumers);
+        this.gcPools = new GcPoolLayout(memoryPoolBeans);
+        this.gcEvents = new GcEventRing(config.gcEventBufferSize(), gcPools.size());
+        this.gcPauses = new GcPauseHistograms(config.gcPauseIntervalMillis());
+        this.gcBefore = new long[gcPools.size()];
+        this.gcAfter = new long[gcPools.size()];
     }
 
     @PostConstruct
     void init() {
-        // Register for GC notifications if available
+        long interval = config.collectIntervalMillis();
+        if (interval > 0) {
+            collector = Executors.newSingleThreadScheduledExecutor(
+                EidolonThreads.factory("eidolon-collector", config.virtualThreads()));
+            // Fixed delay so a slow collection (huge thread count, slow MBean) never queues up runs.
+            collector.scheduleWithFixedDelay(this::collectQuietly, 0, interval, TimeUnit.MILLISECONDS);
+        }
+        if (jfr != null) {
+            jfr.start(); // stays off when JFR is unavailable; jfrEvents() and allocations() then report null
+        }
+
+        // Take over the listener the deferred agent bootstrap installed, replaying what it buffered;
+        // otherwise register for GC notifications directly, if available
+        if (EarlyGcNotifications.attach(gcListener)) {
+            return;
+        }
         final List<java.lang.management.GarbageCollectorMXBean> gcs = ManagementFactory.getGarbageCollectorMXBeans();
         for (java.lang.management.GarbageCollectorMXBean gc : gcs) {
             if (gc instanceof NotificationEmitter emitter) {
@@ -66,6 +143,15 @@ public class MetricsService {
 
     @PreDestroy
     void shutdown() {
+        if (collector != null) {
+            collector.shutdownNow();
+            collector = null;
+        }
+        published = null;
+        if (jfr != null) {
+            jfr.close();
+        }
+        EarlyGcNotifications.detach(gcListener);
         for (NotificationEmitter emitter : registeredEmitters) {
             try {
                 emitter.removeNotificationListener(gcListener);
@@ -77,52 +163,276 @@ public class MetricsService {
     }
 
     private void onGcNotification(Notification notification, Object handback) {
-        // Filter by type constant to avoid reflective dependency on com.sun.* in signatures
-        if (!"com.sun.management.gc.notification".equals(notification.getType())) {
+        GcNotificationParser.Parsed gc = GcNotificationParser.parse(notification);
+        if (gc == null) {
             return;
         }
-        try {
-            // payload is a CompositeData with GarbageCollectionNotificationInfo
-            // We avoid compile-time dependency; parse defensively via standard MXBean views
-            Object userData = notification.getUserData();
-            // Fallback: use com.sun.management API reflectively if present
-            Class<?> gcInfoCls = Class.forName("com.sun.management.GarbageCollectionNotificationInfo");
-            Class<?> comDataCls = Class.forName("javax.management.openmbean.CompositeData");
-            Object gcNotif = gcInfoCls.getMethod("from", comDataCls).invoke(null, userData);
-            String gcName = (String) gcInfoCls.getMethod("getGcName").invoke(gcNotif);
-            if (!config.includeGcNames().isEmpty() && !config.includeGcNames().contains(gcName)) {
-                return;
-            }
-            String gcAction = (String) gcInfoCls.getMethod("getGcAction").invoke(gcNotif);
-            String gcCause = (String) gcInfoCls.getMethod("getGcCause").invoke(gcNotif);
-            Object gcInfo = gcInfoCls.getMethod("getGcInfo").invoke(gcNotif);
-            long startTime = (Long) gcInfo.getClass().getMethod("getStartTime").invoke(gcInfo);
-            long duration = (Long) gcInfo.getClass().getMethod("getDuration").invoke(gcInfo);
-
-            MetricsSnapshot.GcEvent evt = new MetricsSnapshot.GcEvent(gcName, gcAction, gcCause, startTime, duration);
-            synchronized (gcEvents) {
-                gcEvents.addLast(evt);
-                while (gcEvents.size() > config.gcEventBufferSize()) {
-                    gcEvents.removeFirst();
-                }
+        boolean include = config.includeGcNames().isEmpty() || config.includeGcNames().contains(gc.gcName());
+        if (include) {
+            gcPauses.record(gc.gcName(), gc.gcAction(), gc.duration());
+        }
+        if (gc.gcInfo() == null) {
+            if (include) {
+                gcEvents.append(gc.gcName(), gc.gcAction(), gc.gcCause(), gc.startTime(), gc.duration());
             }
+            return;
+        }
+        // Track young usage across every collector, even filtered ones, so allocation is neither lost nor double counted.
+        gcPools.readUsed(gc.gcInfo().get("memoryUsageBeforeGc"), gcBefore);
+        gcPools.readUsed(gc.gcInfo().get("memoryUsageAfterGc"), gcAfter);
+        long youngBefore = gcPools.youngUsed(gcBefore);
+        long allocated = pendingAllocated + (lastYoungAfter < 0 ? 0 : Math.max(0, youngBefore - lastYoungAfter));
+        lastYoungAfter = gcPools.youngUsed(gcAfter);
+        if (!include) {
+            pendingAllocated = allocated;
+            return;
+        }
+        pendingAllocated = 0;
+        long promoted = Math.max(0, gcPools.oldUsed(gcAfter) - gcPools.oldUsed(gcBefore));
+        long reclaimed = Math.max(0, gcPools.heapUsed(gcBefore) - gcPools.heapUsed(gcAfter));
+        gcEvents.append(gc.gcName(), gc.gcAction(), gc.gcCause(), gc.startTime(), gc.duration(),
+                gcBefore, gcAfter, allocated, promoted, reclaimed);
+    }
+
+    private void collectQuietly() {
+        try {
+            collect();
         } catch (Throwable ignored) {
-            // If reflective parsing fails, skip event
+            // keep the previous snapshot and try again next run
         }
     }
 
-    public MetricsSnapshot snapshot() {
+    /** Runs every enabled collection on the calling thread and publishes the result. */
+    void collect() {
+        MetricsSnapshot.Heap summary = collectHeapSummary();
+        MetricsSnapshot.Heap heapDto = new MetricsSnapshot.Heap(summary.used, summary.committed, summary.max, collectMemoryPools());
+        MetricsSnapshot.StringTable stringTableDto = config.collectStringTable() ? readStringTable() : null;
         long now = Instant.now().toEpochMilli();
+        published = new MetricsSnapshot(now, heapDto, collectThreads(), collectClasses(), stringTableDto, null, null,
+                collectHotThreads(), null);
+        gcPauses.rotate(now);
+    }
+
+    /**
+     * Returns a full snapshot of every section enabled in the configuration.
+     *
+     * While the collector thread runs ({@link EidolonConfig#collectIntervalMillis()} &gt; 0), sections come
+     * from the snapshot it last published: readers (REST endpoints, WebSocket pushes, exporters) never
+     * run JVM introspection themselves and never wait for it, and the timestamp is the collection time.
+     * Before the first collection, or with the collector disabled, sections are collected on demand, no
+     * older than {@link EidolonConfig#snapshotMaxAgeMillis()} and shared between concurrent callers.
+     * GC events are always read live from their lock-free buffer.
+     */
+    public MetricsSnapshot snapshot() {
+        return snapshot(MetricsSection.ALL);
+    }
+
+    /**
+     * Returns a snapshot containing only the requested sections; the others are {@code null}.
+     * Sections that are not requested are not collected, so e.g. a heap-only snapshot never walks threads.
+     * {@link MetricsSection#POOLS} implies the heap summary, which is always cheap.
+     * Published sections all come from the same collection, the one whose time is the timestamp.
+     */
+    public MetricsSnapshot snapshot(Set<MetricsSection> sections) {
+        MetricsSnapshot p = published; // read once so every section comes from the same collection
+        long now = p != null ? p.timestampMillis : Instant.now().toEpochMilli();
+        MetricsSnapshot.Heap heapDto = null;
+        if (sections.contains(MetricsSection.HEAP) || sections.contains(MetricsSection.POOLS)) {
+            MetricsSnapshot.Heap summary = p != null ? p.heap : heapSummary.get();
+            List<MetricsSnapshot.MemoryPool> pools = sections.contains(MetricsSection.POOLS) ? memoryPools(p) : null;
+            heapDto = new MetricsSnapshot.Heap(summary.used, summary.committed, summary.max, pools);
+        }
+        MetricsSnapshot.Threads threadsDto = sections.contains(MetricsSection.THREADS) ? threads(p) : null;
+        MetricsSnapshot.Classes classesDto = sections.contains(MetricsSection.CLASSES) ? classes(p) : null;
+        MetricsSnapshot.StringTable stringTableDto = sections.contains(MetricsSection.STRING_TABLE) ? stringTable(p) : null;
+        List<MetricsSnapshot.GcEvent> gcDto = sections.contains(MetricsSection.GC) ? gcEvents() : null;
+        List<MetricsSnapshot.GcPauseStats> pausesDto = sections.contains(MetricsSection.GC) ? gcPauses.stats() : null;
+        MetricsSnapshot.HotThreads hotDto = sections.contains(MetricsSection.HOT_THREADS) ? hotThreads(p) : null;
+        List<MetricsSnapshot.JfrEventStats> jfrDto = sections.contains(MetricsSection.JFR) ? jfrEvents() : null;
+        return new MetricsSnapshot(now, heapDto, threadsDto, classesDto, stringTableDto, gcDto, pausesDto, hotDto,
+                jfrDto);
+    }
+
+    /**
+     * How often the collected sections (all but {@link MetricsSection#GC} and {@link MetricsSection#JFR}, which are
+     * read live) can change: the collection interval while the collector runs, otherwise the on-demand cache age.
+     * Reading them more often returns the same values and timestamp.
+     */
+    public long refreshMillis() {
+        long interval = config.collectIntervalMillis();
+        return interval > 0 ? interval : config.snapshotMaxAgeMillis();
+    }
+
+    /**
+     * Heap summary including memory pools. The same instance is returned until the next collection (or, on
+     * demand, until it is older than the snapshot max age), so readers may cache by identity.
+     */
+    public MetricsSnapshot.Heap heap() {
+        MetricsSnapshot p = published;
+        return p != null ? p.heap : heap.get();
+    }
+
+    public List<MetricsSnapshot.MemoryPool> memoryPools() {
+        return memoryPools(published);
+    }
+
+    public MetricsSnapshot.Threads threads() {
+        return threads(published);
+    }
+
+    public MetricsSnapshot.Classes classes() {
+        return classes(published);
+    }
+
+    // Section readers over one published snapshot; the caches only serve when nothing is published yet.
+
+    private List<MetricsSnapshot.MemoryPool> memoryPools(MetricsSnapshot p) {
+        return p != null ? p.heap.pools : pools.get();
+    }
+
+    private MetricsSnapshot.Threads threads(MetricsSnapshot p) {
+        return p != null ? p.threads : threads.get();
+    }
+
+    private MetricsSnapshot.Classes classes(MetricsSnapshot p) {
+        return p != null ? p.classes : classes.get();
+    }
+
+    private MetricsSnapshot.HotThreads hotThreads(MetricsSnapshot p) {
+        if (hotThreadSampler == null) {
+            return null;
+        }
+        return p != null ? p.hotThreads : hotThreads.get();
+    }
+
+    private MetricsSnapshot.StringTable stringTable(MetricsSnapshot p) {
+        if (!config.collectStringTable()) {
+            return null;
+        }
+        return p != null ? p.stringTable : stringTable.get();
+    }
+
+    /**
+     * Top threads by CPU time and by allocated bytes over the last collection interval (or, on demand,
+     * since the previous sample), or {@code null} when {@link EidolonConfig#hotThreadsLimit()} disables it.
+     */
+    public MetricsSnapshot.HotThreads hotThreads() {
+        return hotThreads(published);
+    }
+
+    /**
+     * All live threads grouped by state and identical stack, largest group first, with at most
+     * {@code maxDepth} frames per stack (all when negative), plus the threads of any deadlock cycle.
+     * Always taken live.
+     */
+    public MetricsSnapshot.ThreadDump threadDump(int maxDepth) {
+        return threadDumper.dump(maxDepth);
+    }
+
+    /**
+     * The {@code top} classes by live bytes and by growth since the previous run, from the
+     * {@code DiagnosticCommand} class histogram. Each run forces a full GC, so concurrent callers share one
+     * run and results are reused for {@link EidolonConfig#heapHistogramIntervalMillis()}. {@code null} when
+     * the command is not available.
+     */
+    public MetricsSnapshot.HeapHistogram heapHistogram(int top) {
+        return classHistogram.histogram(top);
+    }
+
+    /**
+     * Safepoint, contended monitor enter, thread park and GC phase pause summaries from the JFR stream,
+     * since it started and over the last completed {@link EidolonConfig#jfrIntervalMillis()} interval;
+     * read live like the GC pause stats. {@code null} when disabled or when JFR is not available.
+     */
+    public List<MetricsSnapshot.JfrEventStats> jfrEvents() {
+        return jfrEventCollector != null && jfr.running() ? jfrEventCollector.stats() : null;
+    }
+
+    /**
+     * The {@code top} heaviest allocation sites (class and truncated stack) of the current and the last
+     * completed {@link EidolonConfig#allocationWindowMillis()} window, from throttled JFR allocation
+     * samples. {@code null} when disabled or when JFR is not available.
+     */
+    public MetricsSnapshot.AllocationProfile allocations(int top) {
+        return allocationProfiler != null && jfr.running() ? allocationProfiler.profile(Math.max(0, top)) : null;
+    }
+
+    /** String table statistics, or {@code null} when collection is disabled. */
+    public MetricsSnapshot.StringTable stringTable() {
+        return stringTable(published);
+    }
+
+    /** Every retained GC event, oldest first. Reused without copying until a new event arrives. */
+    public List<MetricsSnapshot.GcEvent> gcEvents() {
+        return gcEvents.recent();
+    }
+
+    /**
+     * GC events with {@code seq > since}, oldest first, capped at {@code limit} (and at the buffer size).
+     * The returned {@link MetricsSnapshot.GcEventPage#nextSeq} is the cursor for the next call.
+     */
+    public MetricsSnapshot.GcEventPage gcEventsSince(long since, int limit) {
+        return gcEvents.since(since, limit);
+    }
+
+    /** Seq of the newest GC event, usable as a starting cursor for {@link #gcEventsSince}. */
+    public long latestGcEventSeq() {
+        return gcEvents.latestSeq();
+    }
+
+    /** Cumulative pause histograms per collector and action since startup, for scrape-style exporters. */
+    public GcPauseHistograms gcPauseHistograms() {
+        return gcPauses;
+    }
+
+    /**
+     * Pause p50/p90/p99/p99.9/max per collector and action, since startup and over the last completed
+     * {@link EidolonConfig#gcPauseIntervalMillis()} interval. Reused until a pause is recorded or an interval closes.
+     */
+    public List<MetricsSnapshot.GcPauseStats> gcPauseStats() {
+        return gcPauses.stats();
+    }
+
+    /**
+     * Allocation and promotion rates derived from the retained GC events: bytes allocated/promoted by
+     * every collection after the first, divided by the time between the first and last collection.
+     */
+    public MetricsSnapshot.GcRates gcRates() {
+        return gcRates(gcPools.names(), gcEvents.recent());
+    }
+
+    static MetricsSnapshot.GcRates gcRates(List<String> poolNames, List<MetricsSnapshot.GcEvent> events) {
+        int n = events.size();
+        if (n == 0) {
+            return new MetricsSnapshot.GcRates(poolNames, 0, 0L, 0.0, 0.0, 0L);
+        }
+        long allocated = 0;
+        long promoted = 0;
+        long reclaimed = 0;
+        for (int i = 0; i < n; i++) {
+            MetricsSnapshot.GcEvent e = events.get(i);
+            reclaimed += e.reclaimedBytes;
+            if (i > 0) {
+                allocated += e.allocatedBytes;
+                promoted += e.promotedBytes;
+            }
+        }
+        long window = events.get(n - 1).startTimeMillis - events.get(0).startTimeMillis;
+        double seconds = window / 1000.0;
+        double allocationRate = window > 0 ? allocated / seconds : 0.0;
+        double promotionRate = window > 0 ? promoted / seconds : 0.0;
+        return new MetricsSnapshot.GcRates(poolNames, n, window, allocationRate, promotionRate, reclaimed);
+    }
 
-        // Heap summary
+    private MetricsSnapshot.Heap collectHeapSummary() {
         MemoryUsage heap = memoryMXBean.getHeapMemoryUsage();
-        long used = safeLong(heap.getUsed());
-        long committed = safeLong(heap.getCommitted());
-        long max = safeLong(heap.getMax());
+        return new MetricsSnapshot.Heap(safeLong(heap.getUsed()), safeLong(heap.getCommitted()), safeLong(heap.getMax()), null);
+    }
 
+    private List<MetricsSnapshot.MemoryPool> collectMemoryPools() {
         // Pools (optional filtering)
         List<MetricsSnapshot.MemoryPool> poolDtos = new ArrayList<>();
-        for (MemoryPoolMXBean p : memoryPools) {
+        for (MemoryPoolMXBean p : memoryPoolBeans) {
             if (!config.includeMemoryPools().isEmpty() && !config.includeMemoryPools().contains(p.getName())) {
                 continue;
             }
@@ -137,80 +447,34 @@ public class MetricsService {
             String type = p.getType() == null ? "UNKNOWN" : (p.getType() == MemoryType.HEAP ? "HEAP" : "NON_HEAP");
             poolDtos.add(new MetricsSnapshot.MemoryPool(p.getName(), type, u, cu));
         }
+        return poolDtos;
+    }
 
-        MetricsSnapshot.Heap heapDto = new MetricsSnapshot.Heap(used, committed, max, poolDtos);
-
-        // Threads
+    private MetricsSnapshot.Threads collectThreads() {
         int threadCount = threadMXBean.getThreadCount();
         int daemonThreadCount = threadMXBean.getDaemonThreadCount();
         int peakThreadCount = threadMXBean.getPeakThreadCount();
         long totalStarted = threadMXBean.getTotalStartedThreadCount();
-        Map<String, Integer> stateCounts = computeThreadStateCounts();
-
-        MetricsSnapshot.Threads threadsDto = new MetricsSnapshot.Threads(
-                threadCount, daemonThreadCount, peakThreadCount, totalStarted, stateCounts
-        );
-
-        // Classes
-        long loaded = classLoadingMXBean.getLoadedClassCount();
-        long totalLoaded = classLoadingMXBean.getTotalLoadedClassCount();
-        long unloaded = classLoadingMXBean.getUnloadedClassCount();
-        MetricsSnapshot.Classes classesDto = new MetricsSnapshot.Classes(loaded, totalLoaded, unloaded);
+        Map<String, Integer> stateCounts = threadStates.sample();
+        return new MetricsSnapshot.Threads(threadCount, daemonThreadCount, peakThreadCount, totalStarted, stateCounts);
+    }
 
-        // String table (optional)
-        MetricsSnapshot.StringTable stringTableDto = null;
-        if (config.collectStringTable()) {
-            stringTableDto = readStringTable();
+    private MetricsSnapshot.HotThreads collectHotThreads() {
+        if (hotThreadSampler == null) {
+            return null;
         }
-
-        // Recent GC events
-        List<MetricsSnapshot.GcEvent> gcCopy;
-        synchronized (gcEvents) {
-            gcCopy = new ArrayList<>(gcEvents);
+        try {
+            return hotThreadSampler.sample();
+        } catch (RuntimeException e) {
+            return null;
         }
-
-        return new MetricsSnapshot(now, heapDto, threadsDto, classesDto, stringTableDto, gcCopy);
     }
 
-    private Map<String, Integer> computeThreadStateCounts() {
-        Map<Thread.State, Integer> counts = new EnumMap<>(Thread.State.class);
-        for (Thread.State s : Thread.State.values()) counts.put(s, 0);
-        try {
-            long[] ids = threadMXBean.getAllThreadIds();
-            Thread.State[] states = new Thread.State[ids.length];
-            for (int i = 0; i < ids.length; i++) {
-                try {
-                    java.lang.management.ThreadInfo info = threadMXBean.getThreadInfo(ids[i], 0);
-                    if (info != null) {
-                        boolean include = config.includeThreadNamePrefixes().isEmpty();
-                        if (!include) {
-                            String tn = info.getThreadName();
-                            if (tn != null) {
-                                for (String prefix : config.includeThreadNamePrefixes()) {
-                                    if (tn.startsWith(prefix)) {
-                                        include = true;
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-                        if (include) {
-                            states[i] = info.getThreadState();
-                        }
-                    }
-                } catch (Exception ignored) {
-                }
-            }
-            for (Thread.State st : states) {
-                if (st != null) counts.put(st, counts.get(st) + 1);
-            }
-        } catch (Exception ignored) {
-        }
-        Map<String, Integer> out = new HashMap<>();
-        for (Map.Entry<Thread.State, Integer> e : counts.entrySet()) {
-            out.put(e.getKey().name(), e.getValue());
-        }
-        return out;
+    private MetricsSnapshot.Classes collectClasses() {
+        long loaded = classLoadingMXBean.getLoadedClassCount();
+        long totalLoaded = classLoadingMXBean.getTotalLoadedClassCount();
+        long unloaded = classLoadingMXBean.getUnloadedClassCount();
+        return new MetricsSnapshot.Classes(loaded, totalLoaded, unloaded);
     }
 
     private MetricsSnapshot.StringTable readStringTable() {
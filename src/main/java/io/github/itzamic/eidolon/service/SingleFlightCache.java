@@ -0,0 +1,94 @@
+package io.github.itzamic.eidolon.service;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caches the result of an expensive loader for a bounded staleness window.
+ *
+ * Callers arriving while a value younger than {@code maxAgeNanos} exists get it directly.
+ * Otherwise exactly one caller runs the loader and every concurrent caller waits for and shares
+ * that same result, so the load cost stays flat regardless of how many readers poll at once.
+ * A non-positive max age disables reuse but still coalesces concurrent loads.
+ */
+final class SingleFlightCache<T> {
+
+    private final Supplier<T> loader;
+    private final long maxAgeNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+    private volatile Entry<T> entry;
+
+    SingleFlightCache(Supplier<T> loader, long maxAgeMillis) {
+        this(loader, maxAgeMillis, System::nanoTime);
+    }
+
+    SingleFlightCache(Supplier<T> loader, long maxAgeMillis, LongSupplier nanoClock) {
+        this.loader = Objects.requireNonNull(loader, "loader");
+        this.maxAgeNanos = Math.max(0L, maxAgeMillis) * 1_000_000L;
+        this.nanoClock = nanoClock;
+    }
+
+    T get() {
+        T fresh = freshValue();
+        if (fresh != null) {
+            return fresh;
+        }
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            // Another caller may have published a value between our check and winning the slot.
+            T value = freshValue();
+            if (value == null) {
+                long startedAt = nanoClock.getAsLong();
+                value = loader.get();
+                entry = new Entry<>(value, startedAt);
+            }
+            mine.complete(value);
+            return value;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    /** Drops the cached value so the next {@link #get()} reloads. */
+    void invalidate() {
+        entry = null;
+    }
+
+    private T freshValue() {
+        Entry<T> e = entry;
+        if (e != null && nanoClock.getAsLong() - e.loadedAtNanos < maxAgeNanos) {
+            return e.value;
+        }
+        return null;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry<T>(T value, long loadedAtNanos) {}
+}
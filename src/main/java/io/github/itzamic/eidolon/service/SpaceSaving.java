@@ -0,0 +1,99 @@
+package io.github.itzamic.eidolon.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted space-saving top-K (Metwally, Agrawal and El Abbadi): at most {@code capacity} counters,
+ * so memory is fixed however many distinct keys are seen. A key that is not tracked while the table
+ * is full replaces the counter with the smallest weight and inherits that weight as its error, so a
+ * reported weight never undercounts and overcounts by at most its {@link Counter#error}. Every key
+ * whose true weight exceeds {@code total / capacity} is guaranteed to be tracked.
+ *
+ * Replacing the minimum is a linear scan, which is cheap at the throttled rates it is fed at.
+ * Not thread-safe.
+ */
+final class SpaceSaving<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private long evictions;
+
+    SpaceSaving(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.counters = new HashMap<>(this.capacity * 4 / 3 + 1);
+    }
+
+    void add(K key, long weight) {
+        Counter<K> c = counters.get(key);
+        if (c != null) {
+            c.weight += weight;
+            c.count++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter<>(key, weight));
+            return;
+        }
+        Counter<K> min = minimum();
+        counters.remove(min.key);
+        evictions++;
+        // Reuse the evicted counter: the newcomer may have occurred up to min.weight times unseen.
+        min.key = key;
+        min.error = min.weight;
+        min.weight += weight;
+        min.count = 1;
+        counters.put(key, min);
+    }
+
+    private Counter<K> minimum() {
+        Counter<K> min = null;
+        for (Counter<K> c : counters.values()) {
+            if (min == null || c.weight < min.weight) {
+                min = c;
+            }
+        }
+        return min;
+    }
+
+    /** The {@code n} heaviest counters, heaviest first; the counters are live until the next {@link #add} or {@link #clear}. */
+    List<Counter<K>> top(int n) {
+        List<Counter<K>> all = new ArrayList<>(counters.values());
+        all.sort(Comparator.comparingLong((Counter<K> c) -> c.weight).reversed());
+        return all.size() > n ? all.subList(0, Math.max(0, n)) : all;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int size() {
+        return counters.size();
+    }
+
+    /** Keys dropped to make room since the last {@link #clear}; 0 means every weight is exact. */
+    long evictions() {
+        return evictions;
+    }
+
+    void clear() {
+        counters.clear();
+        evictions = 0;
+    }
+
+    static final class Counter<K> {
+        K key;
+        long weight;
+        long count; // adds since the key was admitted
+        long error; // weight inherited on admission; the true weight is at least weight - error
+
+        Counter(K key, long weight) {
+            this.key = key;
+            this.weight = weight;
+            this.count = 1;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thread dump with threads grouped by state and identical stack, so the thousands of idle pool workers
+ * of a large JVM collapse into one entry carrying their count, their names and a single stack.
+ *
+ * Stacks are read in batches of {@link #BATCH} thread ids and folded into the groups as they arrive,
+ * in one pass: each stack is hashed once, and only the first stack of each group is kept, so memory
+ * follows the number of distinct stacks plus one small record per thread rather than the size of a
+ * full dump. Batches are separate captures, so threads in different batches are not seen at the same
+ * instant. Deadlocks are detected separately with {@link ThreadMXBean#findDeadlockedThreads()}.
+ *
+ * Every live platform thread is included; the thread-name prefix filter does not apply.
+ */
+final class ThreadDumper {
+
+    static final int BATCH = 256;
+
+    private final ThreadMXBean threadMXBean;
+
+    ThreadDumper(ThreadMXBean threadMXBean) {
+        this.threadMXBean = threadMXBean;
+    }
+
+    /** Dumps every thread, keeping at most {@code maxDepth} frames per stack (all when negative). */
+    MetricsSnapshot.ThreadDump dump(int maxDepth) {
+        long now = System.currentTimeMillis();
+        int depth = maxDepth < 0 ? Integer.MAX_VALUE : maxDepth;
+        long[] ids = threadMXBean.getAllThreadIds();
+        Map<StackKey, Group> groups = new HashMap<>();
+        int threadCount = 0;
+        for (int from = 0; from < ids.length; from += BATCH) {
+            long[] batch = Arrays.copyOfRange(ids, from, Math.min(ids.length, from + BATCH));
+            for (ThreadInfo info : threadMXBean.getThreadInfo(batch, depth)) {
+                if (info == null) {
+                    continue; // terminated since the ids were read
+                }
+                StackKey key = new StackKey(info.getThreadState(), info.getStackTrace());
+                Group g = groups.get(key);
+                if (g == null) {
+                    g = new Group(key);
+                    groups.put(key, g);
+                }
+                g.threads.add(describe(info));
+                threadCount++;
+            }
+        }
+
+        List<Group> sorted = new ArrayList<>(groups.values());
+        sorted.sort(Comparator.comparingInt((Group g) -> g.threads.size()).reversed());
+        List<MetricsSnapshot.StackGroup> out = new ArrayList<>(sorted.size());
+        for (Group g : sorted) {
+            out.add(g.toDto());
+        }
+        return new MetricsSnapshot.ThreadDump(now, maxDepth < 0 ? -1 : maxDepth, threadCount, deadlocked(), out);
+    }
+
+    private List<MetricsSnapshot.DumpedThread> deadlocked() {
+        long[] ids;
+        try {
+            ids = threadMXBean.isSynchronizerUsageSupported()
+                    ? threadMXBean.findDeadlockedThreads()
+                    : threadMXBean.findMonitorDeadlockedThreads();
+        } catch (UnsupportedOperationException e) {
+            return List.of();
+        }
+        if (ids == null) {
+            return List.of();
+        }
+        List<MetricsSnapshot.DumpedThread> out = new ArrayList<>(ids.length);
+        for (ThreadInfo info : threadMXBean.getThreadInfo(ids, 0)) {
+            if (info != null) {
+                out.add(describe(info));
+            }
+        }
+        return out;
+    }
+
+    private static MetricsSnapshot.DumpedThread describe(ThreadInfo info) {
+        return new MetricsSnapshot.DumpedThread(info.getThreadId(), info.getThreadName(),
+                info.getThreadState().name(), info.getLockName(), info.getLockOwnerId(), info.getLockOwnerName());
+    }
+
+    /** State and frames, hashed once; compared frame by frame only on a hash match. */
+    private static final class StackKey {
+        final Thread.State state;
+        final StackTraceElement[] frames;
+        final int hash;
+
+        StackKey(Thread.State state, StackTraceElement[] frames) {
+            this.state = state;
+            this.frames = frames;
+            this.hash = 31 * state.ordinal() + Arrays.hashCode(frames);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StackKey k && hash == k.hash && state == k.state && Arrays.equals(frames, k.frames);
+        }
+    }
+
+    private static final class Group {
+        final StackKey key;
+        final List<MetricsSnapshot.DumpedThread> threads = new ArrayList<>(1);
+
+        Group(StackKey key) {
+            this.key = key;
+        }
+
+        MetricsSnapshot.StackGroup toDto() {
+            List<String> stack = new ArrayList<>(key.frames.length);
+            for (StackTraceElement e : key.frames) {
+                stack.add(e.toString());
+            }
+            return new MetricsSnapshot.StackGroup(key.state.name(), threads.size(), threads, stack);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.itzamic.eidolon.service;
+
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Counts threads per {@link Thread.State} using a single batched
+ * {@link ThreadMXBean#getThreadInfo(long[], int)} call per sample.
+ *
+ * When thread-name prefixes are configured, the include/exclude decision is cached per thread id
+ * so that known-excluded threads are not queried at all on later samples. The cache is kept as a
+ * sorted id array with a parallel flag array and is rebuilt from the live ids on every sample,
+ * so ids of terminated threads are dropped automatically. A thread renamed after its first
+ * sample keeps its original decision.
+ */
+final class ThreadStateSampler {
+
+    private static final Thread.State[] STATES = Thread.State.values();
+
+    private final ThreadMXBean threadMXBean;
+    private final String[] prefixes;
+
+    // Sorted ids seen on the previous sample and whether each passed the name filter.
+    private long[] knownIds = new long[0];
+    private boolean[] knownIncluded = new boolean[0];
+
+    ThreadStateSampler(ThreadMXBean threadMXBean, Set<String> includeThreadNamePrefixes) {
+        this.threadMXBean = threadMXBean;
+        this.prefixes = includeThreadNamePrefixes.toArray(new String[0]);
+    }
+
+    synchronized Map<String, Integer> sample() {
+        int[] counts = new int[STATES.length];
+        try {
+            long[] ids = threadMXBean.getAllThreadIds();
+            if (prefixes.length == 0) {
+                countStates(threadMXBean.getThreadInfo(ids, 0), counts);
+            } else {
+                sampleFiltered(ids, counts);
+            }
+        } catch (Exception ignored) {
+        }
+        Map<String, Integer> out = new HashMap<>();
+        for (Thread.State s : STATES) {
+            out.put(s.name(), counts[s.ordinal()]);
+        }
+        return out;
+    }
+
+    private void sampleFiltered(long[] ids, int[] counts) {
+        Arrays.sort(ids);
+        long[] prevIds = knownIds;
+        boolean[] prevIncluded = knownIncluded;
+
+        // Query only threads that are either new or were previously included.
+        long[] query = new long[ids.length];
+        int queryLen = 0;
+        int unknown = 0;
+        int p = 0;
+        for (long id : ids) {
+            while (p < prevIds.length && prevIds[p] < id) p++;
+            boolean known = p < prevIds.length && prevIds[p] == id;
+            if (!known) {
+                unknown++;
+                query[queryLen++] = id;
+            } else if (prevIncluded[p]) {
+                query[queryLen++] = id;
+            }
+        }
+
+        ThreadInfo[] infos = threadMXBean.getThreadInfo(queryLen == query.length ? query : Arrays.copyOf(query, queryLen), 0);
+
+        long[] nextIds = ids;
+        boolean[] nextIncluded = new boolean[ids.length];
+        // infos is aligned with query, which is sorted and a subsequence of ids.
+        int q = 0;
+        p = 0;
+        for (int i = 0; i < ids.length; i++) {
+            long id = ids[i];
+            while (p < prevIds.length && prevIds[p] < id) p++;
+            boolean known = p < prevIds.length && prevIds[p] == id;
+            boolean include = known && prevIncluded[p];
+            if (!known || include) {
+                ThreadInfo info = infos[q++];
+                if (!known) {
+                    include = info != null && matches(info.getThreadName());
+                }
+                if (include && info != null) {
+                    counts[info.getThreadState().ordinal()]++;
+                }
+            }
+            nextIncluded[i] = include;
+        }
+        if (unknown > 0 || ids.length != prevIds.length) {
+            knownIds = nextIds;
+            knownIncluded = nextIncluded;
+        }
+    }
+
+    private boolean matches(String name) {
+        if (name == null) {
+            return false;
+        }
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void countStates(ThreadInfo[] infos, int[] counts) {
+        for (ThreadInfo info : infos) {
+            if (info != null) {
+                counts[info.getThreadState().ordinal()]++;
+            }
+        }
+    }
+
+    /** Exposed for tests: number of thread ids currently held in the filter cache. */
+    synchronized int cachedThreadCount() {
+        return knownIds.length;
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.itzamic.eidolon.service;
+
+import java.util.Arrays;
+
+/**
+ * Top-n selection over a value array, shared by the hot-thread ranking and the class histogram.
+ * Keeps a sorted array of at most {@code n} indices and inserts into it, which for the small
+ * {@code n} used here beats sorting or a heap and allocates nothing beyond the result.
+ */
+final class TopN {
+
+    private TopN() {
+    }
+
+    /** Indices of the {@code n} largest positive values, largest first; ties keep their array order. */
+    static int[] indices(long[] values, int n) {
+        if (n <= 0) {
+            return new int[0];
+        }
+        int[] idx = new int[Math.min(n, values.length)];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            long v = values[i];
+            if (v <= 0 || (size == idx.length && v <= values[idx[size - 1]])) {
+                continue;
+            }
+            int pos = size < idx.length ? size++ : size - 1;
+            while (pos > 0 && values[idx[pos - 1]] < v) {
+                idx[pos] = idx[pos - 1];
+                pos--;
+            }
+            idx[pos] = i;
+        }
+        return size == idx.length ? idx : Arrays.copyOf(idx, size);
+    }
+}
@@ -0,0 +1,394 @@
+package io.github.itzamic.eidolon.ws;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of WebSocket payloads, negotiated per session (see {@link Subscription.Encoding}).
+ *
+ * A frame is {@link #MAGIC}, {@link #VERSION}, then one value. Every value starts with a tag byte:
+ * <ul>
+ *   <li>{@code NULL}, {@code FALSE}, {@code TRUE}</li>
+ *   <li>{@code INT}: zigzag varint; {@code DOUBLE}: 8 bytes little-endian</li>
+ *   <li>{@code STRING}: varint byte length and UTF-8; {@code STRING_REF}: varint index of an earlier
+ *       {@code STRING} in the same frame, so repeated collector, pool and cause names cost a byte or two</li>
+ *   <li>{@code ARRAY}: varint count and values; {@code INT_ARRAY}/{@code DOUBLE_ARRAY}: packed count and elements</li>
+ *   <li>{@code OBJECT}: entries until key 0. Key {@code n >= 2} is {@code FIELDS[n - 2]}; key 1 is followed
+ *       by a string value holding the key (map keys such as thread states)</li>
+ * </ul>
+ * Null fields are omitted. Field ids are the index into {@link #FIELDS}, which the frontend decoder
+ * mirrors; the list is append-only, and {@link #VERSION} changes with any other change to the format.
+ */
+final class BinaryEncoder {
+
+    static final int MAGIC = 0xE1;
+    static final int VERSION = 1;
+
+    static final int NULL = 0;
+    static final int FALSE = 1;
+    static final int TRUE = 2;
+    static final int INT = 3;
+    static final int DOUBLE = 4;
+    static final int STRING = 5;
+    static final int STRING_REF = 6;
+    static final int ARRAY = 7;
+    static final int OBJECT = 8;
+    static final int INT_ARRAY = 9;
+    static final int DOUBLE_ARRAY = 10;
+
+    static final List<String> FIELDS = List.of(
+            // frames and snapshot
+            "type", "seq", "baseSeq", "timestampMillis", "snapshot", "heap", "pools", "threads", "classes",
+            "stringTable", "gcEvents", "gcPauses", "recentGcEvents",
+            // heap and pools
+            "used", "committed", "max", "init", "name", "usage", "collectionUsage",
+            // threads and classes
+            "threadCount", "daemonThreadCount", "peakThreadCount", "totalStartedThreadCount", "stateCounts",
+            "loadedClassCount", "totalLoadedClassCount", "unloadedClassCount",
+            // string table
+            "available", "tableSize", "bucketCount", "entryCount", "totalMemoryBytes", "rawAttributes",
+            // gc events
+            "gcName", "gcAction", "gcCause", "startTimeMillis", "durationMillis", "poolUsedBefore", "poolUsedAfter",
+            "allocatedBytes", "promotedBytes", "reclaimedBytes",
+            // gc pauses
+            "cumulative", "interval", "fromMillis", "toMillis", "count",
+            "p50Millis", "p90Millis", "p99Millis", "p999Millis", "maxMillis",
+            // hot threads
+            "hotThreads", "intervalMillis", "cpuTimeSupported", "allocationSupported", "byCpu", "byAllocation",
+            "threadId", "threadName", "threadState", "cpuTimeNanos", "cpuUsage", "allocationRateBytesPerSec",
+            // jfr events
+            "jfrEvents", "event", "thresholdMillis", "totalNanos", "maxNanos", "maxThread", "maxDetail");
+
+    private static final Map<String, Integer> FIELD_IDS = new HashMap<>();
+
+    static {
+        for (int i = 0; i < FIELDS.size(); i++) {
+            FIELD_IDS.putIfAbsent(FIELDS.get(i), i);
+        }
+    }
+
+    private static final int F_TYPE = 0, F_SEQ = 1, F_TIMESTAMP = 3, F_HEAP = 5, F_POOLS = 6, F_THREADS = 7,
+            F_CLASSES = 8, F_STRING_TABLE = 9, F_GC_PAUSES = 11, F_RECENT_GC_EVENTS = 12, F_USED = 13,
+            F_COMMITTED = 14, F_MAX = 15, F_INIT = 16, F_NAME = 17, F_USAGE = 18, F_COLLECTION_USAGE = 19,
+            F_THREAD_COUNT = 20, F_DAEMON = 21, F_PEAK = 22, F_STARTED = 23, F_STATE_COUNTS = 24, F_LOADED = 25,
+            F_TOTAL_LOADED = 26, F_UNLOADED = 27, F_AVAILABLE = 28, F_TABLE_SIZE = 29, F_BUCKET_COUNT = 30,
+            F_ENTRY_COUNT = 31, F_TOTAL_MEMORY = 32, F_RAW = 33, F_GC_NAME = 34, F_GC_ACTION = 35, F_GC_CAUSE = 36,
+            F_START = 37, F_DURATION = 38, F_BEFORE = 39, F_AFTER = 40, F_ALLOCATED = 41, F_PROMOTED = 42,
+            F_RECLAIMED = 43, F_CUMULATIVE = 44, F_INTERVAL = 45, F_FROM = 46, F_TO = 47, F_COUNT = 48,
+            F_P50 = 49, F_P90 = 50, F_P99 = 51, F_P999 = 52, F_MAX_MILLIS = 53, F_HOT_THREADS = 54,
+            F_INTERVAL_MILLIS = 55, F_CPU_SUPPORTED = 56, F_ALLOCATION_SUPPORTED = 57, F_BY_CPU = 58,
+            F_BY_ALLOCATION = 59, F_THREAD_ID = 60, F_THREAD_NAME = 61, F_THREAD_STATE = 62, F_CPU_TIME = 63,
+            F_CPU_USAGE = 64, F_ALLOCATION_RATE = 65, F_JFR_EVENTS = 66, F_EVENT = 67, F_THRESHOLD = 68,
+            F_TOTAL_NANOS = 69, F_MAX_NANOS = 70, F_MAX_THREAD = 71, F_MAX_DETAIL = 72;
+
+    private final ByteBuf out;
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    private BinaryEncoder(ByteBuf out) {
+        this.out = out;
+    }
+
+    /** Appends the binary frame for {@code value} (a DTO, frame map, list or scalar) to {@code out}. */
+    static void encode(ByteBuf out, Object value) {
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        new BinaryEncoder(out).value(value);
+    }
+
+    private void value(Object v) {
+        if (v == null) {
+            out.writeByte(NULL);
+        } else if (v instanceof String s) {
+            string(s);
+        } else if (v instanceof Boolean b) {
+            out.writeByte(b ? TRUE : FALSE);
+        } else if (v instanceof Long || v instanceof Integer || v instanceof Short || v instanceof Byte) {
+            integer(((Number) v).longValue());
+        } else if (v instanceof Number n) {
+            out.writeByte(DOUBLE);
+            out.writeLongLE(Double.doubleToRawLongBits(n.doubleValue()));
+        } else if (v instanceof MetricsSnapshot s) {
+            snapshot(s);
+        } else if (v instanceof MetricsSnapshot.Heap h) {
+            heap(h);
+        } else if (v instanceof MetricsSnapshot.MemoryPool p) {
+            pool(p);
+        } else if (v instanceof MetricsSnapshot.Threads t) {
+            threads(t);
+        } else if (v instanceof MetricsSnapshot.Classes c) {
+            classes(c);
+        } else if (v instanceof MetricsSnapshot.StringTable t) {
+            stringTable(t);
+        } else if (v instanceof MetricsSnapshot.GcEvent e) {
+            gcEvent(e);
+        } else if (v instanceof MetricsSnapshot.GcPauseStats p) {
+            pauseStats(p);
+        } else if (v instanceof MetricsSnapshot.HotThreads h) {
+            hotThreads(h);
+        } else if (v instanceof MetricsSnapshot.HotThread t) {
+            hotThread(t);
+        } else if (v instanceof MetricsSnapshot.JfrEventStats j) {
+            jfrStats(j);
+        } else if (v instanceof List<?> list) {
+            out.writeByte(ARRAY);
+            varint(list.size());
+            for (Object item : list) {
+                value(item);
+            }
+        } else if (v instanceof Map<?, ?> map) {
+            out.writeByte(OBJECT);
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                if (e.getValue() != null) {
+                    key(String.valueOf(e.getKey()));
+                    value(e.getValue());
+                }
+            }
+            varint(0);
+        } else if (v instanceof long[] a) {
+            out.writeByte(INT_ARRAY);
+            varint(a.length);
+            for (long x : a) {
+                varint(zigzag(x));
+            }
+        } else if (v instanceof double[] a) {
+            out.writeByte(DOUBLE_ARRAY);
+            varint(a.length);
+            for (double x : a) {
+                out.writeLongLE(Double.doubleToRawLongBits(x));
+            }
+        } else {
+            throw new IllegalArgumentException("no binary form for " + v.getClass().getName());
+        }
+    }
+
+    private void snapshot(MetricsSnapshot s) {
+        out.writeByte(OBJECT);
+        field(F_TIMESTAMP, s.timestampMillis);
+        field(F_HEAP, s.heap);
+        field(F_THREADS, s.threads);
+        field(F_CLASSES, s.classes);
+        field(F_STRING_TABLE, s.stringTable);
+        field(F_RECENT_GC_EVENTS, s.recentGcEvents);
+        field(F_GC_PAUSES, s.gcPauses);
+        field(F_HOT_THREADS, s.hotThreads);
+        field(F_JFR_EVENTS, s.jfrEvents);
+        varint(0);
+    }
+
+    private void heap(MetricsSnapshot.Heap h) {
+        out.writeByte(OBJECT);
+        field(F_USED, h.used);
+        field(F_COMMITTED, h.committed);
+        field(F_MAX, h.max);
+        field(F_POOLS, h.pools);
+        varint(0);
+    }
+
+    private void pool(MetricsSnapshot.MemoryPool p) {
+        out.writeByte(OBJECT);
+        field(F_NAME, p.name);
+        field(F_TYPE, p.type);
+        if (p.usage != null) {
+            fieldId(F_USAGE);
+            usage(p.usage);
+        }
+        if (p.collectionUsage != null) {
+            fieldId(F_COLLECTION_USAGE);
+            usage(p.collectionUsage);
+        }
+        varint(0);
+    }
+
+    private void usage(MetricsSnapshot.Usage u) {
+        out.writeByte(OBJECT);
+        field(F_INIT, u.init);
+        field(F_USED, u.used);
+        field(F_COMMITTED, u.committed);
+        field(F_MAX, u.max);
+        varint(0);
+    }
+
+    private void threads(MetricsSnapshot.Threads t) {
+        out.writeByte(OBJECT);
+        field(F_THREAD_COUNT, t.threadCount);
+        field(F_DAEMON, t.daemonThreadCount);
+        field(F_PEAK, t.peakThreadCount);
+        field(F_STARTED, t.totalStartedThreadCount);
+        field(F_STATE_COUNTS, t.stateCounts);
+        varint(0);
+    }
+
+    private void classes(MetricsSnapshot.Classes c) {
+        out.writeByte(OBJECT);
+        field(F_LOADED, c.loadedClassCount);
+        field(F_TOTAL_LOADED, c.totalLoadedClassCount);
+        field(F_UNLOADED, c.unloadedClassCount);
+        varint(0);
+    }
+
+    private void stringTable(MetricsSnapshot.StringTable t) {
+        out.writeByte(OBJECT);
+        fieldId(F_AVAILABLE);
+        out.writeByte(t.available ? TRUE : FALSE);
+        field(F_TABLE_SIZE, t.tableSize);
+        field(F_BUCKET_COUNT, t.bucketCount);
+        field(F_ENTRY_COUNT, t.entryCount);
+        field(F_TOTAL_MEMORY, t.totalMemoryBytes);
+        field(F_RAW, t.rawAttributes);
+        varint(0);
+    }
+
+    private void gcEvent(MetricsSnapshot.GcEvent e) {
+        out.writeByte(OBJECT);
+        field(F_SEQ, e.seq);
+        field(F_GC_NAME, e.gcName);
+        field(F_GC_ACTION, e.gcAction);
+        field(F_GC_CAUSE, e.gcCause);
+        field(F_START, e.startTimeMillis);
+        field(F_DURATION, e.durationMillis);
+        field(F_BEFORE, e.poolUsedBefore);
+        field(F_AFTER, e.poolUsedAfter);
+        field(F_ALLOCATED, e.allocatedBytes);
+        field(F_PROMOTED, e.promotedBytes);
+        field(F_RECLAIMED, e.reclaimedBytes);
+        varint(0);
+    }
+
+    private void pauseStats(MetricsSnapshot.GcPauseStats p) {
+        out.writeByte(OBJECT);
+        field(F_GC_NAME, p.gcName);
+        field(F_GC_ACTION, p.gcAction);
+        if (p.cumulative != null) {
+            fieldId(F_CUMULATIVE);
+            percentiles(p.cumulative);
+        }
+        if (p.interval != null) {
+            fieldId(F_INTERVAL);
+            percentiles(p.interval);
+        }
+        varint(0);
+    }
+
+    private void percentiles(MetricsSnapshot.PausePercentiles p) {
+        out.writeByte(OBJECT);
+        field(F_FROM, p.fromMillis);
+        field(F_TO, p.toMillis);
+        field(F_COUNT, p.count);
+        field(F_P50, p.p50Millis);
+        field(F_P90, p.p90Millis);
+        field(F_P99, p.p99Millis);
+        field(F_P999, p.p999Millis);
+        field(F_MAX_MILLIS, p.maxMillis);
+        varint(0);
+    }
+
+    private void hotThreads(MetricsSnapshot.HotThreads h) {
+        out.writeByte(OBJECT);
+        field(F_INTERVAL_MILLIS, h.intervalMillis);
+        field(F_CPU_SUPPORTED, h.cpuTimeSupported);
+        field(F_ALLOCATION_SUPPORTED, h.allocationSupported);
+        field(F_BY_CPU, h.byCpu);
+        field(F_BY_ALLOCATION, h.byAllocation);
+        varint(0);
+    }
+
+    private void hotThread(MetricsSnapshot.HotThread t) {
+        out.writeByte(OBJECT);
+        field(F_THREAD_ID, t.threadId);
+        field(F_THREAD_NAME, t.threadName);
+        field(F_THREAD_STATE, t.threadState);
+        field(F_CPU_TIME, t.cpuTimeNanos);
+        field(F_CPU_USAGE, t.cpuUsage);
+        field(F_ALLOCATED, t.allocatedBytes);
+        field(F_ALLOCATION_RATE, t.allocationRateBytesPerSec);
+        varint(0);
+    }
+
+    private void jfrStats(MetricsSnapshot.JfrEventStats j) {
+        out.writeByte(OBJECT);
+        field(F_EVENT, j.event);
+        field(F_THRESHOLD, j.thresholdMillis);
+        if (j.cumulative != null) {
+            fieldId(F_CUMULATIVE);
+            jfrWindow(j.cumulative);
+        }
+        if (j.interval != null) {
+            fieldId(F_INTERVAL);
+            jfrWindow(j.interval);
+        }
+        varint(0);
+    }
+
+    private void jfrWindow(MetricsSnapshot.JfrEventWindow w) {
+        out.writeByte(OBJECT);
+        field(F_FROM, w.fromMillis);
+        field(F_TO, w.toMillis);
+        field(F_COUNT, w.count);
+        field(F_TOTAL_NANOS, w.totalNanos);
+        field(F_MAX_NANOS, w.maxNanos);
+        field(F_MAX_THREAD, w.maxThread);
+        field(F_MAX_DETAIL, w.maxDetail);
+        varint(0);
+    }
+
+    private void field(int id, long v) {
+        fieldId(id);
+        integer(v);
+    }
+
+    private void field(int id, Object v) {
+        if (v != null) {
+            fieldId(id);
+            value(v);
+        }
+    }
+
+    private void fieldId(int id) {
+        varint(id + 2);
+    }
+
+    private void key(String name) {
+        Integer id = FIELD_IDS.get(name);
+        if (id != null) {
+            fieldId(id);
+        } else {
+            varint(1);
+            string(name);
+        }
+    }
+
+    private void integer(long v) {
+        out.writeByte(INT);
+        varint(zigzag(v));
+    }
+
+    private void string(String s) {
+        Integer ref = strings.get(s);
+        if (ref != null) {
+            out.writeByte(STRING_REF);
+            varint(ref);
+            return;
+        }
+        strings.put(s, strings.size());
+        out.writeByte(STRING);
+        varint(ByteBufUtil.utf8Bytes(s));
+        ByteBufUtil.writeUtf8(out, s);
+    }
+
+    private void varint(long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+}
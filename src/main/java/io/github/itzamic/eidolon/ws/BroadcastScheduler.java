@@ -1,22 +1,42 @@
 package io.github.itzamic.eidolon.ws;
 
+import io.github.itzamic.eidolon.EidolonThreads;
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsSection;
 import io.github.itzamic.eidolon.service.MetricsService;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.context.annotation.Value;
 import io.micronaut.json.JsonMapper;
+import io.netty.buffer.ByteBuf;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
-import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Periodically broadcasts metrics snapshots to connected WebSocket clients
- * when eidolon.websocket.enabled=true.
+ * Periodically broadcasts metrics snapshots to connected WebSocket clients and Server-Sent
+ * Events streams when eidolon.websocket.enabled=true.
+ * Sessions with equal subscriptions form a group, and each group is scheduled on a
+ * {@link TimingWheel} at its own interval (the configured interval unless the client asked for
+ * another), rounded up to a multiple of at most {@link #MAX_TICK_MILLIS}. The wheel ticks at the
+ * greatest common divisor of the intervals in use, so with only default-interval groups, or none,
+ * the thread wakes once per interval. Groups carrying collected sections are pushed no more often
+ * than {@link MetricsService#refreshMillis()}, as faster pushes would only repeat the same values.
+ * When groups come due together, each distinct set of sections is collected once; each group then
+ * serializes its payload once straight into a pooled Netty buffer, which is shared by every session
+ * of the group.
+ * Delta-mode subscriptions get frames from their {@link DeltaEncoder} instead of full snapshots.
  * This implementation uses a local ScheduledExecutorService to avoid depending
  * on Micronaut's scheduling module.
  */
@@ -24,43 +44,146 @@ import java.util.concurrent.TimeUnit;
 @Requires(property = "eidolon.websocket.enabled", value = "true")
 public class BroadcastScheduler {
 
+    /** Upper bound of the granularity of client-requested intervals. */
+    static final long MAX_TICK_MILLIS = 50L;
+    private static final long MAX_INTERVAL_MILLIS = 3_600_000L;
+    /** Sections read live on every snapshot, so not limited by the collection interval. */
+    private static final Set<MetricsSection> LIVE = EnumSet.of(MetricsSection.GC, MetricsSection.JFR);
+
     private final SessionRegistry registry;
+    private final EventStreamRegistry streams;
     private final MetricsService metrics;
     private final JsonMapper json;
+    private final DeltaStreams deltas;
     private final long intervalMs;
+    private final long granularityMs;
+    private final boolean virtualThreads;
+    private final TimingWheel<Subscription> wheel = new TimingWheel<>(); // confined to the executor thread
 
     private ScheduledExecutorService executor;
+    private ScheduledFuture<?> ticks;
+    private long tickMs; // confined to the executor thread once started
+    // Initial capacity for pooled payload buffers; grows to the largest payload seen so far.
+    private int lastPayloadSize = 4096;
 
     @Inject
     public BroadcastScheduler(SessionRegistry registry,
+                              EventStreamRegistry streams,
                               MetricsService metrics,
                               JsonMapper json,
-                              @Value("${eidolon.websocket.interval:1000}") long intervalMs) {
+                              DeltaStreams deltas,
+                              @Value("${eidolon.websocket.interval:1000}") long intervalMs,
+                              @Value("${eidolon.threads.virtual:false}") boolean virtualThreads) {
         this.registry = registry;
+        this.streams = streams;
         this.metrics = metrics;
         this.json = json;
-        this.intervalMs = intervalMs;
+        this.deltas = deltas;
+        this.intervalMs = Math.max(1L, intervalMs);
+        this.granularityMs = Math.min(this.intervalMs, MAX_TICK_MILLIS);
+        this.virtualThreads = virtualThreads;
     }
 
     @PostConstruct
     void start() {
-        executor = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "eidolon-ws-broadcast");
-            t.setDaemon(true);
-            return t;
-        });
-        executor.scheduleAtFixedRate(this::tick, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        executor = Executors.newSingleThreadScheduledExecutor(
+                EidolonThreads.factory("eidolon-ws-broadcast", virtualThreads));
+        schedule(roundUp(intervalMs));
+    }
+
+    private void schedule(long tick) {
+        if (ticks != null) {
+            ticks.cancel(false);
+        }
+        tickMs = tick;
+        ticks = executor.scheduleAtFixedRate(this::tick, tick, tick, TimeUnit.MILLISECONDS);
     }
 
     private void tick() {
-        if (registry.size() == 0) {
+        Set<Subscription> subscriptions = new HashSet<>();
+        if (registry.size() > 0 || streams.size() > 0) {
+            subscriptions.addAll(registry.subscriptions());
+            subscriptions.addAll(streams.subscriptions());
+        }
+        deltas.retain(subscriptions);
+        long tick = tickFor(subscriptions);
+        if (tick != tickMs) {
+            // Periods are counted in ticks: reschedule every group below at the new tick.
+            wheel.retain(Set.of());
+            schedule(tick);
+        }
+        if (subscriptions.isEmpty()) {
             return;
         }
-        try {
-            byte[] payload = json.writeValueAsBytes(metrics.snapshot());
-            registry.broadcast(new String(payload, StandardCharsets.UTF_8));
-        } catch (Throwable ignored) {
+        wheel.retain(subscriptions);
+        for (Subscription subscription : subscriptions) {
+            if (!wheel.contains(subscription)) {
+                wheel.add(subscription, periodTicks(subscription));
+            }
+        }
+        List<Subscription> due = wheel.advance();
+        if (due.isEmpty()) {
+            return;
         }
+        // One collection per distinct section set and one serialization per group, shared by its sessions.
+        Map<Set<MetricsSection>, MetricsSnapshot> collected = new HashMap<>();
+        for (Subscription subscription : due) {
+            ByteBuf payload = null;
+            try {
+                MetricsSnapshot snapshot = subscription.filter().apply(
+                        collected.computeIfAbsent(subscription.sections(), metrics::snapshot));
+                if (subscription.delta()) {
+                    DeltaEncoder encoder = deltas.encoder(subscription);
+                    payload = Payloads.encode(json, encoder.next(snapshot), lastPayloadSize, subscription.encoding());
+                    registry.broadcast(subscription, payload,
+                            () -> Payloads.encodeQuietly(json, encoder.keyframe(() -> snapshot), lastPayloadSize,
+                                    subscription.encoding()));
+                } else {
+                    payload = Payloads.encode(json, snapshot, lastPayloadSize, subscription.encoding());
+                    lastPayloadSize = Math.max(lastPayloadSize, payload.readableBytes());
+                    registry.broadcast(subscription, payload);
+                    if (subscription.encoding() == Subscription.Encoding.JSON) {
+                        streams.broadcast(subscription, snapshot, payload);
+                    }
+                }
+            } catch (Throwable ignored) {
+            } finally {
+                if (payload != null) {
+                    payload.release();
+                }
+            }
+        }
+    }
+
+    /** The greatest common divisor of the groups' intervals, or the configured interval when there are none. */
+    private long tickFor(Set<Subscription> subscriptions) {
+        long tick = 0;
+        for (Subscription subscription : subscriptions) {
+            long interval = interval(subscription);
+            while (interval != 0) {
+                long r = tick % interval;
+                tick = interval;
+                interval = r;
+            }
+        }
+        return tick > 0 ? tick : roundUp(intervalMs);
+    }
+
+    private long periodTicks(Subscription subscription) {
+        return Math.max(1L, interval(subscription) / tickMs);
+    }
+
+    private long interval(Subscription subscription) {
+        long interval = subscription.intervalMillis() > 0
+                ? Math.min(subscription.intervalMillis(), MAX_INTERVAL_MILLIS) : intervalMs;
+        if (!LIVE.containsAll(subscription.sections())) {
+            interval = Math.max(interval, metrics.refreshMillis());
+        }
+        return roundUp(interval);
+    }
+
+    private long roundUp(long interval) {
+        return Math.max(1L, (interval + granularityMs - 1) / granularityMs) * granularityMs;
     }
 
     @PreDestroy
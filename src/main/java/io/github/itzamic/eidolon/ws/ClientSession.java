@@ -0,0 +1,182 @@
+package io.github.itzamic.eidolon.ws;
+
+import io.micronaut.websocket.WebSocketSession;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Outbound state of one WebSocket session: at most one frame in flight and one pending.
+ *
+ * Offering a new payload while one is still pending replaces it (latest value wins), so a slow
+ * client only ever receives the newest snapshot and never builds a backlog. Replies to client
+ * commands (such as {@code pong}) must not be replaced, so they wait in a small FIFO of their own,
+ * bounded by {@link #MAX_REPLIES}, that is drained ahead of the pending slot. Sends are asynchronous;
+ * completion of the in-flight write drains the next frame.
+ */
+final class ClientSession {
+
+    static final int MAX_REPLIES = 16;
+
+    private final WebSocketSession session;
+    private volatile Subscription subscription;
+
+    private final AtomicReference<ByteBuf> pending = new AtomicReference<>();
+    private final Queue<ByteBuf> replies = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger replyCount = new AtomicInteger();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    // System.nanoTime() when the in-flight write started, 0 when idle.
+    private volatile long inFlightSinceNanos;
+    // Set when a delta frame was dropped, so the client must be sent a keyframe next.
+    private volatile boolean needsResync;
+    // Set once the session is unregistered; later offers are released instead of queued.
+    private volatile boolean closed;
+
+    ClientSession(WebSocketSession session, Subscription subscription) {
+        this.session = session;
+        this.subscription = subscription;
+    }
+
+    WebSocketSession session() {
+        return session;
+    }
+
+    Subscription subscription() {
+        return subscription;
+    }
+
+    void subscription(Subscription subscription) {
+        this.subscription = subscription;
+    }
+
+    boolean needsResync() {
+        return needsResync;
+    }
+
+    void needsResync(boolean v) {
+        this.needsResync = v;
+    }
+
+    /**
+     * Queues a payload for sending, taking ownership of the reference passed in.
+     *
+     * @return true if a not-yet-sent older payload was dropped in favour of this one
+     */
+    boolean offer(ByteBuf payload) {
+        if (closed) {
+            payload.release();
+            return false;
+        }
+        ByteBuf stale = pending.getAndSet(payload);
+        if (stale != null) {
+            stale.release();
+        }
+        if (closed) {
+            releaseQueued(); // close() ran between the check and the swap and may have missed this payload
+            return stale != null;
+        }
+        drain();
+        return stale != null;
+    }
+
+    /**
+     * Queues a UTF-8 text reply behind earlier replies, taking ownership of the reference passed in.
+     *
+     * @return false if {@link #MAX_REPLIES} replies are already waiting, in which case it was released
+     */
+    boolean reply(ByteBuf text) {
+        if (closed) {
+            text.release();
+            return true;
+        }
+        if (replyCount.incrementAndGet() > MAX_REPLIES) {
+            replyCount.decrementAndGet();
+            text.release();
+            return false;
+        }
+        replies.add(text);
+        if (closed) {
+            releaseQueued();
+            return true;
+        }
+        drain();
+        return true;
+    }
+
+    /** True if a write has been in flight for longer than the given timeout. */
+    boolean stalled(long nowNanos, long timeoutNanos) {
+        long since = inFlightSinceNanos;
+        return since != 0 && nowNanos - since > timeoutNanos;
+    }
+
+    /** Releases any pending payload; the in-flight frame is released by the channel. */
+    void discard() {
+        ByteBuf stale = pending.getAndSet(null);
+        if (stale != null) {
+            stale.release();
+        }
+    }
+
+    /** Discards everything queued for an unregistered session and releases whatever is offered later. */
+    void close() {
+        closed = true;
+        releaseQueued();
+    }
+
+    private void releaseQueued() {
+        discard();
+        for (ByteBuf reply; (reply = replies.poll()) != null; ) {
+            replyCount.decrementAndGet();
+            reply.release();
+        }
+    }
+
+    private void drain() {
+        while ((!replies.isEmpty() || pending.get() != null) && sending.compareAndSet(false, true)) {
+            ByteBuf reply = replies.poll();
+            ByteBuf next = reply != null ? reply : pending.getAndSet(null);
+            if (next == null) {
+                sending.set(false);
+                continue;
+            }
+            if (reply != null) {
+                replyCount.decrementAndGet();
+            }
+            inFlightSinceNanos = System.nanoTime();
+            WebSocketFrame frame = reply == null && subscription.encoding() == Subscription.Encoding.BINARY
+                    ? new BinaryWebSocketFrame(next) : new TextWebSocketFrame(next);
+            CompletableFuture<?> written;
+            try {
+                written = session.sendAsync(frame);
+            } catch (Throwable t) {
+                // The frame never reached the channel, so it is still ours to release.
+                if (frame.refCnt() > 0) {
+                    frame.release();
+                }
+                written = null;
+            }
+            if (written == null || written.isDone()) {
+                onWritten();
+            } else {
+                written.whenComplete((r, e) -> {
+                    onWritten();
+                    drain();
+                });
+                return;
+            }
+        }
+    }
+
+    private void onWritten() {
+        inFlightSinceNanos = 0;
+        sending.set(false);
+    }
+}
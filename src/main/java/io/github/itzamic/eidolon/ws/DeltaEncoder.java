@@ -0,0 +1,204 @@
+package io.github.itzamic.eidolon.ws;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Turns a stream of snapshots for one subscription into delta-protocol frames.
+ *
+ * Frames are JSON objects with a {@code type}:
+ * <ul>
+ *   <li>{@code keyframe}: {@code seq} plus the full {@code snapshot}.</li>
+ *   <li>{@code delta}: {@code seq}, {@code baseSeq} (the frame it applies to), {@code timestampMillis},
+ *       and only the parts that changed since {@code baseSeq}: {@code heap} (summary without pools),
+ *       {@code pools} (changed pools only, matched by name), {@code threads}, {@code classes},
+ *       {@code stringTable}, {@code gcPauses}, {@code hotThreads}, {@code jfrEvents}, plus {@code gcEvents}
+ *       appended since the base frame.</li>
+ * </ul>
+ * Clients apply a delta only if its {@code baseSeq} equals the last seq they applied, and otherwise
+ * wait for the next keyframe. Keyframes are emitted every {@code keyframeInterval} frames and
+ * whenever a session needs to resynchronize.
+ */
+final class DeltaEncoder {
+
+    private final int keyframeInterval;
+
+    private long seq;
+    private int sinceKeyframe;
+    private MetricsSnapshot last;
+    private long lastGcSeq;
+
+    DeltaEncoder(int keyframeInterval) {
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+    }
+
+    /** Advances the stream to {@code snapshot} and returns the frame describing the change. */
+    synchronized Map<String, Object> next(MetricsSnapshot snapshot) {
+        MetricsSnapshot prev = last;
+        long prevGcSeq = lastGcSeq;
+        advance(snapshot);
+        if (prev == null || ++sinceKeyframe >= keyframeInterval) {
+            sinceKeyframe = 0;
+            return keyframeFrame();
+        }
+        return deltaFrame(prev, snapshot, prevGcSeq);
+    }
+
+    /**
+     * Keyframe for the current position of the stream, so that following deltas apply to it.
+     * If the stream has not started yet it is started from {@code initial}.
+     */
+    synchronized Map<String, Object> keyframe(Supplier<MetricsSnapshot> initial) {
+        if (last == null) {
+            advance(initial.get());
+        }
+        return keyframeFrame();
+    }
+
+    private void advance(MetricsSnapshot snapshot) {
+        last = snapshot;
+        seq++;
+        if (snapshot.recentGcEvents != null) {
+            for (MetricsSnapshot.GcEvent e : snapshot.recentGcEvents) {
+                lastGcSeq = Math.max(lastGcSeq, e.seq);
+            }
+        }
+    }
+
+    private Map<String, Object> keyframeFrame() {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "keyframe");
+        frame.put("seq", seq);
+        frame.put("snapshot", last);
+        return frame;
+    }
+
+    private Map<String, Object> deltaFrame(MetricsSnapshot prev, MetricsSnapshot cur, long prevGcSeq) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "delta");
+        frame.put("seq", seq);
+        frame.put("baseSeq", seq - 1);
+        frame.put("timestampMillis", cur.timestampMillis);
+
+        if (cur.heap != null) {
+            if (prev.heap == null || cur.heap.used != prev.heap.used
+                    || cur.heap.committed != prev.heap.committed || cur.heap.max != prev.heap.max) {
+                frame.put("heap", new MetricsSnapshot.Heap(cur.heap.used, cur.heap.committed, cur.heap.max, null));
+            }
+            List<MetricsSnapshot.MemoryPool> pools = changedPools(prev.heap == null ? null : prev.heap.pools, cur.heap.pools);
+            if (!pools.isEmpty()) {
+                frame.put("pools", pools);
+            }
+        }
+        if (cur.threads != null && !sameThreads(prev.threads, cur.threads)) {
+            frame.put("threads", cur.threads);
+        }
+        if (cur.classes != null && !sameClasses(prev.classes, cur.classes)) {
+            frame.put("classes", cur.classes);
+        }
+        if (cur.stringTable != null && !sameStringTable(prev.stringTable, cur.stringTable)) {
+            frame.put("stringTable", cur.stringTable);
+        }
+        if (cur.recentGcEvents != null) {
+            List<MetricsSnapshot.GcEvent> appended = new ArrayList<>();
+            for (MetricsSnapshot.GcEvent e : cur.recentGcEvents) {
+                if (e.seq > prevGcSeq) {
+                    appended.add(e);
+                }
+            }
+            if (!appended.isEmpty()) {
+                frame.put("gcEvents", appended);
+            }
+        }
+        // The service hands out the same stats objects until a pause is recorded or an interval closes;
+        // a filtered subscription gets a new list holding the same objects.
+        if (cur.gcPauses != null && !sameElements(prev.gcPauses, cur.gcPauses)) {
+            frame.put("gcPauses", cur.gcPauses);
+        }
+        // A new ranking per collection; reused between collections.
+        if (cur.hotThreads != null && cur.hotThreads != prev.hotThreads) {
+            frame.put("hotThreads", cur.hotThreads);
+        }
+        // Rebuilt only when an event is recorded or an interval closes.
+        if (cur.jfrEvents != null && cur.jfrEvents != prev.jfrEvents) {
+            frame.put("jfrEvents", cur.jfrEvents);
+        }
+        return frame;
+    }
+
+    private static boolean sameElements(List<?> a, List<?> b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null || a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i) != b.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<MetricsSnapshot.MemoryPool> changedPools(List<MetricsSnapshot.MemoryPool> prev,
+                                                                 List<MetricsSnapshot.MemoryPool> cur) {
+        if (cur == null) {
+            return List.of();
+        }
+        Map<String, MetricsSnapshot.MemoryPool> before = new HashMap<>();
+        if (prev != null) {
+            for (MetricsSnapshot.MemoryPool p : prev) {
+                before.put(p.name, p);
+            }
+        }
+        List<MetricsSnapshot.MemoryPool> out = new ArrayList<>();
+        for (MetricsSnapshot.MemoryPool p : cur) {
+            MetricsSnapshot.MemoryPool old = before.get(p.name);
+            if (old == null || !sameUsage(old.usage, p.usage) || !sameUsage(old.collectionUsage, p.collectionUsage)) {
+                out.add(p);
+            }
+        }
+        return out;
+    }
+
+    private static boolean sameUsage(MetricsSnapshot.Usage a, MetricsSnapshot.Usage b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.init == b.init && a.used == b.used && a.committed == b.committed && a.max == b.max;
+    }
+
+    private static boolean sameThreads(MetricsSnapshot.Threads a, MetricsSnapshot.Threads b) {
+        return a != null
+                && a.threadCount == b.threadCount
+                && a.daemonThreadCount == b.daemonThreadCount
+                && a.peakThreadCount == b.peakThreadCount
+                && a.totalStartedThreadCount == b.totalStartedThreadCount
+                && Objects.equals(a.stateCounts, b.stateCounts);
+    }
+
+    private static boolean sameClasses(MetricsSnapshot.Classes a, MetricsSnapshot.Classes b) {
+        return a != null
+                && a.loadedClassCount == b.loadedClassCount
+                && a.totalLoadedClassCount == b.totalLoadedClassCount
+                && a.unloadedClassCount == b.unloadedClassCount;
+    }
+
+    private static boolean sameStringTable(MetricsSnapshot.StringTable a, MetricsSnapshot.StringTable b) {
+        return a != null
+                && a.available == b.available
+                && Objects.equals(a.tableSize, b.tableSize)
+                && Objects.equals(a.bucketCount, b.bucketCount)
+                && Objects.equals(a.entryCount, b.entryCount)
+                && Objects.equals(a.totalMemoryBytes, b.totalMemoryBytes)
+                && Objects.equals(a.rawAttributes, b.rawAttributes);
+    }
+}
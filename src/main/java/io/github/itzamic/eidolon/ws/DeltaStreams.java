@@ -0,0 +1,35 @@
+package io.github.itzamic.eidolon.ws;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link DeltaEncoder} per delta-mode subscription, shared by the broadcast tick and by
+ * sessions that need a keyframe (on open or on request), so every frame of a subscription is
+ * numbered from the same sequence.
+ */
+@Singleton
+public class DeltaStreams {
+
+    private final Map<Subscription, DeltaEncoder> encoders = new ConcurrentHashMap<>();
+    private final int keyframeInterval;
+
+    @Inject
+    public DeltaStreams(@Value("${eidolon.websocket.keyframeInterval:30}") int keyframeInterval) {
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    DeltaEncoder encoder(Subscription subscription) {
+        return encoders.computeIfAbsent(subscription, s -> new DeltaEncoder(keyframeInterval));
+    }
+
+    /** Drops encoders of subscriptions that no session holds any more. */
+    void retain(Set<Subscription> active) {
+        encoders.keySet().retainAll(active);
+    }
+}
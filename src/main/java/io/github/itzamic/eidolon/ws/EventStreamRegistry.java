@@ -0,0 +1,241 @@
+package io.github.itzamic.eidolon.ws;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsService;
+import io.micronaut.json.JsonMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open Server-Sent Events streams ({@code GET /api/metrics/stream}), fed by {@link BroadcastScheduler}
+ * alongside WebSocket sessions.
+ *
+ * Streams carry full JSON snapshots, so a stream shares its group, and the group's once-per-tick
+ * payload, with WebSocket sessions holding the same subscription; the payload is framed as an SSE
+ * event once per tick and every stream gets a duplicate of that frame. Each stream emits only as
+ * fast as the reader requests: it holds at most one undelivered frame, and a newer frame replaces it,
+ * so a slow reader skips snapshots instead of buffering them.
+ *
+ * Snapshot events carry the seq of their newest GC event as the event id. A reader that reconnects
+ * with {@code Last-Event-ID} first receives a {@code gc} event holding the {@link MetricsSnapshot.GcEventPage}
+ * of events it missed.
+ */
+@Singleton
+public class EventStreamRegistry {
+
+    private static final int GC_PAGE_LIMIT = 1024;
+    private static final int INITIAL_CAPACITY_HINT = 16 * 1024;
+
+    private final MetricsService metrics;
+    private final JsonMapper json;
+    private final Map<Stream, Subscription> streams = new ConcurrentHashMap<>();
+    private final LongAdder framesDropped = new LongAdder();
+
+    @Inject
+    public EventStreamRegistry(MetricsService metrics, JsonMapper json) {
+        this.metrics = metrics;
+        this.json = json;
+    }
+
+    /**
+     * Publisher of SSE-framed chunks for one reader: the resume page when {@code lastEventId} is set,
+     * the current snapshot, then every broadcast for {@code subscription}. Delta mode and binary
+     * encoding do not apply to event streams and are ignored.
+     */
+    public Publisher<ByteBuf> open(Subscription subscription, Long lastEventId) {
+        Subscription s = new Subscription(subscription.sections(), false, Subscription.Encoding.JSON,
+                subscription.intervalMillis(), subscription.filter());
+        Subscription shared = s.equals(Subscription.ALL) ? Subscription.ALL : s;
+        return subscriber -> {
+            // The initial frames are in place before the stream is registered, so no broadcast can overtake them.
+            Stream stream = new Stream(subscriber, initialFrames(shared, lastEventId));
+            streams.put(stream, shared);
+            subscriber.onSubscribe(stream);
+        };
+    }
+
+    public int size() {
+        return streams.size();
+    }
+
+    public long framesDropped() {
+        return framesDropped.sum();
+    }
+
+    /** Distinct subscriptions across all open streams. */
+    Set<Subscription> subscriptions() {
+        return new HashSet<>(streams.values());
+    }
+
+    /**
+     * Frames a group's JSON snapshot payload once and queues it on every stream holding
+     * {@code subscription}. The caller keeps ownership of {@code payload}.
+     */
+    void broadcast(Subscription subscription, MetricsSnapshot snapshot, ByteBuf payload) {
+        ByteBuf frame = null;
+        try {
+            for (Map.Entry<Stream, Subscription> e : streams.entrySet()) {
+                if (!subscription.equals(e.getValue())) {
+                    continue;
+                }
+                if (frame == null) {
+                    frame = ByteBufAllocator.DEFAULT.buffer(payload.readableBytes() + 64);
+                    writeEvent(frame, "snapshot", eventId(snapshot), payload);
+                }
+                e.getKey().offer(frame.retainedDuplicate());
+            }
+        } finally {
+            if (frame != null) {
+                frame.release();
+            }
+        }
+    }
+
+    private ByteBuf initialFrames(Subscription subscription, Long lastEventId) {
+        ByteBuf out = ByteBufAllocator.DEFAULT.buffer(INITIAL_CAPACITY_HINT);
+        ByteBuf data = null;
+        try {
+            if (lastEventId != null) {
+                MetricsSnapshot.GcEventPage page =
+                        subscription.filter().apply(metrics.gcEventsSince(lastEventId, GC_PAGE_LIMIT));
+                data = Payloads.encode(json, page, 4096, Subscription.Encoding.JSON);
+                writeEvent(out, "gc", page.nextSeq, data);
+                data.release();
+                data = null;
+            }
+            MetricsSnapshot snapshot = subscription.filter().apply(metrics.snapshot(subscription.sections()));
+            data = Payloads.encode(json, snapshot, INITIAL_CAPACITY_HINT, Subscription.Encoding.JSON);
+            writeEvent(out, "snapshot", eventId(snapshot), data);
+            return out;
+        } catch (Throwable t) {
+            out.release();
+            return null;
+        } finally {
+            if (data != null) {
+                data.release();
+            }
+        }
+    }
+
+    /** Seq of the newest GC event in the snapshot, or -1 (no id) when it carries no GC section. */
+    private static long eventId(MetricsSnapshot snapshot) {
+        if (snapshot.recentGcEvents == null) {
+            return -1L;
+        }
+        long max = 0L;
+        for (MetricsSnapshot.GcEvent e : snapshot.recentGcEvents) {
+            max = Math.max(max, e.seq);
+        }
+        return max;
+    }
+
+    // Jackson writes compact JSON, so the payload fits on a single data line.
+    static void writeEvent(ByteBuf out, String event, long id, ByteBuf data) {
+        if (id >= 0) {
+            ByteBufUtil.writeAscii(out, "id: ");
+            ByteBufUtil.writeAscii(out, Long.toString(id));
+            out.writeByte('\n');
+        }
+        ByteBufUtil.writeAscii(out, "event: ");
+        ByteBufUtil.writeAscii(out, event);
+        ByteBufUtil.writeAscii(out, "\ndata: ");
+        out.writeBytes(data, data.readerIndex(), data.readableBytes());
+        ByteBufUtil.writeAscii(out, "\n\n");
+    }
+
+    /**
+     * One reader: its outstanding demand, the initial frames (never dropped), and at most one
+     * pending broadcast frame, newest wins.
+     */
+    private final class Stream implements org.reactivestreams.Subscription {
+        private final Subscriber<? super ByteBuf> subscriber;
+        private final AtomicReference<ByteBuf> head = new AtomicReference<>();
+        private final AtomicReference<ByteBuf> pending = new AtomicReference<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicBoolean emitting = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        /** {@code initial} may be {@code null} when the initial frames could not be encoded. */
+        Stream(Subscriber<? super ByteBuf> subscriber, ByteBuf initial) {
+            this.subscriber = subscriber;
+            head.set(initial);
+        }
+
+        void offer(ByteBuf frame) {
+            ByteBuf stale = pending.getAndSet(frame);
+            if (stale != null) {
+                stale.release();
+                framesDropped.increment();
+            }
+            if (cancelled) {
+                discard();
+            } else {
+                drain();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("request must be positive: " + n));
+                return;
+            }
+            requested.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            streams.remove(this);
+            discard();
+        }
+
+        private void discard() {
+            for (AtomicReference<ByteBuf> slot : List.of(head, pending)) {
+                ByteBuf stale = slot.getAndSet(null);
+                if (stale != null) {
+                    stale.release();
+                }
+            }
+        }
+
+        private boolean hasFrame() {
+            return head.get() != null || pending.get() != null;
+        }
+
+        private void drain() {
+            // emitting keeps onNext calls serial; whoever clears it re-checks for a frame that arrived meanwhile.
+            while (!cancelled && requested.get() > 0 && hasFrame() && emitting.compareAndSet(false, true)) {
+                try {
+                    ByteBuf next = head.getAndSet(null);
+                    if (next == null) {
+                        next = pending.getAndSet(null);
+                    }
+                    if (next != null) {
+                        requested.getAndUpdate(r -> r == Long.MAX_VALUE ? r : r - 1);
+                        subscriber.onNext(next);
+                    }
+                } finally {
+                    emitting.set(false);
+                }
+            }
+        }
+    }
+}
@@ -2,61 +2,137 @@ package io.github.itzamic.eidolon.ws;
 
 import io.github.itzamic.eidolon.model.MetricsSnapshot;
 import io.github.itzamic.eidolon.service.MetricsService;
+import io.micronaut.http.HttpRequest;
 import io.micronaut.json.JsonMapper;
 import io.micronaut.websocket.WebSocketSession;
 import io.micronaut.websocket.annotation.OnClose;
 import io.micronaut.websocket.annotation.OnMessage;
 import io.micronaut.websocket.annotation.OnOpen;
 import io.micronaut.websocket.annotation.ServerWebSocket;
+import io.netty.buffer.ByteBuf;
 import jakarta.inject.Inject;
 
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 
-@ServerWebSocket("/ws/metrics")
+@ServerWebSocket(value = "/ws/metrics", subprotocols = Subscription.BINARY_SUBPROTOCOL)
 public class MetricsWebSocket {
 
+    private static final int KEYFRAME_CAPACITY_HINT = 16 * 1024;
+    private static final String SUBSCRIBE = "subscribe";
+
     private final SessionRegistry registry;
     private final MetricsService metrics;
     private final JsonMapper json;
+    private final DeltaStreams deltas;
 
     @Inject
-    public MetricsWebSocket(SessionRegistry registry, MetricsService metrics, JsonMapper json) {
+    public MetricsWebSocket(SessionRegistry registry, MetricsService metrics, JsonMapper json, DeltaStreams deltas) {
         this.registry = registry;
         this.metrics = metrics;
         this.json = json;
+        this.deltas = deltas;
     }
 
     @OnOpen
-    public void onOpen(WebSocketSession session) {
-        registry.add(session);
-        // Send initial snapshot
-        try {
-            MetricsSnapshot snap = metrics.snapshot();
-            byte[] bytes = json.writeValueAsBytes(snap);
-            session.sendSync(new String(bytes, StandardCharsets.UTF_8));
-        } catch (Throwable ignored) {
-        }
+    public void onOpen(WebSocketSession session, HttpRequest<?> request) {
+        // Optional query parameters on the upgrade URL, e.g. /ws/metrics?sections=heap,gc&mode=delta&interval=100
+        Subscription subscription = Subscription.fromParameters(
+                request.getParameters()::get, request.getHeaders().get("Sec-WebSocket-Protocol"));
+        registry.add(session, subscription);
+        sendInitial(session, subscription);
     }
 
     @OnMessage
     public void onMessage(String message, WebSocketSession session) {
         // Optional simple protocol:
-        // - "snapshot" -> push a snapshot immediately
+        // - "snapshot" -> push a snapshot immediately (a keyframe in delta mode)
+        // - "keyframe" -> delta mode only: resynchronize with a keyframe
         // - "ping" -> "pong"
+        // - "subscribe?sections=heap&interval=100&..." -> replace the subscription (same parameters as the
+        //   upgrade URL; the encoding is kept unless given) and push a snapshot or keyframe for it
         try {
             if ("ping".equalsIgnoreCase(message)) {
-                session.sendSync("pong");
+                registry.reply(session, "pong");
+                return;
+            }
+            Subscription subscription = registry.subscriptionOf(session);
+            if (message.startsWith(SUBSCRIBE)) {
+                Map<String, String> params = parseParameters(message.substring(SUBSCRIBE.length()));
+                params.putIfAbsent("encoding", subscription.encoding().name());
+                Subscription next = Subscription.fromParameters(params::get, null);
+                if (registry.resubscribe(session, next)) {
+                    sendInitial(session, next);
+                }
+                return;
+            }
+            if (subscription.delta() && ("keyframe".equalsIgnoreCase(message) || "snapshot".equalsIgnoreCase(message))) {
+                sendKeyframe(session, subscription);
             } else if ("snapshot".equalsIgnoreCase(message)) {
-                MetricsSnapshot snap = metrics.snapshot();
-                byte[] bytes = json.writeValueAsBytes(snap);
-                session.sendSync(new String(bytes, StandardCharsets.UTF_8));
+                sendSnapshot(session, subscription);
             }
         } catch (Throwable ignored) {
         }
     }
 
+    /** Parses {@code ?a=1&b=2} (the leading {@code ?} is optional) into URL-decoded name/value pairs. */
+    static Map<String, String> parseParameters(String query) {
+        Map<String, String> out = new HashMap<>();
+        String q = query.startsWith("?") ? query.substring(1) : query;
+        for (String pair : q.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            out.put(URLDecoder.decode(name, StandardCharsets.UTF_8).trim(), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
     @OnClose
     public void onClose(WebSocketSession session) {
         registry.remove(session);
     }
+
+    private void sendInitial(WebSocketSession session, Subscription subscription) {
+        // Initial snapshot (a keyframe in delta mode)
+        try {
+            if (subscription.delta()) {
+                sendKeyframe(session, subscription);
+            } else {
+                sendSnapshot(session, subscription);
+            }
+        } catch (Throwable ignored) {
+        }
+    }
+
+    private void sendSnapshot(WebSocketSession session, Subscription subscription) throws Exception {
+        MetricsSnapshot snap = subscription.filter().apply(metrics.snapshot(subscription.sections()));
+        // Routed through the session's outbound queue, which picks the frame type per session and keeps
+        // the snapshot ordered with broadcasts.
+        ByteBuf payload = Payloads.encode(json, snap, KEYFRAME_CAPACITY_HINT, subscription.encoding());
+        try {
+            registry.send(session, payload);
+        } finally {
+            payload.release();
+        }
+    }
+
+    private void sendKeyframe(WebSocketSession session, Subscription subscription) throws Exception {
+        DeltaEncoder encoder = deltas.encoder(subscription);
+        // Routed through the session's outbound queue so it stays ordered with broadcast deltas.
+        ByteBuf payload = Payloads.encode(json,
+                encoder.keyframe(() -> subscription.filter().apply(metrics.snapshot(subscription.sections()))),
+                KEYFRAME_CAPACITY_HINT,
+                subscription.encoding());
+        try {
+            registry.send(session, payload);
+        } finally {
+            payload.release();
+        }
+    }
 }
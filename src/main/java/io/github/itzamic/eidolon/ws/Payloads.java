@@ -0,0 +1,42 @@
+package io.github.itzamic.eidolon.ws;
+
+import io.micronaut.json.JsonMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.io.IOException;
+
+/**
+ * Serializes WebSocket payloads straight into pooled Netty buffers.
+ */
+final class Payloads {
+
+    private Payloads() {}
+
+    /** Returns a pooled buffer holding {@code value} in the given encoding; the caller must release it. */
+    static ByteBuf encode(JsonMapper json, Object value, int capacityHint, Subscription.Encoding encoding)
+            throws IOException {
+        ByteBuf buf = ByteBufAllocator.DEFAULT.buffer(capacityHint);
+        try {
+            if (encoding == Subscription.Encoding.BINARY) {
+                BinaryEncoder.encode(buf, value);
+            } else {
+                json.writeValue(new ByteBufOutputStream(buf), value);
+            }
+            return buf;
+        } catch (IOException | RuntimeException e) {
+            buf.release();
+            throw e;
+        }
+    }
+
+    /** Like {@link #encode} but returns {@code null} instead of throwing. */
+    static ByteBuf encodeQuietly(JsonMapper json, Object value, int capacityHint, Subscription.Encoding encoding) {
+        try {
+            return encode(json, value, capacityHint, encoding);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+}
@@ -1,35 +1,202 @@
 package io.github.itzamic.eidolon.ws;
 
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.websocket.CloseReason;
 import io.micronaut.websocket.WebSocketSession;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
+/**
+ * Connected WebSocket sessions and their outbound queues.
+ *
+ * Broadcasts never block on a client: each session has one in-flight and one pending frame, newer
+ * payloads replace pending ones (counted as dropped), and sessions whose in-flight write has not
+ * completed within the slow-consumer timeout are disconnected.
+ */
 @Singleton
 public class SessionRegistry {
-    private final Set<WebSocketSession> sessions = ConcurrentHashMap.newKeySet();
+    private static final long DEFAULT_SLOW_CONSUMER_TIMEOUT_MILLIS = 10_000L;
+
+    private final Map<WebSocketSession, ClientSession> sessions = new ConcurrentHashMap<>();
+    private final long slowConsumerTimeoutNanos;
+
+    private final LongAdder framesQueued = new LongAdder();
+    private final LongAdder framesDropped = new LongAdder();
+    private final LongAdder slowConsumerDisconnects = new LongAdder();
+
+    public SessionRegistry() {
+        this(DEFAULT_SLOW_CONSUMER_TIMEOUT_MILLIS);
+    }
+
+    @Inject
+    public SessionRegistry(@Value("${eidolon.websocket.slowConsumerTimeout:10000}") long slowConsumerTimeoutMillis) {
+        this.slowConsumerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, slowConsumerTimeoutMillis));
+    }
 
     public void add(WebSocketSession session) {
-        sessions.add(session);
+        add(session, Subscription.ALL);
+    }
+
+    public void add(WebSocketSession session, Subscription subscription) {
+        ClientSession previous = sessions.put(session, new ClientSession(session, subscription));
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Moves a registered session to another subscription, dropping any frame still pending for the
+     * old one. Returns false if the session is not registered.
+     */
+    public boolean resubscribe(WebSocketSession session, Subscription subscription) {
+        ClientSession client = sessions.get(session);
+        if (client == null) {
+            return false;
+        }
+        client.subscription(subscription);
+        client.needsResync(false);
+        client.discard();
+        return true;
     }
 
     public void remove(WebSocketSession session) {
-        sessions.remove(session);
+        ClientSession client = sessions.remove(session);
+        if (client != null) {
+            client.close();
+        }
     }
 
     public int size() {
         return sessions.size();
     }
 
-    public void broadcast(String message) {
-        for (WebSocketSession s : sessions) {
-            try {
-                if (s.isOpen()) {
-                    s.sendSync(message);
+    /** Subscription of a registered session, or {@link Subscription#ALL} if unknown. */
+    public Subscription subscriptionOf(WebSocketSession session) {
+        ClientSession client = sessions.get(session);
+        return client == null ? Subscription.ALL : client.subscription();
+    }
+
+    /** Distinct subscriptions across all registered sessions. */
+    public Set<Subscription> subscriptions() {
+        Set<Subscription> out = new HashSet<>();
+        for (ClientSession client : sessions.values()) {
+            out.add(client.subscription());
+        }
+        return out;
+    }
+
+    /**
+     * Queues an already encoded UTF-8 payload for every session holding the given subscription.
+     * Each session gets a text frame over a retained duplicate of the same buffer, so the payload
+     * is never copied or re-encoded per session. The caller keeps ownership of {@code payload}
+     * and must release it after this returns; frames release their duplicates once written.
+     * Returns immediately; writes complete asynchronously.
+     */
+    public void broadcast(Subscription subscription, ByteBuf payload) {
+        broadcast(subscription, payload, null);
+    }
+
+    /**
+     * Delta-aware variant of {@link #broadcast(Subscription, ByteBuf)}: sessions that missed a frame
+     * receive the {@code resync} payload (a keyframe) instead. The supplier is invoked at most once,
+     * only if some session needs it, and its buffer is released before this returns.
+     */
+    public void broadcast(Subscription subscription, ByteBuf payload, Supplier<ByteBuf> resync) {
+        long now = System.nanoTime();
+        ByteBuf keyframe = null;
+        try {
+            for (ClientSession client : sessions.values()) {
+                if (!subscription.equals(client.subscription())) {
+                    continue;
                 }
-            } catch (Throwable ignored) {
+                WebSocketSession s = client.session();
+                if (!s.isOpen()) {
+                    continue;
+                }
+                if (client.stalled(now, slowConsumerTimeoutNanos)) {
+                    disconnectSlowConsumer(client);
+                    continue;
+                }
+                ByteBuf frame = payload;
+                if (resync != null && client.needsResync()) {
+                    if (keyframe == null) {
+                        keyframe = resync.get();
+                    }
+                    if (keyframe == null) {
+                        continue; // cannot resync this tick; a delta would not apply either
+                    }
+                    frame = keyframe;
+                    client.needsResync(false);
+                }
+                offer(client, frame.retainedDuplicate());
+            }
+        } finally {
+            if (keyframe != null) {
+                keyframe.release();
+            }
+        }
+    }
+
+    /**
+     * Queues a payload for a single session through its outbound queue, keeping it ordered with
+     * broadcasts. The caller keeps ownership of {@code payload}.
+     */
+    public void send(WebSocketSession session, ByteBuf payload) {
+        ClientSession client = sessions.get(session);
+        if (client != null && session.isOpen()) {
+            offer(client, payload.retainedDuplicate());
+        }
+    }
+
+    /**
+     * Queues a text reply to a client command, such as {@code pong}, for a single session. Replies are
+     * never replaced by newer broadcasts and keep their order among themselves; a session that lets
+     * {@link ClientSession#MAX_REPLIES} replies pile up loses further ones (counted as dropped).
+     */
+    public void reply(WebSocketSession session, String message) {
+        ClientSession client = sessions.get(session);
+        if (client != null && session.isOpen()) {
+            if (!client.reply(ByteBufUtil.writeUtf8(ByteBufAllocator.DEFAULT, message))) {
+                framesDropped.increment();
+            }
+            framesQueued.increment();
+        }
+    }
+
+    private void offer(ClientSession client, ByteBuf frame) {
+        if (client.offer(frame)) {
+            framesDropped.increment();
+            if (client.subscription().delta()) {
+                client.needsResync(true);
             }
         }
+        framesQueued.increment();
+    }
+
+    /** Counters for the broadcast fan-out. */
+    public MetricsSnapshot.WebSocketStats stats() {
+        return new MetricsSnapshot.WebSocketStats(
+                sessions.size(), framesQueued.sum(), framesDropped.sum(), slowConsumerDisconnects.sum());
+    }
+
+    private void disconnectSlowConsumer(ClientSession client) {
+        slowConsumerDisconnects.increment();
+        remove(client.session());
+        try {
+            client.session().close(CloseReason.GOING_AWAY);
+        } catch (Throwable ignored) {
+        }
     }
 }
@@ -0,0 +1,159 @@
+package io.github.itzamic.eidolon.ws;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * What a WebSocket client asked to receive. Sessions with equal subscriptions form one group that
+ * shares a schedule and one collected and serialized payload per tick.
+ *
+ * @param sections       snapshot sections to collect
+ * @param delta          true for the delta protocol (keyframe, then changed fields only), false for full snapshots
+ * @param encoding       wire format of the payloads
+ * @param intervalMillis push interval; 0 for the server's {@code eidolon.websocket.interval}
+ * @param filter         memory pools and collectors to keep in the collected sections
+ */
+public record Subscription(Set<MetricsSection> sections, boolean delta, Encoding encoding,
+                           long intervalMillis, Filter filter) {
+
+    /** WebSocket subprotocol that selects {@link Encoding#BINARY}. */
+    public static final String BINARY_SUBPROTOCOL = "eidolon.binary.v1";
+
+    public static final Subscription ALL = new Subscription(MetricsSection.ALL, false, Encoding.JSON, 0L, Filter.NONE);
+
+    /** Payload wire format: JSON text frames (the default) or {@link BinaryEncoder} binary frames. */
+    public enum Encoding {
+        JSON,
+        BINARY
+    }
+
+    /**
+     * Name filters applied to a collected snapshot. An empty set keeps everything.
+     *
+     * @param pools      memory pools to keep in {@code heap.pools}; the heap summary always covers the whole heap
+     * @param collectors collectors (GC names) to keep in {@code recentGcEvents} and {@code gcPauses}
+     */
+    public record Filter(Set<String> pools, Set<String> collectors) {
+
+        public static final Filter NONE = new Filter(Set.of(), Set.of());
+
+        /** Returns {@code snapshot} restricted to the filtered names, or {@code snapshot} itself if nothing is filtered. */
+        public MetricsSnapshot apply(MetricsSnapshot snapshot) {
+            if (snapshot == null || (pools.isEmpty() && collectors.isEmpty())) {
+                return snapshot;
+            }
+            MetricsSnapshot.Heap heap = snapshot.heap;
+            if (heap != null && heap.pools != null && !pools.isEmpty()) {
+                List<MetricsSnapshot.MemoryPool> kept = new ArrayList<>();
+                for (MetricsSnapshot.MemoryPool p : heap.pools) {
+                    if (pools.contains(p.name)) {
+                        kept.add(p);
+                    }
+                }
+                heap = new MetricsSnapshot.Heap(heap.used, heap.committed, heap.max, kept);
+            }
+            List<MetricsSnapshot.GcEvent> events = snapshot.recentGcEvents;
+            List<MetricsSnapshot.GcPauseStats> pauses = snapshot.gcPauses;
+            if (!collectors.isEmpty()) {
+                if (events != null) {
+                    events = byCollector(events);
+                }
+                if (pauses != null) {
+                    List<MetricsSnapshot.GcPauseStats> kept = new ArrayList<>();
+                    for (MetricsSnapshot.GcPauseStats p : pauses) {
+                        if (collectors.contains(p.gcName)) {
+                            kept.add(p);
+                        }
+                    }
+                    pauses = kept;
+                }
+            }
+            return new MetricsSnapshot(snapshot.timestampMillis, heap, snapshot.threads, snapshot.classes,
+                    snapshot.stringTable, events, pauses, snapshot.hotThreads, snapshot.jfrEvents);
+        }
+
+        /**
+         * Returns {@code page} with only the events of the filtered collectors, or {@code page} itself if no
+         * collector is filtered. The cursor fields are unchanged, so resuming still skips the dropped events.
+         */
+        public MetricsSnapshot.GcEventPage apply(MetricsSnapshot.GcEventPage page) {
+            if (page == null || page.events == null || collectors.isEmpty()) {
+                return page;
+            }
+            return new MetricsSnapshot.GcEventPage(byCollector(page.events), page.nextSeq, page.missed,
+                    page.overwritten);
+        }
+
+        private List<MetricsSnapshot.GcEvent> byCollector(List<MetricsSnapshot.GcEvent> events) {
+            List<MetricsSnapshot.GcEvent> kept = new ArrayList<>();
+            for (MetricsSnapshot.GcEvent e : events) {
+                if (collectors.contains(e.gcName)) {
+                    kept.add(e);
+                }
+            }
+            return kept;
+        }
+    }
+
+    /**
+     * Builds a subscription from named parameters, as found on the upgrade URL or in a {@code subscribe?...}
+     * message: {@code sections}, {@code mode} (full|delta), {@code encoding} (json|binary), {@code interval}
+     * (milliseconds) and the comma-separated name filters {@code pools} and {@code collectors}. Missing or
+     * invalid values take their defaults.
+     */
+    public static Subscription fromParameters(Function<String, String> parameter, String subprotocols) {
+        Set<MetricsSection> parsed = MetricsSection.parse(parameter.apply("sections"));
+        boolean delta = "delta".equalsIgnoreCase(parameter.apply("mode"));
+        Encoding encoding = "binary".equalsIgnoreCase(parameter.apply("encoding")) || offers(subprotocols, BINARY_SUBPROTOCOL)
+                ? Encoding.BINARY : Encoding.JSON;
+        long interval = parseInterval(parameter.apply("interval"));
+        Set<String> pools = names(parameter.apply("pools"));
+        Set<String> collectors = names(parameter.apply("collectors"));
+        Filter filter = pools.isEmpty() && collectors.isEmpty() ? Filter.NONE : new Filter(pools, collectors);
+        Subscription s = new Subscription(parsed, delta, encoding, interval, filter);
+        return s.equals(ALL) ? ALL : s;
+    }
+
+    private static long parseInterval(String value) {
+        if (value == null || value.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Math.max(0L, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static Set<String> names(String list) {
+        if (list == null || list.isBlank()) {
+            return Set.of();
+        }
+        Set<String> out = new LinkedHashSet<>();
+        for (String name : list.split(",")) {
+            if (!name.isBlank()) {
+                out.add(name.trim());
+            }
+        }
+        return Collections.unmodifiableSet(out);
+    }
+
+    private static boolean offers(String subprotocols, String protocol) {
+        if (subprotocols == null) {
+            return false;
+        }
+        for (String p : subprotocols.split(",")) {
+            if (p.trim().equalsIgnoreCase(protocol)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.itzamic.eidolon.ws;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel of periodic keys, advanced one tick at a time by a single thread.
+ *
+ * Each key sits in the slot of its next deadline, with a count of full wheel turns still to wait,
+ * so a tick only visits the keys of one slot regardless of how many are scheduled or how long
+ * their periods are. Keys are rescheduled one period after each time they come due.
+ */
+final class TimingWheel<K> {
+
+    private static final int SLOTS = 512; // power of two
+
+    private final List<List<Entry<K>>> slots = new ArrayList<>(SLOTS);
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private long tick;
+
+    TimingWheel() {
+        for (int i = 0; i < SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /** Schedules {@code key} every {@code periodTicks} ticks (at least 1), first due one period from now. */
+    void add(K key, long periodTicks) {
+        Entry<K> e = new Entry<>(key, Math.max(1L, periodTicks));
+        Entry<K> previous = entries.put(key, e);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        place(e);
+    }
+
+    /** Unschedules every key not in {@code keep}. */
+    void retain(Set<K> keep) {
+        Iterator<Entry<K>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry<K> e = it.next();
+            if (!keep.contains(e.key)) {
+                e.cancelled = true; // dropped from its slot when the slot is next visited
+                it.remove();
+            }
+        }
+    }
+
+    /** Advances one tick and returns the keys that came due, already rescheduled for their next period. */
+    List<K> advance() {
+        tick++;
+        List<Entry<K>> slot = slots.get((int) (tick & (SLOTS - 1)));
+        if (slot.isEmpty()) {
+            return List.of();
+        }
+        List<Entry<K>> due = null;
+        Iterator<Entry<K>> it = slot.iterator();
+        while (it.hasNext()) {
+            Entry<K> e = it.next();
+            if (e.cancelled) {
+                it.remove();
+            } else if (e.rounds > 0) {
+                e.rounds--;
+            } else {
+                it.remove();
+                if (due == null) {
+                    due = new ArrayList<>();
+                }
+                due.add(e);
+            }
+        }
+        if (due == null) {
+            return List.of();
+        }
+        List<K> keys = new ArrayList<>(due.size());
+        for (Entry<K> e : due) {
+            place(e);
+            keys.add(e.key);
+        }
+        return keys;
+    }
+
+    private void place(Entry<K> e) {
+        // Visited every SLOTS ticks; the first (period - 1) / SLOTS visits are full turns to skip.
+        e.rounds = (e.periodTicks - 1) / SLOTS;
+        slots.get((int) ((tick + e.periodTicks) & (SLOTS - 1))).add(e);
+    }
+
+    private static final class Entry<K> {
+        final K key;
+        final long periodTicks;
+        long rounds;
+        boolean cancelled;
+
+        Entry(K key, long periodTicks) {
+            this.key = key;
+            this.periodTicks = periodTicks;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.itzamic.eidolon;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
@@ -31,7 +32,30 @@ public class EidolonConfigTest {
         assertTrue(defaults.websocketBroadcastEnabled());
         assertEquals(1000L, defaults.broadcastIntervalMillis());
         assertEquals(1024, defaults.gcEventBufferSize());
+        assertEquals(60_000L, defaults.gcPauseIntervalMillis());
         assertEquals(false, defaults.collectStringTable());
+        assertEquals(250L, defaults.snapshotMaxAgeMillis());
+        assertEquals(10_000L, defaults.slowConsumerTimeoutMillis());
+        assertEquals(30, defaults.websocketKeyframeInterval());
+        assertEquals(1000L, defaults.collectIntervalMillis());
+        assertFalse(defaults.historyEnabled());
+        assertEquals(1000L, defaults.historySampleIntervalMillis());
+        assertEquals(4L * 1024 * 1024, defaults.historyMemoryBudgetBytes());
+        assertFalse(defaults.virtualThreads());
+        assertEquals(0L, defaults.startupDelayMillis());
+        assertEquals(10, defaults.hotThreadsLimit());
+        assertFalse(defaults.jfrEnabled());
+        assertEquals(0L, defaults.jfrPauseThresholdMillis());
+        assertEquals(20L, defaults.jfrContentionThresholdMillis());
+        assertEquals(10_000L, defaults.jfrIntervalMillis());
+        assertFalse(defaults.allocationProfilingEnabled());
+        assertEquals(100, defaults.allocationSamplesPerSecond());
+        assertEquals(8, defaults.allocationStackDepth());
+        assertEquals(256L * 1024, defaults.allocationMemoryBudgetBytes());
+        assertEquals(60_000L, defaults.allocationWindowMillis());
+        assertEquals(20L, defaults.profileIntervalMillis());
+        assertEquals(50_000, defaults.profileMaxNodes());
+        assertEquals(60_000L, defaults.heapHistogramIntervalMillis());
 
         EidolonConfig custom = EidolonConfig.builder()
                 .enabled(true)
@@ -41,7 +65,30 @@ public class EidolonConfigTest {
                 .websocketBroadcastEnabled(false)
                 .broadcastIntervalMillis(2000L)
                 .gcEventBufferSize(256)
+                .gcPauseIntervalMillis(10_000L)
                 .collectStringTable(true)
+                .snapshotMaxAgeMillis(0L)
+                .slowConsumerTimeoutMillis(500L)
+                .websocketKeyframeInterval(5)
+                .collectIntervalMillis(0L)
+                .historyEnabled(true)
+                .historySampleIntervalMillis(5000L)
+                .historyMemoryBudgetBytes(1024L)
+                .virtualThreads(true)
+                .startupDelayMillis(2000L)
+                .hotThreadsLimit(3)
+                .jfrEnabled(true)
+                .jfrPauseThresholdMillis(1L)
+                .jfrContentionThresholdMillis(50L)
+                .jfrIntervalMillis(5000L)
+                .allocationProfilingEnabled(true)
+                .allocationSamplesPerSecond(50)
+                .allocationStackDepth(4)
+                .allocationMemoryBudgetBytes(65_536L)
+                .allocationWindowMillis(30_000L)
+                .profileIntervalMillis(10L)
+                .profileMaxNodes(1_000)
+                .heapHistogramIntervalMillis(5_000L)
                 .build();
 
         assertEquals("127.0.0.1", custom.host());
@@ -51,6 +98,29 @@ public class EidolonConfigTest {
         assertEquals(false, custom.websocketBroadcastEnabled());
         assertEquals(2000L, custom.broadcastIntervalMillis());
         assertEquals(256, custom.gcEventBufferSize());
+        assertEquals(10_000L, custom.gcPauseIntervalMillis());
         assertEquals(true, custom.collectStringTable());
+        assertEquals(0L, custom.snapshotMaxAgeMillis());
+        assertEquals(500L, custom.slowConsumerTimeoutMillis());
+        assertEquals(5, custom.websocketKeyframeInterval());
+        assertEquals(0L, custom.collectIntervalMillis());
+        assertTrue(custom.historyEnabled());
+        assertEquals(5000L, custom.historySampleIntervalMillis());
+        assertEquals(1024L, custom.historyMemoryBudgetBytes());
+        assertTrue(custom.virtualThreads());
+        assertEquals(2000L, custom.startupDelayMillis());
+        assertEquals(3, custom.hotThreadsLimit());
+        assertTrue(custom.jfrEnabled());
+        assertEquals(1L, custom.jfrPauseThresholdMillis());
+        assertEquals(50L, custom.jfrContentionThresholdMillis());
+        assertEquals(5000L, custom.jfrIntervalMillis());
+        assertTrue(custom.allocationProfilingEnabled());
+        assertEquals(50, custom.allocationSamplesPerSecond());
+        assertEquals(4, custom.allocationStackDepth());
+        assertEquals(65_536L, custom.allocationMemoryBudgetBytes());
+        assertEquals(30_000L, custom.allocationWindowMillis());
+        assertEquals(10L, custom.profileIntervalMillis());
+        assertEquals(1_000, custom.profileMaxNodes());
+        assertEquals(5_000L, custom.heapHistogramIntervalMillis());
     }
 }
@@ -1,5 +1,9 @@
 package io.github.itzamic.eidolon;
 
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
@@ -31,6 +35,87 @@ public class EidolonTest {
         assertFalse(Eidolon.isRunning(), "Subsequent stops should be no-ops");
     }
 
+    @Test
+    void virtualThreadModeRunsBackgroundWorkOffPlatformThreads() {
+        Eidolon.stop();
+
+        EidolonConfig cfg = EidolonConfig.builder()
+                .enabled(true)
+                .host("127.0.0.1")
+                .port(0)
+                .contextPath("/eidolon")
+                .collectStringTable(false)
+                .virtualThreads(true)
+                .build();
+
+        Eidolon.start(cfg);
+        try {
+            assertTrue(Eidolon.isRunning(), "Eidolon should start in virtual-thread mode");
+            // Thread.getAllStackTraces lists platform threads only
+            for (Thread t : Thread.getAllStackTraces().keySet()) {
+                assertFalse(t.getName().equals("eidolon-collector")
+                        || t.getName().equals("eidolon-history")
+                        || t.getName().equals("eidolon-ws-broadcast"),
+                        "background executor should not own a platform thread: " + t.getName());
+            }
+        } finally {
+            Eidolon.stop();
+        }
+    }
+
+    @Test
+    void asyncStartResolvesThePortBeforeTheContextIsBuilt() throws Exception {
+        Eidolon.stop();
+
+        EidolonConfig cfg = EidolonConfig.builder()
+                .enabled(true)
+                .host("127.0.0.1")
+                .port(0)
+                .contextPath("/eidolon")
+                .collectStringTable(false)
+                .startupDelayMillis(200L)
+                .build();
+
+        Eidolon.startAsync(cfg);
+        try {
+            int port = Eidolon.port();
+            assertTrue(port > 0, "the port should be resolved immediately");
+            assertFalse(Eidolon.isRunning(), "the context should be deferred");
+
+            long deadline = System.currentTimeMillis() + 30_000L;
+            while (!Eidolon.isRunning() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20L);
+            }
+            assertTrue(Eidolon.isRunning(), "the deferred start should complete");
+            assertEquals(port, Eidolon.port(), "the server should bind the probed port");
+        } finally {
+            Eidolon.stop();
+        }
+        assertEquals(-1, Eidolon.port());
+    }
+
+    @Test
+    void stopCancelsAPendingAsyncStart() throws Exception {
+        Eidolon.stop();
+
+        EidolonConfig cfg = EidolonConfig.builder()
+                .enabled(true)
+                .host("127.0.0.1")
+                .port(0)
+                .startupDelayMillis(60_000L)
+                .build();
+
+        Eidolon.startAsync(cfg);
+        int port = Eidolon.port();
+        Eidolon.stop();
+        assertEquals(-1, Eidolon.port());
+        assertFalse(Eidolon.isRunning());
+        // The probe socket is released
+        try (ServerSocket socket = new ServerSocket()) {
+            socket.bind(new InetSocketAddress("127.0.0.1", port));
+        }
+    }
+
     @Test
     void doesNotStartWhenDisabled() {
         // ensure clean state
@@ -0,0 +1,24 @@
+package io.github.itzamic.eidolon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class EidolonThreadsTest {
+
+    @Test
+    void platformFactoryCreatesNamedDaemonThreads() {
+        Thread t = EidolonThreads.factory("eidolon-test", false).newThread(() -> {});
+        assertEquals("eidolon-test", t.getName());
+        assertTrue(t.isDaemon());
+        assertFalse(t.isVirtual());
+    }
+
+    @Test
+    void virtualFactoryCreatesNamedVirtualThreads() {
+        Thread t = EidolonThreads.factory("eidolon-test", true).newThread(() -> {});
+        assertEquals("eidolon-test", t.getName());
+        assertTrue(t.isVirtual());
+    }
+}
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -39,6 +40,7 @@ public class MetricsControllerTest {
                     .contextPath("/eidolon")
                     .websocketBroadcastEnabled(false)
                     .collectStringTable(false)
+                    .historyEnabled(true)
                     .build();
 
             context = ApplicationContext.builder(props).singletons(cfg).build().start();
@@ -61,6 +63,13 @@ public class MetricsControllerTest {
             assertTrue(body.contains("\"threads\""), "snapshot body should contain threads object");
             assertTrue(body.contains("\"classes\""), "snapshot body should contain classes object");
 
+            // Section selector only returns what was asked for
+            HttpResponse<String> heapOnlyResp = client.toBlocking()
+                    .exchange(HttpRequest.GET("/eidolon/api/metrics/snapshot?sections=heap,gc"), String.class);
+            assertEquals(200, heapOnlyResp.getStatus().getCode(), "sectioned snapshot should return 200");
+            assertTrue(heapOnlyResp.body().contains("\"heap\""), "sectioned snapshot should contain heap");
+            assertFalse(heapOnlyResp.body().contains("threadCount"), "sectioned snapshot should not contain threads");
+
             // Additional endpoints
             HttpResponse<String> heapResp = client.toBlocking()
                     .exchange(HttpRequest.GET("/eidolon/api/metrics/heap"), String.class);
@@ -74,6 +83,12 @@ public class MetricsControllerTest {
             assertNotNull(threadsResp.body(), "threads body should not be null");
             assertTrue(threadsResp.body().contains("threadCount"), "threads body should contain 'threadCount'");
 
+            HttpResponse<String> hotResp = client.toBlocking()
+                    .exchange(HttpRequest.GET("/eidolon/api/metrics/threads/hot"), String.class);
+            assertEquals(200, hotResp.getStatus().getCode(), "hot threads endpoint should return 200");
+            assertTrue(hotResp.body().contains("\"byCpu\""), "hot threads should contain the CPU ranking");
+            assertTrue(hotResp.body().contains("\"byAllocation\""), "hot threads should contain the allocation ranking");
+
             HttpResponse<String> classesResp = client.toBlocking()
                     .exchange(HttpRequest.GET("/eidolon/api/metrics/classes"), String.class);
             assertEquals(200, classesResp.getStatus().getCode(), "classes endpoint should return 200");
@@ -96,11 +111,86 @@ public class MetricsControllerTest {
                 assertEquals(404, e.getStatus().getCode(), "string-table endpoint should return 404 when body is null");
             }
 
+            // JFR summaries are off by default: null body, same handling as the string table.
+            try {
+                HttpResponse<String> jfrResp = client.toBlocking()
+                        .exchange(HttpRequest.GET("/eidolon/api/metrics/jfr"), String.class);
+                int code = jfrResp.getStatus().getCode();
+                if (code == 200) {
+                    assertEquals("null", jfrResp.body().trim(), "jfr should be null when disabled");
+                } else {
+                    assertEquals(404, code, "jfr endpoint should return 404 when disabled");
+                }
+            } catch (io.micronaut.http.client.exceptions.HttpClientResponseException e) {
+                assertEquals(404, e.getStatus().getCode(), "jfr endpoint should return 404 when disabled");
+            }
+            try {
+                HttpResponse<String> allocResp = client.toBlocking()
+                        .exchange(HttpRequest.GET("/eidolon/api/metrics/allocations?top=5"), String.class);
+                int code = allocResp.getStatus().getCode();
+                if (code == 200) {
+                    assertEquals("null", allocResp.body().trim(), "allocations should be null when disabled");
+                } else {
+                    assertEquals(404, code, "allocations endpoint should return 404 when disabled");
+                }
+            } catch (io.micronaut.http.client.exceptions.HttpClientResponseException e) {
+                assertEquals(404, e.getStatus().getCode(), "allocations endpoint should return 404 when disabled");
+            }
+
             HttpResponse<String> gcEventsResp = client.toBlocking()
                     .exchange(HttpRequest.GET("/eidolon/api/metrics/gc/events"), String.class);
             assertEquals(200, gcEventsResp.getStatus().getCode(), "gc events endpoint should return 200");
             assertNotNull(gcEventsResp.body(), "gc events body should not be null");
             assertTrue(gcEventsResp.body().trim().startsWith("["), "gc events body should be a JSON array");
+
+            try {
+                client.toBlocking().exchange(HttpRequest.GET("/eidolon/api/metrics/gc/events?since=0"), String.class);
+                fail("gc events with a cursor should not return 200");
+            } catch (io.micronaut.http.client.exceptions.HttpClientResponseException e) {
+                assertEquals(400, e.getStatus().getCode(), "gc events with a cursor should return 400");
+            }
+
+            HttpResponse<String> gcPageResp = client.toBlocking()
+                    .exchange(HttpRequest.GET("/eidolon/api/metrics/gc/events/page?since=0&limit=10"), String.class);
+            assertEquals(200, gcPageResp.getStatus().getCode(), "gc events cursor endpoint should return 200");
+            assertTrue(gcPageResp.body().contains("\"nextSeq\""), "gc events page should contain the next cursor");
+            assertTrue(gcPageResp.body().contains("\"events\""), "gc events page should contain events");
+
+            HttpResponse<String> pausesResp = client.toBlocking()
+                    .exchange(HttpRequest.GET("/eidolon/api/metrics/gc/pauses"), String.class);
+            assertEquals(200, pausesResp.getStatus().getCode(), "gc pauses endpoint should return 200");
+            assertTrue(pausesResp.body().trim().startsWith("["), "gc pauses body should be a JSON array");
+
+            HttpResponse<String> historyIndexResp = client.toBlocking()
+                    .exchange(HttpRequest.GET("/eidolon/api/metrics/history/metrics"), String.class);
+            assertEquals(200, historyIndexResp.getStatus().getCode(), "history index should return 200");
+            assertTrue(historyIndexResp.body().contains("heap.used"), "history index should list heap.used");
+
+            HttpResponse<String> historyResp = client.toBlocking()
+                    .exchange(HttpRequest.GET("/eidolon/api/metrics/history?metric=heap.used"), String.class);
+            assertEquals(200, historyResp.getStatus().getCode(), "history query should return 200");
+            assertTrue(historyResp.body().contains("\"timestamps\""), "history should contain timestamps");
+            try {
+                client.toBlocking().exchange(HttpRequest.GET("/eidolon/api/metrics/history?metric=no.such"), String.class);
+                fail("unknown history metric should not return 200");
+            } catch (io.micronaut.http.client.exceptions.HttpClientResponseException e) {
+                assertEquals(404, e.getStatus().getCode(), "unknown history metric should return 404");
+            }
+
+            HttpResponse<String> promResp = client.toBlocking()
+                    .exchange(HttpRequest.GET("/eidolon/api/metrics/prometheus"), String.class);
+            assertEquals(200, promResp.getStatus().getCode(), "prometheus endpoint should return 200");
+            assertTrue(promResp.body().contains("jvm_memory_used_bytes{area=\"heap\"}"), "prometheus body should contain heap used");
+            assertTrue(promResp.getContentType().map(t -> t.toString().startsWith("text/plain")).orElse(false));
+
+            HttpResponse<String> openMetricsResp = client.toBlocking()
+                    .exchange(HttpRequest.GET("/eidolon/api/metrics/prometheus?format=openmetrics"), String.class);
+            assertTrue(openMetricsResp.body().endsWith("# EOF\n"), "openmetrics body should end with # EOF");
+
+            HttpResponse<String> wsResp = client.toBlocking()
+                    .exchange(HttpRequest.GET("/eidolon/api/metrics/websocket"), String.class);
+            assertEquals(200, wsResp.getStatus().getCode(), "websocket stats endpoint should return 200");
+            assertTrue(wsResp.body().contains("framesDropped"), "websocket stats should contain 'framesDropped'");
         } catch (Exception e) {
             fail("snapshot endpoint test failed: " + e.getMessage());
         } finally {
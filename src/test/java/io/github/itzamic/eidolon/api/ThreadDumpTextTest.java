@@ -0,0 +1,97 @@
+package io.github.itzamic.eidolon.api;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.netty.buffer.ByteBuf;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ThreadDumpTextTest {
+
+    private static MetricsSnapshot.ThreadDump dump() {
+        MetricsSnapshot.DumpedThread w1 = new MetricsSnapshot.DumpedThread(21, "worker-1", "WAITING",
+                "java.util.concurrent.locks.AbstractQueuedSynchronizer$ConditionObject@1b2c", -1, null);
+        MetricsSnapshot.DumpedThread w2 = new MetricsSnapshot.DumpedThread(22, "worker-2", "WAITING",
+                "java.util.concurrent.locks.AbstractQueuedSynchronizer$ConditionObject@1b2c", -1, null);
+        MetricsSnapshot.DumpedThread blocked = new MetricsSnapshot.DumpedThread(30, "blocked", "BLOCKED",
+                "java.lang.Object@3d4e", 1, "main");
+        return new MetricsSnapshot.ThreadDump(0L, 8, 3, List.of(blocked), List.of(
+                new MetricsSnapshot.StackGroup("WAITING", 2, List.of(w1, w2),
+                        List.of("java.base/jdk.internal.misc.Unsafe.park(Native Method)", "Pool.take(Pool.java:10)")),
+                new MetricsSnapshot.StackGroup("BLOCKED", 1, List.of(blocked), List.of("App.sync(App.java:5)"))));
+    }
+
+    /** Subscriber that requests one chunk at a time and records every signal. */
+    private static final class Collector implements Subscriber<ByteBuf> {
+        final List<String> chunks = new ArrayList<>();
+        Subscription subscription;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+        }
+
+        @Override
+        public void onNext(ByteBuf chunk) {
+            chunks.add(chunk.toString(StandardCharsets.UTF_8));
+            chunk.release();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            throw new AssertionError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @Test
+    void emitsHeaderThenOneChunkPerGroupOnDemand() {
+        Collector c = new Collector();
+        ThreadDumpText.publisher(dump()).subscribe(c);
+        assertTrue(c.chunks.isEmpty(), "nothing is encoded before it is requested");
+
+        c.subscription.request(1);
+        assertEquals(1, c.chunks.size());
+        String header = c.chunks.get(0);
+        assertTrue(header.startsWith("Thread dump 1970-01-01T00:00:00Z: 3 threads, 2 distinct stacks (at most 8 frames)\n"), header);
+        assertTrue(header.contains("Deadlock detected: 1 threads\n"));
+        assertTrue(header.contains("  \"blocked\" #30 BLOCKED on java.lang.Object@3d4e owned by \"main\" #1\n"));
+
+        c.subscription.request(1);
+        assertEquals("2 threads WAITING\n"
+                + "  \"worker-1\" #21 on java.util.concurrent.locks.AbstractQueuedSynchronizer$ConditionObject@1b2c\n"
+                + "  \"worker-2\" #22 on java.util.concurrent.locks.AbstractQueuedSynchronizer$ConditionObject@1b2c\n"
+                + "    at java.base/jdk.internal.misc.Unsafe.park(Native Method)\n"
+                + "    at Pool.take(Pool.java:10)\n\n", c.chunks.get(1));
+        assertFalse(c.completed);
+
+        c.subscription.request(1);
+        assertTrue(c.chunks.get(2).startsWith("1 thread BLOCKED\n"));
+        assertTrue(c.completed, "completes after the last chunk without further demand");
+    }
+
+    @Test
+    void cancelStopsEmission() {
+        Collector c = new Collector();
+        ThreadDumpText.publisher(dump()).subscribe(c);
+        c.subscription.request(1);
+        c.subscription.cancel();
+        c.subscription.request(10);
+
+        assertEquals(1, c.chunks.size());
+        assertFalse(c.completed);
+    }
+}
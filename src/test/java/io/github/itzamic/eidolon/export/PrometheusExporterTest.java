@@ -0,0 +1,116 @@
+package io.github.itzamic.eidolon.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.github.itzamic.eidolon.EidolonConfig;
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsService;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+
+public class PrometheusExporterTest {
+
+    private static final MetricsSnapshot.Heap HEAP = new MetricsSnapshot.Heap(100, 200, -1, List.of(
+            new MetricsSnapshot.MemoryPool("G1 Eden Space", "HEAP", new MetricsSnapshot.Usage(0, 10, 20, -1), null),
+            new MetricsSnapshot.MemoryPool("Metaspace", "NON_HEAP", new MetricsSnapshot.Usage(0, 30, 40, 50), null)));
+    private static final MetricsSnapshot.Threads THREADS =
+            new MetricsSnapshot.Threads(7, 3, 9, 42, Map.of("RUNNABLE", 4));
+    private static final MetricsSnapshot.Classes CLASSES = new MetricsSnapshot.Classes(1000, 1200, 200);
+
+    private static String render(PrometheusExporter.Format format) {
+        ByteBuf out = Unpooled.buffer();
+        PrometheusExporter.write(out, format, HEAP, THREADS, CLASSES, List.of());
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void prometheusFormatNamesCounterFamiliesWithTotal() {
+        String text = render(PrometheusExporter.Format.PROMETHEUS);
+        assertTrue(text.contains("# TYPE jvm_memory_used_bytes gauge\njvm_memory_used_bytes{area=\"heap\"} 100\n"), text);
+        assertTrue(text.contains("jvm_memory_max_bytes{area=\"heap\"} -1\n"));
+        assertTrue(text.contains("jvm_memory_pool_used_bytes{pool=\"G1 Eden Space\",area=\"heap\"} 10\n"));
+        assertTrue(text.contains("jvm_memory_pool_max_bytes{pool=\"Metaspace\",area=\"nonheap\"} 50\n"));
+        assertTrue(text.contains("jvm_threads_state{state=\"RUNNABLE\"} 4\n"));
+        assertTrue(text.contains("# TYPE jvm_threads_started_total counter\njvm_threads_started_total 42\n"));
+        assertTrue(text.contains("jvm_classes_unloaded_total 200\n"));
+        assertFalse(text.contains("# EOF"));
+    }
+
+    @Test
+    void openMetricsFormatUsesFamilyNamesAndEof() {
+        String text = render(PrometheusExporter.Format.OPENMETRICS);
+        assertTrue(text.contains("# TYPE jvm_threads_started counter\njvm_threads_started_total 42\n"), text);
+        assertTrue(text.endsWith("# EOF\n"));
+    }
+
+    @Test
+    void numbersAndLabelsAreEncodedWithoutStrings() {
+        ByteBuf out = Unpooled.buffer();
+        PrometheusExporter.number(out, 0);
+        PrometheusExporter.number(out, Long.MAX_VALUE);
+        PrometheusExporter.number(out, Long.MIN_VALUE);
+        PrometheusExporter.seconds(out, 1_234);
+        PrometheusExporter.seconds(out, 5);
+        PrometheusExporter.labelValue(out, "a\"b\\c\nd é");
+        assertEquals("0\n9223372036854775807\n-9223372036854775808\n1.234\n0.005\na\\\"b\\\\c\\nd é",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void scrapeReusesRenderAndGzipRoundTrips() throws IOException {
+        // On-demand sections: nothing is published, so reuse relies on the cached section instances.
+        MetricsService svc = new MetricsService(EidolonConfig.builder()
+                .collectIntervalMillis(0L)
+                .snapshotMaxAgeMillis(60_000L)
+                .build());
+        PrometheusExporter exporter = new PrometheusExporter(svc, UnpooledByteBufAllocator.DEFAULT);
+        try {
+            ByteBuf first = exporter.scrape(PrometheusExporter.Format.PROMETHEUS, false);
+            ByteBuf second = exporter.scrape(PrometheusExporter.Format.PROMETHEUS, false);
+            assertNotSame(first, second, "each caller gets its own duplicate");
+            assertSame(first.unwrap(), second.unwrap(), "unchanged sections are not re-rendered");
+            String plain = first.toString(StandardCharsets.UTF_8);
+            assertTrue(plain.contains("jvm_threads_current "));
+            first.release();
+            second.release();
+
+            ByteBuf gzipped = exporter.scrape(PrometheusExporter.Format.PROMETHEUS, true);
+            byte[] bytes = new byte[gzipped.readableBytes()];
+            gzipped.readBytes(bytes);
+            gzipped.release();
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                assertEquals(plain, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            exporter.close();
+        }
+    }
+
+    @Test
+    void negotiatesFormatAndEncoding() {
+        assertEquals(PrometheusExporter.Format.PROMETHEUS, PrometheusExporter.Format.negotiate(null, "text/plain"));
+        assertEquals(PrometheusExporter.Format.OPENMETRICS,
+                PrometheusExporter.Format.negotiate(null, "application/openmetrics-text;version=1.0.0,text/plain;q=0.5"));
+        assertEquals(PrometheusExporter.Format.OPENMETRICS, PrometheusExporter.Format.negotiate("openmetrics", null));
+
+        assertTrue(PrometheusExporter.acceptsGzip("gzip"));
+        assertTrue(PrometheusExporter.acceptsGzip("deflate, gzip;q=0.5"));
+        assertTrue(PrometheusExporter.acceptsGzip("*"));
+        assertFalse(PrometheusExporter.acceptsGzip("gzip;q=0"));
+        assertFalse(PrometheusExporter.acceptsGzip("identity"));
+        assertFalse(PrometheusExporter.acceptsGzip(null));
+    }
+}
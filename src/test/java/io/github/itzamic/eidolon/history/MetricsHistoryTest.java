@@ -0,0 +1,42 @@
+package io.github.itzamic.eidolon.history;
+
+import io.github.itzamic.eidolon.EidolonConfig;
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsHistoryTest {
+
+    @Test
+    void samplesAreQueryableByMetricName() {
+        EidolonConfig cfg = EidolonConfig.builder().historyEnabled(true).build();
+        MetricsHistory history = new MetricsHistory(new MetricsService(cfg), cfg);
+
+        assertTrue(history.metricNames().contains("heap.used"));
+        assertTrue(history.metricNames().contains("gc.pauseMillis"));
+        assertTrue(history.metricNames().stream().anyMatch(n -> n.startsWith("pool.")));
+
+        history.sample(1_000);
+        history.sample(2_000);
+
+        MetricsSnapshot.History heap = history.query("heap.used", 0, 10_000, 0);
+        assertEquals(2, heap.timestamps.length);
+        assertTrue(heap.values[0] > 0);
+
+        MetricsSnapshot.History threads = history.query("threads.live", 0, 10_000, 0);
+        assertTrue(threads.values[1] >= 1);
+    }
+
+    @Test
+    void disabledHistoryRecordsNothing() {
+        EidolonConfig cfg = EidolonConfig.builder().historyEnabled(false).build();
+        MetricsHistory history = new MetricsHistory(new MetricsService(cfg), cfg);
+
+        assertTrue(history.metricNames().isEmpty());
+        assertNull(history.query("heap.used", 0, 10_000, 0));
+    }
+}
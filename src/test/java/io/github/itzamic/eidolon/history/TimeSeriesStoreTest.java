@@ -0,0 +1,79 @@
+package io.github.itzamic.eidolon.history;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimeSeriesStoreTest {
+
+    private static TimeSeriesStore store(long budgetBytes) {
+        return new TimeSeriesStore(List.of("gauge", "counter"),
+                List.of(TimeSeriesStore.Aggregation.AVERAGE, TimeSeriesStore.Aggregation.SUM), 1000L, budgetBytes);
+    }
+
+    @Test
+    void rawPointsAreReturnedInRangeAndNaNIsSkipped() {
+        TimeSeriesStore s = store(1 << 20);
+        s.append(1_000, new double[] {1, 10});
+        s.append(2_000, new double[] {Double.NaN, 20});
+        s.append(3_000, new double[] {3, 30});
+
+        MetricsSnapshot.History h = s.query("gauge", 0, 10_000, 0);
+        assertEquals(1000, h.stepMillis);
+        assertArrayEquals(new long[] {1_000, 3_000}, h.timestamps);
+        assertArrayEquals(new double[] {1, 3}, h.values);
+
+        assertArrayEquals(new long[] {2_000}, s.query("counter", 1_500, 2_500, 0).timestamps);
+        assertNull(s.query("missing", 0, 10_000, 0));
+    }
+
+    @Test
+    void rollupTierAveragesGaugesAndSumsCounters() {
+        TimeSeriesStore s = store(1 << 20);
+        for (int t = 0; t < 25; t++) {
+            s.append(t * 1000L, new double[] {t, 1});
+        }
+        // Buckets [0,10s) and [10s,20s) are closed; [20s,30s) is still open.
+        MetricsSnapshot.History gauge = s.query("gauge", 0, 60_000, 10_000);
+        assertEquals(10_000, gauge.stepMillis);
+        assertArrayEquals(new long[] {0, 10_000}, gauge.timestamps);
+        assertArrayEquals(new double[] {4.5, 14.5}, gauge.values);
+
+        MetricsSnapshot.History counter = s.query("counter", 0, 60_000, 10_000);
+        assertArrayEquals(new double[] {10, 10}, counter.values);
+    }
+
+    @Test
+    void largerStepRebucketsOnTheFly() {
+        TimeSeriesStore s = store(1 << 20);
+        for (int t = 0; t < 4; t++) {
+            s.append(t * 1000L, new double[] {t, 1});
+        }
+        MetricsSnapshot.History h = s.query("counter", 0, 10_000, 2_000);
+        assertEquals(2_000, h.stepMillis);
+        assertArrayEquals(new long[] {0, 2_000}, h.timestamps);
+        assertArrayEquals(new double[] {2, 2}, h.values);
+    }
+
+    @Test
+    void budgetBoundsMemoryAndOlderRangesFallBackToCoarserTier() {
+        // 24 bytes per row: raw keeps 10 rows, the rollup tiers 5 each.
+        TimeSeriesStore s = store(480);
+        assertTrue(s.memoryBytes() <= 480);
+        for (int t = 0; t < 60; t++) {
+            s.append(t * 1000L, new double[] {t, 1});
+        }
+        MetricsSnapshot.History recent = s.query("gauge", 55_000, 60_000, 0);
+        assertEquals(1000, recent.stepMillis);
+
+        MetricsSnapshot.History older = s.query("gauge", 0, 60_000, 0);
+        assertEquals(10_000, older.stepMillis, "raw no longer reaches back to 0, so the 10 s tier serves it");
+        assertEquals(0, older.timestamps[0]);
+    }
+}
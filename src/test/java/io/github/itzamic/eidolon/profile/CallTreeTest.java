@@ -0,0 +1,98 @@
+package io.github.itzamic.eidolon.profile;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class CallTreeTest {
+
+    /** Builds a stack from outermost to innermost "Class.method" names, returned innermost first like the JVM does. */
+    private static StackTraceElement[] stack(String... outermostFirst) {
+        StackTraceElement[] out = new StackTraceElement[outermostFirst.length];
+        for (int i = 0; i < outermostFirst.length; i++) {
+            String f = outermostFirst[i];
+            int dot = f.lastIndexOf('.');
+            out[out.length - 1 - i] = new StackTraceElement(f.substring(0, dot), f.substring(dot + 1), "X.java", i + 1);
+        }
+        return out;
+    }
+
+    @Test
+    void mergesCommonPrefixesAndCountsSelfSamplesAtTheLeaf() {
+        CallTree tree = new CallTree(100, 20);
+        tree.add(stack("A.main", "B.run", "C.work"));
+        tree.add(stack("A.main", "B.run", "C.work"));
+        tree.add(stack("A.main", "B.run", "D.io"));
+        tree.add(stack("A.main", "B.run"));
+
+        assertEquals(4, tree.samples());
+        assertEquals(5, tree.nodes(), "root, A, B, C, D");
+        List<String> lines = Arrays.asList(tree.collapsed().split("\n"));
+        assertEquals(3, lines.size());
+        assertTrue(lines.contains("A.main;B.run 1"));
+        assertTrue(lines.contains("A.main;B.run;C.work 2"));
+        assertTrue(lines.contains("A.main;B.run;D.io 1"));
+    }
+
+    @Test
+    void profileValuesIncludeDescendants() {
+        CallTree tree = new CallTree(100, 20);
+        tree.tick();
+        tree.add(stack("A.main", "B.run", "C.work"));
+        tree.add(stack("A.main", "B.run", "C.work"));
+        tree.add(stack("A.main", "D.idle"));
+        tree.finish(System.currentTimeMillis());
+
+        MetricsSnapshot.CpuProfile profile = tree.toProfile();
+        assertEquals(1, profile.ticks);
+        assertEquals(3, profile.samples);
+        assertEquals(0, profile.truncatedSamples);
+        MetricsSnapshot.FlameNode root = profile.root;
+        assertEquals("all", root.name);
+        assertEquals(3, root.value);
+        MetricsSnapshot.FlameNode main = root.children.get(0);
+        assertEquals("A.main", main.name);
+        assertEquals(3, main.value);
+        assertEquals(2, main.children.size());
+        long b = main.children.stream().filter(n -> n.name.equals("B.run")).findFirst().orElseThrow().value;
+        assertEquals(2, b);
+    }
+
+    @Test
+    void linesOfOneMethodShareAFrame() {
+        CallTree tree = new CallTree(100, 20);
+        tree.add(new StackTraceElement[]{new StackTraceElement("A", "loop", "A.java", 10)});
+        tree.add(new StackTraceElement[]{new StackTraceElement("A", "loop", "A.java", 11)});
+
+        assertEquals(2, tree.nodes());
+        assertEquals("A.loop 2\n", tree.collapsed());
+    }
+
+    @Test
+    void stopsGrowingAtMaxNodesAndChargesTheDeepestKnownFrame() {
+        CallTree tree = new CallTree(3, 20);
+        tree.add(stack("A.main", "B.run"));
+        tree.add(stack("A.main", "B.run", "C.work"));
+        tree.add(stack("A.main", "E.other", "F.more"));
+
+        assertEquals(3, tree.nodes());
+        assertEquals(3, tree.samples(), "truncated stacks are still counted");
+        assertEquals(2, tree.toProfile().truncatedSamples);
+        assertEquals("A.main 1\nA.main;B.run 2\n", tree.collapsed());
+    }
+
+    @Test
+    void manyDistinctPathsStayWithinTheBudget() {
+        CallTree tree = new CallTree(1_000, 20);
+        for (int i = 0; i < 10_000; i++) {
+            tree.add(stack("A.main", "B.dispatch", "Handler" + i + ".handle"));
+        }
+        assertEquals(1_000, tree.nodes());
+        assertEquals(10_000, tree.toProfile().root.value);
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.itzamic.eidolon.profile;
+
+import io.github.itzamic.eidolon.EidolonConfig;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class CpuProfilerTest {
+
+    private static volatile long sink;
+
+    private static void spin() {
+        long x = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            x += System.nanoTime() % 7;
+            sink = x;
+        }
+    }
+
+    @Test
+    void samplesRunnableThreadsIntoTheTree() throws Exception {
+        Thread busy = new Thread(CpuProfilerTest::spin, "busy-profiled");
+        busy.setDaemon(true);
+        busy.start();
+        CpuProfiler profiler = new CpuProfiler(EidolonConfig.builder().profileIntervalMillis(5).build());
+        try {
+            CallTree tree = profiler.profile(300).get(10, TimeUnit.SECONDS);
+
+            assertTrue(tree.toProfile().ticks > 1);
+            assertTrue(tree.samples() > 0);
+            assertTrue(tree.collapsed().contains("CpuProfilerTest.spin"), tree.collapsed());
+            assertEquals(0, profiler.running());
+        } finally {
+            busy.interrupt();
+            profiler.stop();
+        }
+    }
+
+    @Test
+    void honorsThreadNamePrefixes() throws Exception {
+        Thread busy = new Thread(CpuProfilerTest::spin, "excluded-busy");
+        busy.setDaemon(true);
+        busy.start();
+        CpuProfiler profiler = new CpuProfiler(EidolonConfig.builder()
+                .profileIntervalMillis(5)
+                .includeThreadNamePrefixes(Set.of("no-such-prefix"))
+                .build());
+        try {
+            CallTree tree = profiler.profile(100).get(10, TimeUnit.SECONDS);
+
+            assertTrue(tree.toProfile().ticks > 0);
+            assertEquals(0, tree.samples());
+        } finally {
+            busy.interrupt();
+            profiler.stop();
+        }
+    }
+
+    @Test
+    void refusesProfilesBeyondTheRunningLimit() {
+        CpuProfiler profiler = new CpuProfiler(EidolonConfig.builder().build());
+        try {
+            for (int i = 0; i < CpuProfiler.MAX_RUNNING; i++) {
+                assertNotNull(profiler.profile(60_000));
+            }
+            assertNull(profiler.profile(60_000));
+            assertEquals(CpuProfiler.MAX_RUNNING, profiler.running());
+        } finally {
+            profiler.stop();
+        }
+        assertNotNull(profiler.profile(0), "stopped profiles free their slots");
+        profiler.stop();
+    }
+
+    @Test
+    void stopCompletesRunningProfilesWithPartialTrees() throws Exception {
+        CpuProfiler profiler = new CpuProfiler(EidolonConfig.builder().build());
+        CompletableFuture<CallTree> future = profiler.profile(60_000);
+        assertFalse(future.isDone());
+
+        profiler.stop();
+        assertTrue(future.isDone());
+        assertEquals(0, profiler.running());
+        future.get().toProfile();
+    }
+}
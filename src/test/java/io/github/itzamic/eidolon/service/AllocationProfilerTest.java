@@ -0,0 +1,78 @@
+package io.github.itzamic.eidolon.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+class AllocationProfilerTest {
+
+    @Test
+    void capacityFollowsTheMemoryBudget() {
+        int small = AllocationProfiler.capacity(256 * 1024, 8);
+        int large = AllocationProfiler.capacity(1024 * 1024, 8);
+        assertEquals(4 * small, large, "capacity scales with the budget");
+        assertTrue(AllocationProfiler.capacity(256 * 1024, 32) < small, "deeper stacks cost more per site");
+        assertEquals(16, AllocationProfiler.capacity(0, 8), "a minimum number of sites is always kept");
+    }
+
+    @Test
+    void sitesAreRankedByBytesPerWindow() {
+        AllocationProfiler profiler = new AllocationProfiler(100, 2, 256 * 1024, 60_000);
+        profiler.record("byte[]", List.of("com.example.Codec.encode:42", "com.example.Server.handle:10"), 4096);
+        profiler.record("java.lang.String", List.of("com.example.Log.format:7"), 512);
+        profiler.record("byte[]", List.of("com.example.Codec.encode:42", "com.example.Server.handle:10"), 8192);
+
+        MetricsSnapshot.AllocationProfile profile = profiler.profile(10);
+        assertNull(profile.previous, "no window has completed yet");
+        assertEquals(3, profile.current.samples);
+        assertEquals(4096 + 512 + 8192, profile.current.sampledBytes);
+        MetricsSnapshot.AllocationSite top = profile.current.top.get(0);
+        assertEquals("byte[]", top.className);
+        assertEquals(List.of("com.example.Codec.encode:42", "com.example.Server.handle:10"), top.stack);
+        assertEquals(12_288, top.bytes);
+        assertEquals(2, top.samples);
+        assertEquals(1, profiler.profile(1).current.top.size());
+
+        profiler.rotate(System.currentTimeMillis() + 60_000);
+        profiler.record("java.lang.Object", List.of(), 16);
+        MetricsSnapshot.AllocationProfile rotated = profiler.profile(10);
+        assertNotNull(rotated.previous);
+        assertEquals(3, rotated.previous.samples);
+        assertEquals("byte[]", rotated.previous.top.get(0).className);
+        assertEquals(1, rotated.current.top.size());
+        assertEquals("java.lang.Object", rotated.current.top.get(0).className);
+    }
+
+    @Test
+    void streamSamplesAllocations() {
+        AllocationProfiler profiler = new AllocationProfiler(1000, 4, 256 * 1024, 60_000);
+        JfrRecording recording = new JfrRecording(List.of(profiler));
+        if (!recording.start()) {
+            return; // JFR not available in this JVM
+        }
+        try {
+            List<long[]> sink = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+            while (profiler.profile(1).current.samples == 0 && System.nanoTime() < deadline) {
+                for (int i = 0; i < 1000; i++) {
+                    sink.add(new long[256]);
+                }
+                sink.clear();
+            }
+            MetricsSnapshot.AllocationWindow window = profiler.profile(5).current;
+            assertTrue(window.samples > 0, "allocation samples should be delivered by the stream");
+            assertTrue(window.sampledBytes > 0);
+            assertTrue(window.top.get(0).stack.size() <= 4, "stacks are truncated to the configured depth");
+        } finally {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ClassHistogramTest {
+
+    private static final String FIRST = String.join("\n",
+            " num     #instances         #bytes  class name (module)",
+            "-------------------------------------------------------",
+            "   1:         10000         800000  [B (java.base@21.0.1)",
+            "   2:          5000         120000  java.lang.String (java.base@21.0.1)",
+            "   3:            10            320  com.example.Cache$Entry",
+            "Total         15010         920320",
+            "");
+
+    private static final String SECOND = String.join("\r\n",
+            " num     #instances         #bytes  class name (module)",
+            "-------------------------------------------------------",
+            "   1:         12000         960000  [B (java.base@21.0.1)",
+            "   2:          4000          96000  java.lang.String (java.base@21.0.1)",
+            "   3:          2000          64000  com.example.Cache$Entry",
+            "   4:             1             16  com.example.NewThing",
+            "Total         18001        1120016");
+
+    @Test
+    void parsesColumnsAndTotals() {
+        ClassHistogram.Table t = ClassHistogram.Table.parse(FIRST, 42L);
+
+        assertEquals(3, t.size);
+        assertEquals("[B", t.names[0]);
+        assertEquals(10_000, t.instances[0]);
+        assertEquals(800_000, t.bytes[0]);
+        assertEquals("com.example.Cache$Entry", t.names[2]);
+        assertEquals(15_010, t.totalInstances);
+        assertEquals(920_320, t.totalBytes);
+        assertEquals(42L, t.timestampMillis);
+    }
+
+    @Test
+    void sumsRowsWhenThereIsNoTotalLine() {
+        ClassHistogram.Table t = ClassHistogram.Table.parse("   1:  2  32  A\n   2:  1  16  B (m@1)", 0L);
+
+        assertEquals(2, t.size);
+        assertEquals("B", t.names[1]);
+        assertEquals(3, t.totalInstances);
+        assertEquals(48, t.totalBytes);
+    }
+
+    @Test
+    void reportsTopClassesAndGrowthSincePreviousRun() {
+        Deque<String> outputs = new ArrayDeque<>(List.of(FIRST, SECOND));
+        ClassHistogram histogram = new ClassHistogram(outputs::poll, 0);
+
+        MetricsSnapshot.HeapHistogram first = histogram.histogram(2);
+        assertEquals(-1, first.previousTimestampMillis);
+        assertEquals(2, first.top.size());
+        assertEquals("[B", first.top.get(0).className);
+        assertTrue(first.growth.isEmpty(), "no growth without a previous run");
+
+        MetricsSnapshot.HeapHistogram second = histogram.histogram(2);
+        assertEquals(first.timestampMillis, second.previousTimestampMillis);
+        assertEquals(4, second.classes);
+        assertEquals(1_120_016 - 920_320, second.deltaBytes);
+        assertEquals(2, second.growth.size());
+        assertEquals("[B", second.growth.get(0).className);
+        assertEquals(160_000, second.growth.get(0).deltaBytes);
+        assertEquals("com.example.Cache$Entry", second.growth.get(1).className);
+        assertEquals(63_680, second.growth.get(1).deltaBytes);
+        assertEquals(1_990, second.growth.get(1).deltaInstances);
+        MetricsSnapshot.ClassHistogramEntry strings = second.top.get(1);
+        assertEquals("java.lang.String", strings.className);
+        assertEquals(-24_000, strings.deltaBytes, "shrinking classes keep their negative delta");
+    }
+
+    @Test
+    void reusesTheLastRunWithinTheMinimumInterval() {
+        AtomicInteger runs = new AtomicInteger();
+        ClassHistogram histogram = new ClassHistogram(() -> {
+            runs.incrementAndGet();
+            return FIRST;
+        }, 60_000);
+
+        histogram.histogram(5);
+        histogram.histogram(1);
+        assertEquals(1, runs.get());
+        assertEquals(1, histogram.histogram(1).top.size(), "top is applied to the cached run");
+    }
+
+    @Test
+    void concurrentRequestsShareOneRun() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ClassHistogram histogram = new ClassHistogram(() -> {
+            runs.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+            return FIRST;
+        }, 60_000);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<MetricsSnapshot.HeapHistogram>> results = new ArrayList<>();
+            results.add(pool.submit(() -> histogram.histogram(3)));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(pool.submit(() -> histogram.histogram(3)));
+            }
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<MetricsSnapshot.HeapHistogram> f : results) {
+                assertEquals(3, f.get(5, TimeUnit.SECONDS).classes);
+            }
+            assertEquals(1, runs.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void zeroOrNegativeTopReturnsTotalsWithoutClasses() {
+        Deque<String> outputs = new ArrayDeque<>(List.of(FIRST, SECOND));
+        ClassHistogram histogram = new ClassHistogram(outputs::poll, 0);
+
+        MetricsSnapshot.HeapHistogram first = histogram.histogram(0);
+        assertTrue(first.top.isEmpty());
+        assertEquals(920_320, first.totalBytes);
+        MetricsSnapshot.HeapHistogram second = histogram.histogram(-5);
+        assertTrue(second.top.isEmpty());
+        assertTrue(second.growth.isEmpty());
+        assertEquals(4, second.classes);
+    }
+
+    @Test
+    void unavailableCommandYieldsNull() {
+        assertNull(new ClassHistogram(() -> null, 0).histogram(10));
+    }
+
+    @Test
+    void liveHistogramFromDiagnosticCommand() {
+        MetricsSnapshot.HeapHistogram h = new ClassHistogram(0).histogram(10);
+
+        assertNotNull(h);
+        assertTrue(h.classes > 0);
+        assertTrue(h.totalBytes > 0);
+        assertEquals(10, h.top.size());
+        assertTrue(h.top.get(0).bytes >= h.top.get(9).bytes);
+        assertTrue(h.growth.isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.itzamic.eidolon.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EarlyGcNotificationsTest {
+
+    private static final String SOURCE = "early-gc-test";
+
+    private static Notification notification(long seq) {
+        return new Notification(GcNotificationParser.NOTIFICATION_TYPE, SOURCE, seq);
+    }
+
+    /** Records only this test's notifications; real collections may be delivered too. */
+    private static NotificationListener recorder(List<Long> seqs) {
+        return (n, handback) -> {
+            if (SOURCE.equals(n.getSource())) {
+                seqs.add(n.getSequenceNumber());
+            }
+        };
+    }
+
+    @Test
+    void attachReplaysBufferedNotificationsThenForwards() {
+        try {
+            EarlyGcNotifications.install(16);
+            EarlyGcNotifications.onNotification(notification(1), null);
+            EarlyGcNotifications.onNotification(notification(2), null);
+
+            List<Long> seqs = new ArrayList<>();
+            assertTrue(EarlyGcNotifications.attach(recorder(seqs)));
+            assertEquals(List.of(1L, 2L), seqs);
+
+            EarlyGcNotifications.onNotification(notification(3), null);
+            assertEquals(List.of(1L, 2L, 3L), seqs);
+            assertEquals(0, EarlyGcNotifications.buffered());
+        } finally {
+            EarlyGcNotifications.uninstall();
+        }
+    }
+
+    @Test
+    void dropsOldestBeyondCapacity() {
+        try {
+            EarlyGcNotifications.install(2);
+            for (long seq = 1; seq <= 4; seq++) {
+                EarlyGcNotifications.onNotification(notification(seq), null);
+            }
+            List<Long> seqs = new ArrayList<>();
+            EarlyGcNotifications.attach(recorder(seqs));
+            assertEquals(List.of(3L, 4L), seqs);
+        } finally {
+            EarlyGcNotifications.uninstall();
+        }
+    }
+
+    @Test
+    void ignoresOtherNotificationTypes() {
+        try {
+            EarlyGcNotifications.install(16);
+            EarlyGcNotifications.onNotification(new Notification("jmx.attribute.change", SOURCE, 1), null);
+            List<Long> seqs = new ArrayList<>();
+            EarlyGcNotifications.attach(recorder(seqs));
+            assertTrue(seqs.isEmpty());
+        } finally {
+            EarlyGcNotifications.uninstall();
+        }
+    }
+
+    @Test
+    void attachFailsWhenNotInstalledOrAlreadyTaken() {
+        try {
+            List<Long> seqs = new ArrayList<>();
+            NotificationListener first = recorder(seqs);
+            assertFalse(EarlyGcNotifications.attach(first));
+
+            EarlyGcNotifications.install(16);
+            assertTrue(EarlyGcNotifications.attach(first));
+            assertFalse(EarlyGcNotifications.attach(recorder(new ArrayList<>())));
+
+            assertFalse(EarlyGcNotifications.detach(recorder(new ArrayList<>())));
+            assertTrue(EarlyGcNotifications.detach(first));
+            // Once detached nothing is buffered or forwarded
+            EarlyGcNotifications.onNotification(notification(1), null);
+            assertTrue(seqs.isEmpty());
+        } finally {
+            EarlyGcNotifications.uninstall();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot.GcEvent;
+import io.github.itzamic.eidolon.model.MetricsSnapshot.GcEventPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GcEventRingTest {
+
+    private static void append(GcEventRing ring, int n) {
+        for (int i = 0; i < n; i++) {
+            ring.append("G1 Young Generation", "end of minor GC", "G1 Evacuation Pause", i, 1);
+        }
+    }
+
+    @Test
+    void returnsOnlyEventsAfterCursor() {
+        GcEventRing ring = new GcEventRing(8);
+        append(ring, 5);
+
+        GcEventPage page = ring.since(2, 100);
+        assertEquals(List.of(3L, 4L, 5L), page.events.stream().map(e -> e.seq).toList());
+        assertEquals(5, page.nextSeq);
+        assertEquals(0, page.missed);
+
+        GcEventPage empty = ring.since(page.nextSeq, 100);
+        assertTrue(empty.events.isEmpty());
+        assertEquals(5, empty.nextSeq);
+    }
+
+    @Test
+    void limitCapsPageAndCursorAdvancesByReturnedEvents() {
+        GcEventRing ring = new GcEventRing(8);
+        append(ring, 6);
+
+        GcEventPage first = ring.since(0, 4);
+        assertEquals(4, first.events.size());
+        assertEquals(4, first.nextSeq);
+
+        GcEventPage second = ring.since(first.nextSeq, 4);
+        assertEquals(List.of(5L, 6L), second.events.stream().map(e -> e.seq).toList());
+    }
+
+    @Test
+    void overwrittenEventsAreReportedAsMissed() {
+        GcEventRing ring = new GcEventRing(4);
+        append(ring, 10);
+
+        GcEventPage page = ring.since(2, 100);
+        assertEquals(List.of(7L, 8L, 9L, 10L), page.events.stream().map(e -> e.seq).toList());
+        assertEquals(4, page.missed);
+        assertEquals(6, page.overwritten);
+        assertEquals(4, ring.recent().size());
+    }
+
+    @Test
+    void readersNeverSeeTornEventsWhileWriterLaps() throws InterruptedException {
+        GcEventRing ring = new GcEventRing(16);
+        int total = 200_000;
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= total; i++) {
+                // Every field derives from the seq so a torn read is detectable.
+                ring.append("gc-" + i, "action-" + i, "cause-" + i, i, i * 2L);
+            }
+        });
+        writer.start();
+        long cursor = 0;
+        while (writer.isAlive() || cursor < ring.latestSeq()) {
+            GcEventPage page = ring.since(cursor, 16);
+            for (GcEvent e : page.events) {
+                assertEquals("gc-" + e.seq, e.gcName);
+                assertEquals("action-" + e.seq, e.gcAction);
+                assertEquals("cause-" + e.seq, e.gcCause);
+                assertEquals(e.seq, e.startTimeMillis);
+                assertEquals(e.seq * 2, e.durationMillis);
+                assertTrue(e.seq > cursor);
+            }
+            cursor = page.nextSeq;
+        }
+        writer.join();
+        assertEquals(total, ring.latestSeq());
+        assertEquals(total - 16, ring.overwrittenCount());
+    }
+
+    @Test
+    void poolUsageIsCopiedPerSlot() {
+        GcEventRing ring = new GcEventRing(2, 3);
+        long[] before = {10, 20, 30};
+        long[] after = {1, 25, 30};
+        ring.append("young", "minor", "x", 0, 1, before, after, 9, 5, 4);
+        before[0] = 99; // caller reuses its scratch arrays
+
+        GcEvent e = ring.since(0, 10).events.get(0);
+        assertArrayEquals(new long[] {10, 20, 30}, e.poolUsedBefore);
+        assertArrayEquals(new long[] {1, 25, 30}, e.poolUsedAfter);
+        assertEquals(9, e.allocatedBytes);
+        assertEquals(5, e.promotedBytes);
+        assertEquals(4, e.reclaimedBytes);
+
+        ring.append("young", "minor", "x", 0, 1);
+        assertArrayEquals(new long[] {-1, -1, -1}, ring.since(1, 10).events.get(0).poolUsedBefore);
+    }
+
+    @Test
+    void cursorAheadOfRingRestartsFromOldest() {
+        GcEventRing ring = new GcEventRing(4);
+        append(ring, 2);
+
+        GcEventPage page = ring.since(99, 100);
+        assertEquals(2, page.events.size());
+        assertEquals(2, page.nextSeq);
+    }
+
+    @Test
+    void recentIsSharedUntilANewEventArrives() {
+        GcEventRing ring = new GcEventRing(4);
+        append(ring, 2);
+
+        List<GcEvent> a = ring.recent();
+        assertSame(a, ring.recent());
+
+        append(ring, 1);
+        List<GcEvent> b = ring.recent();
+        assertNotSame(a, b);
+        assertEquals(3, b.size());
+    }
+}
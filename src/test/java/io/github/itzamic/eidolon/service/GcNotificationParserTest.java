@@ -0,0 +1,62 @@
+package io.github.itzamic.eidolon.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.Notification;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GcNotificationParserTest {
+
+    private static CompositeData gcNotificationPayload(String name) throws OpenDataException {
+        String[] infoKeys = {"startTime", "duration"};
+        CompositeType infoType = new CompositeType("GcInfo", "GcInfo", infoKeys, infoKeys,
+                new OpenType<?>[] {SimpleType.LONG, SimpleType.LONG});
+        CompositeData info = new CompositeDataSupport(infoType, infoKeys, new Object[] {100L, 7L});
+
+        String[] keys = {"gcName", "gcAction", "gcCause", "gcInfo"};
+        CompositeType type = new CompositeType("GarbageCollectionNotificationInfo", "gc", keys, keys,
+                new OpenType<?>[] {SimpleType.STRING, SimpleType.STRING, SimpleType.STRING, infoType});
+        return new CompositeDataSupport(type, keys,
+                new Object[] {name, "end of minor GC", "G1 Evacuation Pause", info});
+    }
+
+    @Test
+    void readsFieldsFromCompositeData() throws Exception {
+        Notification n = new Notification(GcNotificationParser.NOTIFICATION_TYPE, "gc", 1);
+        n.setUserData(gcNotificationPayload("G1 Young Generation"));
+
+        GcNotificationParser.Parsed parsed = GcNotificationParser.parse(n);
+        assertNotNull(parsed);
+        assertEquals("G1 Young Generation", parsed.gcName());
+        assertEquals("end of minor GC", parsed.gcAction());
+        assertEquals("G1 Evacuation Pause", parsed.gcCause());
+        assertEquals(100L, parsed.startTime());
+        assertEquals(7L, parsed.duration());
+        assertNotNull(parsed.gcInfo());
+    }
+
+    @Test
+    void ignoresOtherNotificationsAndMalformedPayloads() throws Exception {
+        Notification other = new Notification("jmx.attribute.change", "gc", 1);
+        other.setUserData(gcNotificationPayload("G1 Young Generation"));
+        assertNull(GcNotificationParser.parse(other));
+
+        Notification noPayload = new Notification(GcNotificationParser.NOTIFICATION_TYPE, "gc", 2);
+        assertNull(GcNotificationParser.parse(noPayload));
+
+        String[] keys = {"unrelated"};
+        CompositeType type = new CompositeType("X", "x", keys, keys, new OpenType<?>[] {SimpleType.STRING});
+        Notification wrongShape = new Notification(GcNotificationParser.NOTIFICATION_TYPE, "gc", 3);
+        wrongShape.setUserData(new CompositeDataSupport(type, keys, new Object[] {"x"}));
+        assertNull(GcNotificationParser.parse(wrongShape));
+    }
+}
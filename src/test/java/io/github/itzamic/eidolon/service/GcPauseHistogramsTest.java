@@ -0,0 +1,89 @@
+package io.github.itzamic.eidolon.service;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+public class GcPauseHistogramsTest {
+
+    @Test
+    void pausesLandInTheFirstBucketWhoseBoundCoversThem() {
+        GcPauseHistograms histograms = new GcPauseHistograms(60_000L);
+        histograms.record("G1 Young Generation", "end of minor GC", 1);
+        histograms.record("G1 Young Generation", "end of minor GC", 3);
+        histograms.record("G1 Young Generation", "end of minor GC", 60_000);
+
+        GcPauseHistograms.Histogram h = histograms.histograms().iterator().next();
+        assertEquals(1, h.bucket(0), "1 ms is <= the 1 ms bound");
+        assertEquals(1, h.bucket(2), "3 ms falls in the 5 ms bucket");
+        assertEquals(1, h.bucket(GcPauseHistograms.BOUNDS_MILLIS.length), "above the last bound overflows");
+        assertEquals(3, h.count());
+        assertEquals(60_004, h.sumMillis());
+    }
+
+    @Test
+    void collectorsAndActionsAreKeptApartInFirstSeenOrder() {
+        GcPauseHistograms histograms = new GcPauseHistograms(60_000L);
+        histograms.record("G1 Young Generation", "end of minor GC", 5);
+        histograms.record("G1 Old Generation", "end of major GC", 50);
+        histograms.record("G1 Young Generation", "end of minor GC", 5);
+        histograms.record(null, "end of minor GC", 5);
+
+        Iterator<GcPauseHistograms.Histogram> it = histograms.histograms().iterator();
+        GcPauseHistograms.Histogram young = it.next();
+        GcPauseHistograms.Histogram old = it.next();
+        assertFalse(it.hasNext(), "events without a collector name are ignored");
+        assertEquals("G1 Young Generation", young.gcName());
+        assertEquals(2, young.count());
+        assertEquals("end of major GC", old.gcAction());
+        assertEquals(50, old.sumMillis());
+    }
+
+    @Test
+    void intervalViewCoversOnlyTheLastCompletedInterval() {
+        GcPauseHistograms histograms = new GcPauseHistograms(1_000L);
+        histograms.record("G1 Young Generation", "end of minor GC", 100);
+        List<MetricsSnapshot.GcPauseStats> first = histograms.stats();
+        assertNull(first.get(0).interval, "no interval has completed yet");
+        assertEquals(100, first.get(0).cumulative.maxMillis);
+        assertSame(first, histograms.stats(), "unchanged stats are reused");
+
+        histograms.rotate(System.currentTimeMillis() + 1_000);
+        histograms.record("G1 Young Generation", "end of minor GC", 3);
+        histograms.rotate(System.currentTimeMillis() + 2_000);
+
+        MetricsSnapshot.GcPauseStats stats = histograms.stats().get(0);
+        assertEquals(2, stats.cumulative.count);
+        assertEquals(1, stats.interval.count, "only the pause recorded after the first rotation");
+        assertEquals(3, stats.interval.p99Millis);
+        assertEquals(3, stats.interval.maxMillis);
+        assertTrue(stats.interval.toMillis > stats.interval.fromMillis);
+    }
+
+    @Test
+    void intervalMaxIsTheExactLargestPauseOfTheInterval() {
+        GcPauseHistograms histograms = new GcPauseHistograms(1_000L);
+        histograms.record("G1 Young Generation", "end of minor GC", 100);
+        histograms.rotate(System.currentTimeMillis() + 1_000);
+        // 36 shares a log bucket with 37, so the bucket bound would overstate it.
+        histograms.record("G1 Young Generation", "end of minor GC", 36);
+        histograms.rotate(System.currentTimeMillis() + 2_000);
+
+        MetricsSnapshot.GcPauseStats stats = histograms.stats().get(0);
+        assertEquals(100, stats.cumulative.maxMillis);
+        assertEquals(36, stats.interval.maxMillis);
+        assertEquals(36, stats.interval.p99Millis);
+
+        histograms.rotate(System.currentTimeMillis() + 3_000);
+        assertEquals(0, histograms.stats().get(0).interval.count, "an interval without pauses");
+        assertEquals(0, histograms.stats().get(0).interval.maxMillis);
+    }
+}
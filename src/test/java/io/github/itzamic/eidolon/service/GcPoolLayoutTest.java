@@ -0,0 +1,74 @@
+package io.github.itzamic.eidolon.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GcPoolLayoutTest {
+
+    private static MemoryPoolMXBean pool(String name, MemoryType type) {
+        MemoryPoolMXBean p = mock(MemoryPoolMXBean.class);
+        when(p.getName()).thenReturn(name);
+        when(p.getType()).thenReturn(type);
+        return p;
+    }
+
+    /** Same open-type shape as GcInfo.memoryUsageBeforeGc/AfterGc. */
+    private static TabularDataSupport usageTable(Map<String, Long> used) throws OpenDataException {
+        String[] usageKeys = {"used"};
+        CompositeType usageType = new CompositeType("MemoryUsage", "usage", usageKeys, usageKeys,
+                new OpenType<?>[] {SimpleType.LONG});
+        String[] rowKeys = {"key", "value"};
+        CompositeType rowType = new CompositeType("row", "row", rowKeys, rowKeys,
+                new OpenType<?>[] {SimpleType.STRING, usageType});
+        TabularDataSupport table = new TabularDataSupport(new TabularType("usage", "usage", rowType, new String[] {"key"}));
+        for (Map.Entry<String, Long> e : used.entrySet()) {
+            CompositeDataSupport usage = new CompositeDataSupport(usageType, usageKeys, new Object[] {e.getValue()});
+            table.put(new CompositeDataSupport(rowType, rowKeys, new Object[] {e.getKey(), usage}));
+        }
+        return table;
+    }
+
+    @Test
+    void readsUsedBytesByOrdinalAndSumsGenerations() throws Exception {
+        GcPoolLayout layout = new GcPoolLayout(List.of(
+                pool("G1 Eden Space", MemoryType.HEAP),
+                pool("G1 Survivor Space", MemoryType.HEAP),
+                pool("G1 Old Gen", MemoryType.HEAP),
+                pool("Metaspace", MemoryType.NON_HEAP)));
+        assertEquals(List.of("G1 Eden Space", "G1 Survivor Space", "G1 Old Gen", "Metaspace"), layout.names());
+
+        long[] used = new long[layout.size()];
+        layout.readUsed(usageTable(Map.of(
+                "G1 Eden Space", 100L, "G1 Survivor Space", 10L, "G1 Old Gen", 1000L, "Unknown Pool", 5L)), used);
+
+        assertArrayEquals(new long[] {100, 10, 1000, -1}, used);
+        assertEquals(110, layout.youngUsed(used));
+        assertEquals(1000, layout.oldUsed(used));
+        assertEquals(1110, layout.heapUsed(used));
+    }
+
+    @Test
+    void missingTableReadsAsUnreported() {
+        GcPoolLayout layout = new GcPoolLayout(List.of(pool("Eden Space", MemoryType.HEAP)));
+        long[] used = {42};
+        layout.readUsed(null, used);
+        assertArrayEquals(new long[] {-1}, used);
+        assertEquals(0, layout.youngUsed(used));
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.itzamic.eidolon.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+class HotThreadSamplerTest {
+
+    @Test
+    void deltasMergeSortedIdsAndChargeNewThreadsFully() {
+        long[] prevIds = {1, 3, 5};
+        long[] prevValues = {100, 300, 500};
+        long[] ids = {1, 2, 5, 7};
+        long[] values = {150, 20, 400, -1};
+
+        // 1: +50, 2: new, 5: counter went back (reused id), 7: unavailable
+        assertArrayEquals(new long[] {50, 20, 0, 0}, HotThreadSampler.deltas(ids, values, prevIds, prevValues));
+    }
+
+    @Test
+    void firstSampleHasNoWindow() {
+        HotThreadSampler sampler = new HotThreadSampler(ManagementFactory.getThreadMXBean(), 5);
+        MetricsSnapshot.HotThreads first = sampler.sample();
+        assertEquals(0, first.intervalMillis);
+        assertTrue(first.byCpu.isEmpty());
+        assertTrue(first.byAllocation.isEmpty());
+    }
+
+    @Test
+    void busyThreadRanksFirst() throws Exception {
+        HotThreadSampler sampler = new HotThreadSampler(ManagementFactory.getThreadMXBean(), 3);
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread busy = new Thread(() -> {
+            started.countDown();
+            long sink = 0;
+            while (!stop.get()) {
+                byte[] garbage = new byte[1024];
+                sink += garbage.length;
+            }
+            if (sink == 42) {
+                System.out.print("");
+            }
+        }, "hot-thread-test-busy");
+        busy.setDaemon(true);
+        busy.start();
+        try {
+            started.await(5, TimeUnit.SECONDS);
+            sampler.sample();
+            Thread.sleep(300);
+            MetricsSnapshot.HotThreads hot = sampler.sample();
+
+            assertTrue(hot.intervalMillis >= 250, "window should cover the sleep");
+            if (hot.cpuTimeSupported) {
+                MetricsSnapshot.HotThread top = hot.byCpu.get(0);
+                assertEquals("hot-thread-test-busy", top.threadName);
+                assertEquals(busy.getId(), top.threadId);
+                assertTrue(top.cpuUsage > 0.2, "a spinning thread should use a good part of a core");
+            }
+            if (hot.allocationSupported) {
+                assertEquals("hot-thread-test-busy", hot.byAllocation.get(0).threadName);
+                assertTrue(hot.byAllocation.get(0).allocationRateBytesPerSec > 0);
+            }
+            assertTrue(hot.byCpu.size() <= 3);
+        } finally {
+            stop.set(true);
+            busy.join(5000);
+        }
+    }
+}
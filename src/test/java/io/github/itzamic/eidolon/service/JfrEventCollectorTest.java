@@ -0,0 +1,75 @@
+package io.github.itzamic.eidolon.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+class JfrEventCollectorTest {
+
+    @Test
+    void summarizesCountTotalAndLongestEvent() {
+        JfrEventCollector jfr = new JfrEventCollector(0, 20, 60_000);
+        jfr.record(JfrEventCollector.MONITOR_ENTER, 30_000_000L, "worker-1", "com.example.Cache");
+        jfr.record(JfrEventCollector.MONITOR_ENTER, 90_000_000L, "worker-2", "com.example.Pool");
+        jfr.record(JfrEventCollector.MONITOR_ENTER, 40_000_000L, "worker-3", "com.example.Cache");
+
+        List<MetricsSnapshot.JfrEventStats> stats = jfr.stats();
+        assertEquals(JfrEventCollector.EVENTS.length, stats.size(), "one summary per event type, recorded or not");
+        MetricsSnapshot.JfrEventStats monitor = stats.get(JfrEventCollector.MONITOR_ENTER);
+        assertEquals("monitor-enter", monitor.event);
+        assertEquals(20, monitor.thresholdMillis);
+        assertEquals(3, monitor.cumulative.count);
+        assertEquals(160_000_000L, monitor.cumulative.totalNanos);
+        assertEquals(90_000_000L, monitor.cumulative.maxNanos);
+        assertEquals("worker-2", monitor.cumulative.maxThread);
+        assertEquals("com.example.Pool", monitor.cumulative.maxDetail);
+        assertNull(monitor.interval, "no interval has completed yet");
+        assertEquals(0, stats.get(JfrEventCollector.SAFEPOINT).cumulative.count);
+        assertSame(stats, jfr.stats(), "the summaries are reused until something is recorded");
+    }
+
+    @Test
+    void rotateClosesTheInterval() {
+        JfrEventCollector jfr = new JfrEventCollector(0, 20, 60_000);
+        jfr.record(JfrEventCollector.SAFEPOINT, 2_000_000L, null, null);
+        jfr.rotate(System.currentTimeMillis() + 60_000);
+        jfr.record(JfrEventCollector.SAFEPOINT, 5_000_000L, null, null);
+
+        MetricsSnapshot.JfrEventStats safepoint = jfr.stats().get(JfrEventCollector.SAFEPOINT);
+        assertEquals(2, safepoint.cumulative.count);
+        assertNotNull(safepoint.interval);
+        assertEquals(1, safepoint.interval.count, "events after the rotation belong to the next interval");
+        assertEquals(2_000_000L, safepoint.interval.maxNanos);
+    }
+
+    @Test
+    void streamRecordsThreadParks() throws Exception {
+        JfrEventCollector jfr = new JfrEventCollector(0, 10, 60_000);
+        JfrRecording recording = new JfrRecording(List.of(jfr));
+        if (!recording.start()) {
+            return; // JFR not available in this JVM
+        }
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+            while (jfr.stats().get(JfrEventCollector.THREAD_PARK).cumulative.count == 0 && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            }
+            MetricsSnapshot.JfrEventWindow parks = jfr.stats().get(JfrEventCollector.THREAD_PARK).cumulative;
+            assertTrue(parks.count > 0, "parks above the threshold should be delivered by the stream");
+            assertTrue(parks.maxNanos >= TimeUnit.MILLISECONDS.toNanos(10));
+        } finally {
+            recording.close();
+        }
+        assertFalse(recording.running());
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.itzamic.eidolon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+public class LogHistogramTest {
+
+    @Test
+    void bucketsAreContiguousAndWithinOneSixteenth() {
+        assertEquals(LogHistogram.index(LogHistogram.HIGHEST_TRACKABLE) + 1, LogHistogram.BUCKETS);
+        for (long v = 0; v <= 100_000; v++) {
+            int i = LogHistogram.index(v);
+            long high = LogHistogram.highestEquivalent(i);
+            assertTrue(high >= v, "bucket upper bound must cover the value " + v);
+            assertTrue(high - v <= v / 16, "bucket of " + v + " is too wide");
+            if (i > 0) {
+                assertTrue(LogHistogram.highestEquivalent(i - 1) < v, "previous bucket must end below " + v);
+            }
+        }
+        assertEquals(LogHistogram.HIGHEST_TRACKABLE, LogHistogram.highestEquivalent(LogHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    void percentilesFollowRecordedDistribution() {
+        LogHistogram h = new LogHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i <= 995 ? 5 : 200); // 0.5% slow pauses
+        }
+        h.record(10_000_000_000L); // beyond the trackable range: clamped, but max stays exact
+
+        long[] counts = h.copyCounts(new long[LogHistogram.BUCKETS]);
+        MetricsSnapshot.PausePercentiles p = LogHistogram.percentiles(counts, h.max(), 10, 20);
+        assertEquals(1001, p.count);
+        assertEquals(5, p.p50Millis);
+        assertEquals(5, p.p90Millis);
+        assertEquals(5, p.p99Millis);
+        assertTrue(p.p999Millis >= 200 && p.p999Millis <= 200 + 200 / 16, "p99.9 should land in the 200 ms bucket");
+        assertEquals(LogHistogram.HIGHEST_TRACKABLE, p.maxMillis, "max is the last bucket's bound, capped at the exact max");
+        assertEquals(10, p.fromMillis);
+        assertEquals(20, p.toMillis);
+    }
+
+    @Test
+    void emptyHistogramReportsZeros() {
+        MetricsSnapshot.PausePercentiles p = LogHistogram.percentiles(new long[LogHistogram.BUCKETS], 0, 0, 0);
+        assertEquals(0, p.count);
+        assertEquals(0, p.maxMillis);
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.itzamic.eidolon.service;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class MetricsSectionTest {
+
+    @Test
+    void parsesSelectorsCaseInsensitivelyWithAliases() {
+        assertEquals(EnumSet.of(MetricsSection.HEAP, MetricsSection.GC), MetricsSection.parse("heap,gc"));
+        assertEquals(EnumSet.of(MetricsSection.THREADS, MetricsSection.STRING_TABLE),
+                MetricsSection.parse(" Threads , stringTable "));
+        assertEquals(EnumSet.of(MetricsSection.STRING_TABLE), MetricsSection.parse("string-table,bogus"));
+        assertEquals(EnumSet.of(MetricsSection.HOT_THREADS), MetricsSection.parse("hot-threads"));
+        assertEquals(EnumSet.of(MetricsSection.HOT_THREADS), MetricsSection.parse("hotThreads"));
+        assertEquals(EnumSet.of(MetricsSection.JFR), MetricsSection.parse("JFR"));
+    }
+
+    @Test
+    void emptyOrUnknownSelectorMeansAll() {
+        assertEquals(MetricsSection.ALL, MetricsSection.parse(null));
+        assertEquals(MetricsSection.ALL, MetricsSection.parse(" "));
+        assertEquals(MetricsSection.ALL, MetricsSection.parse("nope"));
+    }
+}
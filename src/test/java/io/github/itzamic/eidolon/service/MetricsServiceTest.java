@@ -1,6 +1,14 @@
 package io.github.itzamic.eidolon.service;
 
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
@@ -64,4 +72,158 @@ public class MetricsServiceTest {
         svc.init();
         svc.shutdown();
     }
+
+    @Test
+    void snapshotsWithinMaxAgeAreShared() {
+        EidolonConfig cached = EidolonConfig.builder()
+                .snapshotMaxAgeMillis(60_000L)
+                .build();
+        MetricsService svc = new MetricsService(cached);
+        assertSame(svc.snapshot().threads, svc.snapshot().threads, "sections within max age should be shared");
+
+        EidolonConfig uncached = EidolonConfig.builder()
+                .snapshotMaxAgeMillis(0L)
+                .build();
+        MetricsService fresh = new MetricsService(uncached);
+        assertNotSame(fresh.snapshot().threads, fresh.snapshot().threads, "max age 0 should collect on every call");
+    }
+
+    @Test
+    void collectorPublishesSnapshotThatReadersShare() throws InterruptedException {
+        // maxAge 0: on-demand reads would return a new Threads every call, published ones do not.
+        MetricsService svc = new MetricsService(EidolonConfig.builder()
+                .collectIntervalMillis(60_000L)
+                .snapshotMaxAgeMillis(0L)
+                .build());
+        svc.init();
+        try {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (svc.snapshot().threads != svc.snapshot().threads && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            MetricsSnapshot first = svc.snapshot();
+            MetricsSnapshot second = svc.snapshot();
+            assertSame(first.threads, second.threads, "readers should share the published snapshot");
+            assertEquals(first.timestampMillis, second.timestampMillis, "timestamp is the collection time");
+            assertSame(second.threads, svc.threads());
+        } finally {
+            svc.shutdown();
+        }
+    }
+
+    @Test
+    void collectPublishesEveryEnabledSection() {
+        MetricsService svc = new MetricsService(EidolonConfig.builder().snapshotMaxAgeMillis(0L).build());
+        svc.collect();
+        MetricsSnapshot snap = svc.snapshot();
+        assertNotNull(snap.heap.pools);
+        assertSame(snap.threads, svc.snapshot().threads, "published sections are not recollected per call");
+        assertNotNull(snap.recentGcEvents, "gc events are read live");
+        assertSame(snap.hotThreads, svc.snapshot().hotThreads, "hot threads cover the collection interval");
+        assertNotNull(snap.hotThreads);
+    }
+
+    @Test
+    void hotThreadsCanBeDisabled() {
+        MetricsService svc = new MetricsService(EidolonConfig.builder().hotThreadsLimit(0).build());
+        assertNull(svc.hotThreads());
+        assertNull(svc.snapshot(EnumSet.of(MetricsSection.HOT_THREADS)).hotThreads);
+    }
+
+    @Test
+    void jfrEventsAreSummarizedOnlyWhenEnabled() {
+        MetricsService off = new MetricsService(EidolonConfig.builder().collectIntervalMillis(0).build());
+        off.init();
+        try {
+            assertNull(off.jfrEvents());
+            assertNull(off.snapshot().jfrEvents);
+        } finally {
+            off.shutdown();
+        }
+
+        MetricsService on = new MetricsService(EidolonConfig.builder().collectIntervalMillis(0).jfrEnabled(true).build());
+        on.init();
+        try {
+            List<MetricsSnapshot.JfrEventStats> stats = on.jfrEvents();
+            if (stats == null) {
+                return; // JFR not available in this JVM
+            }
+            assertEquals(4, stats.size(), "safepoint, monitor-enter, thread-park and gc-phase-pause");
+            assertNotNull(on.snapshot(EnumSet.of(MetricsSection.JFR)).jfrEvents);
+            assertNull(on.snapshot(EnumSet.of(MetricsSection.HEAP)).jfrEvents);
+        } finally {
+            on.shutdown();
+        }
+        assertNull(on.jfrEvents(), "the stream is closed on shutdown");
+    }
+
+    @Test
+    void allocationsAreProfiledOnlyWhenEnabled() {
+        MetricsService off = new MetricsService(EidolonConfig.builder().collectIntervalMillis(0).build());
+        assertNull(off.allocations(10));
+
+        MetricsService on = new MetricsService(EidolonConfig.builder().collectIntervalMillis(0)
+                .allocationProfilingEnabled(true).allocationMemoryBudgetBytes(64 * 1024).build());
+        on.init();
+        try {
+            MetricsSnapshot.AllocationProfile profile = on.allocations(10);
+            if (profile == null) {
+                return; // JFR not available in this JVM
+            }
+            assertEquals(100, profile.samplesPerSecond);
+            assertEquals(AllocationProfiler.capacity(64 * 1024, 8), profile.capacity);
+            assertNotNull(profile.current);
+            assertNull(on.jfrEvents(), "JFR event summaries stay off on the shared stream");
+        } finally {
+            on.shutdown();
+        }
+        assertNull(on.allocations(10), "the stream is closed on shutdown");
+    }
+
+    @Test
+    void sectionSelectionSkipsUnrequestedSections() {
+        MetricsService svc = new MetricsService(EidolonConfig.builder().build());
+
+        MetricsSnapshot heapOnly = svc.snapshot(EnumSet.of(MetricsSection.HEAP));
+        assertNotNull(heapOnly.heap, "heap should be present");
+        assertNull(heapOnly.heap.pools, "pools should not be collected unless requested");
+        assertNull(heapOnly.threads, "threads should not be collected for a heap-only snapshot");
+        assertNull(heapOnly.classes);
+        assertNull(heapOnly.recentGcEvents);
+        assertNull(heapOnly.hotThreads, "threads are not sampled for a heap-only snapshot");
+
+        MetricsSnapshot poolsAndGc = svc.snapshot(EnumSet.of(MetricsSection.POOLS, MetricsSection.GC));
+        assertNotNull(poolsAndGc.heap, "pools imply the heap summary");
+        assertNotNull(poolsAndGc.heap.pools);
+        assertNotNull(poolsAndGc.recentGcEvents);
+        assertNull(poolsAndGc.threads);
+
+        assertNotNull(svc.heap().pools, "heap endpoint view includes pools");
+        assertNull(svc.stringTable(), "string table is null when collection is disabled");
+    }
+
+    @Test
+    void gcRatesDivideGrowthAfterFirstCollectionByWindow() {
+        List<MetricsSnapshot.GcEvent> events = List.of(
+                new MetricsSnapshot.GcEvent(1, "young", "minor", "x", 1_000, 5, null, null, 999, 999, 10),
+                new MetricsSnapshot.GcEvent(2, "young", "minor", "x", 2_000, 5, null, null, 4_000, 100, 20),
+                new MetricsSnapshot.GcEvent(3, "young", "minor", "x", 3_000, 5, null, null, 6_000, 300, 30));
+
+        MetricsSnapshot.GcRates rates = MetricsService.gcRates(List.of("Eden"), events);
+        assertEquals(3, rates.collections);
+        assertEquals(2_000, rates.windowMillis);
+        assertEquals(5_000.0, rates.allocationRateBytesPerSec, 0.001);
+        assertEquals(200.0, rates.promotionRateBytesPerSec, 0.001);
+        assertEquals(60, rates.reclaimedBytes);
+
+        MetricsSnapshot.GcRates empty = MetricsService.gcRates(List.of(), List.of());
+        assertEquals(0, empty.collections);
+        assertEquals(0.0, empty.allocationRateBytesPerSec);
+    }
+
+    @Test
+    void gcRatesExposePoolOrder() {
+        MetricsService svc = new MetricsService(EidolonConfig.builder().build());
+        assertFalse(svc.gcRates().poolNames.isEmpty(), "pool names should list the JVM's memory pools");
+    }
 }
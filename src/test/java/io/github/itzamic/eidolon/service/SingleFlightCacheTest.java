@@ -0,0 +1,93 @@
+package io.github.itzamic.eidolon.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightCacheTest {
+
+    @Test
+    void reusesValueWithinMaxAgeAndReloadsAfter() {
+        AtomicLong clock = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        SingleFlightCache<Integer> cache = new SingleFlightCache<>(loads::incrementAndGet, 100, clock::get);
+
+        assertEquals(1, cache.get());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(99));
+        assertEquals(1, cache.get(), "value younger than max age should be reused");
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(2, cache.get(), "value at max age should be reloaded");
+
+        cache.invalidate();
+        assertEquals(3, cache.get(), "invalidate should force a reload");
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        SingleFlightCache<Object> cache = new SingleFlightCache<>(() -> {
+            loads.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Object();
+        }, 0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            results.add(pool.submit(cache::get));
+            entered.await();
+            CountDownLatch followers = new CountDownLatch(7);
+            for (int i = 0; i < 7; i++) {
+                results.add(pool.submit(() -> {
+                    followers.countDown();
+                    return cache.get();
+                }));
+            }
+            followers.await();
+            // Give the followers time to park on the in-flight load.
+            Thread.sleep(50);
+            release.countDown();
+
+            Object first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> f : results) {
+                assertSame(first, f.get(5, TimeUnit.SECONDS), "all callers should share the in-flight result");
+            }
+            assertEquals(1, loads.get(), "loader should run once for concurrent callers");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void loaderFailureIsPropagatedAndNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        SingleFlightCache<String> cache = new SingleFlightCache<>(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("boom");
+            }
+            return "ok";
+        }, 1000);
+
+        assertThrows(IllegalStateException.class, cache::get);
+        assertEquals("ok", cache.get());
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.itzamic.eidolon.service;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class SpaceSavingTest {
+
+    @Test
+    void exactWhileUnderCapacity() {
+        SpaceSaving<String> table = new SpaceSaving<>(4);
+        table.add("a", 10);
+        table.add("b", 30);
+        table.add("a", 5);
+
+        List<SpaceSaving.Counter<String>> top = table.top(10);
+        assertEquals(2, top.size());
+        assertEquals("b", top.get(0).key);
+        assertEquals(30, top.get(0).weight);
+        assertEquals("a", top.get(1).key);
+        assertEquals(15, top.get(1).weight);
+        assertEquals(2, top.get(1).count);
+        assertEquals(0, table.evictions());
+    }
+
+    @Test
+    void newcomerReplacesTheMinimumAndInheritsItsWeightAsError() {
+        SpaceSaving<String> table = new SpaceSaving<>(2);
+        table.add("heavy", 100);
+        table.add("light", 3);
+        table.add("new", 5);
+
+        assertEquals(2, table.size());
+        assertEquals(1, table.evictions());
+        SpaceSaving.Counter<String> newcomer = table.top(2).get(1);
+        assertEquals("new", newcomer.key);
+        assertEquals(8, newcomer.weight, "never undercounts");
+        assertEquals(3, newcomer.error);
+    }
+
+    @Test
+    void heavyKeysSurviveALongTailOfDistinctKeys() {
+        SpaceSaving<String> table = new SpaceSaving<>(8);
+        for (int i = 0; i < 10_000; i++) {
+            table.add("tail-" + i, 1);
+            if (i % 10 == 0) {
+                table.add("hot", 20);
+            }
+        }
+        SpaceSaving.Counter<String> first = table.top(1).get(0);
+        assertEquals("hot", first.key);
+        assertTrue(first.weight - first.error <= 20_000 && first.weight >= 20_000);
+        assertEquals(8, table.size(), "memory stays at capacity");
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.itzamic.eidolon.service;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ThreadDumperTest {
+
+    private final ThreadDumper dumper = new ThreadDumper(ManagementFactory.getThreadMXBean());
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    private static List<Thread> startWaiters(int n, String prefix, CountDownLatch release) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Thread t = new Thread(() -> awaitQuietly(release), prefix + i);
+            t.setDaemon(true);
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) {
+            while (t.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+        }
+        return threads;
+    }
+
+    private static MetricsSnapshot.StackGroup groupOf(MetricsSnapshot.ThreadDump dump, String threadName) {
+        for (MetricsSnapshot.StackGroup g : dump.groups) {
+            for (MetricsSnapshot.DumpedThread t : g.threads) {
+                if (t.name.equals(threadName)) {
+                    return g;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void threadsWithIdenticalStacksShareOneGroup() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        startWaiters(ThreadDumper.BATCH + 10, "dump-waiter-", release);
+        try {
+            MetricsSnapshot.ThreadDump dump = dumper.dump(-1);
+
+            MetricsSnapshot.StackGroup g = groupOf(dump, "dump-waiter-0");
+            assertNotNull(g);
+            assertEquals(g, groupOf(dump, "dump-waiter-" + (ThreadDumper.BATCH + 9)), "grouped across batches");
+            assertEquals("WAITING", g.state);
+            assertTrue(g.count >= ThreadDumper.BATCH + 10);
+            assertEquals(g.count, g.threads.size());
+            assertTrue(g.stack.stream().anyMatch(f -> f.contains("ThreadDumperTest.awaitQuietly")));
+            assertEquals(-1, dump.maxDepth);
+            int total = dump.groups.stream().mapToInt(x -> x.count).sum();
+            assertEquals(dump.threadCount, total);
+            assertTrue(dump.groups.get(0).count >= g.count, "largest group first");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void depthCapTruncatesStacks() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        startWaiters(2, "dump-shallow-", release);
+        try {
+            MetricsSnapshot.ThreadDump dump = dumper.dump(2);
+
+            assertEquals(2, dump.maxDepth);
+            for (MetricsSnapshot.StackGroup g : dump.groups) {
+                assertTrue(g.stack.size() <= 2);
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void reportsDeadlockedThreadsWithTheirLockOwners() throws Exception {
+        ReentrantLock a = new ReentrantLock();
+        ReentrantLock b = new ReentrantLock();
+        CountDownLatch bothHeld = new CountDownLatch(2);
+        Thread first = new Thread(() -> lockBoth(a, b, bothHeld), "dump-deadlock-1");
+        Thread second = new Thread(() -> lockBoth(b, a, bothHeld), "dump-deadlock-2");
+        first.setDaemon(true);
+        second.setDaemon(true);
+        first.start();
+        second.start();
+        try {
+            MetricsSnapshot.ThreadDump dump = null;
+            for (int i = 0; i < 500 && (dump == null || dump.deadlocked.size() < 2); i++) {
+                Thread.sleep(5);
+                dump = dumper.dump(0);
+            }
+
+            assertEquals(2, dump.deadlocked.size());
+            for (MetricsSnapshot.DumpedThread t : dump.deadlocked) {
+                assertTrue(t.name.startsWith("dump-deadlock-"));
+                assertNotNull(t.lockName);
+                assertTrue(t.lockOwnerName.startsWith("dump-deadlock-") && !t.lockOwnerName.equals(t.name));
+            }
+        } finally {
+            first.interrupt();
+            second.interrupt();
+        }
+    }
+
+    private static void lockBoth(ReentrantLock outer, ReentrantLock inner, CountDownLatch bothHeld) {
+        outer.lock();
+        try {
+            bothHeld.countDown();
+            awaitQuietly(bothHeld);
+            inner.lockInterruptibly();
+            inner.unlock();
+        } catch (InterruptedException ignored) {
+        } finally {
+            outer.unlock();
+        }
+    }
+}
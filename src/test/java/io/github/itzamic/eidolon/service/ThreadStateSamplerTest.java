@@ -0,0 +1,89 @@
+package io.github.itzamic.eidolon.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ThreadStateSamplerTest {
+
+    private static ThreadInfo info(String name, Thread.State state) {
+        ThreadInfo info = mock(ThreadInfo.class);
+        when(info.getThreadName()).thenReturn(name);
+        when(info.getThreadState()).thenReturn(state);
+        return info;
+    }
+
+    @Test
+    void unfilteredSampleCountsLiveThreadsInOneBatch() {
+        ThreadMXBean real = ManagementFactory.getThreadMXBean();
+        ThreadStateSampler sampler = new ThreadStateSampler(real, Collections.emptySet());
+
+        Map<String, Integer> counts = sampler.sample();
+
+        assertEquals(Thread.State.values().length, counts.size(), "every state should be reported");
+        int total = counts.values().stream().mapToInt(Integer::intValue).sum();
+        assertTrue(total > 0, "at least the current thread should be counted");
+        assertTrue(counts.get("RUNNABLE") >= 1, "the sampling thread itself is RUNNABLE");
+    }
+
+    @Test
+    void prefixFilterIsCachedPerThreadId() {
+        ThreadMXBean mx = mock(ThreadMXBean.class);
+        ThreadInfo app = info("app-1", Thread.State.RUNNABLE);
+        ThreadInfo other = info("other", Thread.State.WAITING);
+
+        when(mx.getAllThreadIds()).thenReturn(new long[] {2L, 1L});
+        when(mx.getThreadInfo(new long[] {1L, 2L}, 0)).thenReturn(new ThreadInfo[] {app, other});
+        // Second sample: thread 2 is known-excluded and must not be queried again.
+        when(mx.getThreadInfo(new long[] {1L}, 0)).thenReturn(new ThreadInfo[] {app});
+
+        ThreadStateSampler sampler = new ThreadStateSampler(mx, Set.of("app-"));
+
+        Map<String, Integer> first = sampler.sample();
+        assertEquals(1, first.get("RUNNABLE"));
+        assertEquals(0, first.get("WAITING"));
+        assertEquals(2, sampler.cachedThreadCount());
+
+        when(mx.getAllThreadIds()).thenReturn(new long[] {1L, 2L});
+        Map<String, Integer> second = sampler.sample();
+        assertEquals(1, second.get("RUNNABLE"));
+        assertEquals(0, second.get("WAITING"));
+        verify(mx).getThreadInfo(new long[] {1L}, 0);
+        verify(mx, never()).getThreadInfo(anyLong(), anyInt());
+    }
+
+    @Test
+    void terminatedThreadsAreDroppedFromCache() {
+        ThreadMXBean mx = mock(ThreadMXBean.class);
+        ThreadInfo app = info("app-1", Thread.State.BLOCKED);
+
+        when(mx.getAllThreadIds()).thenReturn(new long[] {1L, 2L, 3L});
+        when(mx.getThreadInfo(any(long[].class), anyInt()))
+                .thenReturn(new ThreadInfo[] {app, null, info("x", Thread.State.NEW)});
+
+        ThreadStateSampler sampler = new ThreadStateSampler(mx, Set.of("app-"));
+        sampler.sample();
+        assertEquals(3, sampler.cachedThreadCount());
+
+        when(mx.getAllThreadIds()).thenReturn(new long[] {1L});
+        when(mx.getThreadInfo(any(long[].class), anyInt())).thenReturn(new ThreadInfo[] {app});
+        Map<String, Integer> counts = sampler.sample();
+
+        assertEquals(1, sampler.cachedThreadCount());
+        assertEquals(1, counts.get("BLOCKED"));
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.itzamic.eidolon.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import org.junit.jupiter.api.Test;
+
+class TopNTest {
+
+    @Test
+    void keepsLargestPositiveValuesInOrder() {
+        long[] values = {5, 0, 9, 1, 7, 9, -3};
+        assertArrayEquals(new int[] {2, 5, 4}, TopN.indices(values, 3));
+        assertArrayEquals(new int[] {2, 5, 4, 0, 3}, TopN.indices(values, 10));
+    }
+
+    @Test
+    void emptyWhenNothingQualifies() {
+        assertArrayEquals(new int[0], TopN.indices(new long[] {0, 0}, 3));
+        assertArrayEquals(new int[0], TopN.indices(new long[0], 3));
+        assertArrayEquals(new int[0], TopN.indices(new long[] {5, 7}, 0));
+        assertArrayEquals(new int[0], TopN.indices(new long[] {5, 7}, -1));
+    }
+}
@@ -0,0 +1,224 @@
+package io.github.itzamic.eidolon.ws;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+class BinaryEncoderTest {
+
+    private static MetricsSnapshot snapshot() {
+        MetricsSnapshot.Heap heap = new MetricsSnapshot.Heap(100, 200, -1, List.of(
+                new MetricsSnapshot.MemoryPool("G1 Eden Space", "HEAP", new MetricsSnapshot.Usage(0, 10, 20, -1), null),
+                new MetricsSnapshot.MemoryPool("G1 Old Gen", "HEAP", new MetricsSnapshot.Usage(0, 30, 40, 50), null)));
+        MetricsSnapshot.Threads threads = new MetricsSnapshot.Threads(7, 3, 9, 42, Map.of("RUNNABLE", 4));
+        MetricsSnapshot.Classes classes = new MetricsSnapshot.Classes(1000, 1200, 200);
+        MetricsSnapshot.GcEvent event = new MetricsSnapshot.GcEvent(5, "G1 Young Generation", "end of minor GC",
+                "G1 Evacuation Pause", 1_700_000_000_000L, 12, new long[] {10, -1}, new long[] {0, -1}, 10, 0, 10);
+        return new MetricsSnapshot(1_700_000_000_123L, heap, threads, classes, null, List.of(event), null, null, null);
+    }
+
+    private static Object decode(ByteBuf buf) {
+        byte[] bytes = ByteBufUtil.getBytes(buf);
+        Reader r = new Reader(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN));
+        assertEquals(BinaryEncoder.MAGIC, r.in.get() & 0xFF);
+        assertEquals(BinaryEncoder.VERSION, r.in.get() & 0xFF);
+        Object value = r.value();
+        assertFalse(r.in.hasRemaining(), "frame should hold exactly one value");
+        return value;
+    }
+
+    /** Reference decoder for the format described on {@link BinaryEncoder}. */
+    private static final class Reader {
+        final ByteBuffer in;
+        final List<String> strings = new ArrayList<>();
+
+        Reader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        long varint() {
+            long v = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = in.get() & 0xFF;
+                v |= (long) (b & 0x7F) << shift;
+                if (b < 0x80) {
+                    return v;
+                }
+            }
+        }
+
+        long zigzag() {
+            long v = varint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        Object value() {
+            int tag = in.get();
+            switch (tag) {
+                case BinaryEncoder.NULL: return null;
+                case BinaryEncoder.FALSE: return false;
+                case BinaryEncoder.TRUE: return true;
+                case BinaryEncoder.INT: return zigzag();
+                case BinaryEncoder.DOUBLE: return in.getDouble();
+                case BinaryEncoder.STRING: {
+                    byte[] b = new byte[(int) varint()];
+                    in.get(b);
+                    String s = new String(b, StandardCharsets.UTF_8);
+                    strings.add(s);
+                    return s;
+                }
+                case BinaryEncoder.STRING_REF: return strings.get((int) varint());
+                case BinaryEncoder.ARRAY: {
+                    int n = (int) varint();
+                    List<Object> out = new ArrayList<>(n);
+                    for (int i = 0; i < n; i++) {
+                        out.add(value());
+                    }
+                    return out;
+                }
+                case BinaryEncoder.OBJECT: {
+                    Map<String, Object> out = new LinkedHashMap<>();
+                    for (long key = varint(); key != 0; key = varint()) {
+                        String name = key == 1 ? (String) value() : BinaryEncoder.FIELDS.get((int) key - 2);
+                        out.put(name, value());
+                    }
+                    return out;
+                }
+                case BinaryEncoder.INT_ARRAY: {
+                    long[] out = new long[(int) varint()];
+                    for (int i = 0; i < out.length; i++) {
+                        out[i] = zigzag();
+                    }
+                    return out;
+                }
+                case BinaryEncoder.DOUBLE_ARRAY: {
+                    double[] out = new double[(int) varint()];
+                    for (int i = 0; i < out.length; i++) {
+                        out[i] = in.getDouble();
+                    }
+                    return out;
+                }
+                default: throw new IllegalStateException("unknown tag " + tag);
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void snapshotRoundTripsWithJsonFieldNames() {
+        ByteBuf buf = Unpooled.buffer();
+        BinaryEncoder.encode(buf, snapshot());
+        Map<String, Object> decoded = (Map<String, Object>) decode(buf);
+
+        assertEquals(1_700_000_000_123L, decoded.get("timestampMillis"));
+        assertFalse(decoded.containsKey("stringTable"), "null fields should be omitted");
+
+        Map<String, Object> heap = (Map<String, Object>) decoded.get("heap");
+        assertEquals(100L, heap.get("used"));
+        assertEquals(-1L, heap.get("max"));
+        List<Object> pools = (List<Object>) heap.get("pools");
+        Map<String, Object> old = (Map<String, Object>) pools.get(1);
+        assertEquals("G1 Old Gen", old.get("name"));
+        assertEquals("HEAP", old.get("type"), "a repeated string should decode through its reference");
+        assertEquals(50L, ((Map<String, Object>) old.get("usage")).get("max"));
+
+        Map<String, Object> threads = (Map<String, Object>) decoded.get("threads");
+        assertEquals(Map.of("RUNNABLE", 4L), threads.get("stateCounts"), "map keys outside the dictionary are inline");
+
+        Map<String, Object> event = (Map<String, Object>) ((List<Object>) decoded.get("recentGcEvents")).get(0);
+        assertEquals("G1 Evacuation Pause", event.get("gcCause"));
+        assertArrayEquals(new long[] {10, -1}, (long[]) event.get("poolUsedBefore"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deltaFramesAndScalarsRoundTrip() {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "delta");
+        frame.put("seq", 300L);
+        frame.put("baseSeq", 299L);
+        frame.put("unknownKey", List.of(1.5, true, Long.MIN_VALUE));
+        frame.put("skipped", null);
+        ByteBuf buf = Unpooled.buffer();
+        BinaryEncoder.encode(buf, frame);
+        Map<String, Object> decoded = (Map<String, Object>) decode(buf);
+
+        assertEquals("delta", decoded.get("type"));
+        assertEquals(300L, decoded.get("seq"));
+        assertEquals(List.of(1.5, true, Long.MIN_VALUE), decoded.get("unknownKey"));
+        assertNull(decoded.get("skipped"));
+        assertEquals(4, decoded.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void hotThreadsRoundTrip() {
+        MetricsSnapshot.HotThread busy = new MetricsSnapshot.HotThread(12, "worker-1", "RUNNABLE",
+                900_000_000L, 0.9, 4096, 4096.0);
+        MetricsSnapshot.HotThreads hot = new MetricsSnapshot.HotThreads(1000, true, true, List.of(busy), List.of(busy));
+        ByteBuf buf = Unpooled.buffer();
+        BinaryEncoder.encode(buf, new MetricsSnapshot(1L, null, null, null, null, null, null, hot, null));
+        Map<String, Object> decoded = (Map<String, Object>) ((Map<String, Object>) decode(buf)).get("hotThreads");
+
+        assertEquals(1000L, decoded.get("intervalMillis"));
+        assertEquals(true, decoded.get("allocationSupported"));
+        Map<String, Object> thread = (Map<String, Object>) ((List<Object>) decoded.get("byCpu")).get(0);
+        assertEquals("worker-1", thread.get("threadName"));
+        assertEquals(900_000_000L, thread.get("cpuTimeNanos"));
+        assertEquals(0.9, thread.get("cpuUsage"));
+        assertEquals(4096L, thread.get("allocatedBytes"));
+        assertEquals(4096.0, thread.get("allocationRateBytesPerSec"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void jfrEventsRoundTrip() {
+        MetricsSnapshot.JfrEventWindow window = new MetricsSnapshot.JfrEventWindow(10L, 20L, 3, 150_000_000L,
+                90_000_000L, "worker-2", "com.example.Pool");
+        MetricsSnapshot.JfrEventStats monitor = new MetricsSnapshot.JfrEventStats("monitor-enter", 20, window, null);
+        ByteBuf buf = Unpooled.buffer();
+        BinaryEncoder.encode(buf, new MetricsSnapshot(1L, null, null, null, null, null, null, null, List.of(monitor)));
+        List<Object> decoded = (List<Object>) ((Map<String, Object>) decode(buf)).get("jfrEvents");
+
+        Map<String, Object> stats = (Map<String, Object>) decoded.get(0);
+        assertEquals("monitor-enter", stats.get("event"));
+        assertEquals(20L, stats.get("thresholdMillis"));
+        assertFalse(stats.containsKey("interval"));
+        Map<String, Object> cumulative = (Map<String, Object>) stats.get("cumulative");
+        assertEquals(3L, cumulative.get("count"));
+        assertEquals(150_000_000L, cumulative.get("totalNanos"));
+        assertEquals(90_000_000L, cumulative.get("maxNanos"));
+        assertEquals("worker-2", cumulative.get("maxThread"));
+        assertEquals("com.example.Pool", cumulative.get("maxDetail"));
+    }
+
+    @Test
+    void fieldNamesAreDistinct() {
+        assertEquals(BinaryEncoder.FIELDS.size(), new java.util.HashSet<>(BinaryEncoder.FIELDS).size());
+    }
+
+    @Test
+    void encodingIsNegotiatedByQueryOrSubprotocol() {
+        assertEquals(Subscription.ALL, Subscription.fromParameters(name -> null, null));
+        assertEquals(Subscription.Encoding.BINARY,
+                Subscription.fromParameters(Map.of("encoding", "binary")::get, null).encoding());
+        assertEquals(Subscription.Encoding.BINARY, Subscription.fromParameters(
+                Map.of("sections", "heap", "mode", "delta")::get, "foo, " + Subscription.BINARY_SUBPROTOCOL).encoding());
+        assertEquals(Subscription.ALL, Subscription.fromParameters(Map.of("encoding", "json")::get, "foo"));
+    }
+}
@@ -1,15 +1,21 @@
 package io.github.itzamic.eidolon.ws;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mockito;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -18,8 +24,10 @@ import io.github.itzamic.eidolon.model.MetricsSnapshot;
 import io.github.itzamic.eidolon.model.MetricsSnapshot.Classes;
 import io.github.itzamic.eidolon.model.MetricsSnapshot.Heap;
 import io.github.itzamic.eidolon.model.MetricsSnapshot.Threads;
+import io.github.itzamic.eidolon.service.MetricsSection;
 import io.github.itzamic.eidolon.service.MetricsService;
 import io.micronaut.json.JsonMapper;
+import io.netty.buffer.ByteBuf;
 
 class BroadcastSchedulerTest {
 
@@ -27,7 +35,28 @@ class BroadcastSchedulerTest {
         Heap heap = new Heap(1, 2, 3, List.of());
         Threads threads = new Threads(1, 1, 1, 1L, Map.of());
         Classes classes = new Classes(1, 1, 0);
-        return new MetricsSnapshot(0L, heap, threads, classes, null, List.of());
+        return new MetricsSnapshot(0L, heap, threads, classes, null, List.of(), null, null, null);
+    }
+
+    /** Makes the mocked mapper write the given text for the given value. */
+    private static void writes(JsonMapper json, Object value, String text) throws Exception {
+        doAnswer(inv -> {
+            OutputStream out = inv.getArgument(0);
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(json).writeValue(any(OutputStream.class), eq(value));
+    }
+
+    /** Records the text of every (subscription, payload) pair broadcast on the registry. */
+    private static List<String> recordBroadcasts(SessionRegistry registry) {
+        List<String> seen = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            Subscription sub = inv.getArgument(0);
+            ByteBuf buf = inv.getArgument(1);
+            seen.add(sub.sections().size() + ":" + buf.toString(StandardCharsets.UTF_8));
+            return null;
+        }).when(registry).broadcast(any(Subscription.class), any(ByteBuf.class));
+        return seen;
     }
 
     @Test
@@ -39,14 +68,16 @@ class BroadcastSchedulerTest {
         when(registry.size()).thenReturn(0);
 
         // interval 10ms to keep the test quick
-        BroadcastScheduler scheduler = new BroadcastScheduler(registry, metrics, json, 10L);
+        EventStreamRegistry streams = Mockito.mock(EventStreamRegistry.class);
+        BroadcastScheduler scheduler =
+                new BroadcastScheduler(registry, streams, metrics, json, new DeltaStreams(30), 10L, false);
 
         assertDoesNotThrow(scheduler::start);
         // wait a bit and ensure no broadcast happened
         Thread.sleep(60);
         assertDoesNotThrow(scheduler::stop);
 
-        verify(registry, never()).broadcast(anyString());
+        verify(registry, never()).broadcast(any(Subscription.class), any(ByteBuf.class));
     }
 
     @Test
@@ -55,18 +86,117 @@ class BroadcastSchedulerTest {
         MetricsService metrics = Mockito.mock(MetricsService.class);
         JsonMapper json = Mockito.mock(JsonMapper.class);
 
+        MetricsSnapshot snap = sampleSnapshot();
         when(registry.size()).thenReturn(1);
-        when(metrics.snapshot()).thenReturn(sampleSnapshot());
-        byte[] payload = "{\"k\":\"v\"}".getBytes(StandardCharsets.UTF_8);
-        when(json.writeValueAsBytes(any())).thenReturn(payload);
+        when(registry.subscriptions()).thenReturn(Set.of(Subscription.ALL));
+        when(metrics.snapshot(anySet())).thenReturn(snap);
+        writes(json, snap, "{\"k\":\"v\"}");
+        List<String> seen = recordBroadcasts(registry);
 
-        BroadcastScheduler scheduler = new BroadcastScheduler(registry, metrics, json, 10L);
+        EventStreamRegistry streams = Mockito.mock(EventStreamRegistry.class);
+        BroadcastScheduler scheduler =
+                new BroadcastScheduler(registry, streams, metrics, json, new DeltaStreams(30), 10L, false);
 
         assertDoesNotThrow(scheduler::start);
         // allow a few ticks to occur
         Thread.sleep(120);
         assertDoesNotThrow(scheduler::stop);
 
-        verify(registry, atLeastOnce()).broadcast(new String(payload, StandardCharsets.UTF_8));
+        verify(metrics, atLeastOnce()).snapshot(MetricsSection.ALL);
+        assertTrue(seen.contains(MetricsSection.ALL.size() + ":{\"k\":\"v\"}"), "payload should be broadcast: " + seen);
+    }
+
+    @Test
+    void eachSubscriptionGetsItsOwnPayload() throws Exception {
+        SessionRegistry registry = Mockito.mock(SessionRegistry.class);
+        MetricsService metrics = Mockito.mock(MetricsService.class);
+        JsonMapper json = Mockito.mock(JsonMapper.class);
+
+        Subscription heapOnly = Subscription.fromParameters(Map.of("sections", "heap")::get, null);
+        when(registry.size()).thenReturn(2);
+        when(registry.subscriptions()).thenReturn(Set.of(Subscription.ALL, heapOnly));
+        MetricsSnapshot full = sampleSnapshot();
+        MetricsSnapshot heap = sampleSnapshot();
+        when(metrics.snapshot(MetricsSection.ALL)).thenReturn(full);
+        when(metrics.snapshot(heapOnly.sections())).thenReturn(heap);
+        writes(json, full, "full");
+        writes(json, heap, "heap");
+        List<String> seen = recordBroadcasts(registry);
+
+        EventStreamRegistry streams = Mockito.mock(EventStreamRegistry.class);
+        BroadcastScheduler scheduler =
+                new BroadcastScheduler(registry, streams, metrics, json, new DeltaStreams(30), 10L, false);
+
+        assertDoesNotThrow(scheduler::start);
+        Thread.sleep(120);
+        assertDoesNotThrow(scheduler::stop);
+
+        assertTrue(seen.contains(MetricsSection.ALL.size() + ":full"), "full subscription payload: " + seen);
+        assertTrue(seen.contains("1:heap"), "heap-only subscription payload: " + seen);
+    }
+
+    @Test
+    void groupsArePushedAtTheirOwnIntervals() throws Exception {
+        SessionRegistry registry = Mockito.mock(SessionRegistry.class);
+        MetricsService metrics = Mockito.mock(MetricsService.class);
+        JsonMapper json = Mockito.mock(JsonMapper.class);
+
+        Subscription slow = new Subscription(MetricsSection.ALL, false, Subscription.Encoding.JSON, 200L,
+                Subscription.Filter.NONE);
+        when(registry.size()).thenReturn(2);
+        when(registry.subscriptions()).thenReturn(Set.of(Subscription.ALL, slow));
+        MetricsSnapshot snap = sampleSnapshot();
+        when(metrics.snapshot(anySet())).thenReturn(snap);
+        writes(json, snap, "{}");
+        List<Subscription> pushed = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> pushed.add(inv.getArgument(0)))
+                .when(registry).broadcast(any(Subscription.class), any(ByteBuf.class));
+
+        EventStreamRegistry streams = Mockito.mock(EventStreamRegistry.class);
+        BroadcastScheduler scheduler =
+                new BroadcastScheduler(registry, streams, metrics, json, new DeltaStreams(30), 10L, false);
+
+        assertDoesNotThrow(scheduler::start);
+        Thread.sleep(300);
+        assertDoesNotThrow(scheduler::stop);
+
+        long fast = pushed.stream().filter(Subscription.ALL::equals).count();
+        long slowCount = pushed.stream().filter(slow::equals).count();
+        assertTrue(slowCount >= 1, "slow group should be pushed: " + pushed);
+        assertTrue(fast > 3 * slowCount, "default group should be pushed more often: " + fast + " vs " + slowCount);
+    }
+
+    @Test
+    void collectedSectionsAreNotPushedFasterThanTheyRefresh() throws Exception {
+        SessionRegistry registry = Mockito.mock(SessionRegistry.class);
+        MetricsService metrics = Mockito.mock(MetricsService.class);
+        JsonMapper json = Mockito.mock(JsonMapper.class);
+
+        Subscription heap = new Subscription(Set.of(MetricsSection.HEAP), false, Subscription.Encoding.JSON, 10L,
+                Subscription.Filter.NONE);
+        Subscription gc = new Subscription(Set.of(MetricsSection.GC), false, Subscription.Encoding.JSON, 10L,
+                Subscription.Filter.NONE);
+        when(registry.size()).thenReturn(2);
+        when(registry.subscriptions()).thenReturn(Set.of(heap, gc));
+        when(metrics.refreshMillis()).thenReturn(100L);
+        MetricsSnapshot snap = sampleSnapshot();
+        when(metrics.snapshot(anySet())).thenReturn(snap);
+        writes(json, snap, "{}");
+        List<Subscription> pushed = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> pushed.add(inv.getArgument(0)))
+                .when(registry).broadcast(any(Subscription.class), any(ByteBuf.class));
+
+        EventStreamRegistry streams = Mockito.mock(EventStreamRegistry.class);
+        BroadcastScheduler scheduler =
+                new BroadcastScheduler(registry, streams, metrics, json, new DeltaStreams(30), 10L, false);
+
+        assertDoesNotThrow(scheduler::start);
+        Thread.sleep(300);
+        assertDoesNotThrow(scheduler::stop);
+
+        long heapCount = pushed.stream().filter(heap::equals).count();
+        long gcCount = pushed.stream().filter(gc::equals).count();
+        assertTrue(heapCount >= 1 && heapCount <= 4, "heap pushes limited to the refresh interval: " + heapCount);
+        assertTrue(gcCount > 3 * heapCount, "live gc section keeps its interval: " + gcCount + " vs " + heapCount);
     }
 }
@@ -0,0 +1,136 @@
+package io.github.itzamic.eidolon.ws;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.model.MetricsSnapshot.Classes;
+import io.github.itzamic.eidolon.model.MetricsSnapshot.GcEvent;
+import io.github.itzamic.eidolon.model.MetricsSnapshot.Heap;
+import io.github.itzamic.eidolon.model.MetricsSnapshot.MemoryPool;
+import io.github.itzamic.eidolon.model.MetricsSnapshot.Threads;
+import io.github.itzamic.eidolon.model.MetricsSnapshot.Usage;
+
+class DeltaEncoderTest {
+
+    private static MetricsSnapshot snapshot(long heapUsed, long edenUsed, List<GcEvent> gc) {
+        MemoryPool eden = new MemoryPool("Eden", "HEAP", new Usage(0, edenUsed, 10, 10), null);
+        MemoryPool old = new MemoryPool("Old", "HEAP", new Usage(0, 5, 10, 10), null);
+        Heap heap = new Heap(heapUsed, 100, 200, List.of(eden, old));
+        Threads threads = new Threads(3, 1, 3, 3L, Map.of("RUNNABLE", 3));
+        Classes classes = new Classes(10, 10, 0);
+        return new MetricsSnapshot(heapUsed, heap, threads, classes, null, gc, null, null, null);
+    }
+
+    private static GcEvent gc(long seq) {
+        return new GcEvent(seq, "G1 Young Generation", "end of minor GC", "G1 Evacuation Pause", seq, 1);
+    }
+
+    @Test
+    void firstFrameIsKeyframeThenOnlyChangesAreSent() {
+        DeltaEncoder encoder = new DeltaEncoder(100);
+        MetricsSnapshot first = snapshot(50, 1, List.of(gc(1)));
+
+        Map<String, Object> key = encoder.next(first);
+        assertEquals("keyframe", key.get("type"));
+        assertEquals(1L, key.get("seq"));
+        assertSame(first, key.get("snapshot"));
+
+        Map<String, Object> delta = encoder.next(snapshot(60, 2, List.of(gc(1), gc(2))));
+        assertEquals("delta", delta.get("type"));
+        assertEquals(2L, delta.get("seq"));
+        assertEquals(1L, delta.get("baseSeq"));
+        assertEquals(60L, ((Heap) delta.get("heap")).used);
+        List<?> pools = (List<?>) delta.get("pools");
+        assertEquals(1, pools.size(), "only the changed pool should be sent");
+        assertEquals("Eden", ((MemoryPool) pools.get(0)).name);
+        assertFalse(delta.containsKey("threads"), "unchanged threads should be omitted");
+        assertFalse(delta.containsKey("classes"), "unchanged classes should be omitted");
+        List<?> events = (List<?>) delta.get("gcEvents");
+        assertEquals(1, events.size(), "only GC events after the base frame should be sent");
+        assertEquals(2L, ((GcEvent) events.get(0)).seq);
+
+        Map<String, Object> quiet = encoder.next(snapshot(60, 2, List.of(gc(1), gc(2))));
+        assertEquals("delta", quiet.get("type"));
+        assertFalse(quiet.containsKey("heap"));
+        assertFalse(quiet.containsKey("pools"));
+        assertFalse(quiet.containsKey("gcEvents"));
+    }
+
+    @Test
+    void keyframesArePeriodicAndResyncUsesCurrentPosition() {
+        DeltaEncoder encoder = new DeltaEncoder(3);
+        MetricsSnapshot s = snapshot(1, 1, List.of());
+        assertEquals("keyframe", encoder.next(s).get("type"));
+        assertEquals("delta", encoder.next(s).get("type"));
+        assertEquals("delta", encoder.next(s).get("type"));
+        assertEquals("keyframe", encoder.next(s).get("type"));
+
+        Map<String, Object> resync = encoder.keyframe(() -> {
+            throw new AssertionError("a started stream should not collect again");
+        });
+        assertEquals("keyframe", resync.get("type"));
+        assertEquals(4L, resync.get("seq"));
+        assertEquals(5L, encoder.next(s).get("seq"));
+    }
+
+    @Test
+    void keyframeStartsAnIdleStream() {
+        DeltaEncoder encoder = new DeltaEncoder(30);
+        MetricsSnapshot s = snapshot(1, 1, List.of(gc(7)));
+        Map<String, Object> key = encoder.keyframe(() -> s);
+        assertEquals(1L, key.get("seq"));
+
+        Map<String, Object> delta = encoder.next(snapshot(1, 1, List.of(gc(7), gc(8))));
+        assertEquals(1L, delta.get("baseSeq"));
+        assertTrue(((List<?>) delta.get("gcEvents")).size() == 1);
+    }
+
+    @Test
+    void pauseStatsAreSentOnlyWhenTheServiceReplacedThem() {
+        DeltaEncoder encoder = new DeltaEncoder(30);
+        List<MetricsSnapshot.GcPauseStats> pauses = List.of(new MetricsSnapshot.GcPauseStats("G1 Young Generation",
+                "end of minor GC", new MetricsSnapshot.PausePercentiles(0, 1, 1, 3, 3, 3, 3, 3), null));
+        MetricsSnapshot base = snapshot(1, 1, List.of());
+        encoder.next(new MetricsSnapshot(1, base.heap, base.threads, base.classes, null, List.of(),
+                pauses, null, null));
+
+        Map<String, Object> same = encoder.next(new MetricsSnapshot(2, base.heap, base.threads, base.classes, null, List.of(),
+                pauses, null, null));
+        assertFalse(same.containsKey("gcPauses"), "the same stats list should not be resent");
+
+        Map<String, Object> copy = encoder.next(new MetricsSnapshot(3, base.heap, base.threads, base.classes, null, List.of(),
+                new ArrayList<>(pauses), null, null));
+        assertFalse(copy.containsKey("gcPauses"), "a filtered copy holding the same stats should not be resent");
+
+        List<MetricsSnapshot.GcPauseStats> updated = List.of(new MetricsSnapshot.GcPauseStats("G1 Young Generation",
+                "end of minor GC", new MetricsSnapshot.PausePercentiles(0, 2, 2, 3, 3, 3, 3, 3), null));
+        Map<String, Object> changed = encoder.next(new MetricsSnapshot(4, base.heap, base.threads, base.classes, null, List.of(),
+                updated, null, null));
+        assertSame(updated, changed.get("gcPauses"));
+    }
+
+    @Test
+    void hotThreadsAreSentOncePerCollection() {
+        DeltaEncoder encoder = new DeltaEncoder(30);
+        MetricsSnapshot base = snapshot(1, 1, List.of());
+        MetricsSnapshot.HotThreads hot = new MetricsSnapshot.HotThreads(1000, true, true, List.of(), List.of());
+        encoder.next(new MetricsSnapshot(1, base.heap, base.threads, base.classes, null, List.of(), null, hot, null));
+
+        Map<String, Object> same = encoder.next(new MetricsSnapshot(2, base.heap, base.threads, base.classes, null, List.of(),
+                null, hot, null));
+        assertFalse(same.containsKey("hotThreads"), "the same ranking should not be resent");
+
+        MetricsSnapshot.HotThreads next = new MetricsSnapshot.HotThreads(1000, true, true, List.of(), List.of());
+        Map<String, Object> changed = encoder.next(new MetricsSnapshot(3, base.heap, base.threads, base.classes, null, List.of(),
+                null, next, null));
+        assertSame(next, changed.get("hotThreads"));
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.itzamic.eidolon.ws;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import io.github.itzamic.eidolon.EidolonConfig;
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsSection;
+import io.github.itzamic.eidolon.service.MetricsService;
+import io.micronaut.json.JsonMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.reactivestreams.Subscriber;
+
+class EventStreamRegistryTest {
+
+    /** Collects received chunks as text and requests only when told to. */
+    private static class Reader implements Subscriber<ByteBuf> {
+        final List<String> chunks = new CopyOnWriteArrayList<>();
+        org.reactivestreams.Subscription subscription;
+
+        @Override
+        public void onSubscribe(org.reactivestreams.Subscription s) {
+            this.subscription = s;
+        }
+
+        @Override
+        public void onNext(ByteBuf buf) {
+            chunks.add(buf.toString(StandardCharsets.UTF_8));
+            buf.release();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private static EventStreamRegistry registry() throws Exception {
+        return registry(new MetricsService(EidolonConfig.builder().collectStringTable(false).build()), new ArrayList<>());
+    }
+
+    /** A registry over {@code metrics} whose mapper records every value it writes in {@code written}. */
+    private static EventStreamRegistry registry(MetricsService metrics, List<Object> written) throws Exception {
+        JsonMapper json = mock(JsonMapper.class);
+        doAnswer(inv -> {
+            OutputStream out = inv.getArgument(0);
+            Object value = inv.getArgument(1);
+            written.add(value);
+            String text = value instanceof MetricsSnapshot.GcEventPage ? "{\"page\":1}" : "{\"snap\":1}";
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(json).writeValue(any(OutputStream.class), any());
+        return new EventStreamRegistry(metrics, json);
+    }
+
+    private static ByteBuf text(String s) {
+        return Unpooled.copiedBuffer(s, StandardCharsets.UTF_8);
+    }
+
+    private static MetricsSnapshot withGc(long... seqs) {
+        List<MetricsSnapshot.GcEvent> events = new ArrayList<>();
+        for (long seq : seqs) {
+            events.add(new MetricsSnapshot.GcEvent(seq, "G1 Young Generation", "end of minor GC", "cause", seq, 1));
+        }
+        return new MetricsSnapshot(1L, null, null, null, null, events, null, null, null);
+    }
+
+    @Test
+    void resumeStartsWithMissedGcEventsThenSnapshot() throws Exception {
+        EventStreamRegistry streams = registry();
+        Reader reader = new Reader();
+        streams.open(Subscription.ALL, 5L).subscribe(reader);
+        reader.subscription.request(1);
+
+        assertEquals(1, reader.chunks.size());
+        String initial = reader.chunks.get(0);
+        assertTrue(initial.startsWith("id: "), initial);
+        assertTrue(initial.contains("event: gc\ndata: {\"page\":1}\n\n"), initial);
+        assertTrue(initial.contains("event: snapshot\ndata: {\"snap\":1}\n\n"), initial);
+        assertTrue(initial.indexOf("event: gc") < initial.indexOf("event: snapshot"), initial);
+    }
+
+    @Test
+    void resumePageKeepsOnlyTheFilteredCollectors() throws Exception {
+        MetricsService metrics = new MetricsService(EidolonConfig.builder().collectStringTable(false).build()) {
+            @Override
+            public MetricsSnapshot.GcEventPage gcEventsSince(long since, int limit) {
+                return new MetricsSnapshot.GcEventPage(List.of(
+                        new MetricsSnapshot.GcEvent(6, "G1 Young Generation", "end of minor GC", "cause", 6, 1),
+                        new MetricsSnapshot.GcEvent(7, "G1 Old Generation", "end of major GC", "cause", 7, 1)),
+                        7L, 0L, 0L);
+            }
+        };
+        List<Object> written = new ArrayList<>();
+        EventStreamRegistry streams = registry(metrics, written);
+        Subscription oldOnly = Subscription.fromParameters(
+                name -> "collectors".equals(name) ? "G1 Old Generation" : null, null);
+        Reader reader = new Reader();
+        streams.open(oldOnly, 5L).subscribe(reader);
+        reader.subscription.request(1);
+
+        MetricsSnapshot.GcEventPage page = (MetricsSnapshot.GcEventPage) written.get(0);
+        assertEquals(1, page.events.size());
+        assertEquals("G1 Old Generation", page.events.get(0).gcName);
+        assertEquals(7L, page.nextSeq, "the cursor still passes the dropped events");
+        assertTrue(reader.chunks.get(0).startsWith("id: 7\nevent: gc\n"), reader.chunks.get(0));
+    }
+
+    @Test
+    void slowReaderGetsOnlyTheNewestBroadcast() throws Exception {
+        EventStreamRegistry streams = registry();
+        Reader reader = new Reader();
+        streams.open(Subscription.ALL, null).subscribe(reader);
+        assertEquals(1, streams.size());
+
+        for (String payload : new String[] {"{\"a\":1}", "{\"a\":2}", "{\"a\":3}"}) {
+            ByteBuf buf = text(payload);
+            streams.broadcast(Subscription.ALL, withGc(7, 9), buf);
+            assertEquals(1, buf.refCnt(), "the caller keeps its payload reference");
+            buf.release();
+        }
+        assertEquals(0, reader.chunks.size(), "nothing is emitted without demand");
+
+        reader.subscription.request(10);
+        assertEquals(2, reader.chunks.size(), "initial snapshot, then only the newest broadcast");
+        assertEquals("id: 9\nevent: snapshot\ndata: {\"a\":3}\n\n", reader.chunks.get(1));
+        assertEquals(2, streams.framesDropped());
+
+        ByteBuf other = text("{\"b\":1}");
+        streams.broadcast(new Subscription(Set.of(MetricsSection.HEAP), false, Subscription.Encoding.JSON, 0L,
+                Subscription.Filter.NONE), withGc(), other);
+        other.release();
+        assertEquals(2, reader.chunks.size(), "other groups are not delivered");
+    }
+
+    @Test
+    void cancelClosesTheStream() throws Exception {
+        EventStreamRegistry streams = registry();
+        Reader reader = new Reader();
+        streams.open(Subscription.ALL, null).subscribe(reader);
+        reader.subscription.cancel();
+        assertEquals(0, streams.size());
+
+        ByteBuf buf = text("{}");
+        streams.broadcast(Subscription.ALL, withGc(), buf);
+        assertEquals(1, buf.refCnt());
+        buf.release();
+        assertEquals(0, reader.chunks.size());
+    }
+
+    @Test
+    void initialSnapshotComesFirstEvenWhenABroadcastLandsWhileItIsEncoded() throws Exception {
+        MetricsService metrics = new MetricsService(EidolonConfig.builder().collectStringTable(false).build());
+        JsonMapper json = mock(JsonMapper.class);
+        EventStreamRegistry streams = new EventStreamRegistry(metrics, json);
+        doAnswer(inv -> {
+            // A scheduler tick fires while the new reader's initial snapshot is being encoded.
+            ByteBuf tick = text("{\"tick\":1}");
+            streams.broadcast(Subscription.ALL, withGc(3), tick);
+            tick.release();
+            OutputStream out = inv.getArgument(0);
+            out.write("{\"snap\":1}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(json).writeValue(any(OutputStream.class), any());
+
+        Reader reader = new Reader() {
+            @Override
+            public void onSubscribe(org.reactivestreams.Subscription s) {
+                super.onSubscribe(s);
+                s.request(Long.MAX_VALUE); // demand exists before any frame is queued
+            }
+        };
+        streams.open(Subscription.ALL, null).subscribe(reader);
+        ByteBuf next = text("{\"a\":1}");
+        streams.broadcast(Subscription.ALL, withGc(4), next);
+        next.release();
+
+        assertEquals(2, reader.chunks.size());
+        assertTrue(reader.chunks.get(0).contains("data: {\"snap\":1}"), reader.chunks.get(0));
+        assertEquals("id: 4\nevent: snapshot\ndata: {\"a\":1}\n\n", reader.chunks.get(1));
+    }
+}
@@ -1,13 +1,20 @@
 package io.github.itzamic.eidolon.ws;
 
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -16,9 +23,12 @@ import io.github.itzamic.eidolon.model.MetricsSnapshot;
 import io.github.itzamic.eidolon.model.MetricsSnapshot.Classes;
 import io.github.itzamic.eidolon.model.MetricsSnapshot.Heap;
 import io.github.itzamic.eidolon.model.MetricsSnapshot.Threads;
+import io.github.itzamic.eidolon.service.MetricsSection;
 import io.github.itzamic.eidolon.service.MetricsService;
+import io.micronaut.http.HttpRequest;
 import io.micronaut.json.JsonMapper;
 import io.micronaut.websocket.WebSocketSession;
+import io.netty.buffer.ByteBuf;
 
 class MetricsWebSocketTest {
 
@@ -26,7 +36,7 @@ class MetricsWebSocketTest {
         Heap heap = new Heap(1, 2, 3, List.of());
         Threads threads = new Threads(1, 1, 1, 1L, Map.of());
         Classes classes = new Classes(1, 1, 0);
-        return new MetricsSnapshot(0L, heap, threads, classes, null, List.of());
+        return new MetricsSnapshot(0L, heap, threads, classes, null, List.of(), null, null, null);
     }
 
     @Test
@@ -36,17 +46,20 @@ class MetricsWebSocketTest {
         JsonMapper json = mock(JsonMapper.class);
         WebSocketSession session = mock(WebSocketSession.class);
 
+        HttpRequest<?> request = mock(HttpRequest.class, RETURNS_DEEP_STUBS);
+
         MetricsSnapshot snap = sampleSnapshot();
-        when(metrics.snapshot()).thenReturn(snap);
-        byte[] payload = "{\"hello\":\"world\"}".getBytes(StandardCharsets.UTF_8);
-        when(json.writeValueAsBytes(any())).thenReturn(payload);
+        when(metrics.snapshot(anySet())).thenReturn(snap);
 
-        MetricsWebSocket ws = new MetricsWebSocket(registry, metrics, json);
+        MetricsWebSocket ws = new MetricsWebSocket(registry, metrics, json, new DeltaStreams(30));
 
-        assertDoesNotThrow(() -> ws.onOpen(session));
+        assertDoesNotThrow(() -> ws.onOpen(session, request));
 
-        verify(registry, times(1)).add(session);
-        verify(session, times(1)).sendSync(new String(payload, StandardCharsets.UTF_8));
+        verify(registry, times(1)).add(session, Subscription.ALL);
+        // JSON snapshots share the outbound queue with broadcasts, so they cannot overtake or trail them.
+        verify(json, times(1)).writeValue(any(OutputStream.class), eq(snap));
+        verify(registry, times(1)).send(eq(session), any(ByteBuf.class));
+        verify(session, never()).sendSync(any());
     }
 
     @Test
@@ -57,23 +70,109 @@ class MetricsWebSocketTest {
         WebSocketSession session = mock(WebSocketSession.class);
 
         MetricsSnapshot snap = sampleSnapshot();
-        when(metrics.snapshot()).thenReturn(snap);
-        byte[] payload = "{\"s\":\"v\"}".getBytes(StandardCharsets.UTF_8);
-        when(json.writeValueAsBytes(any())).thenReturn(payload);
+        when(registry.subscriptionOf(session)).thenReturn(Subscription.ALL);
+        when(metrics.snapshot(anySet())).thenReturn(snap);
 
-        MetricsWebSocket ws = new MetricsWebSocket(registry, metrics, json);
+        MetricsWebSocket ws = new MetricsWebSocket(registry, metrics, json, new DeltaStreams(30));
 
         ws.onMessage("ping", session);
-        verify(session, times(1)).sendSync("pong");
+        verify(registry, times(1)).reply(session, "pong");
 
         ws.onMessage("snapshot", session);
-        verify(metrics, times(1)).snapshot();
-        verify(session, times(1)).sendSync(new String(payload, StandardCharsets.UTF_8));
+        verify(metrics, times(1)).snapshot(MetricsSection.ALL);
+        verify(registry, times(1)).send(eq(session), any(ByteBuf.class));
+        verify(session, never()).sendSync(any());
 
         // Unknown command should not throw
         assertDoesNotThrow(() -> ws.onMessage("unknown", session));
     }
 
+    @Test
+    void onOpenHonorsSectionsQueryParameter() throws Exception {
+        SessionRegistry registry = mock(SessionRegistry.class);
+        MetricsService metrics = mock(MetricsService.class);
+        JsonMapper json = mock(JsonMapper.class);
+        WebSocketSession session = mock(WebSocketSession.class);
+        HttpRequest<?> request = mock(HttpRequest.class, RETURNS_DEEP_STUBS);
+        when(request.getParameters().get("sections")).thenReturn("heap,gc");
+        when(metrics.snapshot(anySet())).thenReturn(sampleSnapshot());
+
+        MetricsWebSocket ws = new MetricsWebSocket(registry, metrics, json, new DeltaStreams(30));
+        ws.onOpen(session, request);
+
+        Subscription expected = Subscription.fromParameters(Map.of("sections", "heap,gc")::get, null);
+        verify(registry, times(1)).add(session, expected);
+        verify(metrics, times(1)).snapshot(EnumSet.of(MetricsSection.HEAP, MetricsSection.GC));
+    }
+
+    @Test
+    void deltaModeOpensWithKeyframeThroughOutboundQueue() throws Exception {
+        SessionRegistry registry = mock(SessionRegistry.class);
+        MetricsService metrics = mock(MetricsService.class);
+        JsonMapper json = mock(JsonMapper.class);
+        WebSocketSession session = mock(WebSocketSession.class);
+        HttpRequest<?> request = mock(HttpRequest.class, RETURNS_DEEP_STUBS);
+        when(request.getParameters().get("mode")).thenReturn("delta");
+        when(metrics.snapshot(anySet())).thenReturn(sampleSnapshot());
+
+        MetricsWebSocket ws = new MetricsWebSocket(registry, metrics, json, new DeltaStreams(30));
+        ws.onOpen(session, request);
+
+        Subscription expected = Subscription.fromParameters(Map.of("mode", "delta")::get, null);
+        verify(registry, times(1)).add(session, expected);
+        verify(registry, times(1)).send(eq(session), any(ByteBuf.class));
+        verify(json, times(1)).writeValue(any(OutputStream.class), argThat(
+                (Object frame) -> frame instanceof Map<?, ?> m && "keyframe".equals(m.get("type"))));
+        verify(session, never()).sendSync(any());
+
+        when(registry.subscriptionOf(session)).thenReturn(expected);
+        ws.onMessage("keyframe", session);
+        verify(registry, times(2)).send(eq(session), any(ByteBuf.class));
+    }
+
+    @Test
+    void binarySubprotocolSendsSnapshotsThroughOutboundQueue() throws Exception {
+        SessionRegistry registry = mock(SessionRegistry.class);
+        MetricsService metrics = mock(MetricsService.class);
+        JsonMapper json = mock(JsonMapper.class);
+        WebSocketSession session = mock(WebSocketSession.class);
+        HttpRequest<?> request = mock(HttpRequest.class, RETURNS_DEEP_STUBS);
+        when(request.getHeaders().get("Sec-WebSocket-Protocol")).thenReturn(Subscription.BINARY_SUBPROTOCOL);
+        when(metrics.snapshot(anySet())).thenReturn(sampleSnapshot());
+
+        MetricsWebSocket ws = new MetricsWebSocket(registry, metrics, json, new DeltaStreams(30));
+        ws.onOpen(session, request);
+
+        Subscription expected = new Subscription(MetricsSection.ALL, false, Subscription.Encoding.BINARY, 0L,
+                Subscription.Filter.NONE);
+        verify(registry, times(1)).add(session, expected);
+        verify(registry, times(1)).send(eq(session), any(ByteBuf.class));
+        verify(json, never()).writeValueAsBytes(any());
+        verify(session, never()).sendSync(any());
+    }
+
+    @Test
+    void subscribeMessageReplacesTheSubscription() throws Exception {
+        SessionRegistry registry = mock(SessionRegistry.class);
+        MetricsService metrics = mock(MetricsService.class);
+        JsonMapper json = mock(JsonMapper.class);
+        WebSocketSession session = mock(WebSocketSession.class);
+        Subscription binary = new Subscription(MetricsSection.ALL, false, Subscription.Encoding.BINARY, 0L,
+                Subscription.Filter.NONE);
+        when(registry.subscriptionOf(session)).thenReturn(binary);
+        when(registry.resubscribe(eq(session), any(Subscription.class))).thenReturn(true);
+        when(metrics.snapshot(anySet())).thenReturn(sampleSnapshot());
+
+        MetricsWebSocket ws = new MetricsWebSocket(registry, metrics, json, new DeltaStreams(30));
+        ws.onMessage("subscribe?sections=heap,pools&interval=100&mode=delta&pools=G1%20Eden%20Space,G1%20Old%20Gen", session);
+
+        Subscription expected = new Subscription(EnumSet.of(MetricsSection.HEAP, MetricsSection.POOLS), true,
+                Subscription.Encoding.BINARY, 100L,
+                new Subscription.Filter(Set.of("G1 Eden Space", "G1 Old Gen"), Set.of()));
+        verify(registry, times(1)).resubscribe(session, expected);
+        verify(registry, times(1)).send(eq(session), any(ByteBuf.class)); // keyframe for the new subscription
+    }
+
     @Test
     void onCloseRemovesSession() {
         SessionRegistry registry = mock(SessionRegistry.class);
@@ -81,7 +180,7 @@ class MetricsWebSocketTest {
         JsonMapper json = mock(JsonMapper.class);
         WebSocketSession session = mock(WebSocketSession.class);
 
-        MetricsWebSocket ws = new MetricsWebSocket(registry, metrics, json);
+        MetricsWebSocket ws = new MetricsWebSocket(registry, metrics, json, new DeltaStreams(30));
         ws.onClose(session);
 
         verify(registry, times(1)).remove(session);
@@ -1,8 +1,18 @@
 package io.github.itzamic.eidolon.ws;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.ArgumentCaptor;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -10,7 +20,11 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micronaut.websocket.CloseReason;
 import io.micronaut.websocket.WebSocketSession;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 
 class SessionRegistryTest {
 
@@ -30,29 +44,226 @@ class SessionRegistryTest {
     }
 
     @Test
-    void broadcastSendsToOpenSessionsAndIgnoresClosedOrErrors() {
+    void subscriptionScopedBroadcastSharesOneBufferAcrossSessions() {
         SessionRegistry reg = new SessionRegistry();
+        Subscription heapOnly = Subscription.fromParameters(Map.of("sections", "heap")::get, null);
 
-        WebSocketSession open = mock(WebSocketSession.class);
-        when(open.isOpen()).thenReturn(true);
-
-        WebSocketSession closed = mock(WebSocketSession.class);
-        when(closed.isOpen()).thenReturn(false);
-
+        WebSocketSession all = mock(WebSocketSession.class);
+        when(all.isOpen()).thenReturn(true);
+        WebSocketSession heap1 = mock(WebSocketSession.class);
+        when(heap1.isOpen()).thenReturn(true);
+        WebSocketSession heap2 = mock(WebSocketSession.class);
+        when(heap2.isOpen()).thenReturn(true);
         WebSocketSession broken = mock(WebSocketSession.class);
         when(broken.isOpen()).thenReturn(true);
-        doThrow(new RuntimeException("boom")).when(broken).sendSync(anyString());
+        doThrow(new RuntimeException("boom")).when(broken).sendAsync(any());
+
+        reg.add(all);
+        reg.add(heap1, heapOnly);
+        reg.add(heap2, heapOnly);
+        reg.add(broken, heapOnly);
+
+        assertEquals(Set.of(Subscription.ALL, heapOnly), reg.subscriptions());
+        assertEquals(heapOnly, reg.subscriptionOf(heap1));
+
+        ByteBuf payload = Unpooled.copiedBuffer("h", StandardCharsets.UTF_8);
+        reg.broadcast(heapOnly, payload);
+
+        ArgumentCaptor<TextWebSocketFrame> f1 = ArgumentCaptor.forClass(TextWebSocketFrame.class);
+        ArgumentCaptor<TextWebSocketFrame> f2 = ArgumentCaptor.forClass(TextWebSocketFrame.class);
+        verify(heap1, times(1)).sendAsync(f1.capture());
+        verify(heap2, times(1)).sendAsync(f2.capture());
+        verify(all, never()).sendAsync(any());
+        assertEquals("h", f1.getValue().text());
+        assertEquals("h", f2.getValue().text());
+
+        // Frames hold their own references; releasing them leaves the caller's reference intact.
+        f1.getValue().release();
+        f2.getValue().release();
+        assertEquals(1, payload.refCnt(), "only the caller's reference should remain");
+        payload.release();
+    }
+
+    @Test
+    void slowClientKeepsOnlyLatestPendingFrame() {
+        SessionRegistry reg = new SessionRegistry();
+        WebSocketSession slow = mock(WebSocketSession.class);
+        when(slow.isOpen()).thenReturn(true);
+        CompletableFuture<Object> firstWrite = new CompletableFuture<>();
+        List<String> written = new ArrayList<>();
+        when(slow.sendAsync(any())).thenAnswer(inv -> {
+            TextWebSocketFrame frame = inv.getArgument(0);
+            written.add(frame.text());
+            frame.release();
+            return written.size() == 1 ? firstWrite : CompletableFuture.completedFuture(null);
+        });
+        reg.add(slow);
+
+        for (String text : new String[] {"one", "two", "three"}) {
+            ByteBuf payload = Unpooled.copiedBuffer(text, StandardCharsets.UTF_8);
+            reg.broadcast(Subscription.ALL, payload);
+            payload.release();
+        }
+
+        // "one" is in flight, "two" was replaced by "three" while waiting.
+        assertEquals(List.of("one"), written);
+        assertEquals(1, reg.stats().framesDropped);
+
+        firstWrite.complete(null);
+        assertEquals(List.of("one", "three"), written, "completion should drain the latest pending frame");
+        assertEquals(3, reg.stats().framesQueued);
+    }
+
+    @Test
+    void stalledSessionIsDisconnected() throws Exception {
+        SessionRegistry reg = new SessionRegistry(1L);
+        WebSocketSession stuck = mock(WebSocketSession.class);
+        when(stuck.isOpen()).thenReturn(true);
+        when(stuck.sendAsync(any())).thenAnswer(inv -> {
+            ((TextWebSocketFrame) inv.getArgument(0)).release();
+            return new CompletableFuture<>(); // never completes
+        });
+        reg.add(stuck);
+
+        ByteBuf payload = Unpooled.copiedBuffer("x", StandardCharsets.UTF_8);
+        reg.broadcast(Subscription.ALL, payload);
+        Thread.sleep(20);
+        reg.broadcast(Subscription.ALL, payload);
+
+        assertEquals(0, reg.size(), "stalled session should be removed");
+        assertEquals(1, reg.stats().slowConsumerDisconnects);
+        verify(stuck, times(1)).close(CloseReason.GOING_AWAY);
+        assertEquals(1, payload.refCnt(), "dropped frames should be released");
+        payload.release();
+    }
+
+    @Test
+    void deltaSessionThatDroppedAFrameIsResyncedWithKeyframe() {
+        SessionRegistry reg = new SessionRegistry();
+        Subscription delta = Subscription.fromParameters(Map.of("mode", "delta")::get, null);
+        WebSocketSession slow = mock(WebSocketSession.class);
+        when(slow.isOpen()).thenReturn(true);
+        CompletableFuture<Object> firstWrite = new CompletableFuture<>();
+        List<String> written = new ArrayList<>();
+        when(slow.sendAsync(any())).thenAnswer(inv -> {
+            TextWebSocketFrame frame = inv.getArgument(0);
+            written.add(frame.text());
+            frame.release();
+            return written.size() == 1 ? firstWrite : CompletableFuture.completedFuture(null);
+        });
+        reg.add(slow, delta);
 
-        reg.add(open);
-        reg.add(closed);
-        reg.add(broken);
+        for (String text : new String[] {"d1", "d2", "d3"}) {
+            ByteBuf payload = Unpooled.copiedBuffer(text, StandardCharsets.UTF_8);
+            reg.broadcast(delta, payload, () -> Unpooled.copiedBuffer("key", StandardCharsets.UTF_8));
+            payload.release();
+        }
+        firstWrite.complete(null);
+        assertEquals(List.of("d1", "d3"), written);
+
+        // d2 was dropped, so the next tick must carry a keyframe instead of d4.
+        ByteBuf d4 = Unpooled.copiedBuffer("d4", StandardCharsets.UTF_8);
+        reg.broadcast(delta, d4, () -> Unpooled.copiedBuffer("key", StandardCharsets.UTF_8));
+        d4.release();
+        assertEquals(List.of("d1", "d3", "key"), written);
+    }
+
+    @Test
+    void resubscribeMovesSessionToAnotherGroup() {
+        SessionRegistry reg = new SessionRegistry();
+        WebSocketSession s = mock(WebSocketSession.class);
+        when(s.isOpen()).thenReturn(true);
+        when(s.sendAsync(any())).thenReturn(new CompletableFuture<>());
+        reg.add(s, Subscription.ALL);
+
+        Subscription heapFast = Subscription.fromParameters(
+                name -> "sections".equals(name) ? "heap" : "interval".equals(name) ? "100" : null, null);
+        assertTrue(reg.resubscribe(s, heapFast));
+        assertEquals(heapFast, reg.subscriptionOf(s));
+        assertEquals(Set.of(heapFast), reg.subscriptions());
+
+        ByteBuf payload = Unpooled.copiedBuffer("x", StandardCharsets.UTF_8);
+        reg.broadcast(Subscription.ALL, payload);
+        verify(s, never()).sendAsync(any());
+        reg.broadcast(heapFast, payload);
+        verify(s, times(1)).sendAsync(any());
+        payload.release();
+
+        assertFalse(reg.resubscribe(mock(WebSocketSession.class), heapFast), "unknown sessions are ignored");
+    }
+
+    @Test
+    void repliesAreNeverReplacedAndKeepTheirOrder() {
+        SessionRegistry reg = new SessionRegistry();
+        WebSocketSession slow = mock(WebSocketSession.class);
+        when(slow.isOpen()).thenReturn(true);
+        CompletableFuture<Object> firstWrite = new CompletableFuture<>();
+        List<String> written = new ArrayList<>();
+        when(slow.sendAsync(any())).thenAnswer(inv -> {
+            TextWebSocketFrame frame = inv.getArgument(0);
+            written.add(frame.text());
+            frame.release();
+            return written.size() == 1 ? firstWrite : CompletableFuture.completedFuture(null);
+        });
+        reg.add(slow);
+
+        ByteBuf snapshot = Unpooled.copiedBuffer("s1", StandardCharsets.UTF_8);
+        reg.broadcast(Subscription.ALL, snapshot);
+        snapshot.release();
+        reg.reply(slow, "pong");
+        ByteBuf next = Unpooled.copiedBuffer("s2", StandardCharsets.UTF_8);
+        reg.broadcast(Subscription.ALL, next);
+        next.release();
+        reg.reply(slow, "pong2");
+
+        firstWrite.complete(null);
+        assertEquals(List.of("s1", "pong", "pong2", "s2"), written, "replies drain in order ahead of the pending frame");
+        assertEquals(0, reg.stats().framesDropped);
+    }
+
+    @Test
+    void repliesPilingUpBehindAStuckWriteAreBounded() {
+        SessionRegistry reg = new SessionRegistry();
+        WebSocketSession stuck = mock(WebSocketSession.class);
+        when(stuck.isOpen()).thenReturn(true);
+        when(stuck.sendAsync(any())).thenAnswer(inv -> {
+            ((TextWebSocketFrame) inv.getArgument(0)).release();
+            return new CompletableFuture<>(); // never completes
+        });
+        reg.add(stuck);
+
+        for (int i = 0; i <= ClientSession.MAX_REPLIES + 5; i++) {
+            reg.reply(stuck, "pong");
+        }
+
+        // One reply is in flight, MAX_REPLIES wait, the rest are dropped.
+        assertEquals(5, reg.stats().framesDropped);
+        verify(stuck, times(1)).sendAsync(any());
+    }
+
+    @Test
+    void offersAfterRemovalAreReleasedInsteadOfQueued() {
+        WebSocketSession s = mock(WebSocketSession.class);
+        when(s.isOpen()).thenReturn(true);
+        when(s.sendAsync(any())).thenAnswer(inv -> {
+            ((TextWebSocketFrame) inv.getArgument(0)).release();
+            return new CompletableFuture<>(); // stays in flight
+        });
+        ClientSession client = new ClientSession(s, Subscription.ALL);
+        client.offer(Unpooled.copiedBuffer("in flight", StandardCharsets.UTF_8));
+        ByteBuf queued = Unpooled.copiedBuffer("queued", StandardCharsets.UTF_8);
+        client.offer(queued);
 
-        String msg = "hello";
-        reg.broadcast(msg);
+        client.close();
+        assertEquals(0, queued.refCnt(), "close releases the pending frame");
 
-        verify(open, times(1)).sendSync(msg);
-        verify(closed, never()).sendSync(anyString());
-        // broken will be attempted and exception is swallowed by implementation
-        verify(broken, times(1)).sendSync(msg);
+        // A broadcast that picked the session up before it was removed offers after close().
+        ByteBuf late = Unpooled.copiedBuffer("late", StandardCharsets.UTF_8);
+        assertFalse(client.offer(late));
+        assertEquals(0, late.refCnt(), "late frames are released, not left pending");
+        ByteBuf reply = Unpooled.copiedBuffer("pong", StandardCharsets.UTF_8);
+        client.reply(reply);
+        assertEquals(0, reply.refCnt());
+        verify(s, times(1)).sendAsync(any());
     }
 }
@@ -0,0 +1,57 @@
+package io.github.itzamic.eidolon.ws;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+
+import io.github.itzamic.eidolon.model.MetricsSnapshot;
+import io.github.itzamic.eidolon.service.MetricsSection;
+
+class SubscriptionTest {
+
+    @Test
+    void parametersDefaultToTheSharedFullSubscription() {
+        assertSame(Subscription.ALL, Subscription.fromParameters(name -> null, null));
+        assertSame(Subscription.ALL, Subscription.fromParameters(
+                Map.of("interval", "nope", "pools", " , ")::get, null));
+    }
+
+    @Test
+    void parametersSelectSectionsIntervalAndFilters() {
+        Subscription s = Subscription.fromParameters(Map.of(
+                "sections", "heap,gc",
+                "interval", "100",
+                "pools", "G1 Eden Space, G1 Old Gen",
+                "collectors", "G1 Young Generation")::get, null);
+        assertEquals(EnumSet.of(MetricsSection.HEAP, MetricsSection.GC), s.sections());
+        assertEquals(100L, s.intervalMillis());
+        assertEquals(Set.of("G1 Eden Space", "G1 Old Gen"), s.filter().pools());
+        assertEquals(Set.of("G1 Young Generation"), s.filter().collectors());
+        assertEquals(s, Subscription.fromParameters(Map.of(
+                "sections", "gc,heap",
+                "interval", "100",
+                "pools", "G1 Old Gen,G1 Eden Space",
+                "collectors", "G1 Young Generation")::get, null), "equal requests share a group");
+    }
+
+    @Test
+    void filterKeepsNamedPoolsAndCollectors() {
+        MetricsSnapshot.MemoryPool eden = new MetricsSnapshot.MemoryPool("Eden", "HEAP", null, null);
+        MetricsSnapshot.MemoryPool old = new MetricsSnapshot.MemoryPool("Old", "HEAP", null, null);
+        MetricsSnapshot.GcEvent young = new MetricsSnapshot.GcEvent(1, "Young", "minor", "cause", 0, 1);
+        MetricsSnapshot.GcEvent full = new MetricsSnapshot.GcEvent(2, "Old", "major", "cause", 0, 9);
+        MetricsSnapshot snapshot = new MetricsSnapshot(1, new MetricsSnapshot.Heap(10, 20, 30, List.of(eden, old)),
+                null, null, null, List.of(young, full), List.of(), null, null);
+
+        assertSame(snapshot, Subscription.Filter.NONE.apply(snapshot));
+        MetricsSnapshot filtered = new Subscription.Filter(Set.of("Old"), Set.of("Young")).apply(snapshot);
+        assertEquals(List.of(old), filtered.heap.pools);
+        assertEquals(10, filtered.heap.used, "the heap summary is not filtered");
+        assertEquals(List.of(young), filtered.recentGcEvents);
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.itzamic.eidolon.ws;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    /** Ticks (1-based) at which {@code key} came due during the first {@code ticks} advances. */
+    private static List<Integer> dueTicks(TimingWheel<String> wheel, String key, int ticks) {
+        List<Integer> out = new ArrayList<>();
+        for (int t = 1; t <= ticks; t++) {
+            if (wheel.advance().contains(key)) {
+                out.add(t);
+            }
+        }
+        return out;
+    }
+
+    @Test
+    void keysComeDueEveryPeriod() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        wheel.add("fast", 1);
+        wheel.add("slow", 3);
+        List<String> seen = new ArrayList<>();
+        for (int t = 1; t <= 6; t++) {
+            seen.add(t + ":" + String.join(",", wheel.advance().stream().sorted().toList()));
+        }
+        assertEquals(List.of("1:fast", "2:fast", "3:fast,slow", "4:fast", "5:fast", "6:fast,slow"), seen);
+    }
+
+    @Test
+    void periodsLongerThanTheWheelWaitFullTurns() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        wheel.add("long", 1200);
+        wheel.add("turn", 512);
+        List<Integer> turn = new ArrayList<>();
+        List<Integer> longer = new ArrayList<>();
+        for (int t = 1; t <= 2400; t++) {
+            List<String> due = wheel.advance();
+            if (due.contains("turn")) {
+                turn.add(t);
+            }
+            if (due.contains("long")) {
+                longer.add(t);
+            }
+        }
+        assertEquals(List.of(512, 1024, 1536, 2048), turn);
+        assertEquals(List.of(1200, 2400), longer);
+    }
+
+    @Test
+    void retainUnschedulesOtherKeys() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        wheel.add("a", 2);
+        wheel.add("b", 2);
+        wheel.retain(Set.of("a"));
+        assertTrue(wheel.contains("a"));
+        assertFalse(wheel.contains("b"));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), dueTicks(wheel, "b", 4));
+
+        wheel.add("b", 1); // re-adding starts a fresh schedule
+        assertEquals(List.of(1, 2, 3), dueTicks(wheel, "b", 3));
+    }
+}
@@ -25,12 +25,18 @@ application {
 
 val eidolonVersion = "0.1.0-SNAPSHOT"
 
+// Forward -Deidolon.* given to Gradle to the app JVM, where the agent and startDefault() read them
+val eidolonProperties = System.getProperties().entries
+    .filter { it.key.toString().startsWith("eidolon.") }
+    .associate { it.key.toString() to it.value }
+
 // Run with programmatic start (Eidolon.startDefault())
 tasks.register<JavaExec>("runProgrammatic") {
     group = "application"
     description = "Run sample app with programmatic Eidolon.startDefault()"
     classpath = sourceSets["main"].runtimeClasspath
     mainClass.set("com.example.App")
+    systemProperties(eidolonProperties)
 }
 
 // Run attaching Eidolon as a -javaagent and disable programmatic start in the app
@@ -43,4 +49,5 @@ tasks.register<JavaExec>("runAgent") {
         "-javaagent:${System.getProperty("user.home")}/.m2/repository/io/github/itzamic/eidolon/$eidolonVersion/eidolon-$eidolonVersion.jar",
         "-Deidolon.disableProgrammaticStart=true"
     )
+    systemProperties(eidolonProperties)
 }
@@ -2,6 +2,7 @@ package com.example;
 
 import io.github.itzamic.eidolon.Eidolon;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
@@ -17,6 +18,9 @@ import java.util.concurrent.TimeUnit;
  */
 public class App {
     public static void main(String[] args) throws Exception {
+        // Time spent before main, including any -javaagent premain: compare agent runs with
+        // -Deidolon.agent.async=true (default) and false to see the deferred start's effect.
+        long reachedMainMillis = ManagementFactory.getRuntimeMXBean().getUptime();
         boolean disableProgrammatic = Boolean.getBoolean("eidolon.disableProgrammaticStart");
         if (!disableProgrammatic) {
             Eidolon.startDefault();
@@ -25,7 +29,7 @@ public class App {
         String port = System.getProperty("eidolon.port", "7090");
         String contextPath = System.getProperty("eidolon.contextPath", "/eidolon");
 
-        System.out.println("Eidolon sample app started.");
+        System.out.println("Eidolon sample app started (main reached after " + reachedMainMillis + " ms of JVM uptime).");
         System.out.println("HTTP: http://localhost:" + port + contextPath + "/api/metrics/snapshot");
         System.out.println("WS:   ws://localhost:" + port + contextPath + "/ws/metrics");
 